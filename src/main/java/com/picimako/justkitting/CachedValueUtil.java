@@ -0,0 +1,56 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Utility for dealing with cached values and their providers.
+ */
+public final class CachedValueUtil {
+    private static final String PARAMETERIZED_CACHED_VALUE_PROVIDER = "com.intellij.psi.util.ParameterizedCachedValueProvider";
+
+    /**
+     * Returns whether the argument element is in a {@code CachedValueProvider} lambda, thus its result is already cached.
+     */
+    public static boolean isInCachedValueProvider(PsiElement element) {
+        var lambda = PsiTreeUtil.getParentOfType(element, PsiLambdaExpression.class, true, PsiMethod.class);
+        while (lambda != null) {
+            var functionalInterface = PsiUtil.resolveClassInClassTypeOnly(lambda.getFunctionalInterfaceType());
+            if (InheritanceUtil.isInheritor(functionalInterface, CACHED_VALUE_PROVIDER)
+                || InheritanceUtil.isInheritor(functionalInterface, PARAMETERIZED_CACHED_VALUE_PROVIDER)) return true;
+            lambda = PsiTreeUtil.getParentOfType(lambda, PsiLambdaExpression.class, true, PsiMethod.class);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the PSI element the value can be cached on in the argument method: {@code this}, if the method is an instance method
+     * of a PSI element class, or the only PSI element parameter of the method.
+     */
+    @Nullable
+    public static String getElementToCacheOn(PsiMethod method) {
+        if (!method.hasModifierProperty(PsiModifier.STATIC) && InheritanceUtil.isInheritor(method.getContainingClass(), PSI_ELEMENT)) return "this";
+
+        var psiElementParameters = Arrays.stream(method.getParameterList().getParameters())
+            .filter(parameter -> InheritanceUtil.isInheritor(parameter.getType(), PSI_ELEMENT))
+            .toList();
+        return psiElementParameters.size() == 1 ? psiElementParameters.getFirst().getName() : null;
+    }
+
+    private CachedValueUtil() {
+        //Utility class
+    }
+}
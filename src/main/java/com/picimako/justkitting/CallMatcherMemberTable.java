@@ -0,0 +1,75 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.picimako.justkitting.CallMatcherUtil.EXACT_INSTANCE_CALL;
+import static com.picimako.justkitting.CallMatcherUtil.STATIC_CALL;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores the methods of a class that can be referenced in {@link com.siyeh.ig.callMatcher.CallMatcher} factory method calls,
+ * grouped by the type of the factory method, and by method name.
+ * <p>
+ * The table is built once per class, and cached on the class until Java or Kotlin code, or the project roots change, so that
+ * e.g. code completion of method names doesn't have to walk the class hierarchy on each keystroke.
+ *
+ * @see CallMatcherUtil#findMethodsByCallType(PsiClass, String, String)
+ * @since 1.3.0
+ */
+public final class CallMatcherMemberTable {
+    private static final Key<CachedValue<CallMatcherMemberTable>> MEMBER_TABLE_KEY = Key.create("just.kitting.call.matcher.member.table");
+
+    /**
+     * One method for each distinct name, the first one found.
+     */
+    private final Map<String, PsiMethod> staticMethods = new LinkedHashMap<>();
+    private final Map<String, PsiMethod> instanceMethods = new LinkedHashMap<>();
+    private final Map<String, PsiMethod> exactInstanceMethods = new LinkedHashMap<>();
+
+    private CallMatcherMemberTable(PsiClass referencedClass) {
+        for (var method : referencedClass.getAllMethods()) {
+            if (method.isConstructor()) continue;
+
+            if (method.hasModifierProperty(PsiModifier.STATIC)) {
+                staticMethods.putIfAbsent(method.getName(), method);
+            } else {
+                instanceMethods.putIfAbsent(method.getName(), method);
+                if (referencedClass.equals(method.getContainingClass())) {
+                    exactInstanceMethods.putIfAbsent(method.getName(), method);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached member table of the argument class.
+     */
+    public static CallMatcherMemberTable getInstance(@NotNull PsiClass referencedClass) {
+        return CachedValuesManager.getCachedValue(referencedClass, MEMBER_TABLE_KEY, () -> CachedValueProvider.Result.create(
+            new CallMatcherMemberTable(referencedClass),
+            CallMatcherUtil.getCallMatcherDependencies(referencedClass.getProject())));
+    }
+
+    /**
+     * Returns one method for each distinct method name that is eligible for the given type of CallMatcher.
+     *
+     * @param callType one of {@link CallMatcherUtil#INSTANCE_CALL}, {@link CallMatcherUtil#EXACT_INSTANCE_CALL} and {@link CallMatcherUtil#STATIC_CALL}
+     */
+    public Collection<PsiMethod> getMethodsByDistinctName(String callType) {
+        if (STATIC_CALL.equals(callType)) return staticMethods.values();
+        if (EXACT_INSTANCE_CALL.equals(callType)) return exactInstanceMethods.values();
+        return instanceMethods.values();
+    }
+}
@@ -0,0 +1,104 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.picimako.justkitting.CallMatcherUtil.findMethodsByCallType;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiExpression;
+import com.picimako.justkitting.reference.CallMatcherReferenceContributor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the classes and methods referenced in {@link com.siyeh.ig.callMatcher.CallMatcher} factory method calls,
+ * for the lifetime of a single inspection session of a single file, or a single global inspection run.
+ * <p>
+ * Files with many CallMatchers usually reference the same handful of classes, so this way each class is resolved
+ * only once per file, instead of once for every method name argument.
+ * <p>
+ * Unresolved classes are cached as well, so that the lookup doesn't happen again for them either.
+ * <p>
+ * The cache is safe to be used from multiple threads.
+ *
+ * @since 1.3.0
+ */
+public final class CallMatcherResolutionCache {
+    private static final Key<CallMatcherResolutionCache> CACHE_KEY = Key.create("just.kitting.call.matcher.resolution.cache");
+
+    private final Map<PsiExpression, Optional<PsiClass>> classesByArgument = new ConcurrentHashMap<>();
+    private final Map<String, Optional<PsiClass>> classesByFqn = new ConcurrentHashMap<>();
+    private final Map<MethodKey, Integer> methodCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache bound to the argument inspection session. A new one is created if there is none yet.
+     */
+    public static CallMatcherResolutionCache getInstance(@NotNull LocalInspectionToolSession session) {
+        var cache = session.getUserData(CACHE_KEY);
+        return cache != null ? cache : session.putUserDataIfAbsent(CACHE_KEY, new CallMatcherResolutionCache());
+    }
+
+    /**
+     * Returns the class referenced by the argument class FQN expression of a CallMatcher factory method call.
+     *
+     * @param classFqnArgument the first argument of a {@code CallMatcher.staticCall/instanceCall/exactInstanceCall} call
+     */
+    @Nullable
+    public PsiClass findClass(@NotNull PsiExpression classFqnArgument) {
+        var referencedClass = classesByArgument.get(classFqnArgument);
+        if (referencedClass == null) {
+            String classFqn = CallMatcherReferenceContributor.evaluateClassName(classFqnArgument);
+            referencedClass = classFqn != null ? findClassOptional(classFqn, classFqnArgument.getProject()) : Optional.empty();
+            classesByArgument.put(classFqnArgument, referencedClass);
+        }
+        return referencedClass.orElse(null);
+    }
+
+    /**
+     * Returns the class with the argument FQN. This is used for CallMatchers in Kotlin files, whose class FQN arguments
+     * are evaluated separately.
+     *
+     * @param classFqn the already evaluated class FQN argument of a CallMatcher factory method call
+     */
+    @Nullable
+    public PsiClass findClass(@NotNull String classFqn, @NotNull Project project) {
+        return findClassOptional(classFqn, project).orElse(null);
+    }
+
+    private Optional<PsiClass> findClassOptional(String classFqn, Project project) {
+        var referencedClass = classesByFqn.get(classFqn);
+        if (referencedClass == null) {
+            referencedClass = Optional.ofNullable(CallMatcherReferenceContributor.findClass(classFqn, project));
+            classesByFqn.put(classFqn, referencedClass);
+        }
+        return referencedClass;
+    }
+
+    /**
+     * Returns the number of methods with the given name in the argument class, that are eligible for the given type of CallMatcher.
+     *
+     * @param referencedClass the class referenced by the CallMatcher
+     * @param methodName      the method name to look for
+     * @param callType        one of {@link CallMatcherUtil#INSTANCE_CALL}, {@link CallMatcherUtil#EXACT_INSTANCE_CALL} and {@link CallMatcherUtil#STATIC_CALL}
+     * @see CallMatcherUtil#findMethodsByCallType(PsiClass, String, String)
+     */
+    public int getMethodCount(@NotNull PsiClass referencedClass, String methodName, String callType) {
+        var key = new MethodKey(referencedClass, methodName, callType);
+        var methodCount = methodCounts.get(key);
+        if (methodCount == null) {
+            methodCount = findMethodsByCallType(referencedClass, methodName, callType).length;
+            methodCounts.put(key, methodCount);
+        }
+        return methodCount;
+    }
+
+    private record MethodKey(PsiClass referencedClass, String methodName, String callType) {
+    }
+}
@@ -4,19 +4,40 @@ package com.picimako.justkitting;
 
 import static com.picimako.justkitting.PlatformNames.CALL_MATCHER;
 import static com.intellij.patterns.PlatformPatterns.psiElement;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
 import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
+import com.intellij.lang.Language;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.patterns.PatternCondition;
+import com.intellij.psi.JavaTokenType;
 import com.intellij.patterns.PsiElementPattern;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiLiteralExpression;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiPolyadicExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.MethodReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.ProcessingContext;
 import com.siyeh.ig.callMatcher.CallMatcher;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.idea.KotlinLanguage;
 
 /**
  * Utility to help work with {@link CallMatcher} calls.
@@ -42,6 +63,112 @@ public final class CallMatcherUtil {
     public static final CallMatcher CALL_MATCHER_STATIC_MATCHER = staticCall(CALL_MATCHER, "staticCall");
     public static final CallMatcher CALL_MATCHER_INSTANCE_MATCHER = staticCall(CALL_MATCHER, "instanceCall");
 
+    /**
+     * Ordered descending based on usage statistics in intellij-community, except test, because it is overridden from java.util.Predicate.
+     */
+    public static final List<CallMatcher> MATCHES_MATCHERS = List.of(
+        instanceCall(CALL_MATCHER, "matches").parameterCount(1),
+        instanceCall(CALL_MATCHER, "methodMatches").parameterCount(1),
+        instanceCall(CALL_MATCHER, "methodReferenceMatches").parameterCount(1),
+        instanceCall(CALL_MATCHER, "uCallMatches").parameterCount(1),
+        instanceCall(CALL_MATCHER, "test").parameterCount(1));
+
+    /**
+     * Returns the methods with the given name in the argument class, that match the semantics of the given CallMatcher factory method.
+     * <ul>
+     *     <li>{@link #EXACT_INSTANCE_CALL}: non-static methods in the class only,</li>
+     *     <li>{@link #INSTANCE_CALL}: non-static methods in the class and its super classes,</li>
+     *     <li>{@link #STATIC_CALL}: static methods in the class and its super classes.</li>
+     * </ul>
+     *
+     * @param referencedClass the class the CallMatcher references
+     * @param methodName      the name of the method to look for
+     * @param callType        one of {@link #INSTANCE_CALL}, {@link #EXACT_INSTANCE_CALL} and {@link #STATIC_CALL}
+     */
+    @NotNull
+    public static PsiMethod[] findMethodsByCallType(@NotNull PsiClass referencedClass, String methodName, String callType) {
+        PsiMethod[] methodsInClass = referencedClass.findMethodsByName(methodName, !EXACT_INSTANCE_CALL.equals(callType));
+        return STATIC_CALL.equals(callType) ? filterByStatic(methodsInClass) : filterByNonStatic(methodsInClass);
+    }
+
+    /**
+     * Returns the name of the CallMatcher factory method the argument expression calls,
+     * or null if it is not a call to any of them.
+     */
+    @Nullable
+    public static String getCallType(@Nullable PsiMethodCallExpression callMatcherCall) {
+        if (CALL_MATCHER_EXACT_INSTANCE_MATCHER.matches(callMatcherCall)) return EXACT_INSTANCE_CALL;
+        if (CALL_MATCHER_STATIC_MATCHER.matches(callMatcherCall)) return STATIC_CALL;
+        if (CALL_MATCHER_INSTANCE_MATCHER.matches(callMatcherCall)) return INSTANCE_CALL;
+        return null;
+    }
+
+    /**
+     * Returns whether the argument expression is an OR expression whose operands are all calls to the same CallMatcher matcher method
+     * (matches, test, methodMatches, methodReferenceMatches, uCallMatches), on a qualifier, with the same argument. E.g.
+     * <pre>{@code
+     * LIST_OF.matches(expression) || MAP_OF.matches(expression) || SET_OF.matches(expression)
+     * }</pre>
+     * Such expressions can be combined to a single {@code CallMatcher.anyOf()} call.
+     */
+    public static boolean isCombinableToAnyOf(@NotNull PsiPolyadicExpression expression) {
+        if (!JavaTokenType.OROR.equals(expression.getOperationTokenType())) return false;
+
+        var operands = expression.getOperands();
+        return Arrays.stream(operands).allMatch(operand -> operand instanceof PsiMethodCallExpression call
+            && call.getMethodExpression().getQualifierExpression() != null)
+            && MATCHES_MATCHERS.stream().anyMatch(matchesType -> Arrays.stream(operands).allMatch(matchesType::matches))
+            && Arrays.stream(operands).map(operand -> ((PsiMethodCallExpression) operand).getArgumentList().getExpressions()[0].getText()).distinct().count() == 1;
+    }
+
+    /**
+     * Returns the outermost expression in the method call chain of a CallMatcher factory method call. E.g. for
+     * {@code CallMatcher.instanceCall("SomeClass", "someMethod").parameterCount(1)} it returns the {@code parameterCount(1)} call.
+     */
+    @NotNull
+    public static PsiExpression getCallMatcherChain(@NotNull PsiMethodCallExpression factoryCall) {
+        PsiExpression chain = factoryCall;
+        while (chain.getParent() instanceof PsiReferenceExpression reference
+            && reference.getParent() instanceof PsiMethodCallExpression chainedCall
+            && InheritanceUtil.isInheritor(chainedCall.getType(), CALL_MATCHER)) {
+            chain = chainedCall;
+        }
+        return chain;
+    }
+
+    /**
+     * Returns the calls to CallMatcher's {@code staticCall}, {@code instanceCall} and {@code exactInstanceCall} factory methods
+     * in the argument search scope.
+     * <p>
+     * The calls are collected via searching for the references of the factory methods, instead of walking through each file.
+     * Calls with no argument are not returned, since there is nothing to validate in them.
+     * <p>
+     * This method doesn't have to be called in a read action.
+     */
+    @NotNull
+    public static List<PsiMethodCallExpression> findCallMatcherFactoryCalls(@NotNull Project project, @NotNull SearchScope searchScope) {
+        var callMatcher = ReadAction.compute(() -> PlatformPsiCache.getInstance(project).getCallMatcher());
+        if (callMatcher == null) return List.of();
+
+        List<PsiMethod> factoryMethods = ReadAction.compute(() ->
+            Stream.of(STATIC_CALL, INSTANCE_CALL, EXACT_INSTANCE_CALL)
+                .flatMap(factoryMethodName -> Arrays.stream(callMatcher.findMethodsByName(factoryMethodName, false)))
+                .toList());
+
+        var callMatcherCalls = new ArrayList<PsiMethodCallExpression>();
+        for (var factoryMethod : factoryMethods) {
+            for (var reference : MethodReferencesSearch.search(factoryMethod, searchScope, true).findAll()) {
+                ReadAction.run(() -> {
+                    if (reference.getElement().getParent() instanceof PsiMethodCallExpression callMatcherCall
+                        && !callMatcherCall.getArgumentList().isEmpty()) {
+                        callMatcherCalls.add(callMatcherCall);
+                    }
+                });
+            }
+        }
+        return callMatcherCalls;
+    }
+
     /**
      * Returns the non-static PSI methods from the argument collection.
      *
@@ -62,6 +189,20 @@ public final class CallMatcherUtil {
         return methods.length == 0 ? methods : Arrays.stream(methods).filter(method -> method.hasModifierProperty(PsiModifier.STATIC)).toArray(PsiMethod[]::new);
     }
 
+    /**
+     * Returns the dependencies of values cached based on CallMatchers, and the classes and methods they reference:
+     * Java and Kotlin code, and the project roots.
+     */
+    public static ModificationTracker[] getCallMatcherDependencies(@NotNull Project project) {
+        return new ModificationTracker[]{
+            PsiModificationTracker.getInstance(project).forLanguages(CallMatcherUtil::isJavaOrKotlin),
+            ProjectRootModificationTracker.getInstance(project)};
+    }
+
+    private static boolean isJavaOrKotlin(Language language) {
+        return language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE);
+    }
+
     private CallMatcherUtil() {
         //Utility class
     }
@@ -0,0 +1,137 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import com.intellij.codeInsight.daemon.impl.analysis.HighlightControlFlowUtil;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiSuperExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.PsiWildcardType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.refactoring.introduceField.LocalToFieldHandler;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Utility to decide whether code can be moved to a static constant or into a lambda, and to introduce such constants.
+ */
+public final class CodeMovementUtil {
+
+    /**
+     * Returns whether the argument expression can be moved to a static constant. That is, it doesn't reference, unless they are declared
+     * in the expression itself,
+     * <ul>
+     *     <li>{@code this}, {@code super}, local variables and parameters,</li>
+     *     <li>instance fields and methods without an explicit qualifier, e.g. via an implicit {@code this},</li>
+     *     <li>local classes and type parameters, and doesn't instantiate inner classes without an explicit outer instance,</li>
+     * </ul>
+     * and its type doesn't mention type parameters.
+     */
+    public static boolean isMovableToConstant(PsiExpression expression) {
+        return !mentionsTypeParameter(expression.getType()) && PsiTreeUtil.processElements(expression, element -> {
+            if (element instanceof PsiThisExpression || element instanceof PsiSuperExpression) return false;
+            if (!(element instanceof PsiJavaCodeReferenceElement reference)) return true;
+
+            var target = reference.resolve();
+            if (target == null) return false;
+            if (PsiTreeUtil.isAncestor(expression, target, true)) return true;
+            if (target instanceof PsiLocalVariable || target instanceof PsiParameter || target instanceof PsiTypeParameter) return false;
+            if (target instanceof PsiClass psiClass) {
+                return !PsiUtil.isLocalClass(psiClass) && !(PsiUtil.isInnerClass(psiClass) && isInstantiatedWithoutOuterInstance(reference));
+            }
+            //Instance fields and methods are accessible only via an explicit qualifier, which is validated on its own
+            return !(target instanceof PsiMember member)
+                || member.hasModifierProperty(PsiModifier.STATIC)
+                || reference instanceof PsiReferenceExpression referenceExpression && referenceExpression.getQualifierExpression() != null;
+        });
+    }
+
+    /**
+     * Returns whether the argument type is, or has a type argument or component type that is, a type parameter.
+     */
+    public static boolean mentionsTypeParameter(@Nullable PsiType type) {
+        if (type instanceof PsiArrayType arrayType) return mentionsTypeParameter(arrayType.getComponentType());
+        if (type instanceof PsiWildcardType wildcardType) return mentionsTypeParameter(wildcardType.getBound());
+        return type instanceof PsiClassType classType
+            && (classType.resolve() instanceof PsiTypeParameter || Arrays.stream(classType.getParameters()).anyMatch(CodeMovementUtil::mentionsTypeParameter));
+    }
+
+    /**
+     * Returns whether the argument class reference is the class of an instance creation, e.g. {@code new Inner()} or {@code new Inner() { }},
+     * without an explicit outer instance, like {@code outer.new Inner()}.
+     */
+    private static boolean isInstantiatedWithoutOuterInstance(PsiJavaCodeReferenceElement classReference) {
+        var parent = classReference.getParent() instanceof PsiAnonymousClass anonymousClass ? anonymousClass.getParent() : classReference.getParent();
+        return parent instanceof PsiNewExpression newExpression && newExpression.getQualifier() == null;
+    }
+
+    /**
+     * Returns the class to introduce a constant in: the innermost named class that can hold static fields.
+     */
+    @Nullable
+    public static PsiClass getTargetClass(PsiElement element) {
+        var targetClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        while (targetClass != null && (targetClass instanceof PsiAnonymousClass || PsiUtil.isLocalClass(targetClass) || !LocalToFieldHandler.isStaticFieldAllowed(targetClass))) {
+            targetClass = PsiTreeUtil.getParentOfType(targetClass, PsiClass.class);
+        }
+        return targetClass;
+    }
+
+    /**
+     * Adds the new constant after the last static field in the target class, or as the first member if there is no static field.
+     */
+    public static PsiElement addConstant(PsiClass targetClass, PsiField constant) {
+        var staticFields = Arrays.stream(targetClass.getFields()).filter(field -> field.hasModifierProperty(PsiModifier.STATIC)).toList();
+        return staticFields.isEmpty()
+            ? targetClass.addAfter(constant, targetClass.getLBrace())
+            : targetClass.addAfter(constant, staticFields.getLast());
+    }
+
+    /**
+     * Returns whether the argument code can be moved into a lambda, that is, it contains no jump statements matching the argument predicate,
+     * outside of nested lambdas and classes, and the local variables declared outside of it, and used in it, are effectively final.
+     *
+     * @param lambdaParameter a variable that becomes the parameter of the lambda, thus doesn't have to be effectively final
+     */
+    public static boolean canBeMovedIntoLambda(PsiElement code, @Nullable PsiVariable lambdaParameter, Predicate<PsiElement> isDisallowedJump) {
+        var method = PsiTreeUtil.getParentOfType(code, PsiMethod.class);
+        if (method == null) return false;
+
+        boolean hasJumps = !PsiTreeUtil.processElements(code, element ->
+            !isDisallowedJump.test(element)
+            || PsiTreeUtil.getParentOfType(element, PsiLambdaExpression.class, PsiClass.class) instanceof PsiElement nested && PsiTreeUtil.isAncestor(code, nested, true));
+        if (hasJumps) return false;
+
+        return PsiTreeUtil.findChildrenOfType(code, PsiReferenceExpression.class).stream()
+            .map(PsiReferenceExpression::resolve)
+            .filter(variable -> variable instanceof PsiLocalVariable || variable instanceof PsiParameter)
+            .map(PsiVariable.class::cast)
+            .filter(variable -> !PsiTreeUtil.isAncestor(code, variable, true))
+            .allMatch(variable -> variable == lambdaParameter || HighlightControlFlowUtil.isEffectivelyFinal(variable, method, null));
+    }
+
+    private CodeMovementUtil() {
+        //Utility class
+    }
+}
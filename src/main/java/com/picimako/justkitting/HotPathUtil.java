@@ -0,0 +1,150 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT_VISITOR;
+import static com.picimako.justkitting.PlatformNames.UAST_VISITOR;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Utility to decide whether a piece of code is executed on a hot path, e.g. for every PSI element visited by an inspection,
+ * or on every action update.
+ */
+public final class HotPathUtil {
+
+    /**
+     * Extension point methods that are called frequently during highlighting, or on every action update, mapped to
+     * the classes and interfaces declaring them.
+     */
+    private static final Map<String, Set<String>> HOT_PATH_METHODS = Map.of(
+        "com.intellij.codeInsight.daemon.LineMarkerProvider", Set.of("getLineMarkerInfo", "collectSlowLineMarkers"),
+        "com.intellij.codeInsight.hints.InlayHintsCollector", Set.of("collect"),
+        "com.intellij.codeInsight.hints.declarative.SharedBypassCollector", Set.of("collectFromElement"),
+        "com.intellij.lang.folding.FoldingBuilder", Set.of("buildFoldRegions", "getPlaceholderText", "isCollapsedByDefault"),
+        "com.intellij.openapi.actionSystem.AnAction", Set.of("update"));
+
+    /**
+     * Extension points whose implementations are called during highlighting, thus potentially on every keystroke.
+     */
+    private static final Set<String> HIGHLIGHTING_EXTENSIONS = Set.of(
+        "com.intellij.codeInsight.daemon.LineMarkerProvider",
+        "com.intellij.lang.annotation.Annotator",
+        "com.intellij.codeInsight.hints.InlayHintsCollector",
+        "com.intellij.codeInsight.hints.declarative.InlayHintsCollector",
+        "com.intellij.lang.folding.FoldingBuilder",
+        "com.intellij.psi.PsiReferenceContributor",
+        "com.intellij.psi.PsiReferenceProvider");
+
+    /**
+     * Returns whether the argument element is in the body of a PSI or UAST visitor method, or in a private method
+     * of the same file that is called from a visitor method.
+     * <p>
+     * Private methods are checked only one level deep, so that the check remains cheap.
+     */
+    public static boolean isReachableFromVisitor(@NotNull PsiElement element) {
+        return isReachableFrom(element, HotPathUtil::isVisitorMethod);
+    }
+
+    /**
+     * Returns whether the argument method is a PSI or UAST visitor method, or a private method of the same file that is called
+     * from a visitor method, the same way as in {@link #isReachableFromVisitor(PsiElement)}.
+     * <p>
+     * The result is cached on the method until the next PSI change, so that it is computed only once when many elements
+     * of the same method are checked.
+     */
+    public static boolean isVisitorReachableMethod(@NotNull PsiMethod method) {
+        return CachedValuesManager.getCachedValue(method, () ->
+            CachedValueProvider.Result.create(isMethodReachableFrom(method, HotPathUtil::isVisitorMethod), PsiModificationTracker.MODIFICATION_COUNT));
+    }
+
+    /**
+     * Returns whether the argument element is in the body of a visitor method, or an extension point method that is called
+     * frequently, like {@code LineMarkerProvider.getLineMarkerInfo()}, {@code InlayHintsCollector.collect()},
+     * {@code FoldingBuilder.buildFoldRegions()} or {@code AnAction.update()}. Private methods called from them are handled
+     * the same way as in {@link #isReachableFromVisitor(PsiElement)}.
+     */
+    public static boolean isReachableFromHotPath(@NotNull PsiElement element) {
+        return isReachableFrom(element, method -> isVisitorMethod(method) || isHotPathExtensionMethod(method));
+    }
+
+    /**
+     * Returns whether the argument element is in the body of a visitor method, or an instance method of an extension that is called
+     * during highlighting, like {@code LineMarkerProvider}, {@code Annotator}, {@code InlayHintsCollector}, {@code FoldingBuilder},
+     * {@code PsiReferenceContributor} and {@code PsiReferenceProvider}. Private methods called from them are handled
+     * the same way as in {@link #isReachableFromVisitor(PsiElement)}.
+     */
+    public static boolean isReachableFromHighlighting(@NotNull PsiElement element) {
+        return isReachableFrom(element, method -> isVisitorMethod(method) || isHighlightingExtensionMethod(method));
+    }
+
+    /**
+     * Returns whether the argument element is in the body of a method matching the argument predicate, or in a private method
+     * of the same file that is called from such a method.
+     */
+    public static boolean isReachableFrom(@NotNull PsiElement element, Predicate<PsiMethod> isHotPathMethod) {
+        var containingMethod = getContainingMethod(element);
+        return containingMethod != null && isMethodReachableFrom(containingMethod, isHotPathMethod);
+    }
+
+    private static boolean isMethodReachableFrom(@NotNull PsiMethod containingMethod, Predicate<PsiMethod> isHotPathMethod) {
+        if (isHotPathMethod.test(containingMethod)) return true;
+
+        //Checks the private methods called from hot path methods in the same file
+        return containingMethod.hasModifierProperty(PsiModifier.PRIVATE)
+            //forEach() returns false if the processing was stopped, meaning a reference from a hot path method was found
+            && !ReferencesSearch.search(containingMethod, new LocalSearchScope(containingMethod.getContainingFile()))
+            .forEach(reference -> {
+                var callingMethod = getContainingMethod(reference.getElement());
+                return callingMethod == null || !isHotPathMethod.test(callingMethod);
+            });
+    }
+
+    /**
+     * Returns the method in whose body the argument element is, including lambdas in it, but excluding local and anonymous classes.
+     */
+    @Nullable
+    public static PsiMethod getContainingMethod(@NotNull PsiElement element) {
+        return PsiTreeUtil.getParentOfType(element, PsiMethod.class, true, PsiClass.class);
+    }
+
+    private static boolean isVisitorMethod(@NotNull PsiMethod method) {
+        var psiClass = method.getContainingClass();
+        return InheritanceUtil.isInheritor(psiClass, PSI_ELEMENT_VISITOR) || InheritanceUtil.isInheritor(psiClass, UAST_VISITOR);
+    }
+
+    private static boolean isHighlightingExtensionMethod(@NotNull PsiMethod method) {
+        var psiClass = method.getContainingClass();
+        return psiClass != null
+            && !method.isConstructor()
+            && !method.hasModifierProperty(PsiModifier.STATIC)
+            && HIGHLIGHTING_EXTENSIONS.stream().anyMatch(extension -> InheritanceUtil.isInheritor(psiClass, extension));
+    }
+
+    private static boolean isHotPathExtensionMethod(@NotNull PsiMethod method) {
+        var psiClass = method.getContainingClass();
+        return psiClass != null
+            && HOT_PATH_METHODS.entrySet().stream()
+            .anyMatch(entry -> entry.getValue().contains(method.getName()) && InheritanceUtil.isInheritor(psiClass, entry.getKey()));
+    }
+
+    private HotPathUtil() {
+        //Utility class
+    }
+}
@@ -31,10 +31,24 @@ public final class PlatformNames {
     
     //Caching
     public static final String CACHED_VALUE_PROVIDER_RESULT = "com.intellij.psi.util.CachedValueProvider.Result";
+    public static final String CACHED_VALUE_PROVIDER = "com.intellij.psi.util.CachedValueProvider";
+    public static final String CACHED_VALUES_MANAGER = "com.intellij.psi.util.CachedValuesManager";
+    public static final String PSI_MODIFICATION_TRACKER = "com.intellij.psi.util.PsiModificationTracker";
     
     //PSI
+    public static final String PSI_ELEMENT = "com.intellij.psi.PsiElement";
     public static final String PSI_EXPRESSION_LIST = "com.intellij.psi.PsiExpressionList";
     public static final String PSI_CALL = "com.intellij.psi.PsiCall";
+    public static final String PSI_TREE_UTIL = "com.intellij.psi.util.PsiTreeUtil";
+    public static final String PSI_ELEMENT_VISITOR = "com.intellij.psi.PsiElementVisitor";
+    public static final String UAST_VISITOR = "org.jetbrains.uast.visitor.UastVisitor";
+
+    //Threading
+    public static final String PROGRESS_MANAGER = "com.intellij.openapi.progress.ProgressManager";
+
+    //Utilities
+    public static final String ARRAY_UTIL = "com.intellij.util.ArrayUtil";
+    public static final String SMART_LIST = "com.intellij.util.SmartList";
 
     private PlatformNames() {
         //Utility class
@@ -0,0 +1,43 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.InheritanceUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Generic utility for dealing with PSI elements and calls.
+ */
+public final class PsiElementUtil {
+    private static final Set<String> LEAF_ELEMENTS = Set.of(
+        "com.intellij.psi.impl.source.tree.LeafElement",
+        "com.intellij.psi.PsiJavaToken",
+        "com.intellij.psi.xml.XmlToken",
+        "com.intellij.psi.PsiComment",
+        "com.intellij.psi.PsiWhiteSpace");
+
+    /**
+     * Returns whether the argument class is a leaf PSI element type, e.g. {@code PsiIdentifier} or {@code XmlToken}.
+     */
+    public static boolean isLeafElement(@Nullable PsiClass psiClass) {
+        return psiClass != null && LEAF_ELEMENTS.stream().anyMatch(leaf -> InheritanceUtil.isInheritor(psiClass, leaf));
+    }
+
+    /**
+     * Returns the name of the argument call in the form of {@code ClassName.methodName()}.
+     */
+    public static String getCallName(PsiMethodCallExpression call) {
+        var method = call.resolveMethod();
+        return method != null && method.getContainingClass() != null
+               ? method.getContainingClass().getName() + "." + method.getName() + "()"
+               : call.getMethodExpression().getReferenceName() + "()";
+    }
+
+    private PsiElementUtil() {
+        //Utility class
+    }
+}
@@ -15,6 +15,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.asJava.elements.KtLightPsiLiteral;
 import org.jetbrains.kotlin.psi.KtAnnotationEntry;
 import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtQualifiedExpression;
 import org.jetbrains.kotlin.psi.ValueArgument;
 
 import java.util.Collections;
@@ -113,15 +114,17 @@ public final class ServiceLevelDecider {
 
                 //Handles Kotlin annotation values
                 if (expression instanceof ValueArgument levelArg) {
-                    String argumentText = levelArg.asElement().getText();
-
                     /*
-                     * Returns the service level type based on if the annotation value ends with the proper string.
+                     * Returns the service level type based on the name of the referenced enum constant.
                      * This is a very simplified logic that handles cases when the service level is specified with
-                     * or without a qualifier.
+                     * or without a qualifier. The name is matched via textMatches(), so that the argument text is not materialized.
                      */
-                    if (argumentText.endsWith(PROJECT)) return PROJECT;
-                    if (argumentText.endsWith(APP)) return APP;
+                    var argument = levelArg.getArgumentExpression();
+                    var levelName = argument instanceof KtQualifiedExpression qualified ? qualified.getSelectorExpression() : argument;
+                    if (levelName != null) {
+                        if (levelName.textMatches(PROJECT)) return PROJECT;
+                        if (levelName.textMatches(APP)) return APP;
+                    }
                 }
                 //Handles Kotlin cases at least in integration tests, but might occur in the wild too.
                 else if (expression instanceof KtLightPsiLiteral levelRef) {
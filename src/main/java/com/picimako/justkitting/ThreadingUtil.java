@@ -0,0 +1,89 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.picimako.justkitting.PlatformNames.PROGRESS_MANAGER;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiBlockStatement;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLoopStatement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+/**
+ * Utility to decide whether code is executed in a read action, and whether it checks for cancellation.
+ */
+public final class ThreadingUtil {
+    /**
+     * Calls that execute the lambdas passed to them in a read action.
+     */
+    private static final CallMatcher READ_ACTION = CallMatcher.anyOf(
+        staticCall("com.intellij.openapi.application.ReadAction", "run", "compute", "nonBlocking", "computeCancellable"),
+        instanceCall("com.intellij.openapi.application.Application", "runReadAction"),
+        instanceCall("com.intellij.openapi.project.DumbService", "runReadActionInSmartMode"),
+        instanceCall(PROGRESS_MANAGER, "runInReadActionWithWriteActionPriority"));
+    private static final CallMatcher CHECK_CANCELED = CallMatcher.anyOf(
+        staticCall(PROGRESS_MANAGER, "checkCanceled"),
+        staticCall("com.intellij.openapi.progress.ProgressIndicatorProvider", "checkCanceled"),
+        instanceCall("com.intellij.openapi.progress.ProgressIndicator", "checkCanceled"));
+
+    /**
+     * Returns whether the argument element contains a cancellation check.
+     */
+    public static boolean checksCanceled(PsiElement element) {
+        return !PsiTreeUtil.processElements(element, PsiMethodCallExpression.class, call -> !CHECK_CANCELED.matches(call));
+    }
+
+    /**
+     * Returns whether the argument element is executed in a read action.
+     * <p>
+     * That is, when it is in a lambda passed to e.g. {@code ReadAction.compute()} or {@code Application.runReadAction()},
+     * in a method annotated as {@code @RequiresReadLock}, or when it is reachable from highlighting.
+     */
+    public static boolean isInReadAction(PsiElement element) {
+        PsiElement lambda = element;
+        while ((lambda = PsiTreeUtil.getParentOfType(lambda, PsiLambdaExpression.class, true, PsiMethod.class, PsiClass.class)) != null) {
+            if (PsiUtil.skipParenthesizedExprUp(lambda.getParent()) instanceof PsiExpressionList arguments
+                && arguments.getParent() instanceof PsiMethodCallExpression call
+                && READ_ACTION.matches(call)) return true;
+        }
+
+        var method = HotPathUtil.getContainingMethod(element);
+        return method != null && AnnotationUtil.isAnnotated(method, "com.intellij.util.concurrency.annotations.RequiresReadLock", 0)
+            || HotPathUtil.isReachableFromHighlighting(element);
+    }
+
+    /**
+     * Inserts a {@code ProgressManager.checkCanceled()} call at the beginning of the body of the argument loop.
+     */
+    public static void addCheckCanceled(PsiLoopStatement loop) {
+        var body = loop.getBody();
+        if (body == null) return;
+
+        var factory = JavaPsiFacade.getElementFactory(loop.getProject());
+        var codeStyleManager = JavaCodeStyleManager.getInstance(loop.getProject());
+        var checkCanceled = factory.createStatementFromText(PROGRESS_MANAGER + ".checkCanceled();", loop);
+        if (body instanceof PsiBlockStatement block) {
+            var codeBlock = block.getCodeBlock();
+            codeStyleManager.shortenClassReferences(codeBlock.addAfter(checkCanceled, codeBlock.getLBrace()));
+        } else {
+            var block = factory.createStatementFromText("{\n" + checkCanceled.getText() + "\n" + body.getText() + "\n}", loop);
+            codeStyleManager.shortenClassReferences(body.replace(block));
+        }
+    }
+
+    private ThreadingUtil() {
+        //Utility class
+    }
+}
@@ -10,6 +10,7 @@ import com.intellij.codeInsight.intention.impl.config.IntentionActionWrapper;
 import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.lang.properties.psi.PropertiesFile;
 import com.intellij.openapi.editor.FoldingGroup;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.util.QualifiedName;
 import com.intellij.psi.xml.XmlFile;
@@ -172,7 +173,11 @@ public class IntentionActionFolder extends PluginDescriptorTagFolder {
                     // the fully qualified name specified in the 'className' subtag
                     .filter(IntentionActionWrapper.class::isInstance)
                     .map(IntentionActionWrapper.class::cast)
-                    .filter(wrapper -> classNameValue.equals(wrapper.getImplementationClassName()))
+                    .filter(wrapper -> {
+                        //There may be thousands of registered intentions, and placeholder texts are computed in a read action
+                        ProgressManager.checkCanceled();
+                        return classNameValue.equals(wrapper.getImplementationClassName());
+                    })
                     .map(IntentionActionWrapper::getDelegate)
                     //The family name might not be resolved e.g. when it requests a parametrized string from a bundle
                     .map(IntentionAction::getFamilyName)
@@ -0,0 +1,346 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.optionalToIf.OptionalToIfInspection;
+import com.intellij.codeInspection.streamToLoop.StreamToLoopInspection;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiSuperExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.picimako.justkitting.CachedValueUtil;
+import com.picimako.justkitting.CodeMovementUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import com.siyeh.ig.psiutils.ExpectedTypeUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Reports allocations in PSI and UAST visitor methods, and in private methods called from them, that are performed for every visited element,
+ * and thus increase GC pressure, especially during whole-project inspection runs:
+ * <ul>
+ *     <li>regular expression compilation via {@code Pattern.compile()}, {@code Pattern.matches()}, and {@code String.matches()},
+ *     {@code replaceAll()}, {@code replaceFirst()} and {@code split()},</li>
+ *     <li>stream pipelines,</li>
+ *     <li>{@code Optional} pipelines created via {@code Optional.of()} and {@code Optional.ofNullable()},</li>
+ *     <li>lambdas and method references capturing local variables, parameters or {@code this},</li>
+ *     <li>boxing of primitive method call arguments.</li>
+ * </ul>
+ * Regular expressions with constant arguments can be moved to a static {@code Pattern} constant via a quick fix. Stream and {@code Optional}
+ * pipelines can be replaced with loops and if statements via the platform's own quick fixes, when they support the given pipeline.
+ * <p>
+ * Lambdas in {@code CachedValueProvider}s, and lambdas and method references passed to stream and {@code Optional} operations are not reported,
+ * since the pipelines are reported on their own.
+ *
+ * @since 1.3.0
+ */
+public class AllocationInVisitorInspection extends LocalInspectionTool {
+    private static final String PATTERN = "java.util.regex.Pattern";
+    private static final String BASE_STREAM = "java.util.stream.BaseStream";
+    private static final String OPTIONAL = "java.util.Optional";
+    private static final CallMatcher PATTERN_COMPILE = staticCall(PATTERN, "compile");
+    private static final CallMatcher PATTERN_MATCHES = staticCall(PATTERN, "matches").parameterCount(2);
+    private static final CallMatcher STRING_REGEX_CALL = instanceCall("java.lang.String", "matches", "replaceAll", "replaceFirst", "split");
+    private static final CallMatcher OPTIONAL_CREATION = staticCall(OPTIONAL, "of", "ofNullable");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null) return;
+
+                if (isRegexCompilation(expression)) {
+                    if (HotPathUtil.isReachableFromVisitor(expression))
+                        holder.registerProblem(methodName,
+                            JustKittingBundle.message("inspection.allocation.in.visitor.regex",
+                                (STRING_REGEX_CALL.matches(expression) ? "String." : "Pattern.") + methodName.getText() + "()"),
+                            isRegexConstant(expression) ? new LocalQuickFix[]{new ExtractPatternToConstantQuickFix()} : LocalQuickFix.EMPTY_ARRAY);
+                } else if (isPipelineTerminal(expression, BASE_STREAM) && getPipelineSource(expression) != expression) {
+                    if (HotPathUtil.isReachableFromVisitor(expression))
+                        registerPipelineProblem(expression, methodName, StreamToLoopInspection::new,
+                            "inspection.allocation.in.visitor.stream", "inspection.allocation.in.visitor.replace.stream.quick.fix", holder);
+                } else if (isPipelineTerminal(expression, OPTIONAL) && OPTIONAL_CREATION.matches(getPipelineSource(expression))) {
+                    if (HotPathUtil.isReachableFromVisitor(expression))
+                        registerPipelineProblem(expression, methodName, OptionalToIfInspection::new,
+                            "inspection.allocation.in.visitor.optional", "inspection.allocation.in.visitor.replace.optional.quick.fix", holder);
+                }
+
+                checkBoxedArguments(expression);
+            }
+
+            @Override
+            public void visitNewExpression(@NotNull PsiNewExpression expression) {
+                checkBoxedArguments(expression);
+            }
+
+            @Override
+            public void visitLambdaExpression(@NotNull PsiLambdaExpression expression) {
+                var body = expression.getBody();
+                if (body == null || isInPipeline(expression) || CachedValueUtil.isInCachedValueProvider(body)) return;
+
+                String captured = getCapturedName(body, expression);
+                if (captured != null && HotPathUtil.isReachableFromVisitor(expression))
+                    holder.registerProblem(expression.getParameterList(), JustKittingBundle.message("inspection.allocation.in.visitor.lambda.capture", captured));
+            }
+
+            @Override
+            public void visitMethodReferenceExpression(@NotNull PsiMethodReferenceExpression expression) {
+                var qualifier = expression.getQualifierExpression();
+                if (qualifier == null || isInPipeline(expression)) return;
+
+                //Method references qualified with a type, e.g. String::length, don't capture anything
+                if (qualifier instanceof PsiReferenceExpression reference && reference.resolve() instanceof PsiClass) return;
+
+                if (HotPathUtil.isReachableFromVisitor(expression))
+                    holder.registerProblem(expression, JustKittingBundle.message("inspection.allocation.in.visitor.lambda.capture", qualifier.getText()));
+            }
+
+            private void checkBoxedArguments(PsiCallExpression call) {
+                var argumentList = call.getArgumentList();
+                if (argumentList == null || argumentList.isEmpty()) return;
+
+                //The reachability is computed once per method, instead of for each argument of each call in it
+                var containingMethod = HotPathUtil.getContainingMethod(call);
+                if (containingMethod == null || !HotPathUtil.isVisitorReachableMethod(containingMethod)) return;
+
+                for (var argument : argumentList.getExpressions()) {
+                    if (argument.getType() instanceof PsiPrimitiveType
+                        && !PsiUtil.isConstantExpression(argument)
+                        && ExpectedTypeUtils.findExpectedType(argument, true) instanceof PsiClassType) {
+                        holder.registerProblem(argument, JustKittingBundle.message("inspection.allocation.in.visitor.boxing", argument.getText()));
+                    }
+                }
+            }
+        };
+    }
+
+    //Regular expressions
+
+    private static boolean isRegexCompilation(PsiMethodCallExpression call) {
+        if (PATTERN_COMPILE.matches(call) || PATTERN_MATCHES.matches(call)) return true;
+        if (!STRING_REGEX_CALL.matches(call)) return false;
+
+        //String.split() doesn't compile a Pattern for single-character regular expressions
+        return !"split".equals(call.getMethodExpression().getReferenceName())
+            || !(call.getArgumentList().getExpressions()[0] instanceof PsiLiteralExpression literal
+                 && literal.getValue() instanceof String regex
+                 && regex.length() == 1);
+    }
+
+    /**
+     * Returns whether the regular expression, and the flags of {@code Pattern.compile()} calls, are constants, thus can be moved to a static field.
+     * <p>
+     * Constant local variables, e.g. {@code final String regex = "a+";}, are not accessible from a static field.
+     */
+    private static boolean isRegexConstant(PsiMethodCallExpression call) {
+        var arguments = call.getArgumentList().getExpressions();
+        if (PATTERN_COMPILE.matches(call)) return Arrays.stream(arguments).allMatch(AllocationInVisitorInspection::isMovableConstant);
+        return arguments.length > 0
+            && isMovableConstant(arguments[0])
+            && (PATTERN_MATCHES.matches(call) || call.getMethodExpression().getQualifierExpression() != null);
+    }
+
+    private static boolean isMovableConstant(PsiExpression expression) {
+        return PsiUtil.isConstantExpression(expression) && CodeMovementUtil.isMovableToConstant(expression);
+    }
+
+    //Pipelines
+
+    /**
+     * Returns whether the argument call is the terminal operation of a pipeline of the argument type, e.g. {@code collect()} in a stream pipeline.
+     */
+    private static boolean isPipelineTerminal(PsiMethodCallExpression call, String pipelineType) {
+        var qualifier = call.getMethodExpression().getQualifierExpression();
+        return qualifier != null
+            && InheritanceUtil.isInheritor(qualifier.getType(), pipelineType)
+            && !InheritanceUtil.isInheritor(call.getType(), pipelineType);
+    }
+
+    /**
+     * Returns the innermost qualifier call of the argument call chain, e.g. {@code list.stream()} for {@code list.stream().map(...).toList()}.
+     */
+    private static PsiMethodCallExpression getPipelineSource(PsiMethodCallExpression terminal) {
+        var source = terminal;
+        while (source.getMethodExpression().getQualifierExpression() instanceof PsiMethodCallExpression qualifier) {
+            source = qualifier;
+        }
+        return source;
+    }
+
+    /**
+     * Returns whether the argument lambda or method reference is an argument of a stream or {@code Optional} pipeline, which is reported on its own.
+     */
+    private static boolean isInPipeline(PsiExpression functionalExpression) {
+        return PsiUtil.skipParenthesizedExprUp(functionalExpression.getParent()).getParent() instanceof PsiMethodCallExpression call
+            && call.getMethodExpression().getQualifierExpression() instanceof PsiExpression qualifier
+            && (InheritanceUtil.isInheritor(qualifier.getType(), BASE_STREAM) || InheritanceUtil.isInheritor(qualifier.getType(), OPTIONAL));
+    }
+
+    /**
+     * Reports the pipeline with a quick fix to replace it with loops or if statements, if the argument platform inspection supports the pipeline.
+     */
+    private static void registerPipelineProblem(PsiMethodCallExpression terminal, PsiElement methodName, Supplier<LocalInspectionTool> platformInspection,
+                                                String messageKey, String quickFixKey, ProblemsHolder holder) {
+        var fixes = findPlatformProblem(terminal, platformInspection.get(), holder.getManager()) != null
+                    ? new LocalQuickFix[]{new ReplacePipelineQuickFix(platformInspection, quickFixKey)}
+                    : LocalQuickFix.EMPTY_ARRAY;
+        holder.registerProblem(methodName, JustKittingBundle.message(messageKey), fixes);
+    }
+
+    /**
+     * Runs the argument platform inspection on the argument pipeline terminal call, and returns the first problem it reports with a quick fix.
+     */
+    @Nullable
+    private static ProblemDescriptor findPlatformProblem(PsiMethodCallExpression terminal, LocalInspectionTool platformInspection, InspectionManager manager) {
+        var platformHolder = new ProblemsHolder(manager, terminal.getContainingFile(), true);
+        terminal.accept(platformInspection.buildVisitor(platformHolder, true));
+        return ContainerUtil.find(platformHolder.getResults(),
+            problem -> problem.getFixes() != null && Arrays.stream(problem.getFixes()).anyMatch(LocalQuickFix.class::isInstance));
+    }
+
+    //Captures
+
+    /**
+     * Returns the name of the first local variable or parameter declared outside {@code functionalExpression}, or {@code this}
+     * if an instance member is referenced, in the argument element. Returns null if nothing is captured.
+     */
+    @Nullable
+    private static String getCapturedName(PsiElement element, PsiExpression functionalExpression) {
+        for (var descendant : PsiTreeUtil.findChildrenOfAnyType(element, false, PsiReferenceExpression.class, PsiThisExpression.class, PsiSuperExpression.class)) {
+            if (!(descendant instanceof PsiReferenceExpression reference)) return "this";
+
+            var target = reference.resolve();
+            if (target instanceof PsiLocalVariable || target instanceof PsiParameter) {
+                if (!PsiTreeUtil.isAncestor(functionalExpression, target, true)) return reference.getReferenceName();
+            } else if (target instanceof PsiMember member
+                       && !(member instanceof PsiClass)
+                       && !member.hasModifierProperty(PsiModifier.STATIC)
+                       && reference.getQualifierExpression() == null) {
+                return "this";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the regular expression to a {@code private static final Pattern} constant, and replaces the original call with
+     * a call on that constant.
+     */
+    private static final class ExtractPatternToConstantQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression call)) return;
+
+            var targetClass = CodeMovementUtil.getTargetClass(call);
+            if (targetClass == null) return;
+
+            var arguments = call.getArgumentList().getExpressions();
+            String constantName = JavaCodeStyleManager.getInstance(project).suggestUniqueVariableName("PATTERN", targetClass, true);
+            String compile = PATTERN_COMPILE.matches(call) ? call.getText() : PATTERN + ".compile(" + arguments[0].getText() + ")";
+            String replacement = getReplacement(call, constantName, arguments);
+            if (replacement == null) return;
+
+            var elementFactory = JavaPsiFacade.getElementFactory(project);
+            var constant = elementFactory.createFieldFromText("private static final " + PATTERN + " " + constantName + " = " + compile + ";", targetClass);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(CodeMovementUtil.addConstant(targetClass, constant));
+            call.replace(elementFactory.createExpressionFromText(replacement, call));
+        }
+
+        /**
+         * Returns the call to replace the original one with, e.g. {@code PATTERN.matcher(text).matches()} for {@code text.matches("regex")}.
+         */
+        @Nullable
+        private static String getReplacement(PsiMethodCallExpression call, String constantName, PsiExpression[] arguments) {
+            if (PATTERN_COMPILE.matches(call)) return constantName;
+            if (PATTERN_MATCHES.matches(call)) return constantName + ".matcher(" + arguments[1].getText() + ").matches()";
+
+            var text = call.getMethodExpression().getQualifierExpression();
+            if (text == null) return null;
+            return switch (call.getMethodExpression().getReferenceName()) {
+                case "matches" -> constantName + ".matcher(" + text.getText() + ").matches()";
+                case "replaceAll", "replaceFirst" ->
+                    constantName + ".matcher(" + text.getText() + ")." + call.getMethodExpression().getReferenceName() + "(" + arguments[1].getText() + ")";
+                case "split" -> constantName + ".split(" + text.getText() + (arguments.length > 1 ? ", " + arguments[1].getText() : "") + ")";
+                case null, default -> null;
+            };
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.allocation.in.visitor.extract.pattern.quick.fix");
+        }
+    }
+
+    /**
+     * Replaces a stream or {@code Optional} pipeline with loops or if statements, by applying the quick fix of the corresponding platform inspection.
+     */
+    private static final class ReplacePipelineQuickFix extends InspectionGadgetsFix {
+        private final Supplier<LocalInspectionTool> platformInspection;
+        private final String quickFixKey;
+
+        public ReplacePipelineQuickFix(Supplier<LocalInspectionTool> platformInspection, String quickFixKey) {
+            this.platformInspection = platformInspection;
+            this.quickFixKey = quickFixKey;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression terminal)) return;
+
+            var platformProblem = findPlatformProblem(terminal, platformInspection.get(), InspectionManager.getInstance(project));
+            if (platformProblem != null) {
+                Arrays.stream(platformProblem.getFixes())
+                    .filter(LocalQuickFix.class::isInstance)
+                    .map(LocalQuickFix.class::cast)
+                    .findFirst()
+                    .ifPresent(fix -> fix.applyFix(project, platformProblem));
+            }
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message(quickFixKey);
+        }
+    }
+}
@@ -0,0 +1,516 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUES_MANAGER;
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.idea.KotlinLanguage;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UVariable;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Infers the narrowest dependencies of a {@link com.intellij.psi.util.CachedValueProvider.Result} based on what data
+ * the {@link com.intellij.psi.util.CachedValueProvider} creating it reads.
+ * <p>
+ * The calls in the provider, and in the project methods called from it (up to {@link #MAX_CALL_DEPTH} levels deep), are classified by
+ * the classes and methods they call. If the provider resolves references, searches through the project, or calls library methods that are
+ * not known to read only the data passed to them (see {@link #LOCAL_CLASSES}), nothing narrower than {@code PsiModificationTracker.MODIFICATION_COUNT}
+ * can be recommended. Otherwise, the recommendation consists of
+ * <ul>
+ *     <li>the Java and Kotlin PSI modification tracker and the project roots tracker, if the provider queries the Java class structure,</li>
+ *     <li>the project roots tracker, if the provider queries the project roots, modules or libraries,</li>
+ *     <li>the VFS structure tracker, if the provider queries the virtual file system,</li>
+ *     <li>the PSI element the value is cached on, if no Java (and Kotlin) PSI tracker is recommended, since the provider reads its file.</li>
+ * </ul>
+ * <p>
+ * Since {@code PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT} is deprecated, and Kotlin classes are part of the Java class structure too,
+ * Java structure reads are tracked via {@code PsiModificationTracker.getInstance(project).forLanguages(...)} accepting both Java and Kotlin.
+ * If {@code KotlinLanguage} is not available to the plugin code, the tracker accepts only Java.
+ *
+ * @since 1.3.0
+ */
+final class CachedValueDependencyAnalyzer {
+    private static final int MAX_CALL_DEPTH = 2;
+    private static final String KOTLIN_LANGUAGE = "org.jetbrains.kotlin.idea.KotlinLanguage";
+    private static final CallMatcher PROVIDER_CONSUMER_MATCHER = CallMatcher.anyOf(
+        staticCall(CACHED_VALUES_MANAGER, "getCachedValue"),
+        instanceCall(CACHED_VALUES_MANAGER, "getCachedValue", "createCachedValue"));
+
+    /**
+     * The kinds of data a cached value provider may read, besides the file of the element the value is cached on.
+     */
+    enum DataKind {
+        JAVA_STRUCTURE, PROJECT_ROOTS, VFS, ANY_PSI
+    }
+
+    /**
+     * A class, and optionally some of its methods, whose calls read a certain kind of data.
+     *
+     * @param methodNames the method names to match. If empty, all methods of the class match.
+     */
+    private record Rule(DataKind kind, String className, Set<String> methodNames) {
+        boolean matches(PsiMethod method, PsiClass containingClass) {
+            return (methodNames.isEmpty() || methodNames.contains(method.getName())) && InheritanceUtil.isInheritor(containingClass, className);
+        }
+    }
+
+    /**
+     * The rules are checked in order, so the broader data kinds come first.
+     */
+    private static final List<Rule> RULES = List.of(
+        //Resolution and searches may reach any PSI
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiReference", Set.of("resolve", "multiResolve")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiJavaCodeReferenceElement", Set.of("advancedResolve")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiCall", Set.of("resolveMethod", "resolveMethodGenerics")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiExpression", Set.of("getType")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiClassType", Set.of("resolve", "resolveGenerics")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiConstructorCall", Set.of("resolveConstructor")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiAnnotation", Set.of("resolveAnnotationType")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiMethod",
+            Set.of("findSuperMethods", "findDeepestSuperMethod", "findDeepestSuperMethods", "findSuperMethodSignaturesIncludingStatic",
+                "getHierarchicalMethodSignature")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiVariable", Set.of("computeConstantValue")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.util.PsiUtil",
+            Set.of("resolveClassInType", "resolveClassInClassTypeOnly", "resolveGenericsClassInType")),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.util.PsiTypesUtil", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.codeInsight.AnnotationUtil", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.PsiManager", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.search.PsiSearchHelper", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.search.searches.ReferencesSearch", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.search.searches.MethodReferencesSearch", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.search.FilenameIndex", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.search.FileTypeIndex", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.psi.stubs.StubIndex", Set.of()),
+        new Rule(DataKind.ANY_PSI, "com.intellij.util.indexing.FileBasedIndex", Set.of()),
+        new Rule(DataKind.ANY_PSI, "org.jetbrains.uast.UResolvable", Set.of()),
+        //Nested cached values may have any dependency
+        new Rule(DataKind.ANY_PSI, CACHED_VALUES_MANAGER, Set.of()),
+        //Java class structure
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.JavaPsiFacade", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.search.PsiShortNamesCache", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.search.searches.ClassInheritorsSearch", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.search.searches.DirectClassInheritorsSearch", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.search.searches.OverridingMethodsSearch", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.search.searches.SuperMethodsSearch", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.util.InheritanceUtil", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.util.ClassUtil", Set.of()),
+        new Rule(DataKind.JAVA_STRUCTURE, "com.intellij.psi.PsiClass",
+            Set.of("getSuperClass", "getSupers", "getInterfaces", "getSuperTypes", "getAllMethods", "getAllFields", "getAllInnerClasses",
+                "getAllMethodsAndTheirSubstitutors", "isInheritor", "isInheritorDeep", "findMethodsByName", "findMethodBySignature",
+                "findMethodsBySignature", "findFieldByName", "findInnerClassByName")),
+        //Project roots, modules and libraries
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.ProjectRootManager", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.FileIndex", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.ModuleRootModel", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.OrderEnumerator", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.OrderEntry", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.libraries.LibraryTable", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.roots.libraries.LibraryTablesRegistrar", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.module.ModuleManager", Set.of()),
+        new Rule(DataKind.PROJECT_ROOTS, "com.intellij.openapi.module.ModuleUtilCore", Set.of()),
+        //Virtual file system
+        new Rule(DataKind.VFS, "com.intellij.openapi.vfs.VfsUtilCore", Set.of()),
+        new Rule(DataKind.VFS, "com.intellij.openapi.vfs.VirtualFileManager", Set.of()),
+        new Rule(DataKind.VFS, "com.intellij.openapi.vfs.VirtualFileSystem", Set.of()),
+        new Rule(DataKind.VFS, "com.intellij.openapi.vfs.VirtualFile",
+            Set.of("getChildren", "findChild", "findFileByRelativePath", "exists", "refresh")));
+
+    /**
+     * The library classes whose methods, not matched by {@link #RULES}, read only the data passed to them, or the element they are called on.
+     * Besides these, JDK and Kotlin standard library classes, PSI elements, and UAST elements are considered local.
+     * Calls to any other library method may read anything, so nothing narrower than {@code PsiModificationTracker.MODIFICATION_COUNT} is recommended for them.
+     */
+    private static final Set<String> LOCAL_CLASSES = Set.of(
+        CACHED_VALUE_PROVIDER + ".Result",
+        "com.intellij.psi.util.PsiTreeUtil",
+        "com.intellij.psi.util.PsiUtil",
+        "com.intellij.psi.util.PsiModificationTracker",
+        "com.intellij.openapi.roots.ProjectRootModificationTracker",
+        "com.intellij.openapi.util.ModificationTracker",
+        "com.intellij.lang.Language",
+        "com.intellij.openapi.util.text.StringUtil",
+        "com.intellij.openapi.util.Comparing",
+        "com.intellij.util.ObjectUtils",
+        "com.intellij.util.containers.ContainerUtil",
+        "com.intellij.openapi.diagnostic.Logger",
+        "org.jetbrains.uast.UastUtils",
+        "org.jetbrains.uast.UastContextKt");
+
+    /**
+     * A dependency that may be recommended.
+     */
+    enum Dependency {
+        /**
+         * The PSI element the value is cached on. Its file's modification stamp is tracked.
+         */
+        ELEMENT("{element}", "{element}", List.of()),
+        /**
+         * Java and Kotlin code, since Kotlin classes are part of the Java class structure as well.
+         */
+        JAVA_AND_KOTLIN_PSI("PsiModificationTracker.getInstance({project}).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE))",
+            "PsiModificationTracker.getInstance({project}).forLanguages { it.isKindOf(JavaLanguage.INSTANCE) || it.isKindOf(KotlinLanguage.INSTANCE) }",
+            "com.intellij.psi.util.PsiModificationTracker.getInstance({project}).forLanguages(language -> language.isKindOf(com.intellij.lang.java.JavaLanguage.INSTANCE) || language.isKindOf(org.jetbrains.kotlin.idea.KotlinLanguage.INSTANCE))",
+            List.of("com.intellij.psi.util.PsiModificationTracker", "com.intellij.lang.java.JavaLanguage", KOTLIN_LANGUAGE)),
+        /**
+         * Java code only, for plugins that don't depend on the Kotlin plugin, thus can't reference {@code KotlinLanguage}.
+         */
+        JAVA_PSI("PsiModificationTracker.getInstance({project}).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE))",
+            "PsiModificationTracker.getInstance({project}).forLanguages { it.isKindOf(JavaLanguage.INSTANCE) }",
+            "com.intellij.psi.util.PsiModificationTracker.getInstance({project}).forLanguages(language -> language.isKindOf(com.intellij.lang.java.JavaLanguage.INSTANCE))",
+            List.of("com.intellij.psi.util.PsiModificationTracker", "com.intellij.lang.java.JavaLanguage")),
+        PROJECT_ROOTS("ProjectRootModificationTracker.getInstance({project})", "com.intellij.openapi.roots.ProjectRootModificationTracker.getInstance({project})",
+            List.of("com.intellij.openapi.roots.ProjectRootModificationTracker")),
+        VFS("VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS", "com.intellij.openapi.vfs.VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS",
+            List.of("com.intellij.openapi.vfs.VirtualFileManager")),
+        /**
+         * Any PSI change. It is never recommended by {@link #recommend(UCallExpression)}, only used for values, like search results,
+         * that depend on the whole PSI.
+         */
+        PSI_MODIFICATION_COUNT("PsiModificationTracker.MODIFICATION_COUNT", "com.intellij.psi.util.PsiModificationTracker.MODIFICATION_COUNT",
+            List.of("com.intellij.psi.util.PsiModificationTracker"));
+
+        /**
+         * The expression template with simple class names for Java files, once the classes are imported.
+         */
+        private final String template;
+        /**
+         * The expression template with simple class names for Kotlin files, once the classes are imported.
+         */
+        private final String kotlinTemplate;
+        /**
+         * The expression template with fully qualified class names for Java files.
+         */
+        private final String qualifiedTemplate;
+        private final List<String> classFqns;
+
+        Dependency(String template, String qualifiedTemplate, List<String> classFqns) {
+            this(template, template, qualifiedTemplate, classFqns);
+        }
+
+        Dependency(String template, String kotlinTemplate, String qualifiedTemplate, List<String> classFqns) {
+            this.template = template;
+            this.kotlinTemplate = kotlinTemplate;
+            this.qualifiedTemplate = qualifiedTemplate;
+            this.classFqns = classFqns;
+        }
+
+        boolean needsProject() {
+            return isJavaStructure() || this == PROJECT_ROOTS;
+        }
+
+        boolean isJavaStructure() {
+            return this == JAVA_AND_KOTLIN_PSI || this == JAVA_PSI;
+        }
+    }
+
+    /**
+     * The code of a dependency to add to a {@code Result} creation.
+     *
+     * @param javaCode  the code with fully qualified class names, for Java files
+     * @param code      the code with simple class names, in the language of the {@code Result} creation, where the classes have to be imported
+     * @param classFqns the classes referenced by the code
+     */
+    record DependencyCode(String javaCode, String code, List<String> classFqns) {
+    }
+
+    /**
+     * The recommended dependencies for a {@code CachedValueProvider.Result} creation, with the expressions to fill in the templates of the dependencies.
+     *
+     * @param isKotlin whether the {@code Result} creation is in a Kotlin file
+     */
+    record Recommendation(List<Dependency> dependencies, @Nullable String elementExpression, @Nullable String projectExpression, boolean isKotlin) {
+
+        /**
+         * Returns the dependencies as code that can be added to the {@code Result} creation.
+         */
+        List<DependencyCode> getDependencyCodes() {
+            return dependencies.stream()
+                .map(dependency -> new DependencyCode(render(dependency.qualifiedTemplate), render(getTemplate(dependency)), dependency.classFqns))
+                .toList();
+        }
+
+        String getPresentableText() {
+            return dependencies.stream().map(dependency -> render(getTemplate(dependency))).collect(Collectors.joining(", "));
+        }
+
+        private String getTemplate(Dependency dependency) {
+            return isKotlin ? dependency.kotlinTemplate : dependency.template;
+        }
+
+        private String render(String template) {
+            return template
+                .replace("{element}", String.valueOf(elementExpression))
+                .replace("{project}", String.valueOf(projectExpression));
+        }
+    }
+
+    /**
+     * Returns the dependencies tracking the Java class structure: the Java and Kotlin PSI tracker, and the project roots tracker,
+     * since class lookups depend on the project roots as well.
+     * <p>
+     * If {@code KotlinLanguage} is not available to the code at the argument element, e.g. because the plugin doesn't depend on the Kotlin plugin,
+     * the Java-only PSI tracker is returned instead, since such a plugin doesn't see Kotlin classes anyway.
+     */
+    static List<Dependency> getJavaStructureDependencies(@NotNull PsiElement context) {
+        return JavaPsiFacade.getInstance(context.getProject()).findClass(KOTLIN_LANGUAGE, context.getResolveScope()) != null
+            ? List.of(Dependency.JAVA_AND_KOTLIN_PSI, Dependency.PROJECT_ROOTS)
+            : List.of(Dependency.JAVA_PSI, Dependency.PROJECT_ROOTS);
+    }
+
+    /**
+     * Returns the narrowest dependencies recommended for the argument {@code CachedValueProvider.Result} creation,
+     * or null if the creation is not in a {@code CachedValueProvider}, or nothing narrower than {@code PsiModificationTracker.MODIFICATION_COUNT}
+     * can be recommended.
+     */
+    @Nullable
+    static Recommendation recommend(@NotNull UCallExpression resultCreation) {
+        var provider = getContainingProvider(resultCreation);
+        if (provider == null) return null;
+
+        var dataKinds = analyze(provider);
+        if (dataKinds.contains(DataKind.ANY_PSI)) return null;
+
+        var providerConsumer = getProviderConsumerCall(provider);
+        String elementExpression = getElementExpression(providerConsumer);
+        boolean isKotlin = resultCreation.getLang().is(KotlinLanguage.INSTANCE);
+        String projectExpression = getProjectExpression(providerConsumer, elementExpression, provider, isKotlin);
+
+        var dependencies = new LinkedHashSet<Dependency>();
+        if (dataKinds.contains(DataKind.JAVA_STRUCTURE)) {
+            if (resultCreation.getSourcePsi() == null) return null;
+            dependencies.addAll(getJavaStructureDependencies(resultCreation.getSourcePsi()));
+        }
+        if (dataKinds.contains(DataKind.PROJECT_ROOTS)) dependencies.add(Dependency.PROJECT_ROOTS);
+        if (dataKinds.contains(DataKind.VFS)) dependencies.add(Dependency.VFS);
+        if (dependencies.stream().noneMatch(Dependency::isJavaStructure) && elementExpression != null) dependencies.addFirst(Dependency.ELEMENT);
+
+        if (dependencies.isEmpty()) return null;
+        if (projectExpression == null && dependencies.stream().anyMatch(Dependency::needsProject)) return null;
+        return new Recommendation(new ArrayList<>(dependencies), elementExpression, projectExpression, isKotlin);
+    }
+
+    //---- Provider lookup ----
+
+    /**
+     * Returns the {@code CachedValueProvider} lambda, or the {@code compute()} method of an anonymous {@code CachedValueProvider},
+     * in which the argument element is located.
+     */
+    @Nullable
+    private static UElement getContainingProvider(UElement element) {
+        var container = element.getUastParent();
+        while (container != null && !(container instanceof ULambdaExpression) && !(container instanceof UMethod)) {
+            container = container.getUastParent();
+        }
+
+        if (container instanceof ULambdaExpression lambda) {
+            var functionalInterface = PsiUtil.resolveClassInClassTypeOnly(lambda.getFunctionalInterfaceType());
+            return InheritanceUtil.isInheritor(functionalInterface, CACHED_VALUE_PROVIDER) ? lambda : null;
+        }
+        if (container instanceof UMethod method
+            && "compute".equals(method.getName())
+            && method.getUastParent() instanceof UClass providerClass
+            && providerClass.getJavaPsi() instanceof PsiAnonymousClass
+            && InheritanceUtil.isInheritor(providerClass.getJavaPsi(), CACHED_VALUE_PROVIDER)) {
+            return method;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the lambda, or the anonymous class creation, that is the provider itself.
+     */
+    @Nullable
+    private static UElement getProviderExpression(UElement provider) {
+        return provider instanceof UMethod method && method.getUastParent() instanceof UClass providerClass
+            ? providerClass.getUastParent()
+            : provider;
+    }
+
+    /**
+     * Returns the {@code CachedValuesManager} method call that receives the argument provider, e.g. {@code getCachedValue(element, provider)}.
+     */
+    @Nullable
+    private static UCallExpression getProviderConsumerCall(UElement provider) {
+        var providerExpression = getProviderExpression(provider);
+        return providerExpression != null
+               && providerExpression.getUastParent() instanceof UCallExpression call
+               && PROVIDER_CONSUMER_MATCHER.uCallMatches(call)
+            ? call
+            : null;
+    }
+
+    /**
+     * Returns the text of the PSI element argument the value is cached on, if it is a simple variable reference,
+     * so that it can be referenced from the provider.
+     */
+    @Nullable
+    private static String getElementExpression(@Nullable UCallExpression providerConsumer) {
+        if (providerConsumer == null || providerConsumer.getValueArgumentCount() < 2) return null;
+
+        var cachedElement = UastUtils.skipParenthesizedExprDown(providerConsumer.getValueArguments().getFirst());
+        return isSimpleVariableReference(cachedElement) && InheritanceUtil.isInheritor(cachedElement.getExpressionType(), PSI_ELEMENT)
+            ? cachedElement.getSourcePsi().getText()
+            : null;
+    }
+
+    /**
+     * Returns the text of an expression that evaluates to the current project, if any is available. It looks for
+     * <ul>
+     *     <li>the argument of {@code CachedValuesManager.getManager(project)},</li>
+     *     <li>the project of the element the value is cached on,</li>
+     *     <li>a {@code Project} type parameter of the method in which the provider is defined.</li>
+     * </ul>
+     */
+    @Nullable
+    private static String getProjectExpression(@Nullable UCallExpression providerConsumer, @Nullable String elementExpression, UElement provider, boolean isKotlin) {
+        if (providerConsumer != null) {
+            var receiver = providerConsumer.getReceiver();
+            if (receiver instanceof UQualifiedReferenceExpression qualified) receiver = qualified.getSelector();
+            if (receiver instanceof UCallExpression getManager
+                && "getManager".equals(getManager.getMethodName())
+                && getManager.getValueArgumentCount() == 1) {
+                var project = UastUtils.skipParenthesizedExprDown(getManager.getValueArguments().getFirst());
+                if (isSimpleVariableReference(project)) return project.getSourcePsi().getText();
+            }
+        }
+        if (elementExpression != null) return elementExpression + (isKotlin ? ".project" : ".getProject()");
+
+        var enclosingMethod = getProviderExpression(provider);
+        while (enclosingMethod != null && !(enclosingMethod instanceof UMethod)) {
+            enclosingMethod = enclosingMethod.getUastParent();
+        }
+        if (enclosingMethod instanceof UMethod method) {
+            for (var parameter : method.getUastParameters()) {
+                if (InheritanceUtil.isInheritor(parameter.getType(), PROJECT)) return parameter.getName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSimpleVariableReference(@Nullable UExpression expression) {
+        return expression instanceof USimpleNameReferenceExpression reference
+            && reference.getSourcePsi() != null
+            && UastContextKt.toUElement(reference.resolve()) instanceof UVariable;
+    }
+
+    //---- Analysis ----
+
+    /**
+     * Collects the kinds of data the argument provider reads.
+     */
+    static Set<DataKind> analyze(@NotNull UElement provider) {
+        var dataKinds = EnumSet.noneOf(DataKind.class);
+        analyze(provider, dataKinds, new HashSet<>(), 0);
+        return dataKinds;
+    }
+
+    private static void analyze(UElement element, Set<DataKind> dataKinds, Set<PsiMethod> visitedMethods, int depth) {
+        element.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (dataKinds.contains(DataKind.ANY_PSI)) return true;
+
+                var method = node.resolve();
+                if (method == null) {
+                    //Constructor calls of classes without explicit constructors don't resolve to methods
+                    if (node.getKind() != UastCallKind.CONSTRUCTOR_CALL) dataKinds.add(DataKind.ANY_PSI);
+                    return false;
+                }
+                processCalledMethod(method);
+                return false;
+            }
+
+            /**
+             * Kotlin property accesses, e.g. {@code psiClass.superClass}, are references to getter methods instead of calls.
+             */
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                if (dataKinds.contains(DataKind.ANY_PSI)) return true;
+
+                if (node.resolve() instanceof PsiMethod method) processCalledMethod(method);
+                return false;
+            }
+
+            private void processCalledMethod(PsiMethod method) {
+                var dataKind = classify(method);
+                if (dataKind != null) {
+                    dataKinds.add(dataKind);
+                } else if (depth < MAX_CALL_DEPTH && isInProjectSources(method) && visitedMethods.add(method)) {
+                    //Methods in the project may read data as well
+                    var uMethod = UastContextKt.toUElement(method, UMethod.class);
+                    if (uMethod != null) analyze(uMethod, dataKinds, visitedMethods, depth + 1);
+                }
+            }
+        });
+    }
+
+    private static boolean isInProjectSources(PsiMethod method) {
+        if (method instanceof PsiCompiledElement) return false;
+        var file = method.getContainingFile();
+        return file != null && file.getVirtualFile() != null && ProjectFileIndex.getInstance(method.getProject()).isInSourceContent(file.getVirtualFile());
+    }
+
+    /**
+     * Returns the kind of data the argument method reads, or null if it reads only local data, or it is a project method, whose body has to be analyzed.
+     */
+    @Nullable
+    private static DataKind classify(PsiMethod method) {
+        var containingClass = method.getContainingClass();
+        if (containingClass == null) return null;
+        for (var rule : RULES) {
+            if (rule.matches(method, containingClass)) return rule.kind();
+        }
+        //Unknown library methods may resolve references, or look up class hierarchies
+        return !isInProjectSources(method) && !isLocalRead(containingClass) ? DataKind.ANY_PSI : null;
+    }
+
+    private static boolean isLocalRead(PsiClass containingClass) {
+        String qualifiedName = containingClass.getQualifiedName();
+        return qualifiedName != null
+            && (qualifiedName.startsWith("java.")
+                || qualifiedName.startsWith("kotlin.")
+                || LOCAL_CLASSES.contains(qualifiedName)
+                || InheritanceUtil.isInheritor(containingClass, PSI_ELEMENT)
+                || InheritanceUtil.isInheritor(containingClass, "org.jetbrains.uast.UElement"));
+    }
+
+    private CachedValueDependencyAnalyzer() {
+        //Utility class
+    }
+}
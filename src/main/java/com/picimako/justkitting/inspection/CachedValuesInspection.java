@@ -3,35 +3,59 @@
 package com.picimako.justkitting.inspection;
 
 import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER_RESULT;
+import static com.picimako.justkitting.PlatformNames.PSI_MODIFICATION_TRACKER;
 import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
 
-import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.AbstractBaseUastLocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.CommonClassNames;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiCall;
-import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.PsiExpressionList;
-import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.intellij.util.ArrayUtil;
+import com.picimako.justkitting.ImportUtilsKt;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import com.siyeh.ig.InspectionGadgetsFix;
 import com.siyeh.ig.callMatcher.CallMatcher;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtImportDirective;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+import org.jetbrains.kotlin.psi.KtSimpleNameExpression;
+import org.jetbrains.kotlin.psi.KtValueArgument;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
 
-import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Reports calls to the {@code create()} methods and the constructor of {@link com.intellij.psi.util.CachedValueProvider.Result} in which there is no dependency
@@ -45,68 +69,141 @@ import java.util.function.Supplier;
  *     <li>{@code Set.of()}</li>
  *     <li>{@code Collections.emptyList()}</li>
  *     <li>{@code Collections.emptySet()}</li>
+ *     <li>{@code ContainerUtil.emptyList()}</li>
+ *     <li>{@code ArrayUtil.EMPTY_OBJECT_ARRAY}</li>
+ *     <li>Kotlin's {@code listOf()}, {@code setOf()}, {@code emptyList()}, {@code emptySet()}, {@code mutableListOf()} and {@code mutableSetOf()}</li>
  * </ul>
+ * <p>
+ * Based on what the {@code CachedValueProvider} creating the {@code Result} reads, it also recommends the narrowest dependencies,
+ * both for missing dependencies, and in place of {@code PsiModificationTracker.MODIFICATION_COUNT}. See {@link CachedValueDependencyAnalyzer}.
+ * <p>
+ * The inspection is implemented via UAST, so it handles Java and Kotlin code with the same visitor.
  *
  * @see com.intellij.psi.util.CachedValueProvider.Result
  * @since 0.1.0
  */
-public class CachedValuesInspection extends LocalInspectionTool {
+public class CachedValuesInspection extends AbstractBaseUastLocalInspectionTool {
 
     private static final CallMatcher RESULT_CREATE_MATCHER = staticCall(CACHED_VALUE_PROVIDER_RESULT, "create");
     private static final CallMatcher EMPTY_COLLECTION_MATCHER = CallMatcher.anyOf(
-        staticCall(CommonClassNames.JAVA_UTIL_LIST, "of"),
-        staticCall(CommonClassNames.JAVA_UTIL_SET, "of"),
-        staticCall(CommonClassNames.JAVA_UTIL_COLLECTIONS, "emptyList", "emptySet"));
+        staticCall(CommonClassNames.JAVA_UTIL_LIST, "of").parameterCount(0),
+        staticCall(CommonClassNames.JAVA_UTIL_SET, "of").parameterCount(0),
+        staticCall(CommonClassNames.JAVA_UTIL_COLLECTIONS, "emptyList", "emptySet"),
+        staticCall("com.intellij.util.containers.ContainerUtil", "emptyList"));
+    private static final Set<String> KOTLIN_EMPTY_COLLECTION_FUNCTIONS = Set.of("listOf", "setOf", "emptyList", "emptySet", "mutableListOf", "mutableSetOf");
+    private static final Set<String> EMPTY_ARRAY_HOLDERS = Set.of("com.intellij.util.ArrayUtil", "com.intellij.util.ArrayUtilRt");
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
-        return new JavaElementVisitor() {
-            @Override
-            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
-                //If it is a static call to 'CachedValueProvider.Result.create()'
-                if (expression.getMethodExpression().getReferenceNameElement() != null && RESULT_CREATE_MATCHER.matches(expression)) {
-                    checkForMissingOrEmptyDependencies(expression.getArgumentList(), () -> expression.getMethodExpression().getReferenceNameElement(), PsiMethodCallExpression.class);
-                }
-            }
-
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
             @Override
-            public void visitNewExpression(@NotNull PsiNewExpression expression) {
-                //If it is a constructor call to 'new CachedValueProvider.Result()'
-                if (Optional.ofNullable(expression.getClassOrAnonymousClassReference())
-                    .filter(cls -> CACHED_VALUE_PROVIDER_RESULT.equals(cls.getQualifiedName()))
-                    .isPresent()) {
-                    checkForMissingOrEmptyDependencies(expression.getArgumentList(), () -> expression.getClassOrAnonymousClassReference().getReferenceNameElement(), PsiNewExpression.class);
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                //If it is a static call to 'CachedValueProvider.Result.create()', or a constructor call to 'new CachedValueProvider.Result()'
+                if (isResultCreation(node)) {
+                    var problemElement = node.getMethodIdentifier() != null ? node.getMethodIdentifier().getSourcePsi() : node.getSourcePsi();
+                    if (problemElement != null) {
+                        checkForMissingOrEmptyDependencies(node, problemElement);
+                        checkForOverBroadDependencies(node);
+                    }
                 }
+                return true;
             }
 
-            @Override
-            public void visitCallExpression(@NotNull PsiCallExpression callExpression) {
-                //Other types of calls are out of scope
-            }
-
-            private void checkForMissingOrEmptyDependencies(@Nullable PsiExpressionList arguments,
-                                                            Supplier<PsiElement> problemElement,
-                                                            Class<? extends PsiCall> expressionType) {
-                if (arguments == null) return;
-
+            private void checkForMissingOrEmptyDependencies(UCallExpression resultCreation, PsiElement problemElement) {
                 //If only the 'value' parameter is specified, but no dependency
-                if (arguments.getExpressionCount() == 1) {
-                    holder.registerProblem(problemElement.get(),
+                if (resultCreation.getValueArgumentCount() == 1) {
+                    var recommendation = CachedValueDependencyAnalyzer.recommend(resultCreation);
+                    holder.registerProblem(problemElement,
                         JustKittingBundle.message("inspection.cached.value.provider.result.without.dependency"),
-                        new AddDependencyQuickFix(expressionType, ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
-                        new AddDependencyQuickFix(expressionType, ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT));
+                        withRecommendedDependencyFix(recommendation, false,
+                            new AddDependencyQuickFix(ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
+                            new AddDependencyQuickFix(ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT)));
                 }
-                //If there is a dependency specified as an empty Collection, defined by EMPTY_COLLECTION_MATCHER
-                else if (arguments.getExpressionCount() == 2
-                    && arguments.getExpressions()[1] instanceof PsiMethodCallExpression
-                    && EMPTY_COLLECTION_MATCHER.matches(arguments.getExpressions()[1])) {
-                    holder.registerProblem(problemElement.get(),
+                //If there is a dependency specified as an empty Collection
+                else if (resultCreation.getValueArgumentCount() == 2 && isEmptyCollection(resultCreation.getValueArguments().get(1))) {
+                    var recommendation = CachedValueDependencyAnalyzer.recommend(resultCreation);
+                    holder.registerProblem(problemElement,
                         JustKittingBundle.message("inspection.cached.value.provider.result.without.dependency"),
-                        new ReplaceDependencyQuickFix(expressionType, ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
-                        new ReplaceDependencyQuickFix(expressionType, ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT));
+                        withRecommendedDependencyFix(recommendation, true,
+                            new ReplaceDependencyQuickFix(ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
+                            new ReplaceDependencyQuickFix(ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT)));
+                }
+            }
+
+            /**
+             * Reports {@code PsiModificationTracker.MODIFICATION_COUNT} dependencies, when the cached value provider reads data that
+             * can be tracked by narrower dependencies.
+             */
+            private void checkForOverBroadDependencies(UCallExpression resultCreation) {
+                var dependencies = resultCreation.getValueArguments();
+                for (int i = 1; i < dependencies.size(); i++) {
+                    if (isModificationCount(dependencies.get(i))) {
+                        var dependency = dependencies.get(i).getSourcePsi();
+                        var recommendation = CachedValueDependencyAnalyzer.recommend(resultCreation);
+                        if (dependency != null && recommendation != null) {
+                            holder.registerProblem(dependency,
+                                JustKittingBundle.message("inspection.cached.value.provider.over.broad.dependency", recommendation.getPresentableText()),
+                                ProblemHighlightType.WEAK_WARNING,
+                                new UseRecommendedDependenciesQuickFix(recommendation, true));
+                        }
+                        return;
+                    }
                 }
             }
-        };
+        }, new Class[]{UCallExpression.class});
+    }
+
+    private static boolean isResultCreation(UCallExpression call) {
+        if (call.getKind() == UastCallKind.CONSTRUCTOR_CALL) {
+            return call.getClassReference() != null
+                && call.getClassReference().resolve() instanceof PsiClass resultClass
+                && CACHED_VALUE_PROVIDER_RESULT.equals(resultClass.getQualifiedName());
+        }
+        return "create".equals(call.getMethodName()) && RESULT_CREATE_MATCHER.uCallMatches(call);
+    }
+
+    /**
+     * Returns whether the argument dependency is an empty collection or array, like {@code Collections.emptyList()} or Kotlin's {@code listOf()}.
+     */
+    private static boolean isEmptyCollection(UExpression dependency) {
+        var expression = UastUtils.skipParenthesizedExprDown(dependency);
+        if (expression instanceof UQualifiedReferenceExpression qualified) expression = qualified.getSelector();
+
+        if (expression instanceof UCallExpression call) {
+            if (EMPTY_COLLECTION_MATCHER.uCallMatches(call)) return true;
+
+            var function = call.resolve();
+            return call.getValueArgumentCount() == 0
+                && function != null
+                && KOTLIN_EMPTY_COLLECTION_FUNCTIONS.contains(function.getName())
+                && function.getContainingClass() != null
+                && function.getContainingClass().getQualifiedName() != null
+                && function.getContainingClass().getQualifiedName().startsWith("kotlin.collections.");
+        }
+        return expression instanceof UReferenceExpression reference
+            && reference.resolve() instanceof PsiField field
+            && "EMPTY_OBJECT_ARRAY".equals(field.getName())
+            && field.getContainingClass() != null
+            && EMPTY_ARRAY_HOLDERS.contains(field.getContainingClass().getQualifiedName());
+    }
+
+    private static boolean isModificationCount(UExpression dependency) {
+        return UastUtils.skipParenthesizedExprDown(dependency) instanceof UReferenceExpression reference
+            && reference.resolve() instanceof PsiField field
+            && "MODIFICATION_COUNT".equals(field.getName())
+            && field.getContainingClass() != null
+            && PSI_MODIFICATION_TRACKER.equals(field.getContainingClass().getQualifiedName());
+    }
+
+    /**
+     * Puts the quick fix for the recommended dependencies, if there is any recommendation, in front of the argument quick fixes.
+     */
+    private static LocalQuickFix[] withRecommendedDependencyFix(@Nullable CachedValueDependencyAnalyzer.Recommendation recommendation,
+                                                                boolean isReplace,
+                                                                LocalQuickFix... fixes) {
+        return recommendation != null
+            ? ArrayUtil.prepend(new UseRecommendedDependenciesQuickFix(recommendation, isReplace), fixes)
+            : fixes;
     }
 
     // ---- Quick fixes ----
@@ -115,13 +212,13 @@ public class CachedValuesInspection extends LocalInspectionTool {
      * Adds a modification tracker as a dependency to the CachedValueProvider.Result creation.
      */
     private static final class AddDependencyQuickFix extends BaseCachingQuickFix {
-        public AddDependencyQuickFix(@NotNull Class<? extends PsiCall> expressionType, ModificationTracker modificationTracker) {
-            super(expressionType, modificationTracker, "inspection.cached.value.provider.add.dependency.quick.fix");
+        public AddDependencyQuickFix(ModificationTracker modificationTracker) {
+            super(modificationTracker, "inspection.cached.value.provider.add.dependency.quick.fix");
         }
 
         @Override
         protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
-            modificationTracker.addDependency(descriptor.getPsiElement(), expressionType, project);
+            DependencyArguments.add(descriptor.getPsiElement(), List.of(modificationTracker.toDependencyCode()), project);
         }
     }
 
@@ -129,27 +226,21 @@ public class CachedValuesInspection extends LocalInspectionTool {
      * Replaces the empty collection dependency with a modification tracker, in the CachedValueProvider.Result creation.
      */
     private static final class ReplaceDependencyQuickFix extends BaseCachingQuickFix {
-        public ReplaceDependencyQuickFix(Class<? extends PsiCall> expressionType, ModificationTracker modificationTracker) {
-            super(expressionType, modificationTracker, "inspection.cached.value.provider.replace.with.dependency.quick.fix");
+        public ReplaceDependencyQuickFix(ModificationTracker modificationTracker) {
+            super(modificationTracker, "inspection.cached.value.provider.replace.with.dependency.quick.fix");
         }
 
         @Override
         protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
-            modificationTracker.replaceEmptyDependency(descriptor.getPsiElement(), expressionType, project);
+            DependencyArguments.replace(descriptor.getPsiElement(), List.of(modificationTracker.toDependencyCode()), project);
         }
     }
 
     private abstract static class BaseCachingQuickFix extends InspectionGadgetsFix {
-        /**
-         * PsiMethodCallExpression if it's a method call to 'CachedValueProvider.Result.create()',
-         * or PsiNewExpression if it's a call to 'new CachedValueProvider.Result()'.
-         */
-        protected final Class<? extends PsiCall> expressionType;
         protected final ModificationTracker modificationTracker;
         private final String quickFixKey;
 
-        protected BaseCachingQuickFix(@NotNull Class<? extends PsiCall> expressionType, ModificationTracker modificationTracker, String quickFixKey) {
-            this.expressionType = expressionType;
+        protected BaseCachingQuickFix(ModificationTracker modificationTracker, String quickFixKey) {
             this.modificationTracker = modificationTracker;
             this.quickFixKey = quickFixKey;
         }
@@ -165,39 +256,202 @@ public class CachedValuesInspection extends LocalInspectionTool {
         }
     }
 
-    //----  Modification trackers to introduce as dependency ----
+    /**
+     * Adds the dependencies recommended by {@link CachedValueDependencyAnalyzer} to the CachedValueProvider.Result creation,
+     * or replaces the empty collection or over-broad dependency with them.
+     */
+    private static final class UseRecommendedDependenciesQuickFix extends InspectionGadgetsFix {
+        private final List<CachedValueDependencyAnalyzer.DependencyCode> dependencies;
+        private final String presentableText;
+        private final boolean isReplace;
+
+        public UseRecommendedDependenciesQuickFix(CachedValueDependencyAnalyzer.Recommendation recommendation, boolean isReplace) {
+            this.dependencies = recommendation.getDependencyCodes();
+            this.presentableText = recommendation.getPresentableText();
+            this.isReplace = isReplace;
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.cached.value.provider.add.never.changed.quick.fix.family");
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.cached.value.provider.use.recommended.dependencies.quick.fix", presentableText);
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (isReplace) DependencyArguments.replace(descriptor.getPsiElement(), dependencies, project);
+            else DependencyArguments.add(descriptor.getPsiElement(), dependencies, project);
+        }
+    }
 
     /**
-     * Defines the modification tracker names and FQNs to add.
+     * Modifies the dependency arguments of {@code Result} creations in Java and Kotlin files.
      */
-    @RequiredArgsConstructor
-    private enum ModificationTracker {
-        MODIFICATION_TRACKER_NEVER_CHANGED("ModificationTracker.NEVER_CHANGED", "com.intellij.openapi.util.ModificationTracker.NEVER_CHANGED"),
-        PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT("PsiModificationTracker.MODIFICATION_COUNT", "com.intellij.psi.util.PsiModificationTracker.MODIFICATION_COUNT");
+    private static final class DependencyArguments {
 
-        private final String name;
-        private final String fqn;
+        /**
+         * Adds the argument dependencies to the end of the argument list of the {@code Result} creation, in which the argument element is located.
+         */
+        static void add(PsiElement problemElement, List<CachedValueDependencyAnalyzer.DependencyCode> dependencies, Project project) {
+            var resultCreation = getResultCreation(problemElement);
+            if (resultCreation == null) return;
+
+            var dependenciesToAdd = filterExisting(resultCreation, dependencies);
+            if (resultCreation.getSourcePsi() instanceof PsiCall javaCall && javaCall.getArgumentList() != null) {
+                var factory = JavaPsiFacade.getElementFactory(project);
+                var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+                for (var dependency : dependenciesToAdd) {
+                    codeStyleManager.shortenClassReferences(javaCall.getArgumentList().add(factory.createExpressionFromText(dependency.javaCode(), javaCall)));
+                }
+            } else if (resultCreation.getSourcePsi() instanceof KtCallExpression kotlinCall && kotlinCall.getValueArgumentList() != null) {
+                var factory = new KtPsiFactory(project, false);
+                for (var dependency : dependenciesToAdd) {
+                    kotlinCall.getValueArgumentList().addArgument(factory.createArgument(dependency.code()));
+                }
+                addKotlinImports(kotlinCall, dependenciesToAdd, factory);
+            }
+        }
 
         /**
-         * Adds this modification tracker to the argument list of the Result creation call.
+         * Replaces the problem element, if it is a dependency, or the first dependency otherwise, with the argument dependencies.
          */
-        void addDependency(PsiElement context, Class<? extends PsiCall> expressionType, Project project) {
-            var resultCreate = PsiTreeUtil.getParentOfType(context, expressionType);
-            resultCreate.getArgumentList().add(getElement(project, context));
+        static void replace(PsiElement problemElement, List<CachedValueDependencyAnalyzer.DependencyCode> dependencies, Project project) {
+            var resultCreation = getResultCreation(problemElement);
+            if (resultCreation == null || resultCreation.getValueArgumentCount() < 2) return;
+
+            var dependencyArguments = resultCreation.getValueArguments();
+            var toReplace = dependencyArguments.stream()
+                .skip(1)
+                .map(UExpression::getSourcePsi)
+                .filter(problemElement::equals)
+                .findFirst()
+                .orElse(dependencyArguments.get(1).getSourcePsi());
+            if (toReplace == null) return;
+
+            var file = toReplace.getContainingFile();
+            String replacedClassFqn = getReferencedClassFqn(toReplace);
+            var dependenciesToAdd = filterExisting(resultCreation, dependencies);
+            if (dependenciesToAdd.isEmpty()) {
+                (toReplace.getParent() instanceof KtValueArgument argument ? argument : toReplace).delete();
+            } else {
+                replaceWith(resultCreation, toReplace, dependenciesToAdd, project);
+            }
+            if (replacedClassFqn != null) removeImportIfUnused(file, replacedClassFqn);
+        }
+
+        private static void replaceWith(UCallExpression resultCreation, PsiElement toReplace,
+                                        List<CachedValueDependencyAnalyzer.DependencyCode> dependenciesToAdd, Project project) {
+            if (resultCreation.getSourcePsi() instanceof PsiCall javaCall && javaCall.getArgumentList() != null) {
+                var factory = JavaPsiFacade.getElementFactory(project);
+                var addedDependencies = new ArrayList<PsiElement>(dependenciesToAdd.size());
+                PsiElement anchor = toReplace;
+                for (int i = 0; i < dependenciesToAdd.size(); i++) {
+                    var dependency = factory.createExpressionFromText(dependenciesToAdd.get(i).javaCode(), javaCall);
+                    anchor = i == 0 ? anchor.replace(dependency) : javaCall.getArgumentList().addAfter(dependency, anchor);
+                    addedDependencies.add(anchor);
+                }
+                var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+                addedDependencies.forEach(codeStyleManager::shortenClassReferences);
+            } else if (resultCreation.getSourcePsi() instanceof KtCallExpression kotlinCall
+                       && kotlinCall.getValueArgumentList() != null
+                       && toReplace.getParent() instanceof KtValueArgument replacedArgument) {
+                var factory = new KtPsiFactory(project, false);
+                var anchor = (KtValueArgument) replacedArgument.replace(factory.createArgument(dependenciesToAdd.getFirst().code()));
+                for (var dependency : dependenciesToAdd.subList(1, dependenciesToAdd.size())) {
+                    anchor = kotlinCall.getValueArgumentList().addArgumentAfter(factory.createArgument(dependency.code()), anchor);
+                }
+                addKotlinImports(kotlinCall, dependenciesToAdd, factory);
+            }
         }
 
         /**
-         * Replaces the empty collection dependency with this modification tracker in the argument list of the Result creation call.
+         * Returns the FQN of the class whose static field the argument dependency references, e.g. {@code PsiModificationTracker.MODIFICATION_COUNT}.
          */
-        void replaceEmptyDependency(PsiElement context, Class<? extends PsiCall> expressionType, Project project) {
-            var resultCreate = PsiTreeUtil.getParentOfType(context, expressionType);
-            resultCreate.getArgumentList().getExpressions()[1].replace(getElement(project, context));
+        @Nullable
+        private static String getReferencedClassFqn(PsiElement dependency) {
+            return UastContextKt.toUElement(dependency) instanceof UReferenceExpression reference
+                   && reference.resolve() instanceof PsiField field
+                   && field.getContainingClass() != null
+                ? field.getContainingClass().getQualifiedName()
+                : null;
         }
 
-        private PsiElement getElement(Project project, PsiElement context) {
-            return JavaCodeStyleManager.getInstance(project)
-                .shortenClassReferences(JavaPsiFacade.getElementFactory(project)
-                    .createExpressionFromText(fqn, context));
+        /**
+         * Removes the import of the argument class, if the class is no longer referenced in the file, e.g. after the only
+         * {@code PsiModificationTracker.MODIFICATION_COUNT} dependency is replaced.
+         */
+        private static void removeImportIfUnused(PsiFile file, String classFqn) {
+            String shortName = StringUtil.getShortName(classFqn);
+            if (file instanceof PsiJavaFile javaFile && javaFile.getImportList() != null) {
+                var importStatement = javaFile.getImportList().findSingleClassImportStatement(classFqn);
+                boolean isReferenced = PsiTreeUtil.findChildrenOfType(javaFile, PsiJavaCodeReferenceElement.class).stream()
+                    .anyMatch(reference -> shortName.equals(reference.getReferenceName()) && !PsiTreeUtil.isAncestor(javaFile.getImportList(), reference, false));
+                if (importStatement != null && !isReferenced) importStatement.delete();
+            } else if (file instanceof KtFile ktFile) {
+                var importDirective = ktFile.getImportDirectives().stream()
+                    .filter(directive -> directive.getImportedFqName() != null && classFqn.equals(directive.getImportedFqName().asString()))
+                    .findFirst();
+                boolean isReferenced = PsiTreeUtil.findChildrenOfType(ktFile, KtSimpleNameExpression.class).stream()
+                    .anyMatch(reference -> shortName.equals(reference.getReferencedName()) && PsiTreeUtil.getParentOfType(reference, KtImportDirective.class) == null);
+                if (importDirective.isPresent() && !isReferenced) importDirective.get().delete();
+            }
+        }
+
+        @Nullable
+        private static UCallExpression getResultCreation(PsiElement problemElement) {
+            var call = UastContextKt.getUastParentOfType(problemElement, UCallExpression.class);
+            //The problem element may be an argument of a nested call, e.g. 'PsiModificationTracker.getInstance(project)'
+            while (call != null && !isResultCreation(call)) {
+                call = call.getSourcePsi() != null ? UastContextKt.getUastParentOfType(call.getSourcePsi(), UCallExpression.class) : null;
+            }
+            return call;
+        }
+
+        /**
+         * Dependencies already specified are not added again.
+         */
+        private static List<CachedValueDependencyAnalyzer.DependencyCode> filterExisting(UCallExpression resultCreation,
+                                                                                         List<CachedValueDependencyAnalyzer.DependencyCode> dependencies) {
+            var existingDependencies = resultCreation.getValueArguments().stream()
+                .skip(1)
+                .map(UExpression::getSourcePsi)
+                .filter(Objects::nonNull)
+                .map(PsiElement::getText)
+                .collect(Collectors.toSet());
+            return dependencies.stream()
+                .filter(dependency -> !existingDependencies.contains(dependency.code()) && !existingDependencies.contains(dependency.javaCode()))
+                .toList();
+        }
+
+        private static void addKotlinImports(KtCallExpression call, List<CachedValueDependencyAnalyzer.DependencyCode> dependencies, KtPsiFactory factory) {
+            if (!(call.getContainingFile() instanceof KtFile file)) return;
+            dependencies.stream()
+                .flatMap(dependency -> dependency.classFqns().stream())
+                .distinct()
+                .forEach(classFqn -> ImportUtilsKt.importIfNotAlreadyAdded(file, classFqn, factory));
+        }
+    }
+
+    //----  Modification trackers to introduce as dependency ----
+
+    /**
+     * Defines the modification tracker names and FQNs to add.
+     */
+    @RequiredArgsConstructor
+    private enum ModificationTracker {
+        MODIFICATION_TRACKER_NEVER_CHANGED("ModificationTracker.NEVER_CHANGED", "com.intellij.openapi.util.ModificationTracker"),
+        PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT("PsiModificationTracker.MODIFICATION_COUNT", PSI_MODIFICATION_TRACKER);
+
+        private final String name;
+        private final String classFqn;
+
+        CachedValueDependencyAnalyzer.DependencyCode toDependencyCode() {
+            return new CachedValueDependencyAnalyzer.DependencyCode(
+                classFqn.substring(0, classFqn.lastIndexOf('.') + 1) + name, name, List.of(classFqn));
         }
     }
 }
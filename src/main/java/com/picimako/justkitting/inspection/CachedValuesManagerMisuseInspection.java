@@ -0,0 +1,384 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUES_MANAGER;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.CachedValueUtil;
+import com.picimako.justkitting.CodeMovementUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports usages of {@link com.intellij.psi.util.CachedValuesManager} that defeat caching:
+ * <ul>
+ *     <li>{@code Key.create()} calls in methods, whose keys are passed to {@code getCachedValue()} or {@code getParameterizedCachedValue()}.
+ *     Since a new key is created on every call, the cached value is never found. The quick fix moves the key to a static constant,
+ *     if it doesn't depend on local state or type parameters.</li>
+ *     <li>Providers, passed to {@code getCachedValue()} without a key, that capture local variables or parameters, other than the element
+ *     the value is cached on. The key is derived from the provider class, so the value computed with the first captured value is returned
+ *     for all other calls as well. If the captured variable is computed from the cached element, the quick fix moves the computation
+ *     into the provider, making it stateless.</li>
+ *     <li>{@code createCachedValue()} calls in methods, whose result doesn't escape the method, e.g. via a field or {@code putUserData()},
+ *     thus a new cached value is allocated, and computed, on every call. The quick fix replaces {@code createCachedValue(provider).getValue()} with
+ *     {@code CachedValuesManager.getCachedValue(element, provider)}, if the element to cache on can be determined, no other argument is passed,
+ *     and the provider captures nothing but the cached element and the project.</li>
+ * </ul>
+ *
+ * @since 1.3.0
+ */
+public class CachedValuesManagerMisuseInspection extends LocalInspectionTool {
+    private static final CallMatcher KEY_CREATE = staticCall("com.intellij.openapi.util.Key", "create");
+    private static final CallMatcher KEYED_CACHED_VALUE_ACCESS = instanceCall(CACHED_VALUES_MANAGER, "getCachedValue", "getParameterizedCachedValue");
+    private static final CallMatcher PROVIDER_KEYED_GET_CACHED_VALUE = CallMatcher.anyOf(
+        staticCall(CACHED_VALUES_MANAGER, "getCachedValue").parameterCount(2),
+        instanceCall(CACHED_VALUES_MANAGER, "getCachedValue").parameterCount(2));
+    private static final CallMatcher CREATE_CACHED_VALUE = instanceCall(CACHED_VALUES_MANAGER, "createCachedValue", "createParameterizedCachedValue");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null) return;
+
+                if (KEY_CREATE.matches(expression)) {
+                    if (HotPathUtil.getContainingMethod(expression) != null && isUsedAsCachedValueKey(expression)) {
+                        holder.registerProblem(methodName, JustKittingBundle.message("inspection.cached.values.manager.key.created.per.call"),
+                            isHoistable(expression) ? new LocalQuickFix[]{new HoistKeyQuickFix()} : LocalQuickFix.EMPTY_ARRAY);
+                    }
+                } else if (PROVIDER_KEYED_GET_CACHED_VALUE.matches(expression)) {
+                    checkForCapturedVariables(expression);
+                } else if (CREATE_CACHED_VALUE.matches(expression)) {
+                    checkForCachedValueCreatedPerCall(expression, methodName);
+                }
+            }
+
+            private void checkForCapturedVariables(PsiMethodCallExpression getCachedValue) {
+                var arguments = getCachedValue.getArgumentList().getExpressions();
+                if (arguments.length != 2 || !(PsiUtil.skipParenthesizedExprDown(arguments[1]) instanceof PsiLambdaExpression provider)) return;
+
+                var cachedElement = PsiUtil.skipParenthesizedExprDown(arguments[0]) instanceof PsiReferenceExpression reference ? reference.resolve() : null;
+                //Reports only the first reference of each captured variable
+                getCapturedVariables(provider, cachedElement).forEach((variable, reference) -> holder.registerProblem(reference,
+                    JustKittingBundle.message("inspection.cached.values.manager.provider.captures.variable", variable.getName()),
+                    isComputableInProvider(variable, cachedElement)
+                        ? new LocalQuickFix[]{new ComputeInProviderQuickFix(variable.getName())}
+                        : LocalQuickFix.EMPTY_ARRAY));
+            }
+
+            private void checkForCachedValueCreatedPerCall(PsiMethodCallExpression createCachedValue, PsiElement methodName) {
+                var containingMethod = HotPathUtil.getContainingMethod(createCachedValue);
+                if (containingMethod == null || containingMethod.isConstructor()) return;
+
+                var parent = PsiUtil.skipParenthesizedExprUp(createCachedValue.getParent());
+                //createCachedValue(provider).getValue()
+                if (parent instanceof PsiReferenceExpression && parent.getParent() instanceof PsiMethodCallExpression getValue) {
+                    //Extra arguments, e.g. 'trackValue', can't be passed to getCachedValue()
+                    String cachedElement = "createCachedValue".equals(createCachedValue.getMethodExpression().getReferenceName())
+                                           && createCachedValue.getArgumentList().getExpressionCount() == 1
+                                           && "getValue".equals(getValue.getMethodExpression().getReferenceName())
+                        ? CachedValueUtil.getElementToCacheOn(containingMethod)
+                        : null;
+                    holder.registerProblem(methodName, JustKittingBundle.message("inspection.cached.values.manager.cached.value.created.per.call"),
+                        cachedElement != null && capturesOnlyCachedElement(createCachedValue.getArgumentList().getExpressions()[0], containingMethod, cachedElement)
+                            ? new LocalQuickFix[]{new UseGetCachedValueQuickFix(cachedElement)}
+                            : LocalQuickFix.EMPTY_ARRAY);
+                }
+                //CachedValue<T> cachedValue = createCachedValue(provider);
+                else if (parent instanceof PsiLocalVariable local && !escapes(local)) {
+                    holder.registerProblem(methodName, JustKittingBundle.message("inspection.cached.values.manager.cached.value.created.per.call"));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the local variables and parameters captured by the argument provider, other than the cached element and the project,
+     * mapped to their first references in the provider.
+     */
+    private static LinkedHashMap<PsiVariable, PsiReferenceExpression> getCapturedVariables(PsiLambdaExpression provider, @Nullable PsiElement cachedElement) {
+        var capturedVariables = new LinkedHashMap<PsiVariable, PsiReferenceExpression>();
+        for (var reference : PsiTreeUtil.findChildrenOfType(provider.getBody(), PsiReferenceExpression.class)) {
+            if (reference.getQualifierExpression() == null
+                && reference.resolve() instanceof PsiVariable variable
+                && (variable instanceof PsiLocalVariable || variable instanceof PsiParameter)
+                && !variable.equals(cachedElement)
+                && !PsiTreeUtil.isAncestor(provider, variable, true)
+                && !InheritanceUtil.isInheritor(variable.getType(), PROJECT)) {
+                capturedVariables.putIfAbsent(variable, reference);
+            }
+        }
+        return capturedVariables;
+    }
+
+    /**
+     * Returns whether the argument provider, passed to {@code createCachedValue()}, is a lambda that captures nothing but the element
+     * the value would be cached on, and the project. Since {@code getCachedValue()} derives the key from the provider class,
+     * the value computed with the first captured state would be returned for all other calls as well.
+     */
+    private static boolean capturesOnlyCachedElement(PsiExpression provider, PsiMethod method, String cachedElement) {
+        if (!(PsiUtil.skipParenthesizedExprDown(provider) instanceof PsiLambdaExpression lambda)) return false;
+        if ("this".equals(cachedElement)) return getCapturedVariables(lambda, null).isEmpty();
+
+        var cachedParameter = Arrays.stream(method.getParameterList().getParameters())
+            .filter(parameter -> cachedElement.equals(parameter.getName()))
+            .findFirst()
+            .orElse(null);
+        return getCapturedVariables(lambda, cachedParameter).isEmpty() && !capturesThis(lambda);
+    }
+
+    /**
+     * Returns whether the argument lambda references {@code this}, either explicitly, or via unqualified instance fields and methods.
+     */
+    private static boolean capturesThis(PsiLambdaExpression lambda) {
+        return !PsiTreeUtil.processElements(lambda, element -> {
+            if (element instanceof PsiThisExpression) return false;
+            if (element instanceof PsiReferenceExpression reference
+                && reference.getQualifierExpression() == null
+                && reference.resolve() instanceof PsiMember member
+                && (member instanceof PsiField || member instanceof PsiMethod)
+                && !member.hasModifierProperty(PsiModifier.STATIC)
+                && !PsiTreeUtil.isAncestor(lambda, member, true)) return false;
+            return true;
+        });
+    }
+
+    /**
+     * Returns whether the argument {@code Key.create()} call is passed, directly or via a local variable, as the key argument of
+     * a {@code CachedValuesManager.getCachedValue()} or {@code getParameterizedCachedValue()} call.
+     */
+    private static boolean isUsedAsCachedValueKey(PsiMethodCallExpression keyCreate) {
+        var parent = PsiUtil.skipParenthesizedExprUp(keyCreate.getParent());
+        if (parent instanceof PsiExpressionList arguments) return KEYED_CACHED_VALUE_ACCESS.matches(arguments.getParent());
+        if (parent instanceof PsiLocalVariable variable) {
+            //forEach() returns false if the processing was stopped, meaning a usage as key was found
+            return !ReferencesSearch.search(variable, new LocalSearchScope(variable.getContainingFile())).forEach(reference ->
+                !(reference.getElement().getParent() instanceof PsiExpressionList arguments && KEYED_CACHED_VALUE_ACCESS.matches(arguments.getParent())));
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the argument {@code Key.create()} call can be moved to a static constant, that is, neither the call,
+     * nor the type of the local variable it may be assigned to, depends on local state or type parameters.
+     */
+    private static boolean isHoistable(PsiMethodCallExpression keyCreate) {
+        if (!CodeMovementUtil.isMovableToConstant(keyCreate) || CodeMovementUtil.getTargetClass(keyCreate) == null) return false;
+        return !(PsiUtil.skipParenthesizedExprUp(keyCreate.getParent()) instanceof PsiLocalVariable local)
+            || !CodeMovementUtil.mentionsTypeParameter(local.getType());
+    }
+
+    /**
+     * Returns whether the argument local variable holding a {@code CachedValue} may outlive the method call, e.g. because it is passed
+     * to {@code putUserData()}, assigned to a field, or returned. It doesn't escape only if it is used as the qualifier of method calls,
+     * like {@code cachedValue.getValue()}.
+     */
+    private static boolean escapes(PsiLocalVariable local) {
+        //forEach() returns false if the processing was stopped, meaning an escaping usage was found
+        return !ReferencesSearch.search(local, new LocalSearchScope(local.getContainingFile())).forEach(reference ->
+            reference.getElement() instanceof PsiReferenceExpression referenceExpression
+            && PsiUtil.skipParenthesizedExprUp(referenceExpression.getParent()) instanceof PsiReferenceExpression methodExpression
+            && PsiTreeUtil.isAncestor(methodExpression.getQualifierExpression(), referenceExpression, false)
+            && methodExpression.getParent() instanceof PsiMethodCallExpression);
+    }
+
+    /**
+     * Returns whether the argument captured variable is a local variable initialized with a method call or reference,
+     * that depends only on the cached element and static members, so that it can be computed in the provider.
+     */
+    private static boolean isComputableInProvider(PsiVariable variable, @Nullable PsiElement cachedElement) {
+        if (!(variable instanceof PsiLocalVariable local)) return false;
+
+        var initializer = PsiUtil.skipParenthesizedExprDown(local.getInitializer());
+        return (initializer instanceof PsiMethodCallExpression || initializer instanceof PsiReferenceExpression)
+            && PsiTreeUtil.processElements(initializer, element -> {
+            if (element instanceof PsiThisExpression) return false;
+            if (element instanceof PsiReferenceExpression reference && reference.resolve() instanceof PsiVariable referenced) {
+                return referenced.equals(cachedElement) || referenced instanceof PsiField field && field.hasModifierProperty(PsiModifier.STATIC);
+            }
+            return true;
+        });
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Moves the {@code Key.create()} call to a {@code private static final} field, and replaces the original key, or the local variable
+     * holding the key, with the reference to the new field.
+     */
+    private static final class HoistKeyQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression keyCreate) || keyCreate.getType() == null) return;
+
+            var targetClass = CodeMovementUtil.getTargetClass(keyCreate);
+            if (targetClass == null) return;
+
+            var local = PsiUtil.skipParenthesizedExprUp(keyCreate.getParent()) instanceof PsiLocalVariable variable ? variable : null;
+            var type = local != null ? local.getType() : keyCreate.getType();
+            String constantName = JavaCodeStyleManager.getInstance(project)
+                .suggestUniqueVariableName(local != null ? toConstantName(local.getName()) : suggestKeyName(keyCreate), targetClass, true);
+
+            var elementFactory = JavaPsiFacade.getElementFactory(project);
+            var constant = elementFactory.createFieldFromText(
+                "private static final " + type.getCanonicalText() + " " + constantName + " = " + keyCreate.getText() + ";", targetClass);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(CodeMovementUtil.addConstant(targetClass, constant));
+
+            if (local != null) {
+                for (var reference : ReferencesSearch.search(local, new LocalSearchScope(local.getContainingFile())).findAll()) {
+                    reference.getElement().replace(elementFactory.createExpressionFromText(constantName, reference.getElement()));
+                }
+                local.delete();
+            } else {
+                keyCreate.replace(elementFactory.createExpressionFromText(constantName, keyCreate));
+            }
+        }
+
+        /**
+         * Returns the constant name based on the key name, e.g. {@code SUPER_CLASSES_KEY} for {@code Key.create("super.classes")}.
+         */
+        private static String suggestKeyName(PsiMethodCallExpression keyCreate) {
+            var arguments = keyCreate.getArgumentList().getExpressions();
+            String keyName = arguments.length == 1 && arguments[0] instanceof PsiLiteralExpression literal && literal.getValue() instanceof String name
+                ? toConstantName(name)
+                : "";
+            if (keyName.isEmpty() || !Character.isJavaIdentifierStart(keyName.charAt(0))) return "KEY";
+            return keyName.endsWith("KEY") ? keyName : keyName + "_KEY";
+        }
+
+        private static String toConstantName(String name) {
+            return Arrays.stream(name.split("[^A-Za-z0-9]+"))
+                .filter(part -> !part.isEmpty())
+                .map(part -> StringUtil.join(NameUtil.splitNameIntoWords(part), "_"))
+                .collect(Collectors.joining("_"))
+                .toUpperCase();
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.cached.values.manager.hoist.key.quick.fix");
+        }
+    }
+
+    /**
+     * Replaces the references of the captured local variable in the provider with the variable's initializer,
+     * and removes the variable if it is no longer used.
+     */
+    private static final class ComputeInProviderQuickFix extends InspectionGadgetsFix {
+        private final String variableName;
+
+        public ComputeInProviderQuickFix(String variableName) {
+            this.variableName = variableName;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiReferenceExpression capturedReference)
+                || !(capturedReference.resolve() instanceof PsiLocalVariable local)
+                || local.getInitializer() == null) return;
+
+            var provider = PsiTreeUtil.getParentOfType(capturedReference, PsiLambdaExpression.class);
+            if (provider == null) return;
+
+            var elementFactory = JavaPsiFacade.getElementFactory(project);
+            String initializer = PsiUtil.skipParenthesizedExprDown(local.getInitializer()).getText();
+            for (var reference : ReferencesSearch.search(local, new LocalSearchScope(provider)).findAll()) {
+                reference.getElement().replace(elementFactory.createExpressionFromText(initializer, reference.getElement()));
+            }
+            if (ReferencesSearch.search(local, new LocalSearchScope(local.getContainingFile())).findFirst() == null) {
+                local.delete();
+            }
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.cached.values.manager.compute.in.provider.quick.fix", variableName);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.cached.values.manager.quick.fix.family");
+        }
+    }
+
+    /**
+     * Replaces {@code createCachedValue(provider).getValue()} with {@code CachedValuesManager.getCachedValue(element, provider)}.
+     */
+    private static final class UseGetCachedValueQuickFix extends InspectionGadgetsFix {
+        private final String cachedElement;
+
+        public UseGetCachedValueQuickFix(String cachedElement) {
+            this.cachedElement = cachedElement;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression createCachedValue)
+                || !(PsiUtil.skipParenthesizedExprUp(createCachedValue.getParent()).getParent() instanceof PsiMethodCallExpression getValue)) return;
+
+            var arguments = createCachedValue.getArgumentList().getExpressions();
+            if (arguments.length != 1) return;
+
+            var getCachedValue = JavaPsiFacade.getElementFactory(project).createExpressionFromText(
+                CACHED_VALUES_MANAGER + ".getCachedValue(" + cachedElement + ", " + arguments[0].getText() + ")", getValue);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(getValue.replace(getCachedValue));
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.cached.values.manager.use.get.cached.value.quick.fix", cachedElement);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.cached.values.manager.quick.fix.family");
+        }
+    }
+}
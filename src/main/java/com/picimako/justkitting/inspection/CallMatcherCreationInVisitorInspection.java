@@ -0,0 +1,127 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.CallMatcherUtil.CALL_MATCHER_MATCHER;
+import static com.picimako.justkitting.CallMatcherUtil.getCallMatcherChain;
+import static com.picimako.justkitting.CodeMovementUtil.addConstant;
+import static com.picimako.justkitting.CodeMovementUtil.getTargetClass;
+import static com.picimako.justkitting.CodeMovementUtil.isMovableToConstant;
+import static com.picimako.justkitting.PlatformNames.CALL_MATCHER;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Reports {@link CallMatcher} factory method calls in PSI and UAST visitor methods, and in private methods called from them.
+ * <p>
+ * Visitor methods are executed for every visited element, thus creating a CallMatcher in them means allocating and configuring
+ * the same matcher over and over again. Since matchers are immutable, they can be stored in static constants instead.
+ * <pre>{@code
+ * //From:
+ * public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+ *     if (CallMatcher.instanceCall("java.util.List", "add").matches(expression)) { }
+ * }
+ *
+ * //To:
+ * private static final CallMatcher.Simple ADD = CallMatcher.instanceCall("java.util.List", "add");
+ *
+ * public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+ *     if (ADD.matches(expression)) { }
+ * }
+ * }</pre>
+ * Calls are reported only when they don't depend on local variables, parameters, instance members, inner and local classes,
+ * or type parameters, thus they can be moved to a static constant.
+ *
+ * @since 1.3.0
+ */
+public class CallMatcherCreationInVisitorInspection extends LocalInspectionTool {
+    private static final CallMatcher CALL_MATCHER_FACTORY_MATCHER = CallMatcher.anyOf(
+        CALL_MATCHER_MATCHER,
+        staticCall(CALL_MATCHER, "anyOf"));
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null || !CALL_MATCHER_FACTORY_MATCHER.matches(expression)) return;
+                //Nested factory calls, e.g. in CallMatcher.anyOf(), are handled as part of the outermost call
+                if (expression.getParent() instanceof PsiExpressionList argumentList && CALL_MATCHER_FACTORY_MATCHER.matches(argumentList.getParent())) return;
+
+                if (isMovableToConstant(getCallMatcherChain(expression)) && HotPathUtil.isReachableFromVisitor(expression)) {
+                    holder.registerProblem(methodName, JustKittingBundle.message("inspection.call.matcher.created.in.visitor"), new ExtractToConstantQuickFix());
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the name of the constant to introduce, based on the first method name argument of the factory call.
+     * E.g. {@code GET_ARGUMENT_LIST} for {@code CallMatcher.instanceCall(PSI_CALL, "getArgumentList")}.
+     */
+    private static String suggestConstantName(PsiMethodCallExpression factoryCall, PsiClass targetClass) {
+        String baseName = "anyOf".equals(factoryCall.getMethodExpression().getReferenceName())
+            ? "ANY_OF"
+            : Arrays.stream(factoryCall.getArgumentList().getExpressions())
+            .skip(1)
+            .filter(PsiLiteralExpression.class::isInstance)
+            .map(methodName -> ((PsiLiteralExpression) methodName).getValue())
+            .filter(String.class::isInstance)
+            .findFirst()
+            .map(methodName -> StringUtil.join(NameUtil.splitNameIntoWords((String) methodName), "_").toUpperCase())
+            .orElse("CALL_MATCHER");
+        return JavaCodeStyleManager.getInstance(targetClass.getProject()).suggestUniqueVariableName(baseName, targetClass, true);
+    }
+
+    /**
+     * Moves the CallMatcher creation to a {@code private static final} field, and replaces the original expression with
+     * the reference to the new field.
+     */
+    private static final class ExtractToConstantQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression factoryCall)) return;
+
+            var targetClass = getTargetClass(factoryCall);
+            if (targetClass == null) return;
+
+            var callMatcherChain = getCallMatcherChain(factoryCall);
+            String constantName = suggestConstantName(factoryCall, targetClass);
+            var elementFactory = JavaPsiFacade.getElementFactory(project);
+            var constant = elementFactory.createFieldFromText(
+                "private static final " + callMatcherChain.getType().getCanonicalText() + " " + constantName + " = " + callMatcherChain.getText() + ";",
+                targetClass);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(addConstant(targetClass, constant));
+            callMatcherChain.replace(elementFactory.createExpressionFromText(constantName, callMatcherChain));
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.call.matcher.extract.to.constant.quick.fix");
+        }
+    }
+}
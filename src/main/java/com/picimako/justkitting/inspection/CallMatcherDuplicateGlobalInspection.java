@@ -0,0 +1,257 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.CallMatcherUtil.getCallMatcherChain;
+import static com.picimako.justkitting.CallMatcherUtil.getCallType;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.CallMatcherResolutionCache;
+import com.picimako.justkitting.CallMatcherUtil;
+import com.picimako.justkitting.reference.CallMatcherReferenceContributor;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reports {@link com.siyeh.ig.callMatcher.CallMatcher} constants in the analysis scope that are semantically equal to
+ * another CallMatcher constant, so that the same matcher is not created and initialized in multiple classes.
+ * <p>
+ * Two CallMatcher constants are considered equal when
+ * <ul>
+ *     <li>they are created by the same factory method,</li>
+ *     <li>they reference the same class, regardless of whether the class name is specified via a literal or a constant,</li>
+ *     <li>they reference the same set of method names, regardless of their order,</li>
+ *     <li>they are configured by the same chained calls, e.g. {@code parameterCount()}, with the same argument values.</li>
+ * </ul>
+ * From each group of equal constants, a shared one is selected (non-private constants are preferred), and all the others
+ * are reported, with a quick fix to initialize them with the shared constant.
+ * <p>
+ * Since this is a global inspection, it is available only in batch mode, where the quick fix can be applied to all
+ * reported constants at once.
+ *
+ * @since 1.3.0
+ */
+public class CallMatcherDuplicateGlobalInspection extends GlobalInspectionTool {
+
+    @Override
+    public void runInspection(@NotNull AnalysisScope scope,
+                              @NotNull InspectionManager manager,
+                              @NotNull GlobalInspectionContext globalContext,
+                              @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        var callMatcherCalls = CallMatcherUtil.findCallMatcherFactoryCalls(globalContext.getProject(), scope.toSearchScope());
+        if (callMatcherCalls.size() < 2) return;
+
+        var resolutionCache = new CallMatcherResolutionCache();
+        var constantsByDefinition = new ConcurrentHashMap<String, Queue<PsiField>>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(callMatcherCalls, ProgressManager.getGlobalProgressIndicator(), callMatcherCall -> {
+            ReadAction.run(() -> {
+                var constant = getInitializedConstant(callMatcherCall);
+                String definition = constant != null ? getDefinition(callMatcherCall, constant.getInitializer(), resolutionCache) : null;
+                if (definition != null) {
+                    constantsByDefinition.computeIfAbsent(definition, __ -> new ConcurrentLinkedQueue<>()).add(constant);
+                }
+            });
+            return true;
+        });
+
+        ReadAction.run(() -> reportDuplicates(constantsByDefinition, manager, globalContext, problemDescriptionsProcessor));
+    }
+
+    /**
+     * Returns the {@code static final} field that is initialized with the argument factory call, including the chained
+     * configuration calls on it, or null if the factory call is not a constant initializer.
+     */
+    @Nullable
+    private static PsiField getInitializedConstant(PsiMethodCallExpression factoryCall) {
+        if (!factoryCall.isValid()) return null;
+        var callMatcherChain = getCallMatcherChain(factoryCall);
+        return PsiUtil.skipParenthesizedExprUp(callMatcherChain.getParent()) instanceof PsiField field
+            && field.hasModifierProperty(PsiModifier.STATIC)
+            && field.hasModifierProperty(PsiModifier.FINAL)
+            ? field
+            : null;
+    }
+
+    /**
+     * Returns a textual representation of what the argument CallMatcher matches, or null if it cannot be determined,
+     * e.g. because a class name or method name argument is not a compile-time constant.
+     */
+    @Nullable
+    private static String getDefinition(PsiMethodCallExpression factoryCall, PsiExpression callMatcherChain, CallMatcherResolutionCache resolutionCache) {
+        String callType = getCallType(factoryCall);
+        var arguments = factoryCall.getArgumentList().getExpressions();
+        if (callType == null || arguments.length == 0) return null;
+
+        var referencedClass = resolutionCache.findClass(arguments[0]);
+        String classFqn = referencedClass != null ? referencedClass.getQualifiedName() : CallMatcherReferenceContributor.evaluateClassName(arguments[0]);
+        if (classFqn == null) return null;
+
+        var methodNames = new TreeSet<String>();
+        for (int i = 1; i < arguments.length; i++) {
+            if (!(evaluate(arguments[i]) instanceof String methodName)) return null;
+            methodNames.add(methodName);
+        }
+
+        var definition = new StringBuilder(callType).append(':').append(classFqn).append(':').append(methodNames);
+        //Collects the chained configuration calls from the innermost one to the outermost one
+        var configurationCalls = new ArrayList<PsiMethodCallExpression>();
+        for (PsiExpression current = PsiUtil.skipParenthesizedExprDown(callMatcherChain);
+             current instanceof PsiMethodCallExpression call && call != factoryCall;
+             current = call.getMethodExpression().getQualifierExpression()) {
+            configurationCalls.addFirst(call);
+        }
+        for (var configurationCall : configurationCalls) {
+            definition.append('.').append(configurationCall.getMethodExpression().getReferenceName()).append('(');
+            for (var argument : configurationCall.getArgumentList().getExpressions()) {
+                Object value = evaluate(argument);
+                definition.append(value != null ? value : argument.getText().replaceAll("\\s", "")).append(',');
+            }
+            definition.append(')');
+        }
+        return definition.toString();
+    }
+
+    @Nullable
+    private static Object evaluate(PsiExpression expression) {
+        return expression instanceof PsiLiteralExpression literal
+            ? literal.getValue()
+            : JavaPsiFacade.getInstance(expression.getProject()).getConstantEvaluationHelper().computeConstantExpression(expression);
+    }
+
+    /**
+     * Selects the shared constant from each group of equal constants, and reports all other constants in the group.
+     */
+    private static void reportDuplicates(Map<String, Queue<PsiField>> constantsByDefinition,
+                                         InspectionManager manager,
+                                         GlobalInspectionContext globalContext,
+                                         ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        for (var constants : constantsByDefinition.values()) {
+            if (constants.size() < 2) continue;
+
+            var sharedConstant = selectSharedConstant(constants);
+            var resolveHelper = JavaPsiFacade.getInstance(sharedConstant.getProject()).getResolveHelper();
+            for (var constant : constants) {
+                if (constant == sharedConstant
+                    || constant.getNameIdentifier() == null
+                    //The shared constant must be accessible from the duplicate, at least after making it public
+                    || !resolveHelper.isAccessible(Objects.requireNonNull(sharedConstant.getContainingClass()), constant, null)
+                    || !constant.getType().isAssignableFrom(sharedConstant.getType())) {
+                    continue;
+                }
+
+                var refEntity = globalContext.getRefManager().getReference(constant.getContainingFile());
+                if (refEntity != null) {
+                    String sharedConstantName = sharedConstant.getContainingClass().getName() + "." + sharedConstant.getName();
+                    ProblemDescriptor descriptor = manager.createProblemDescriptor(constant.getNameIdentifier(),
+                        JustKittingBundle.message("inspection.call.matcher.duplicate", sharedConstantName),
+                        new ReuseSharedConstantQuickFix(sharedConstant, sharedConstantName),
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING, false);
+                    problemDescriptionsProcessor.addProblemElement(refEntity, descriptor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the constant to be shared: the first non-private one ordered by their containing classes' and their own names,
+     * or the first one if all of them are private.
+     */
+    private static PsiField selectSharedConstant(Collection<PsiField> constants) {
+        List<PsiField> orderedConstants = constants.stream()
+            .sorted(Comparator.<PsiField, String>comparing(constant -> String.valueOf(constant.getContainingClass().getQualifiedName()))
+                .thenComparing(PsiField::getName))
+            .toList();
+        return orderedConstants.stream()
+            .filter(constant -> !constant.hasModifierProperty(PsiModifier.PRIVATE))
+            .findFirst()
+            .orElse(orderedConstants.getFirst());
+    }
+
+    @Override
+    public boolean isGraphNeeded() {
+        return false;
+    }
+
+    /**
+     * Replaces the initializer of the reported constant with a reference to the shared constant.
+     * <p>
+     * If the shared constant is not accessible from the reported one, it is made public.
+     */
+    private static final class ReuseSharedConstantQuickFix implements LocalQuickFix {
+        private final SmartPsiElementPointer<PsiField> sharedConstant;
+        private final String sharedConstantName;
+
+        private ReuseSharedConstantQuickFix(PsiField sharedConstant, String sharedConstantName) {
+            this.sharedConstant = SmartPointerManager.createPointer(sharedConstant);
+            this.sharedConstantName = sharedConstantName;
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.call.matcher.duplicate.quick.fix", sharedConstantName);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.call.matcher.duplicate.quick.fix.family");
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            var shared = sharedConstant.getElement();
+            if (shared == null || shared.getContainingClass() == null || !(descriptor.getPsiElement().getParent() instanceof PsiField constant)) return;
+
+            if (!JavaPsiFacade.getInstance(project).getResolveHelper().isAccessible(shared, constant, null)) {
+                PsiUtil.setModifierProperty(shared, PsiModifier.PUBLIC, true);
+            }
+            var reference = JavaPsiFacade.getElementFactory(project)
+                .createExpressionFromText(shared.getContainingClass().getQualifiedName() + "." + shared.getName(), constant);
+            var initializer = constant.getInitializer();
+            if (initializer != null) {
+                JavaCodeStyleManager.getInstance(project).shortenClassReferences(initializer.replace(reference));
+            }
+        }
+
+        @Override
+        public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull ProblemDescriptor previewDescriptor) {
+            //The shared constant may be in a different file than the one the problem is reported in
+            return IntentionPreviewInfo.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.util.PsiLiteralUtil.isUnsafeLiteral;
+import static com.picimako.justkitting.CallMatcherUtil.getCallType;
+import static com.picimako.justkitting.inspection.CallMatcherInspection.getMissingMethodMessageKey;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.picimako.justkitting.CallMatcherResolutionCache;
+import com.picimako.justkitting.CallMatcherUtil;
+import com.picimako.justkitting.reference.CallMatcherReferenceContributor;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Validates all {@link com.siyeh.ig.callMatcher.CallMatcher} factory method calls in the analysis scope, so that broken matchers
+ * can be found in the whole project, e.g. as part of a CI inspection run, and not only in the files open in the editor.
+ * <p>
+ * The {@code staticCall}, {@code instanceCall} and {@code exactInstanceCall} calls are collected via searching for the references
+ * of these factory methods, instead of walking through each file. Then, they are validated concurrently.
+ * <p>
+ * It reports
+ * <ul>
+ *     <li>class FQN arguments that can be evaluated, but no class exists with that name,</li>
+ *     <li>method name arguments that don't exist in the referenced class, the same way as {@link CallMatcherInspection} does.</li>
+ * </ul>
+ * Since this is a global inspection, it is available only in batch mode, e.g. via Code | Inspect Code... and the command line inspection runner.
+ *
+ * @since 1.3.0
+ */
+public class CallMatcherGlobalInspection extends GlobalInspectionTool {
+
+    @Override
+    public void runInspection(@NotNull AnalysisScope scope,
+                              @NotNull InspectionManager manager,
+                              @NotNull GlobalInspectionContext globalContext,
+                              @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        var callMatcherCalls = CallMatcherUtil.findCallMatcherFactoryCalls(globalContext.getProject(), scope.toSearchScope());
+        if (callMatcherCalls.isEmpty()) return;
+
+        //Classes are shared between the workers, so that each class is resolved only once in the whole project
+        var resolutionCache = new CallMatcherResolutionCache();
+        var problems = new ConcurrentLinkedQueue<Problem>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(callMatcherCalls, ProgressManager.getGlobalProgressIndicator(), callMatcherCall -> {
+            ReadAction.run(() -> validate(callMatcherCall, resolutionCache, manager, globalContext, problems));
+            return true;
+        });
+
+        //Problems are passed to the processor one by one, after all workers finished
+        for (var problem : problems) {
+            problemDescriptionsProcessor.addProblemElement(problem.refEntity, problem.descriptor);
+        }
+    }
+
+    /**
+     * Validates the class FQN and method name arguments of the argument CallMatcher call, and collects the problems found.
+     */
+    private static void validate(PsiMethodCallExpression callMatcherCall,
+                                 CallMatcherResolutionCache resolutionCache,
+                                 InspectionManager manager,
+                                 GlobalInspectionContext globalContext,
+                                 Queue<Problem> problems) {
+        if (!callMatcherCall.isValid()) return;
+
+        var arguments = callMatcherCall.getArgumentList().getExpressions();
+        var referencedClass = resolutionCache.findClass(arguments[0]);
+        if (referencedClass == null) {
+            //If the class name can't be evaluated, it is not reported, so that false positives are prevented
+            if (CallMatcherReferenceContributor.evaluateClassName(arguments[0]) != null) {
+                addProblem(arguments[0], "inspection.call.matcher.no.class.with.name", manager, globalContext, problems);
+            }
+            return;
+        }
+
+        String callType = getCallType(callMatcherCall);
+        for (int i = 1; i < arguments.length; i++) {
+            if (arguments[i] instanceof PsiLiteralExpression methodNameArg && !isUnsafeLiteral(methodNameArg)) {
+                String messageKey = getMissingMethodMessageKey(methodNameArg, referencedClass, callType, resolutionCache);
+                if (messageKey != null) {
+                    addProblem(methodNameArg, messageKey, manager, globalContext, problems);
+                }
+            }
+        }
+    }
+
+    private static void addProblem(PsiElement element, String messageKey, InspectionManager manager, GlobalInspectionContext globalContext, Queue<Problem> problems) {
+        var refEntity = globalContext.getRefManager().getReference(element.getContainingFile());
+        if (refEntity != null) {
+            var descriptor = manager.createProblemDescriptor(element, JustKittingBundle.message(messageKey), (LocalQuickFix) null, ProblemHighlightType.LIKE_UNKNOWN_SYMBOL, false);
+            problems.add(new Problem(refEntity, descriptor));
+        }
+    }
+
+    @Override
+    public boolean isGraphNeeded() {
+        return false;
+    }
+
+    private record Problem(RefEntity refEntity, ProblemDescriptor descriptor) {
+    }
+}
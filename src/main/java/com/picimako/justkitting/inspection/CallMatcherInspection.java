@@ -4,30 +4,26 @@ package com.picimako.justkitting.inspection;
 
 import static com.intellij.psi.util.PsiLiteralUtil.isUnsafeLiteral;
 import static com.picimako.justkitting.CallMatcherUtil.ARGUMENT_OF_CALL_MATCHER_PATTERN;
-import static com.picimako.justkitting.CallMatcherUtil.CALL_MATCHER_EXACT_INSTANCE_MATCHER;
-import static com.picimako.justkitting.CallMatcherUtil.CALL_MATCHER_INSTANCE_MATCHER;
-import static com.picimako.justkitting.CallMatcherUtil.CALL_MATCHER_STATIC_MATCHER;
-import static com.picimako.justkitting.CallMatcherUtil.filterByNonStatic;
-import static com.picimako.justkitting.CallMatcherUtil.filterByStatic;
-import static com.picimako.justkitting.reference.CallMatcherReferenceContributor.findClass;
+import static com.picimako.justkitting.CallMatcherUtil.EXACT_INSTANCE_CALL;
+import static com.picimako.justkitting.CallMatcherUtil.STATIC_CALL;
+import static com.picimako.justkitting.CallMatcherUtil.getCallType;
 
 import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiLiteralExpression;
-import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.picimako.justkitting.CallMatcherResolutionCache;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.Optional;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Reports method name arguments of calls to {@link com.siyeh.ig.callMatcher.CallMatcher} if they don't exist in the current context of the call matcher.
@@ -41,13 +37,17 @@ import java.util.Optional;
  *     <li>the call is {@link com.siyeh.ig.callMatcher.CallMatcher#staticCall(String, String...)}, problem is registered only when the method doesn't
  *     exist as a static method in the class or any of its super classes.</li>
  * </ul>
+ * <p>
+ * Referenced classes and method lookups are cached per file, per inspection session, via {@link CallMatcherResolutionCache}.
  *
  * @since 0.1.0
  */
 public class CallMatcherInspection extends LocalInspectionTool {
 
     @Override
-    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
+        //Classes and methods are resolved once per file, regardless of how many CallMatchers reference them
+        var resolutionCache = CallMatcherResolutionCache.getInstance(session);
         return new JavaElementVisitor() {
             @Override
             public void visitLiteralExpression(@NotNull PsiLiteralExpression literalExpr) {
@@ -58,37 +58,36 @@ public class CallMatcherInspection extends LocalInspectionTool {
 
                 var referencedClassFqn = parentCall.getArgumentList().getExpressions()[0];
                 if (!literalExpr.getManager().areElementsEquivalent(literalExpr, referencedClassFqn) && !isUnsafeLiteral(literalExpr)) {
-                    Optional.ofNullable(findClass(referencedClassFqn))
-                        .ifPresent(referencedClass -> {
-                            var methodCountAndMessage = getMethodCountAndMessage(literalExpr, referencedClass, parentCall);
-                            if (!methodCountAndMessage.equals(Pair.empty()) && methodCountAndMessage.first == 0) {
-                                holder.registerProblem(literalExpr, JustKittingBundle.message(methodCountAndMessage.second), ProblemHighlightType.LIKE_UNKNOWN_SYMBOL);
-                            }
-                        });
+                    var referencedClass = resolutionCache.findClass(referencedClassFqn);
+                    if (referencedClass != null) {
+                        String messageKey = getMissingMethodMessageKey(literalExpr, referencedClass, getCallType(parentCall), resolutionCache);
+                        if (messageKey != null) {
+                            holder.registerProblem(literalExpr, JustKittingBundle.message(messageKey), ProblemHighlightType.LIKE_UNKNOWN_SYMBOL);
+                        }
+                    }
                 }
             }
+        };
+    }
 
-            /**
-             * Returns the method count for the provided method name filtered by the CallMatcher type,
-             * paired with the appropriate inspection message key.
-             *
-             * @param methodNameArg a method name String literal in the CallMatcher creation
-             * @param referencedClass the PsiClass the CallMatcher references
-             * @param parentCall the type of CallMatcher (instanceCall, exactInstanceCall, staticCall)
-             */
-            @NotNull
-            private Pair<Integer, String> getMethodCountAndMessage(PsiElement methodNameArg, @NotNull PsiClass referencedClass, PsiMethodCallExpression parentCall) {
-                boolean isExactInstance = CALL_MATCHER_EXACT_INSTANCE_MATCHER.matches(parentCall);
-                PsiMethod[] methodsInClass = referencedClass.findMethodsByName(StringUtil.unquoteString(methodNameArg.getText()), !isExactInstance);
-                if (isExactInstance) {
-                    return Pair.create(filterByNonStatic(methodsInClass).length, "inspection.call.matcher.no.exact.instance.method.with.name");
-                } else if (CALL_MATCHER_STATIC_MATCHER.matches(parentCall)) {
-                    return Pair.create(filterByStatic(methodsInClass).length, "inspection.call.matcher.no.static.method.with.name");
-                } else if (CALL_MATCHER_INSTANCE_MATCHER.matches(parentCall)) {
-                    return Pair.create(filterByNonStatic(methodsInClass).length, "inspection.call.matcher.no.instance.method.with.name");
-                }
-                return Pair.empty();
-            }
+    /**
+     * Returns the inspection message key if no method exists with the provided name for the given CallMatcher type,
+     * or null if there is at least one.
+     *
+     * @param methodNameArg   a method name String literal in the CallMatcher creation
+     * @param referencedClass the PsiClass the CallMatcher references
+     * @param callType        the type of CallMatcher (instanceCall, exactInstanceCall, staticCall)
+     * @param resolutionCache the cache to look up the methods with
+     */
+    @Nullable
+    static String getMissingMethodMessageKey(PsiElement methodNameArg, @NotNull PsiClass referencedClass, @Nullable String callType, CallMatcherResolutionCache resolutionCache) {
+        if (callType == null
+            || resolutionCache.getMethodCount(referencedClass, StringUtil.unquoteString(methodNameArg.getText()), callType) > 0) return null;
+
+        return switch (callType) {
+            case EXACT_INSTANCE_CALL -> "inspection.call.matcher.no.exact.instance.method.with.name";
+            case STATIC_CALL -> "inspection.call.matcher.no.static.method.with.name";
+            default -> "inspection.call.matcher.no.instance.method.with.name";
         };
     }
 }
@@ -0,0 +1,153 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.CallMatcherUtil.isCombinableToAnyOf;
+import static com.picimako.justkitting.CodeMovementUtil.addConstant;
+import static com.picimako.justkitting.CodeMovementUtil.getTargetClass;
+import static com.picimako.justkitting.PlatformNames.CALL_MATCHER;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+import static java.util.stream.Collectors.joining;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiPolyadicExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports OR expressions of {@link CallMatcher} matcher method calls with the same argument, that can be combined to a single
+ * {@code CallMatcher.anyOf()} constant. It is the inspection counterpart of
+ * {@link com.picimako.justkitting.intention.callmatcher.CallMatchersConversionToAnyOfIntention}, so that such expressions
+ * can be found, and fixed, in a whole file or project at once.
+ * <pre>{@code
+ * //From:
+ * if (LIST_OF.matches(expression) || SET_OF.matches(expression)) { }
+ *
+ * //To:
+ * private static final CallMatcher LIST_OF_OR_SET_OF = CallMatcher.anyOf(LIST_OF, SET_OF);
+ *
+ * if (LIST_OF_OR_SET_OF.matches(expression)) { }
+ * }</pre>
+ * Expressions are reported only when all CallMatchers in them are static fields, so that the combined matcher can be a static constant.
+ * <p>
+ * If there is already a constant in the target class with the same {@code anyOf()} call, the quick fix reuses that constant,
+ * thus applying the fix on multiple expressions with the same CallMatchers introduces only one constant.
+ *
+ * @since 1.3.0
+ */
+public class CallMatchersConversionToAnyOfInspection extends LocalInspectionTool {
+    private static final CallMatcher ANY_OF_MATCHER = staticCall(CALL_MATCHER, "anyOf");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitPolyadicExpression(@NotNull PsiPolyadicExpression expression) {
+                if (isCombinableToAnyOf(expression) && getQualifiers(expression).stream().allMatch(CallMatchersConversionToAnyOfInspection::isStaticField)) {
+                    holder.registerProblem(expression, JustKittingBundle.message("inspection.call.matchers.combinable.to.any.of"), new CombineToAnyOfQuickFix());
+                }
+            }
+        };
+    }
+
+    private static List<PsiExpression> getQualifiers(PsiPolyadicExpression expression) {
+        return Arrays.stream(expression.getOperands())
+            .map(operand -> ((PsiMethodCallExpression) operand).getMethodExpression().getQualifierExpression())
+            .toList();
+    }
+
+    private static boolean isStaticField(PsiExpression qualifier) {
+        return PsiUtil.skipParenthesizedExprDown(qualifier) instanceof PsiReferenceExpression reference
+            && reference.resolve() instanceof PsiField field
+            && field.hasModifierProperty(PsiModifier.STATIC);
+    }
+
+    /**
+     * Introduces a {@code CallMatcher.anyOf()} constant, or reuses an existing one, and replaces the reported expression
+     * with a single call to the matcher method on that constant.
+     */
+    private static final class CombineToAnyOfQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiPolyadicExpression expression)) return;
+
+            var targetClass = getTargetClass(expression);
+            if (targetClass == null) return;
+
+            var qualifiers = getQualifiers(expression);
+            String anyOfArguments = qualifiers.stream().map(PsiExpression::getText).collect(joining(", "));
+            String constantName = findExistingConstant(targetClass, qualifiers);
+            if (constantName == null) {
+                constantName = suggestConstantName(targetClass, qualifiers);
+                var constant = JavaPsiFacade.getElementFactory(project).createFieldFromText(
+                    "private static final " + CALL_MATCHER + " " + constantName + " = " + CALL_MATCHER + ".anyOf(" + anyOfArguments + ");", targetClass);
+                JavaCodeStyleManager.getInstance(project).shortenClassReferences(addConstant(targetClass, constant));
+            }
+
+            var firstOperand = (PsiMethodCallExpression) expression.getOperands()[0];
+            String matchesCall = constantName + "." + firstOperand.getMethodExpression().getReferenceName() + firstOperand.getArgumentList().getText();
+            expression.replace(JavaPsiFacade.getElementFactory(project).createExpressionFromText(matchesCall, expression));
+        }
+
+        /**
+         * Returns the name of the static final field in the target class that is initialized with an {@code anyOf()} call
+         * with the same arguments, in the same order, as the argument qualifiers.
+         */
+        @Nullable
+        private static String findExistingConstant(PsiClass targetClass, List<PsiExpression> qualifiers) {
+            return Arrays.stream(targetClass.getFields())
+                .filter(field -> field.hasModifierProperty(PsiModifier.STATIC) && field.hasModifierProperty(PsiModifier.FINAL))
+                .filter(field -> PsiUtil.skipParenthesizedExprDown(field.getInitializer()) instanceof PsiMethodCallExpression anyOfCall
+                    && ANY_OF_MATCHER.matches(anyOfCall)
+                    && haveSameTexts(anyOfCall.getArgumentList().getExpressions(), qualifiers))
+                .map(PsiField::getName)
+                .findFirst()
+                .orElse(null);
+        }
+
+        private static boolean haveSameTexts(PsiExpression[] arguments, List<PsiExpression> qualifiers) {
+            if (arguments.length != qualifiers.size()) return false;
+            for (int i = 0; i < arguments.length; i++) {
+                if (!arguments[i].textMatches(qualifiers.get(i))) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Returns the name of the new constant based on the names of the combined CallMatchers, e.g. {@code LIST_OF_OR_SET_OF}.
+         */
+        private static String suggestConstantName(PsiClass targetClass, List<PsiExpression> qualifiers) {
+            String baseName = qualifiers.stream()
+                .map(qualifier -> ((PsiReferenceExpression) PsiUtil.skipParenthesizedExprDown(qualifier)).getReferenceName())
+                .collect(joining("_OR_"));
+            return JavaCodeStyleManager.getInstance(targetClass.getProject()).suggestUniqueVariableName(baseName, targetClass, true);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("intention.call.matcher.family.name");
+        }
+    }
+}
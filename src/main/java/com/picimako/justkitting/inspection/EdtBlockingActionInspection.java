@@ -0,0 +1,347 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.PROGRESS_MANAGER;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInsight.daemon.impl.analysis.HighlightControlFlowUtil;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiDeclarationStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.PsiElementUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import com.siyeh.ig.psiutils.VariableAccessUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Reports blocking operations in {@code AnAction}s that are executed on the EDT, thus freeze the UI:
+ * <ul>
+ *     <li>network requests, e.g. via Apache's and Java's {@code HttpClient}, {@code HttpRequests} and {@code URL},</li>
+ *     <li>blocking file I/O via {@code java.nio.file.Files},</li>
+ *     <li>{@code Thread.sleep()},</li>
+ *     <li>process execution,</li>
+ *     <li>reference, inheritor and index searches.</li>
+ * </ul>
+ * They are reported when they are reachable from {@code actionPerformed()}, or from {@code update()} when {@code getActionUpdateThread()}
+ * returns {@code ActionUpdateThread.EDT} or is not overridden. Operations in lambdas passed to background executors, e.g. to
+ * {@code Application.executeOnPooledThread()}, and in anonymous classes, e.g. in {@code Task.Backgroundable}, are not reported.
+ * <p>
+ * Quick fixes are available to move the blocking operation from {@code actionPerformed()} into {@code Task.Backgroundable.run()},
+ * and the statements following it, which may access the UI, into {@code onSuccess()}, which is called on the EDT, and to switch the update
+ * thread to {@code ActionUpdateThread.BGT}. Searches are not moved, since {@code Task.Backgroundable.run()} doesn't run in a read action,
+ * and neither are operations that access the {@code AnActionEvent}, since its data is not accessible on background threads.
+ *
+ * @since 1.3.0
+ */
+public class EdtBlockingActionInspection extends LocalInspectionTool {
+    private static final String AN_ACTION = "com.intellij.openapi.actionSystem.AnAction";
+    private static final String AN_ACTION_EVENT = "com.intellij.openapi.actionSystem.AnActionEvent";
+    private static final String ACTION_UPDATE_THREAD = "com.intellij.openapi.actionSystem.ActionUpdateThread";
+    private static final String TASK_INDICATOR = "indicator";
+    /**
+     * Reference, inheritor and index searches. They need a read action, so they are not moved into a {@code Task.Backgroundable} as is.
+     */
+    private static final CallMatcher SEARCH = CallMatcher.anyOf(
+        staticCall("com.intellij.psi.search.searches.ReferencesSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.MethodReferencesSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.ClassInheritorsSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.OverridingMethodsSearch", "search"),
+        staticCall("com.intellij.psi.search.FilenameIndex", "getVirtualFilesByName", "getFilesByName", "processFilesByName"),
+        instanceCall("com.intellij.util.indexing.FileBasedIndex", "getValues", "getContainingFiles", "processValues", "processAllKeys"),
+        instanceCall("com.intellij.psi.stubs.StubIndex", "getElements", "processElements"));
+    private static final CallMatcher BLOCKING_OPERATION = CallMatcher.anyOf(
+        //Network
+        instanceCall("org.apache.http.client.HttpClient", "execute"),
+        instanceCall("java.net.http.HttpClient", "send"),
+        instanceCall("java.net.URL", "openStream", "openConnection", "getContent"),
+        instanceCall("java.net.URLConnection", "connect", "getInputStream", "getOutputStream"),
+        instanceCall("com.intellij.util.io.RequestBuilder", "connect", "tryConnect", "readString", "readBytes", "saveToFile"),
+        //File I/O
+        staticCall("java.nio.file.Files", "readAllBytes", "readAllLines", "readString", "write", "writeString", "copy", "move", "walk", "list", "lines"),
+        //Thread.sleep()
+        staticCall("java.lang.Thread", "sleep"),
+        //Process execution
+        instanceCall("java.lang.ProcessBuilder", "start"),
+        instanceCall("java.lang.Runtime", "exec"),
+        instanceCall("java.lang.Process", "waitFor"),
+        staticCall("com.intellij.execution.util.ExecUtil", "execAndGetOutput", "execAndReadLine"),
+        instanceCall("com.intellij.execution.process.CapturingProcessHandler", "runProcess"),
+        //Searches
+        SEARCH);
+    /**
+     * Calls that execute the lambdas passed to them in a background thread.
+     */
+    private static final CallMatcher BACKGROUND_EXECUTION = CallMatcher.anyOf(
+        instanceCall("com.intellij.openapi.application.Application", "executeOnPooledThread"),
+        instanceCall(PROGRESS_MANAGER,
+            "runProcessWithProgressSynchronously", "runProcessWithProgressAsynchronously", "runInReadActionWithWriteActionPriority"),
+        staticCall("com.intellij.openapi.application.ReadAction", "nonBlocking"),
+        staticCall("java.util.concurrent.CompletableFuture", "supplyAsync", "runAsync"),
+        instanceCall("java.util.concurrent.Executor", "execute"),
+        instanceCall("java.util.concurrent.ExecutorService", "submit"));
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null || !BLOCKING_OPERATION.matches(expression) || isExecutedInBackground(expression)) return;
+
+                String operationName = PsiElementUtil.getCallName(expression);
+                if (HotPathUtil.isReachableFrom(expression, method -> isActionMethod(method, "actionPerformed"))) {
+                    holder.registerProblem(methodName,
+                        JustKittingBundle.message("inspection.edt.blocking.action.action.performed", operationName),
+                        !SEARCH.matches(expression) && getMovableStatement(expression) != null
+                            ? new LocalQuickFix[]{new MoveToBackgroundTaskQuickFix()}
+                            : LocalQuickFix.EMPTY_ARRAY);
+                } else if (HotPathUtil.isReachableFrom(expression, method -> isActionMethod(method, "update") && isUpdatedOnEdt(method.getContainingClass()))) {
+                    holder.registerProblem(methodName,
+                        JustKittingBundle.message("inspection.edt.blocking.action.update", operationName),
+                        new SwitchToBgtQuickFix());
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns whether the argument method is the {@code methodName(AnActionEvent)} method of an {@code AnAction}.
+     */
+    private static boolean isActionMethod(PsiMethod method, String methodName) {
+        return methodName.equals(method.getName())
+            && method.getParameterList().getParametersCount() == 1
+            && InheritanceUtil.isInheritor(method.getParameterList().getParameters()[0].getType(), AN_ACTION_EVENT)
+            && InheritanceUtil.isInheritor(method.getContainingClass(), AN_ACTION);
+    }
+
+    /**
+     * Returns whether the argument operation is in a lambda, or method reference, that is passed to a background executor call.
+     */
+    private static boolean isExecutedInBackground(PsiMethodCallExpression operation) {
+        PsiElement element = operation;
+        while ((element = PsiTreeUtil.getParentOfType(element, PsiLambdaExpression.class, true, PsiMethod.class, PsiClass.class)) != null) {
+            if (PsiUtil.skipParenthesizedExprUp(element.getParent()) instanceof PsiExpressionList arguments
+                && arguments.getParent() instanceof PsiMethodCallExpression call
+                && BACKGROUND_EXECUTION.matches(call)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether {@code update()} of the argument action class is executed on the EDT, that is {@code getActionUpdateThread()}
+     * returns {@code ActionUpdateThread.EDT}, or it is not overridden.
+     * <p>
+     * If it is overridden in a library class, it is not considered as executed on the EDT, since its return value cannot be determined.
+     */
+    private static boolean isUpdatedOnEdt(@Nullable PsiClass actionClass) {
+        if (actionClass == null) return false;
+        for (var method : actionClass.findMethodsByName("getActionUpdateThread", true)) {
+            var containingClass = method.getContainingClass();
+            if (containingClass == null || containingClass.isInterface() || AN_ACTION.equals(containingClass.getQualifiedName())) continue;
+            if (method instanceof PsiCompiledElement || method.getBody() == null) return false;
+
+            return PsiTreeUtil.findChildrenOfType(method.getBody(), PsiReturnStatement.class).stream()
+                .anyMatch(returnStatement -> PsiUtil.skipParenthesizedExprDown(returnStatement.getReturnValue()) instanceof PsiReferenceExpression reference
+                                             && reference.resolve() instanceof PsiEnumConstant constant
+                                             && "EDT".equals(constant.getName()));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the statement of the argument operation, if
+     * <ul>
+     *     <li>it is directly in the body of {@code actionPerformed()},</li>
+     *     <li>it is an expression statement, or declares a single variable, whose value can be passed to {@code onSuccess()} in a field,</li>
+     *     <li>it doesn't access the {@code AnActionEvent}, whose data is not accessible on background threads,</li>
+     *     <li>the variables declared before it, and used in it and the following statements, are effectively final,
+     *     so they can be referenced in an anonymous class.</li>
+     * </ul>
+     */
+    @Nullable
+    private static PsiStatement getMovableStatement(PsiMethodCallExpression operation) {
+        var statement = PsiTreeUtil.getParentOfType(operation, PsiStatement.class, true, PsiLambdaExpression.class, PsiClass.class);
+        if (statement == null
+            || !(statement.getParent() instanceof PsiCodeBlock body)
+            || !(body.getParent() instanceof PsiMethod method)
+            || !isActionMethod(method, "actionPerformed")) return null;
+
+        var resultVariable = getResultVariable(statement);
+        if (!(statement instanceof PsiExpressionStatement) && resultVariable == null
+            //The result field would be shadowed by the parameter of run()
+            || resultVariable != null && TASK_INDICATOR.equals(resultVariable.getName())
+            || VariableAccessUtils.variableIsUsed(method.getParameterList().getParameters()[0], statement)) return null;
+
+        for (var movedStatement : getStatementsFrom(statement)) {
+            boolean allEffectivelyFinal = PsiTreeUtil.findChildrenOfType(movedStatement, PsiReferenceExpression.class).stream()
+                .map(PsiReferenceExpression::resolve)
+                .filter(PsiVariable.class::isInstance)
+                .map(PsiVariable.class::cast)
+                .filter(variable -> PsiTreeUtil.isAncestor(method, variable, true) && variable.getTextOffset() < statement.getTextOffset())
+                .allMatch(variable -> HighlightControlFlowUtil.isEffectivelyFinal(variable, method, null));
+            if (!allEffectivelyFinal) return null;
+        }
+        return statement;
+    }
+
+    /**
+     * Returns the variable declared by the argument statement, if it declares exactly one local variable with an initializer.
+     */
+    @Nullable
+    private static PsiLocalVariable getResultVariable(PsiStatement statement) {
+        return statement instanceof PsiDeclarationStatement declaration
+               && declaration.getDeclaredElements().length == 1
+               && declaration.getDeclaredElements()[0] instanceof PsiLocalVariable variable
+               && variable.getInitializer() != null
+               ? variable
+               : null;
+    }
+
+    private static ArrayList<PsiStatement> getStatementsFrom(PsiStatement firstStatement) {
+        var statements = new ArrayList<PsiStatement>();
+        for (PsiElement element = firstStatement; element != null; element = element.getNextSibling()) {
+            if (element instanceof PsiStatement statement) statements.add(statement);
+        }
+        return statements;
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Moves the statement of the blocking operation into {@code Task.Backgroundable.run()}, and the statements following it
+     * into {@code onSuccess()}, which is called on the EDT. If the moved statement declares a variable, its value is passed
+     * to {@code onSuccess()} in a field of the task.
+     */
+    private static final class MoveToBackgroundTaskQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression operation)) return;
+            var statement = getMovableStatement(operation);
+            if (statement == null) return;
+
+            var actionPerformed = (PsiMethod) statement.getParent().getParent();
+            var event = actionPerformed.getParameterList().getParameters()[0].getName();
+            var statements = getStatementsFrom(statement);
+            var followingStatements = statements.subList(1, statements.size());
+
+            var resultVariable = getResultVariable(statement);
+            String resultField = "";
+            String movedStatement = statement.getText();
+            if (resultVariable != null && resultVariable.getInitializer() != null && !followingStatements.isEmpty()) {
+                resultField = "private " + resultVariable.getType().getCanonicalText() + " " + resultVariable.getName() + ";\n\n";
+                movedStatement = resultVariable.getName() + " = " + resultVariable.getInitializer().getText() + ";";
+            }
+            String onSuccess = followingStatements.isEmpty()
+                               ? ""
+                               : "\n@Override\n"
+                                 + "public void onSuccess() {\n"
+                                 + followingStatements.stream().map(PsiElement::getText).collect(Collectors.joining("\n"))
+                                 + "\n}\n";
+
+            var task = JavaPsiFacade.getElementFactory(project).createStatementFromText(
+                PROGRESS_MANAGER + ".getInstance().run(new com.intellij.openapi.progress.Task.Backgroundable("
+                    + event + ".getProject(), \"" + getTaskTitle(actionPerformed.getContainingClass()) + "\") {\n"
+                    + resultField
+                    + "@Override\n"
+                    + "public void run(@org.jetbrains.annotations.NotNull com.intellij.openapi.progress.ProgressIndicator " + TASK_INDICATOR + ") {\n"
+                    + movedStatement
+                    + "\n}\n"
+                    + onSuccess
+                    + "});",
+                statement);
+
+            var body = statement.getParent();
+            var addedTask = body.addBefore(task, statement);
+            body.deleteChildRange(statement, statements.getLast());
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(addedTask);
+        }
+
+        /**
+         * Creates the task title from the action class name, e.g. "Compare config file with plugin template" from "CompareConfigFileWithPluginTemplateAction".
+         */
+        private static String getTaskTitle(@Nullable PsiClass actionClass) {
+            if (actionClass == null || actionClass.getName() == null) return JustKittingBundle.message("inspection.edt.blocking.action.default.task.title");
+            var words = NameUtil.nameToWords(StringUtil.trimEnd(actionClass.getName(), "Action"));
+            return StringUtil.capitalize(StringUtil.join(words, " ").toLowerCase());
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.edt.blocking.action.move.to.background.task.quick.fix");
+        }
+    }
+
+    /**
+     * Makes {@code getActionUpdateThread()} return {@code ActionUpdateThread.BGT}, or adds the method if it is not overridden.
+     */
+    private static final class SwitchToBgtQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            var actionClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class);
+            if (actionClass == null) return;
+
+            var factory = JavaPsiFacade.getElementFactory(project);
+            var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+            var bgt = ACTION_UPDATE_THREAD + ".BGT";
+            var getActionUpdateThread = actionClass.findMethodsByName("getActionUpdateThread", false);
+            if (getActionUpdateThread.length > 0 && getActionUpdateThread[0].getBody() != null) {
+                for (var returnStatement : PsiTreeUtil.findChildrenOfType(getActionUpdateThread[0].getBody(), PsiReturnStatement.class)) {
+                    if (returnStatement.getReturnValue() != null) {
+                        codeStyleManager.shortenClassReferences(returnStatement.getReturnValue().replace(factory.createExpressionFromText(bgt, returnStatement)));
+                    }
+                }
+            } else {
+                var method = factory.createMethodFromText(
+                    "@Override\npublic @org.jetbrains.annotations.NotNull " + ACTION_UPDATE_THREAD + " getActionUpdateThread() {\nreturn " + bgt + ";\n}",
+                    actionClass);
+                var anchor = actionClass.findMethodsByName("update", false);
+                var addedMethod = anchor.length > 0 ? actionClass.addBefore(method, anchor[0]) : actionClass.add(method);
+                codeStyleManager.shortenClassReferences(addedMethod);
+            }
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.edt.blocking.action.switch.to.bgt.quick.fix");
+        }
+    }
+}
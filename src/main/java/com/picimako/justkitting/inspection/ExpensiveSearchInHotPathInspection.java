@@ -0,0 +1,196 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUES_MANAGER;
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER_RESULT;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.PsiTypes;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.CachedValueUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.PsiElementUtil;
+import com.picimako.justkitting.inspection.CachedValueDependencyAnalyzer.Dependency;
+import com.picimako.justkitting.inspection.CachedValueDependencyAnalyzer.Recommendation;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports expensive searches and index queries, that are executed without caching in methods called frequently:
+ * <ul>
+ *     <li>{@code ReferencesSearch.search()}, {@code ClassInheritorsSearch.search()} and {@code MethodReferencesSearch.search()},</li>
+ *     <li>{@code FileBasedIndex.getValues()},</li>
+ *     <li>{@code JavaPsiFacade.findClass()} and {@code findClasses()} with {@code GlobalSearchScope.allScope()}.</li>
+ * </ul>
+ * See {@link HotPathUtil#isReachableFromHotPath(com.intellij.psi.PsiElement)} for the methods considered frequently called.
+ * <p>
+ * Calls in {@code CachedValueProvider} lambdas are not reported.
+ * <p>
+ * The quick fix wraps the search, along with the calls chained on it, in a {@code CachedValuesManager.getCachedValue()} call,
+ * if there is a PSI element to cache the result on, and the search depends only on that element, the project and static members.
+ * The dependency is the Java PSI and project roots trackers for Java class searches, and {@code PsiModificationTracker.MODIFICATION_COUNT}
+ * for reference searches and index queries.
+ *
+ * @since 1.3.0
+ */
+public class ExpensiveSearchInHotPathInspection extends LocalInspectionTool {
+    private static final CallMatcher JAVA_STRUCTURE_SEARCH = CallMatcher.anyOf(
+        staticCall("com.intellij.psi.search.searches.ClassInheritorsSearch", "search"),
+        instanceCall("com.intellij.psi.JavaPsiFacade", "findClass", "findClasses").parameterCount(2));
+    private static final CallMatcher ANY_PSI_SEARCH = CallMatcher.anyOf(
+        staticCall("com.intellij.psi.search.searches.ReferencesSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.MethodReferencesSearch", "search"),
+        instanceCall("com.intellij.util.indexing.FileBasedIndex", "getValues"));
+    private static final CallMatcher JAVA_PSI_FACADE_FIND = instanceCall("com.intellij.psi.JavaPsiFacade", "findClass", "findClasses");
+    private static final CallMatcher ALL_SCOPE = staticCall("com.intellij.psi.search.GlobalSearchScope", "allScope");
+    private static final String QUERY = "com.intellij.util.Query";
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null) return;
+
+                List<Dependency> dependencies;
+                if (JAVA_STRUCTURE_SEARCH.matches(expression)) {
+                    if (JAVA_PSI_FACADE_FIND.matches(expression) && !isInAllScope(expression)) return;
+                    dependencies = CachedValueDependencyAnalyzer.getJavaStructureDependencies(expression);
+                } else if (ANY_PSI_SEARCH.matches(expression)) {
+                    dependencies = List.of(Dependency.PSI_MODIFICATION_COUNT);
+                } else return;
+
+                if (CachedValueUtil.isInCachedValueProvider(expression) || !HotPathUtil.isReachableFromHotPath(expression)) return;
+
+                holder.registerProblem(methodName,
+                    JustKittingBundle.message("inspection.expensive.search.in.hot.path", PsiElementUtil.getCallName(expression)),
+                    getCacheQuickFix(expression, dependencies));
+            }
+        };
+    }
+
+    private static boolean isInAllScope(PsiMethodCallExpression findClass) {
+        var arguments = findClass.getArgumentList().getExpressions();
+        return arguments.length == 2 && ALL_SCOPE.matches(PsiUtil.skipParenthesizedExprDown(arguments[1]));
+    }
+
+    private static LocalQuickFix[] getCacheQuickFix(PsiMethodCallExpression search, List<Dependency> dependencies) {
+        var containingMethod = HotPathUtil.getContainingMethod(search);
+        String cachedElement = containingMethod != null ? CachedValueUtil.getElementToCacheOn(containingMethod) : null;
+        if (cachedElement == null || !isCacheable(getSearchChain(search), cachedElement)) return LocalQuickFix.EMPTY_ARRAY;
+
+        String project = "this".equals(cachedElement) ? "getProject()" : cachedElement + ".getProject()";
+        return new LocalQuickFix[]{new CacheSearchResultQuickFix(cachedElement, new Recommendation(dependencies, cachedElement, project, false))};
+    }
+
+    /**
+     * Returns the search call along with the calls chained on it, e.g. {@code ReferencesSearch.search(element).findAll()}.
+     */
+    private static PsiExpression getSearchChain(PsiMethodCallExpression search) {
+        PsiExpression chain = search;
+        while (PsiUtil.skipParenthesizedExprUp(chain.getParent()) instanceof PsiReferenceExpression reference
+               && reference.getParent() instanceof PsiMethodCallExpression chainedCall) {
+            chain = chainedCall;
+        }
+        return chain;
+    }
+
+    /**
+     * Returns whether the result of the argument search chain can be cached on the argument element. That is, if it is a value,
+     * and not a lazy {@code Query}, and it depends only on the cached element, the project and static members.
+     */
+    private static boolean isCacheable(PsiExpression searchChain, String cachedElement) {
+        var type = searchChain.getType();
+        if (type == null || PsiTypes.voidType().equals(type) || InheritanceUtil.isInheritor(type, QUERY)) return false;
+
+        return PsiTreeUtil.processElements(searchChain, element -> {
+            if (element instanceof PsiThisExpression) return false;
+            if (element instanceof PsiReferenceExpression reference) {
+                var referenced = reference.resolve();
+                if (referenced instanceof PsiField field) return field.hasModifierProperty(PsiModifier.STATIC);
+                if (referenced instanceof PsiVariable variable) {
+                    return cachedElement.equals(variable.getName())
+                        || PsiTreeUtil.isAncestor(searchChain, variable, true)
+                        || InheritanceUtil.isInheritor(variable.getType(), PROJECT);
+                }
+                //Calls to instance methods of the containing class
+                if (referenced instanceof PsiMethod method && reference.getQualifierExpression() == null) {
+                    return method.hasModifierProperty(PsiModifier.STATIC);
+                }
+            }
+            return true;
+        });
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Wraps the search chain in {@code CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(search, dependencies))}.
+     */
+    private static final class CacheSearchResultQuickFix extends InspectionGadgetsFix {
+        private final String cachedElement;
+        private final String dependencies;
+        private final String presentableDependencies;
+
+        public CacheSearchResultQuickFix(String cachedElement, Recommendation recommendation) {
+            this.cachedElement = cachedElement;
+            this.dependencies = recommendation.getDependencyCodes().stream()
+                .map(CachedValueDependencyAnalyzer.DependencyCode::javaCode)
+                .collect(Collectors.joining(", "));
+            this.presentableDependencies = recommendation.getPresentableText();
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression search)) return;
+
+            var searchChain = getSearchChain(search);
+            var getCachedValue = JavaPsiFacade.getElementFactory(project).createExpressionFromText(
+                CACHED_VALUES_MANAGER + ".getCachedValue(" + cachedElement + ", () -> "
+                    + CACHED_VALUE_PROVIDER_RESULT + ".create(" + searchChain.getText() + ", " + dependencies + "))",
+                searchChain);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(searchChain.replace(getCachedValue));
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.expensive.search.in.hot.path.cache.quick.fix", cachedElement, presentableDependencies);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.expensive.search.in.hot.path.cache.quick.fix.family");
+        }
+    }
+}
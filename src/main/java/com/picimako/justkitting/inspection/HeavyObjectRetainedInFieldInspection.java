@@ -0,0 +1,387 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.APPLICATION;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.SERVICE_ANNOTATION;
+
+import com.intellij.codeInsight.Nullability;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.LocalQuickFixAndIntentionActionOnPsiElement;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.dataFlow.NullabilityUtil;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiBinaryExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.PsiWildcardType;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.picimako.justkitting.ServiceLevelDecider;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.psiutils.CommentTracker;
+import com.siyeh.ig.psiutils.ExpressionUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.devkit.util.ExtensionLocatorKt;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UastContextKt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Reports fields of light services and extension implementation classes registered in plugin descriptors,
+ * that retain objects which should not outlive a reparse, an editor or a project:
+ * <ul>
+ *     <li>{@code PsiElement}s,</li>
+ *     <li>{@code Editor}s and {@code Document}s,</li>
+ *     <li>{@code Project}s, except in project-level services, and in classes receiving the project in their constructors,</li>
+ *     <li>arrays and collections of the above types.</li>
+ * </ul>
+ * <p>
+ * Quick fixes are available for private fields to convert {@code PsiElement} fields to {@code SmartPsiElementPointer}s,
+ * and other fields to {@code WeakReference}s. Application-level light services without constructors holding a {@code Project}
+ * can be converted to project-level services, unless they are retrieved as application-level services in the project.
+ *
+ * @since 1.3.0
+ */
+public class HeavyObjectRetainedInFieldInspection extends LocalInspectionTool {
+    private static final String EDITOR = "com.intellij.openapi.editor.Editor";
+    private static final String DOCUMENT = "com.intellij.openapi.editor.Document";
+    private static final Set<String> APPLICATION_SERVICE_LOOKUPS = Set.of("getService", "getServiceIfCreated");
+    /**
+     * Kotlin's top-level {@code service<T>()}, {@code serviceOrNull<T>()} and {@code serviceIfCreated<T>()} functions, when called without a receiver.
+     */
+    private static final Set<String> KOTLIN_APPLICATION_SERVICE_LOOKUPS = Set.of("service", "serviceOrNull", "serviceIfCreated");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitClass(@NotNull PsiClass aClass) {
+                if (aClass.getNameIdentifier() == null || aClass.isInterface() || aClass.isAnnotationType()) return;
+
+                var retainingFields = Arrays.stream(aClass.getFields())
+                    .filter(field -> field.getNameIdentifier() != null && isRetainedType(field.getType(), aClass))
+                    .toList();
+                //Looking up extension registrations is done only when it is necessary, because it searches plugin descriptors
+                if (retainingFields.isEmpty() || !isServiceOrExtension(aClass)) return;
+
+                for (var field : retainingFields) {
+                    holder.registerProblem(field.getNameIdentifier(),
+                        JustKittingBundle.message("inspection.heavy.object.retained.in.field", field.getType().getPresentableText()),
+                        getQuickFixes(field, aClass));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns whether the argument field type, or its component or type argument types, retain an object that should not be retained
+     * in the argument class.
+     */
+    private static boolean isRetainedType(@Nullable PsiType type, PsiClass containingClass) {
+        if (type instanceof PsiWildcardType wildcard) type = wildcard.getBound();
+        if (type == null) return false;
+        var componentType = type.getDeepComponentType();
+        if (InheritanceUtil.isInheritor(componentType, PSI_ELEMENT)
+            || InheritanceUtil.isInheritor(componentType, EDITOR)
+            || InheritanceUtil.isInheritor(componentType, DOCUMENT)) return true;
+        if (InheritanceUtil.isInheritor(componentType, PROJECT)) return !isProjectLevel(containingClass);
+
+        //Only the elements of collections and maps are retained, while e.g. a Key<PsiElement> doesn't retain any PsiElement
+        return componentType instanceof PsiClassType classType
+            && (InheritanceUtil.isInheritor(classType, CommonClassNames.JAVA_UTIL_COLLECTION) || InheritanceUtil.isInheritor(classType, CommonClassNames.JAVA_UTIL_MAP))
+            && Arrays.stream(classType.getParameters()).anyMatch(parameter -> isRetainedType(parameter, containingClass));
+    }
+
+    /**
+     * Project-level services, and classes that receive the project in their constructors, live as long as the project,
+     * so it is fine for them to hold the project.
+     */
+    private static boolean isProjectLevel(PsiClass psiClass) {
+        return ServiceUtil.isLightService(psiClass) && ServiceLevelDecider.getServiceLevel(psiClass) == ServiceLevelDecider.ServiceLevel.PROJECT
+            || Arrays.stream(psiClass.getConstructors())
+            .flatMap(constructor -> Arrays.stream(constructor.getParameterList().getParameters()))
+            .anyMatch(parameter -> InheritanceUtil.isInheritor(parameter.getType(), PROJECT));
+    }
+
+    private static boolean isServiceOrExtension(PsiClass psiClass) {
+        return ServiceUtil.isLightService(psiClass) || !ExtensionLocatorKt.locateExtensionsByPsiClass(psiClass).isEmpty();
+    }
+
+    private static LocalQuickFix[] getQuickFixes(PsiField field, PsiClass containingClass) {
+        var fixes = new ArrayList<LocalQuickFix>(2);
+        var type = field.getType();
+        //Collections and arrays are not converted
+        if (field.hasModifierProperty(PsiModifier.PRIVATE) && type instanceof PsiClassType classType && classType.getParameterCount() == 0) {
+            fixes.add(new WrapFieldQuickFix(InheritanceUtil.isInheritor(type, PSI_ELEMENT) ? FieldWrapper.SMART_POINTER : FieldWrapper.WEAK_REFERENCE));
+        }
+        if (InheritanceUtil.isInheritor(type, PROJECT)
+            && ServiceUtil.isLightService(containingClass)
+            && containingClass.getConstructors().length == 0
+            && !field.hasModifierProperty(PsiModifier.STATIC)
+            && field.getInitializer() == null) {
+            fixes.add(new MakeProjectLevelServiceQuickFix(field));
+        }
+        return fixes.toArray(LocalQuickFix.EMPTY_ARRAY);
+    }
+
+    /**
+     * Returns whether the argument service is retrieved as an application-level service in the project, e.g. via
+     * {@code ApplicationManager.getApplication().getService(MyService.class)} in its {@code getInstance()} method, or via Kotlin's
+     * {@code service<MyService>()}. These lookups would fail once the service is project-level.
+     * <p>
+     * Since it searches the whole project, it is checked only when the quick fix is about to be shown, not during highlighting.
+     */
+    private static boolean hasApplicationLevelLookup(PsiClass serviceClass) {
+        //forEach() returns false if the processing was stopped, meaning an application-level lookup was found
+        return !ReferencesSearch.search(serviceClass, GlobalSearchScope.projectScope(serviceClass.getProject())).forEach(reference -> {
+            var call = UastContextKt.getUastParentOfType(reference.getElement(), UCallExpression.class);
+            return call == null || !isApplicationLevelLookup(call);
+        });
+    }
+
+    private static boolean isApplicationLevelLookup(UCallExpression call) {
+        String methodName = call.getMethodName();
+        if (methodName == null) return false;
+        if (APPLICATION_SERVICE_LOOKUPS.contains(methodName)) return InheritanceUtil.isInheritor(call.getReceiverType(), APPLICATION);
+        return KOTLIN_APPLICATION_SERVICE_LOOKUPS.contains(methodName) && call.getReceiver() == null;
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * The types the fields can be converted to, along with the code to wrap and unwrap the values.
+     */
+    private enum FieldWrapper {
+        SMART_POINTER("com.intellij.psi.SmartPsiElementPointer", "com.intellij.psi.SmartPointerManager.createPointer(%s)",
+            "com.intellij.util.ObjectUtils.doIfNotNull(%s, com.intellij.psi.SmartPointerManager::createPointer)", false, "getElement()",
+            "inspection.heavy.object.retained.in.field.smart.pointer.quick.fix"),
+        WEAK_REFERENCE("java.lang.ref.WeakReference", "new java.lang.ref.WeakReference<>(%s)", null, true, "get()",
+            "inspection.heavy.object.retained.in.field.weak.reference.quick.fix");
+
+        private final String wrapperClass;
+        private final String wrapTemplate;
+        /**
+         * The code to wrap values that may be null, if the wrapper doesn't accept null.
+         */
+        private final String nullSafeWrapTemplate;
+        private final boolean acceptsNull;
+        private final String unwrapCall;
+        private final String quickFixKey;
+
+        FieldWrapper(String wrapperClass, String wrapTemplate, String nullSafeWrapTemplate, boolean acceptsNull, String unwrapCall, String quickFixKey) {
+            this.wrapperClass = wrapperClass;
+            this.wrapTemplate = wrapTemplate;
+            this.nullSafeWrapTemplate = nullSafeWrapTemplate;
+            this.acceptsNull = acceptsNull;
+            this.unwrapCall = unwrapCall;
+            this.quickFixKey = quickFixKey;
+        }
+    }
+
+    /**
+     * Changes the field type to the wrapper type, wraps the values assigned to the field, and unwraps the value where the field is read.
+     */
+    private static final class WrapFieldQuickFix extends InspectionGadgetsFix {
+        private final FieldWrapper wrapper;
+
+        public WrapFieldQuickFix(FieldWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent() instanceof PsiField field) || field.getContainingClass() == null) return;
+
+            var factory = JavaPsiFacade.getElementFactory(project);
+            //References are collected, and split into assignments, null checks and reads, before modifying the file
+            var assignments = new ArrayList<PsiAssignmentExpression>();
+            var nullChecks = new ArrayList<PsiBinaryExpression>();
+            var reads = new ArrayList<PsiReferenceExpression>();
+            for (var reference : ReferencesSearch.search(field, new LocalSearchScope(field.getContainingClass())).findAll()) {
+                if (!(reference.getElement() instanceof PsiReferenceExpression referenceExpression)) continue;
+
+                var parent = PsiUtil.skipParenthesizedExprUp(referenceExpression.getParent());
+                if (parent instanceof PsiAssignmentExpression assignment
+                    && assignment.getOperationTokenType() == JavaTokenType.EQ
+                    && PsiTreeUtil.isAncestor(assignment.getLExpression(), referenceExpression, false)) {
+                    assignments.add(assignment);
+                } else if (parent instanceof PsiBinaryExpression nullCheck && isNullCheck(nullCheck)) {
+                    nullChecks.add(nullCheck);
+                } else {
+                    reads.add(referenceExpression);
+                }
+            }
+
+            var modifiedElements = new ArrayList<PsiElement>();
+            //Reads are unwrapped first, so that assigned values reading the field, e.g. in 'field = field.getParent()', are wrapped
+            //along with their unwrapped reads, instead of the reads being replaced in an already replaced value
+            for (var nullCheck : nullChecks) {
+                modifiedElements.add(new CommentTracker().replaceAndRestoreComments(nullCheck, unwrapNullCheck(nullCheck)));
+            }
+            for (var read : reads) {
+                modifiedElements.add(new CommentTracker().replaceAndRestoreComments(read, unwrap(read)));
+            }
+            for (var assignment : assignments) {
+                var wrapped = wrap(assignment.getRExpression());
+                if (wrapped != null) modifiedElements.add(wrapped);
+            }
+            var initializer = wrap(field.getInitializer());
+            if (initializer != null) modifiedElements.add(initializer);
+
+            var wrappedType = wrapper.wrapperClass + "<" + TypeConversionUtil.erasure(field.getType()).getCanonicalText() + ">";
+            if (field.getTypeElement() != null) {
+                modifiedElements.add(field.getTypeElement().replace(factory.createTypeElementFromText(wrappedType, field)));
+            }
+
+            var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+            modifiedElements.stream().filter(PsiElement::isValid).forEach(codeStyleManager::shortenClassReferences);
+        }
+
+        /**
+         * Returns whether the argument expression compares the field with null, e.g. {@code field == null} or {@code null != field}.
+         */
+        private static boolean isNullCheck(PsiBinaryExpression expression) {
+            return (expression.getOperationTokenType() == JavaTokenType.EQEQ || expression.getOperationTokenType() == JavaTokenType.NE)
+                && (ExpressionUtils.isNullLiteral(expression.getLOperand()) || ExpressionUtils.isNullLiteral(expression.getROperand()));
+        }
+
+        /**
+         * Returns the null check that also checks the wrapped value, e.g. {@code field == null || field.getElement() == null},
+         * since a pointer may be set, while the element it points to is already gone.
+         */
+        private String unwrapNullCheck(PsiBinaryExpression nullCheck) {
+            var field = ExpressionUtils.isNullLiteral(nullCheck.getLOperand()) ? nullCheck.getROperand() : nullCheck.getLOperand();
+            String fieldText = field != null ? PsiUtil.skipParenthesizedExprDown(field).getText() : "";
+            return nullCheck.getOperationTokenType() == JavaTokenType.EQEQ
+                   ? fieldText + " == null || " + fieldText + "." + wrapper.unwrapCall + " == null"
+                   : fieldText + " != null && " + fieldText + "." + wrapper.unwrapCall + " != null";
+        }
+
+        /**
+         * Returns the code unwrapping the argument read of the field. Reads that are dereferenced, e.g. in {@code field.getName()},
+         * failed on an unset field before as well, while other reads, e.g. in {@code return field;}, keep returning null for an unset field.
+         */
+        private String unwrap(PsiReferenceExpression read) {
+            String unwrapped = read.getText() + "." + wrapper.unwrapCall;
+            return PsiUtil.skipParenthesizedExprUp(read.getParent()) instanceof PsiReferenceExpression dereference
+                   && PsiUtil.skipParenthesizedExprDown(dereference.getQualifierExpression()) == read
+                   ? unwrapped
+                   : read.getText() + " != null ? " + unwrapped + " : null";
+        }
+
+        /**
+         * Wraps the argument value, unless it is null. Values that may be null are wrapped only when they are not null,
+         * since e.g. {@code SmartPointerManager.createPointer()} doesn't accept null.
+         */
+        @Nullable
+        private PsiElement wrap(@Nullable PsiExpression value) {
+            if (value == null || ExpressionUtils.isNullLiteral(value)) return null;
+
+            String wrapped;
+            if (!wrapper.acceptsNull && NullabilityUtil.getExpressionNullability(value, false) != Nullability.NOT_NULL) {
+                //Variables are checked in place, while other expressions are evaluated only once
+                wrapped = value instanceof PsiReferenceExpression reference && reference.resolve() instanceof PsiVariable
+                          ? value.getText() + " != null ? " + wrapper.wrapTemplate.formatted(value.getText()) + " : null"
+                          : wrapper.nullSafeWrapTemplate.formatted(value.getText());
+            } else {
+                wrapped = wrapper.wrapTemplate.formatted(value.getText());
+            }
+            return new CommentTracker().replaceAndRestoreComments(value, wrapped);
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message(wrapper.quickFixKey);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.heavy.object.retained.in.field.quick.fix.family");
+        }
+    }
+
+    /**
+     * Makes the containing light service project-level, and adds a constructor that initializes the project field.
+     * <p>
+     * It is available only when the service is not retrieved as an application-level service.
+     */
+    private static final class MakeProjectLevelServiceQuickFix extends LocalQuickFixAndIntentionActionOnPsiElement {
+
+        public MakeProjectLevelServiceQuickFix(PsiField field) {
+            super(field);
+        }
+
+        @Override
+        public boolean isAvailable(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+            return startElement instanceof PsiField field && field.getContainingClass() != null && !hasApplicationLevelLookup(field.getContainingClass());
+        }
+
+        @Override
+        public void invoke(@NotNull Project project, @NotNull PsiFile file, @Nullable Editor editor, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+            if (!(startElement instanceof PsiField field)) return;
+            var serviceClass = field.getContainingClass();
+            if (serviceClass == null || serviceClass.getName() == null) return;
+
+            var factory = JavaPsiFacade.getElementFactory(project);
+            var serviceAnnotation = serviceClass.getAnnotation(SERVICE_ANNOTATION);
+            if (serviceAnnotation == null) return;
+            var projectLevelAnnotation = serviceAnnotation.replace(
+                factory.createAnnotationFromText("@" + SERVICE_ANNOTATION + "(" + SERVICE_ANNOTATION + ".Level.PROJECT)", serviceClass));
+
+            var constructor = factory.createConstructor(serviceClass.getName(), serviceClass);
+            constructor.getParameterList().add(factory.createParameter("project", factory.createTypeByFQClassName(PROJECT, serviceClass.getResolveScope())));
+            if (constructor.getBody() != null) {
+                constructor.getBody().add(factory.createStatementFromText("this." + field.getName() + " = project;", constructor));
+            }
+            var addedConstructor = serviceClass.addAfter(constructor, field);
+
+            var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+            codeStyleManager.shortenClassReferences(projectLevelAnnotation);
+            codeStyleManager.shortenClassReferences(addedConstructor);
+        }
+
+        @Override
+        public @IntentionName @NotNull String getText() {
+            return getFamilyName();
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.heavy.object.retained.in.field.project.level.service.quick.fix");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.util.JavaPsiConstructorUtil.isSuperConstructorCall;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.PsiElementUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Reports line markers that are attached to composite PSI elements, e.g. to a {@code PsiMethod} or an {@code XmlAttribute}, instead of to leaf elements,
+ * like identifiers. The platform expects line markers on leaf elements, and logs a performance warning otherwise, since markers on composite elements
+ * cannot be collected for the visible area only.
+ * <p>
+ * The following calls are checked:
+ * <ul>
+ *     <li>{@code LineMarkerInfo}, {@code RelatedItemLineMarkerInfo} and {@code MergeableLineMarkerInfo} constructor calls, and {@code super()} calls to them,</li>
+ *     <li>{@code NavigationGutterIconBuilder.createLineMarkerInfo()}.</li>
+ * </ul>
+ * The target element is considered composite if its type is a {@code PsiElement} subtype that is not a leaf element type, e.g. {@code PsiIdentifier}.
+ * Targets of type {@code PsiElement} are not reported, since they may or may not be leaf elements.
+ * <p>
+ * The quick fix retargets the line marker to the name identifier of {@code PsiNameIdentifierOwner}s, otherwise to the first leaf element
+ * of the target element. {@code getTextRange()} arguments of the target are retargeted as well.
+ *
+ * @since 1.3.0
+ */
+public class LineMarkerOnNonLeafElementInspection extends LocalInspectionTool {
+    private static final String PSI_NAME_IDENTIFIER_OWNER = "com.intellij.psi.PsiNameIdentifierOwner";
+    private static final Set<String> LINE_MARKER_INFOS = Set.of(
+        "com.intellij.codeInsight.daemon.LineMarkerInfo",
+        "com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo",
+        "com.intellij.codeInsight.daemon.MergeableLineMarkerInfo");
+    private static final CallMatcher CREATE_LINE_MARKER_INFO =
+        instanceCall("com.intellij.codeInsight.navigation.NavigationGutterIconBuilder", "createLineMarkerInfo").parameterCount(1);
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitCallExpression(@NotNull PsiCallExpression call) {
+                var target = getLineMarkerTarget(call);
+                if (target == null) return;
+
+                var targetClass = PsiUtil.resolveClassInClassTypeOnly(target.getType());
+                if (isCompositeElement(targetClass)) {
+                    holder.registerProblem(target,
+                        JustKittingBundle.message("inspection.line.marker.on.non.leaf.element", targetClass.getName()),
+                        new RetargetToLeafElementQuickFix(InheritanceUtil.isInheritor(targetClass, PSI_NAME_IDENTIFIER_OWNER)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the PSI element argument of the argument line marker creation call, or null if the call doesn't create a line marker.
+     */
+    @Nullable
+    private static PsiExpression getLineMarkerTarget(PsiCallExpression call) {
+        boolean isLineMarkerCreation = call instanceof PsiMethodCallExpression methodCall
+                                       ? CREATE_LINE_MARKER_INFO.test(methodCall) || isSuperConstructorCall(methodCall) && isLineMarkerInfoConstructor(call)
+                                       : call instanceof PsiNewExpression && isLineMarkerInfoConstructor(call);
+        if (!isLineMarkerCreation) return null;
+
+        var argumentList = call.getArgumentList();
+        return argumentList != null && !argumentList.isEmpty() ? argumentList.getExpressions()[0] : null;
+    }
+
+    private static boolean isLineMarkerInfoConstructor(PsiCallExpression call) {
+        var constructor = call.resolveMethod();
+        return constructor != null
+            && constructor.isConstructor()
+            && constructor.getContainingClass() != null
+            && LINE_MARKER_INFOS.contains(constructor.getContainingClass().getQualifiedName());
+    }
+
+    private static boolean isCompositeElement(@Nullable PsiClass targetClass) {
+        return targetClass != null
+            && !(targetClass instanceof PsiTypeParameter)
+            && !PSI_ELEMENT.equals(targetClass.getQualifiedName())
+            && InheritanceUtil.isInheritor(targetClass, PSI_ELEMENT)
+            && !PsiElementUtil.isLeafElement(targetClass);
+    }
+
+    /**
+     * Replaces the line marker target with its name identifier, falling back to its first leaf element when there is no name identifier,
+     * or with its first leaf element.
+     */
+    private static final class RetargetToLeafElementQuickFix extends InspectionGadgetsFix {
+        private final boolean isNameIdentifierOwner;
+
+        public RetargetToLeafElementQuickFix(boolean isNameIdentifierOwner) {
+            this.isNameIdentifierOwner = isNameIdentifierOwner;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiExpression target)
+                || !(target.getParent().getParent() instanceof PsiCallExpression call)
+                || call.getArgumentList() == null) return;
+
+            String targetText = target.getText();
+            String qualifier = target instanceof PsiReferenceExpression || target instanceof PsiCallExpression ? targetText : "(" + targetText + ")";
+            String firstLeaf = "com.intellij.psi.util.PsiTreeUtil.getDeepestFirst(" + targetText + ")";
+            //getNameIdentifier() is nullable, so the first leaf element is used as fallback
+            var leafElement = JavaPsiFacade.getElementFactory(project).createExpressionFromText(
+                isNameIdentifierOwner ? "com.intellij.util.ObjectUtils.notNull(" + qualifier + ".getNameIdentifier(), " + firstLeaf + ")" : firstLeaf,
+                target);
+
+            //Retargets e.g. 'method.getTextRange()' arguments too, so that the range matches the new target
+            for (var argument : call.getArgumentList().getExpressions()) {
+                if (argument instanceof PsiMethodCallExpression textRange
+                    && "getTextRange".equals(textRange.getMethodExpression().getReferenceName())
+                    && textRange.getMethodExpression().getQualifierExpression() instanceof PsiExpression rangeQualifier
+                    && rangeQualifier.textMatches(targetText)) {
+                    JavaCodeStyleManager.getInstance(project).shortenClassReferences(rangeQualifier.replace(leafElement));
+                }
+            }
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(target.replace(leafElement));
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message(isNameIdentifierOwner
+                                             ? "inspection.line.marker.on.non.leaf.element.retarget.to.name.identifier"
+                                             : "inspection.line.marker.on.non.leaf.element.retarget.to.first.leaf");
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.line.marker.on.non.leaf.element.retarget.family");
+        }
+    }
+}
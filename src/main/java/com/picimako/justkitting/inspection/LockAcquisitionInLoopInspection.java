@@ -0,0 +1,240 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.CodeMovementUtil.canBeMovedIntoLambda;
+import static com.picimako.justkitting.PlatformNames.PROGRESS_MANAGER;
+import static com.picimako.justkitting.PsiElementUtil.getCallName;
+import static com.picimako.justkitting.ThreadingUtil.addCheckCanceled;
+import static com.picimako.justkitting.ThreadingUtil.checksCanceled;
+import static com.picimako.justkitting.ThreadingUtil.isInReadAction;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiBreakStatement;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiContinueStatement;
+import com.intellij.psi.PsiDeclarationStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiLoopStatement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.PsiReplacementUtil;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Reports read and write action acquisitions in loop bodies, and in lambdas passed to {@code Iterable.forEach()},
+ * {@code Map.forEach()} and stream operations. Such code acquires and releases the lock for every element,
+ * and thrashes against pending write actions, or lets pending read actions restart in between.
+ * <p>
+ * Acquisitions that are already executed in a read action, or in a write action respectively, are not reported,
+ * since they are reentrant, and cheap.
+ * <p>
+ * For read actions in loop statements, a quick fix is available to acquire the read lock once via {@code ReadAction.run()}
+ * around the whole loop, to unwrap the {@code ReadAction.run()}, {@code ReadAction.compute()} and {@code Application.runReadAction()}
+ * calls in the loop body, and to check for cancellation in each iteration.
+ *
+ * @since 1.3.0
+ */
+public class LockAcquisitionInLoopInspection extends LocalInspectionTool {
+    private static final String READ_ACTION = "com.intellij.openapi.application.ReadAction";
+    private static final String APPLICATION = "com.intellij.openapi.application.Application";
+    /**
+     * Read actions whose lambda argument can be inlined into an enclosing read action.
+     */
+    private static final CallMatcher UNWRAPPABLE_READ_ACTION = CallMatcher.anyOf(
+        staticCall(READ_ACTION, "run", "compute").parameterCount(1),
+        instanceCall(APPLICATION, "runReadAction").parameterCount(1));
+    private static final CallMatcher READ_LOCK = CallMatcher.anyOf(
+        UNWRAPPABLE_READ_ACTION,
+        staticCall(READ_ACTION, "computeCancellable"),
+        instanceCall("com.intellij.openapi.application.NonBlockingReadAction", "executeSynchronously"),
+        instanceCall("com.intellij.openapi.project.DumbService", "runReadActionInSmartMode"),
+        instanceCall(PROGRESS_MANAGER, "runInReadActionWithWriteActionPriority"));
+    private static final CallMatcher WRITE_LOCK = CallMatcher.anyOf(
+        staticCall("com.intellij.openapi.application.WriteAction", "run", "compute", "runAndWait", "computeAndWait"),
+        instanceCall(APPLICATION, "runWriteAction"),
+        staticCall("com.intellij.openapi.command.WriteCommandAction", "runWriteCommandAction"));
+    private static final CallMatcher ITERATION = CallMatcher.anyOf(
+        instanceCall("java.lang.Iterable", "forEach"),
+        instanceCall("java.util.Map", "forEach"),
+        instanceCall("java.util.stream.Stream", "forEach", "forEachOrdered", "map", "flatMap", "filter", "peek", "anyMatch", "allMatch", "noneMatch"));
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                boolean isReadLock = READ_LOCK.matches(expression);
+                if (!isReadLock && !WRITE_LOCK.matches(expression)) return;
+
+                var iteration = getIteration(expression);
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (iteration == null || methodName == null || (isReadLock ? isInReadAction(iteration) : isInWriteAction(iteration))) return;
+
+                if (isReadLock) {
+                    if (iteration instanceof PsiLoopStatement loop && isHoistable(loop, expression)) {
+                        holder.registerProblem(methodName,
+                            JustKittingBundle.message("inspection.lock.acquisition.in.loop.read", getCallName(expression)),
+                            new HoistReadActionQuickFix());
+                    } else {
+                        holder.registerProblem(methodName, JustKittingBundle.message("inspection.lock.acquisition.in.loop.read", getCallName(expression)));
+                    }
+                } else {
+                    holder.registerProblem(methodName, JustKittingBundle.message("inspection.lock.acquisition.in.loop.write", getCallName(expression)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the loop statement, in whose body, or the iteration lambda, e.g. the {@code forEach()} lambda, in which the argument call
+     * is executed, or null if the call is not executed once per element.
+     */
+    @Nullable
+    private static PsiElement getIteration(PsiMethodCallExpression lockCall) {
+        PsiElement child = lockCall;
+        for (var parent = lockCall.getParent(); parent != null && !(parent instanceof PsiMethod || parent instanceof PsiClass); child = parent, parent = parent.getParent()) {
+            if (parent instanceof PsiLoopStatement loop && child == loop.getBody()) return loop;
+            if (parent instanceof PsiLambdaExpression lambda) {
+                return PsiUtil.skipParenthesizedExprUp(lambda.getParent()) instanceof PsiExpressionList arguments
+                       && arguments.getParent() instanceof PsiMethodCallExpression call
+                       && ITERATION.matches(call)
+                       ? lambda
+                       : null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInWriteAction(PsiElement element) {
+        PsiElement lambda = element;
+        while ((lambda = PsiTreeUtil.getParentOfType(lambda, PsiLambdaExpression.class, true, PsiMethod.class, PsiClass.class)) != null) {
+            if (PsiUtil.skipParenthesizedExprUp(lambda.getParent()) instanceof PsiExpressionList arguments
+                && arguments.getParent() instanceof PsiMethodCallExpression call
+                && WRITE_LOCK.matches(call)) return true;
+        }
+
+        var method = HotPathUtil.getContainingMethod(element);
+        return method != null && AnnotationUtil.isAnnotated(method, "com.intellij.util.concurrency.annotations.RequiresWriteLock", 0);
+    }
+
+    /**
+     * Returns whether a single read action can be acquired around the argument loop, in place of the argument read action call.
+     * <p>
+     * That is, the loop is directly in a code block, it can be moved into a lambda, and the read action call can be unwrapped.
+     */
+    private static boolean isHoistable(PsiLoopStatement loop, PsiMethodCallExpression lockCall) {
+        return loop.getParent() instanceof PsiCodeBlock
+            && isUnwrappable(loop, lockCall)
+            && canBeMovedIntoLambda(loop, null, element -> element instanceof PsiReturnStatement
+                || element instanceof PsiBreakStatement breakStatement && !PsiTreeUtil.isAncestor(loop, breakStatement.findExitedStatement(), false)
+                || element instanceof PsiContinueStatement continueStatement && !PsiTreeUtil.isAncestor(loop, continueStatement.findContinuedStatement(), false));
+    }
+
+    /**
+     * Returns whether the lambda argument of the argument read action call can be inlined in place of the call.
+     * <p>
+     * Expression lambdas can be inlined unless the call is used as a statement, and the expression is not a valid statement.
+     * Block lambdas can be inlined when the call is used as a statement in a code block, or as the loop body, the block doesn't
+     * return, and the variables it declares don't clash with the ones visible at the call.
+     */
+    private static boolean isUnwrappable(PsiLoopStatement loop, PsiMethodCallExpression lockCall) {
+        if (!UNWRAPPABLE_READ_ACTION.matches(lockCall)
+            || !(PsiUtil.skipParenthesizedExprDown(lockCall.getArgumentList().getExpressions()[0]) instanceof PsiLambdaExpression lambda)) return false;
+
+        var body = lambda.getBody();
+        if (body instanceof PsiExpression expression) return !(lockCall.getParent() instanceof PsiExpressionStatement) || PsiUtil.isStatement(expression);
+
+        if (!(body instanceof PsiCodeBlock block)
+            || !(lockCall.getParent() instanceof PsiExpressionStatement statement)
+            || !(statement.getParent() instanceof PsiCodeBlock || statement == loop.getBody())) return false;
+
+        boolean returns = !PsiTreeUtil.processElements(block, element ->
+            !(element instanceof PsiReturnStatement)
+            || PsiTreeUtil.getParentOfType(element, PsiLambdaExpression.class, PsiClass.class) != lambda);
+        if (returns) return false;
+
+        var resolveHelper = JavaPsiFacade.getInstance(lockCall.getProject()).getResolveHelper();
+        return Arrays.stream(block.getStatements())
+            .filter(PsiDeclarationStatement.class::isInstance)
+            .flatMap(declaration -> Arrays.stream(((PsiDeclarationStatement) declaration).getDeclaredElements()))
+            .filter(PsiLocalVariable.class::isInstance)
+            .noneMatch(variable -> resolveHelper.resolveReferencedVariable(((PsiLocalVariable) variable).getName(), statement) != null);
+    }
+
+    /**
+     * Replaces the argument read action call with the contents of its lambda argument.
+     */
+    private static void unwrap(PsiMethodCallExpression lockCall) {
+        if (!(PsiUtil.skipParenthesizedExprDown(lockCall.getArgumentList().getExpressions()[0]) instanceof PsiLambdaExpression lambda)) return;
+
+        if (lambda.getBody() instanceof PsiExpression expression) {
+            PsiReplacementUtil.replaceExpression(lockCall, expression.getText());
+        } else if (lambda.getBody() instanceof PsiCodeBlock block && lockCall.getParent() instanceof PsiExpressionStatement statement) {
+            var statements = block.getStatements();
+            if (statements.length > 0) {
+                statement.getParent().addRangeBefore(statements[0], statements[statements.length - 1], statement);
+            }
+            statement.delete();
+        }
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Acquires a single read action around the loop, unwraps the read actions in the loop body, and checks for cancellation
+     * in each iteration.
+     */
+    private static final class HoistReadActionQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent().getParent() instanceof PsiMethodCallExpression lockCall)
+                || !(getIteration(lockCall) instanceof PsiLoopStatement loop)) return;
+
+            //Inserting the cancellation check first also wraps single-statement loop bodies in code blocks
+            if (loop.getBody() != null && !checksCanceled(loop.getBody())) addCheckCanceled(loop);
+            PsiTreeUtil.findChildrenOfType(loop, PsiMethodCallExpression.class).stream()
+                .filter(call -> getIteration(call) == loop && isUnwrappable(loop, call))
+                .toList()
+                .forEach(LockAcquisitionInLoopInspection::unwrap);
+
+            var readAction = JavaPsiFacade.getElementFactory(project).createStatementFromText(READ_ACTION + ".run(() -> {\n" + loop.getText() + "\n});", loop);
+            var replaced = JavaCodeStyleManager.getInstance(project).shortenClassReferences(loop.replace(readAction));
+            CodeStyleManager.getInstance(project).reformat(replaced);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.lock.acquisition.in.loop.hoist.quick.fix");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.CodeMovementUtil.canBeMovedIntoLambda;
+import static com.picimako.justkitting.PlatformNames.PROGRESS_MANAGER;
+import static com.picimako.justkitting.PlatformNames.PSI_TREE_UTIL;
+import static com.picimako.justkitting.PsiElementUtil.getCallName;
+import static com.picimako.justkitting.ThreadingUtil.addCheckCanceled;
+import static com.picimako.justkitting.ThreadingUtil.checksCanceled;
+import static com.picimako.justkitting.ThreadingUtil.isInReadAction;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiBlockStatement;
+import com.intellij.psi.PsiBreakStatement;
+import com.intellij.psi.PsiContinueStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiForeachStatement;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reports loops and stream pipelines over PSI, search query results and index data, that are executed in read actions,
+ * and never check for cancellation. Such loops may delay the cancellation of highlighting and non-blocking read actions,
+ * thus pending write actions, which shows up as typing lag.
+ * <p>
+ * The following data sources are recognized:
+ * <ul>
+ *     <li>search queries, e.g. {@code ReferencesSearch.search()}, and their {@code findAll()} results,</li>
+ *     <li>{@code FileBasedIndex}, {@code StubIndex}, {@code FilenameIndex} and {@code FileTypeIndex} data,</li>
+ *     <li>{@code PsiTreeUtil.findChildrenOfType()} and similar calls, and {@code PsiShortNamesCache} data.</li>
+ * </ul>
+ * Code is considered to be executed in a read action when it is in a lambda passed to e.g. {@code ReadAction.compute()} or
+ * {@code Application.runReadAction()}, in a method annotated as {@code @RequiresReadLock}, or when it is reachable from highlighting,
+ * see {@link HotPathUtil#isReachableFromHighlighting(PsiElement)}.
+ * <p>
+ * A quick fix is available to insert a {@code ProgressManager.checkCanceled()} call, and for loops over search queries,
+ * to switch to the {@code Processor}-based {@code Query.forEach()}, which processes the results while searching.
+ *
+ * @since 1.3.0
+ */
+public class MissingCheckCanceledInspection extends LocalInspectionTool {
+    private static final String QUERY = "com.intellij.util.Query";
+    private static final CallMatcher DATA_SOURCE = CallMatcher.anyOf(
+        //Search
+        instanceCall(QUERY, "findAll"),
+        //Index
+        instanceCall("com.intellij.util.indexing.FileBasedIndex", "getValues", "getContainingFiles", "getAllKeys"),
+        staticCall("com.intellij.psi.stubs.StubIndex", "getElements"),
+        instanceCall("com.intellij.psi.stubs.StubIndex", "getAllKeys"),
+        staticCall("com.intellij.psi.search.FilenameIndex", "getVirtualFilesByName", "getFilesByName", "getAllFilesByExt", "getAllFilenames"),
+        staticCall("com.intellij.psi.search.FileTypeIndex", "getFiles"),
+        //PSI
+        staticCall(PSI_TREE_UTIL, "findChildrenOfType", "findChildrenOfAnyType", "collectElements", "collectElementsOfType"),
+        instanceCall("com.intellij.psi.search.PsiShortNamesCache",
+            "getAllClassNames", "getAllMethodNames", "getAllFieldNames", "getClassesByName", "getMethodsByName", "getFieldsByName"));
+    private static final CallMatcher STREAM = CallMatcher.anyOf(
+        instanceCall("java.util.Collection", "stream").parameterCount(0),
+        staticCall("java.util.Arrays", "stream").parameterCount(1));
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitForeachStatement(@NotNull PsiForeachStatement statement) {
+                var source = getDataSource(statement.getIteratedValue());
+                if (source == null || statement.getBody() == null || checksCanceled(statement.getBody()) || !isInReadAction(statement)) return;
+
+                holder.registerProblem(statement.getIteratedValue(),
+                    JustKittingBundle.message("inspection.missing.check.canceled.loop", getCallName(source)),
+                    isConvertibleToQueryProcessor(statement)
+                    ? new LocalQuickFix[]{new InsertCheckCanceledQuickFix(), new ConvertToQueryProcessorQuickFix()}
+                    : new LocalQuickFix[]{new InsertCheckCanceledQuickFix()});
+            }
+
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                if (!STREAM.matches(expression)) return;
+
+                var collection = expression.getArgumentList().isEmpty()
+                                 ? expression.getMethodExpression().getQualifierExpression()
+                                 : expression.getArgumentList().getExpressions()[0];
+                var source = getDataSource(collection);
+                var streamName = expression.getMethodExpression().getReferenceNameElement();
+                if (source == null || streamName == null || checksCanceled(getPipeline(expression)) || !isInReadAction(expression)) return;
+
+                holder.registerProblem(streamName,
+                    JustKittingBundle.message("inspection.missing.check.canceled.stream", getCallName(source)),
+                    new InsertCheckCanceledQuickFix());
+            }
+        };
+    }
+
+    /**
+     * Returns the argument expression if it is a call that returns PSI, search query or index data, otherwise null.
+     */
+    @Nullable
+    private static PsiMethodCallExpression getDataSource(@Nullable PsiExpression expression) {
+        return PsiUtil.skipParenthesizedExprDown(expression) instanceof PsiMethodCallExpression call
+               && (DATA_SOURCE.matches(call) || InheritanceUtil.isInheritor(call.getType(), QUERY))
+               ? call
+               : null;
+    }
+
+    /**
+     * Returns the outermost call of the call chain starting with the argument stream creation.
+     */
+    private static PsiExpression getPipeline(PsiMethodCallExpression stream) {
+        PsiExpression pipeline = stream;
+        while (PsiUtil.skipParenthesizedExprUp(pipeline.getParent()) instanceof PsiReferenceExpression reference
+               && reference.getParent() instanceof PsiMethodCallExpression chainedCall) {
+            pipeline = chainedCall;
+        }
+        return pipeline;
+    }
+
+    /**
+     * Returns whether the argument loop iterates over search query results, and its body can be moved into a {@code Processor} lambda,
+     * that is, it doesn't use {@code break}, {@code continue} or {@code return}, and the local variables it uses are effectively final.
+     */
+    private static boolean isConvertibleToQueryProcessor(PsiForeachStatement loop) {
+        var source = getDataSource(loop.getIteratedValue());
+        return source != null
+            && getQuery(source) != null
+            && loop.getBody() != null
+            && canBeMovedIntoLambda(loop.getBody(), loop.getIterationParameter(),
+            element -> element instanceof PsiBreakStatement || element instanceof PsiContinueStatement || element instanceof PsiReturnStatement);
+    }
+
+    /**
+     * Returns the search query expression of the argument data source, e.g. {@code ReferencesSearch.search(element)} from
+     * {@code ReferencesSearch.search(element).findAll()}, or null if the source is not a search query.
+     */
+    @Nullable
+    private static PsiExpression getQuery(PsiMethodCallExpression source) {
+        if (InheritanceUtil.isInheritor(source.getType(), QUERY)) return source;
+        var qualifier = source.getMethodExpression().getQualifierExpression();
+        return "findAll".equals(source.getMethodExpression().getReferenceName()) && qualifier != null && InheritanceUtil.isInheritor(qualifier.getType(), QUERY)
+               ? qualifier
+               : null;
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Inserts a {@code ProgressManager.checkCanceled()} call at the beginning of the loop body, or into the stream pipeline
+     * via a {@code peek()} call.
+     */
+    private static final class InsertCheckCanceledQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            var element = descriptor.getPsiElement();
+            if (element.getParent() instanceof PsiForeachStatement loop) {
+                addCheckCanceled(loop);
+            } else if (element.getParent().getParent() instanceof PsiMethodCallExpression stream) {
+                var factory = JavaPsiFacade.getElementFactory(project);
+                var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+                String parameter = codeStyleManager.suggestUniqueVariableName("element", stream, true);
+                var peek = factory.createExpressionFromText(stream.getText() + ".peek(" + parameter + " -> " + PROGRESS_MANAGER + ".checkCanceled())", stream);
+                codeStyleManager.shortenClassReferences(stream.replace(peek));
+            }
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.missing.check.canceled.insert.quick.fix");
+        }
+    }
+
+    /**
+     * Converts a loop over search query results to a {@code Query.forEach()} call with a {@code Processor} lambda,
+     * so that the results are processed, and cancellation is checked, while searching.
+     */
+    private static final class ConvertToQueryProcessorQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement().getParent() instanceof PsiForeachStatement loop)
+                || !(loop.getBody() instanceof PsiStatement body)) return;
+            var source = getDataSource(loop.getIteratedValue());
+            var query = source != null ? getQuery(source) : null;
+            if (query == null) return;
+
+            String statements = body instanceof PsiBlockStatement block
+                                ? block.getText().substring(1, block.getText().length() - 1)
+                                : body.getText();
+            var forEach = JavaPsiFacade.getElementFactory(project).createStatementFromText(
+                query.getText() + ".forEach(" + loop.getIterationParameter().getName() + " -> {\n" + statements + "\nreturn true;\n});", loop);
+            CodeStyleManager.getInstance(project).reformat(loop.replace(forEach));
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.missing.check.canceled.processor.quick.fix");
+        }
+    }
+}
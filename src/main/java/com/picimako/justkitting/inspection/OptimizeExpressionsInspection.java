@@ -3,10 +3,16 @@
 package com.picimako.justkitting.inspection;
 
 import static com.intellij.psi.JavaPsiFacade.getElementFactory;
+import static com.picimako.justkitting.PlatformNames.ARRAY_UTIL;
 import static com.picimako.justkitting.PlatformNames.PSI_CALL;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.PSI_EXPRESSION_LIST;
+import static com.picimako.justkitting.PlatformNames.PSI_TREE_UTIL;
+import static com.picimako.justkitting.PlatformNames.SMART_LIST;
 
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
@@ -17,25 +23,58 @@ import com.intellij.openapi.util.Ref;
 import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiArrayType;
 import com.intellij.psi.PsiBinaryExpression;
+import com.intellij.psi.PsiBlockStatement;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassObjectAccessExpression;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiContinueStatement;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiForeachStatement;
+import com.intellij.psi.PsiIfStatement;
+import com.intellij.psi.PsiInstanceOfExpression;
 import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiPrefixExpression;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.util.ConstantEvaluationOverflowException;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.JavaPsiPatternUtil;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
 import com.picimako.justkitting.PlatformNames;
+import com.picimako.justkitting.PsiElementUtil;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.PsiReplacementUtil;
 import com.siyeh.ig.callMatcher.CallMatcher;
+import com.siyeh.ig.psiutils.BoolUtils;
+import com.siyeh.ig.psiutils.CommentTracker;
+import com.siyeh.ig.psiutils.ControlFlowUtils;
+import com.siyeh.ig.psiutils.ExpressionUtils;
 import com.siyeh.ig.psiutils.TypeUtils;
+import com.siyeh.ig.psiutils.VariableAccessUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -44,42 +83,255 @@ import java.util.Optional;
  * <p>
  * The following problems are reported:
  * <ul>
- *     <li>{@code new <TYPE>[0]} expressions can be replaced with {@code <TYPE>.EMPTY_ARRAY}, if that constant is available in a respective type.</li>
+ *     <li>{@code new <TYPE>[0]} expressions can be replaced with {@code <TYPE>.EMPTY_ARRAY}, if that constant is available in a respective type,
+ *     otherwise with the matching {@code ArrayUtil.EMPTY_<TYPE>_ARRAY} constant, e.g. {@code ArrayUtil.EMPTY_INT_ARRAY}.</li>
+ *     <li>{@code collection.toArray(new String[0])} calls can be replaced with {@code ArrayUtil.toStringArray(collection)}.</li>
+ *     <li>Argumentless {@code new ArrayList<>()} expressions returned from methods returning a list of PSI elements can be replaced with
+ *     {@code new SmartList<>()}, since such lists usually hold zero or one element.</li>
  *     <li>{@code PsiCall.getArgumentList().getExpressions().length} empty/non-empty comparisons can be replaced with {@code !isEmpty()}.</li>
+ *     <li>Other {@code PsiExpressionList.getExpressions().length} expressions can be replaced with {@code getExpressionCount()}.</li>
+ *     <li>{@code PsiTreeUtil.findChildrenOfType()} and {@code findChildrenOfAnyType()} calls whose results are only checked for emptiness,
+ *     or only their first element is taken, can be replaced with {@code findChildOfType()} and {@code findChildOfAnyType()}. Their
+ *     {@code stream().anyMatch()} and {@code noneMatch()} calls can be replaced with {@code processElements()}, which stops at the first match.</li>
+ *     <li>{@code PsiElement.getChildren()} calls used only for iteration can be replaced with a {@code getFirstChild()}/{@code getNextSibling()} walk.
+ *     Note that the walk visits leaf children too, while {@code getChildren()} usually returns only composite ones.</li>
+ *     <li>{@code PsiElement.getText()} equality checks with string constants or with the text of other elements can be replaced with {@code textMatches()}.</li>
+ *     <li>{@code PsiElement.getText().isEmpty()} and {@code .length()} calls can be replaced with {@code getTextLength()} based expressions.</li>
+ *     <li>{@code PsiElement.getText().startsWith()} and {@code .endsWith()} calls are reported, when the element is not a leaf element,
+ *     so that the element type of the first or last leaf element may be checked instead. No quick fix is provided for them.</li>
  * </ul>
+ * <p>
+ * The {@code getText()} related checks are available for Kotlin files via {@link KotlinOptimizeExpressionsInspection}.
  *
  * @since 0.1.0
  */
 public class OptimizeExpressionsInspection extends LocalInspectionTool {
     private static final CallMatcher.Simple GET_ARGUMENT_LIST = CallMatcher.instanceCall(PSI_CALL, "getArgumentList");
+    private static final CallMatcher.Simple GET_EXPRESSIONS = CallMatcher.instanceCall(PSI_EXPRESSION_LIST, "getExpressions").parameterCount(0);
+    private static final CallMatcher.Simple COLLECTION_TO_ARRAY = CallMatcher.instanceCall("java.util.Collection", "toArray").parameterCount(1);
+    static final CallMatcher.Simple GET_TEXT = CallMatcher.instanceCall(PSI_ELEMENT, "getText").parameterCount(0);
+    private static final CallMatcher.Simple GET_CHILDREN = CallMatcher.instanceCall(PSI_ELEMENT, "getChildren").parameterCount(0);
+    private static final CallMatcher.Simple FIND_CHILDREN_OF_TYPE = CallMatcher.staticCall(PSI_TREE_UTIL, "findChildrenOfType", "findChildrenOfAnyType");
+    private static final CallMatcher.Simple COLLECTION_IS_EMPTY = CallMatcher.instanceCall("java.util.Collection", "isEmpty").parameterCount(0);
+    private static final CallMatcher.Simple COLLECTION_SIZE = CallMatcher.instanceCall("java.util.Collection", "size").parameterCount(0);
+    private static final CallMatcher.Simple COLLECTION_ITERATOR = CallMatcher.instanceCall("java.util.Collection", "iterator").parameterCount(0);
+    private static final CallMatcher.Simple COLLECTION_STREAM = CallMatcher.instanceCall("java.util.Collection", "stream").parameterCount(0);
+    private static final CallMatcher.Simple ITERATOR_NEXT = CallMatcher.instanceCall("java.util.Iterator", "next").parameterCount(0);
+    private static final CallMatcher.Simple STREAM_ANY_OR_NONE_MATCH = CallMatcher.instanceCall("java.util.stream.Stream", "anyMatch", "noneMatch").parameterCount(1);
+    private static final CallMatcher.Simple GET_FIRST_ITEM = CallMatcher.staticCall("com.intellij.util.containers.ContainerUtil", "getFirstItem").parameterCount(1);
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
         return new JavaElementVisitor() {
             @Override
             public void visitNewExpression(@NotNull PsiNewExpression expression) {
-                //If it's a new Type[0] array creation and Type has an empty array constant called EMPTY_ARRAY
-                if (expression.isArrayCreation() && expression.getArrayDimensions().length == 1 && isZero(expression.getArrayDimensions()[0]) && hasEmptyArrayConstantField(expression.getClassReference())) {
-                    holder.registerProblem(expression,
-                        JustKittingBundle.message("inspection.empty.array.creation", expression.getClassReference().getReferenceName()),
-                        ProblemHighlightType.WEAK_WARNING,
-                        new ReplaceWithEmptyArrayConstantQuickFix(expression.getClassReference().getReferenceName()));
+                if (isEmptyArrayCreation(expression)) {
+                    //If it's a new Type[0] array creation and Type has an empty array constant called EMPTY_ARRAY
+                    if (hasEmptyArrayConstantField(expression.getClassReference())) {
+                        holder.registerProblem(expression,
+                            JustKittingBundle.message("inspection.empty.array.creation", expression.getClassReference().getReferenceName()),
+                            ProblemHighlightType.WEAK_WARNING,
+                            new ReplaceWithEmptyArrayConstantQuickFix(expression.getClassReference().getReferenceName()));
+                    }
+                    //If it's e.g. a new int[0] array creation, and ArrayUtil has a constant for it. collection.toArray(new String[0]) is reported separately.
+                    else if (!isToStringArray(expression.getParent().getParent())) {
+                        String constantName = findArrayUtilConstant(expression);
+                        if (constantName != null) {
+                            holder.registerProblem(expression,
+                                JustKittingBundle.message("inspection.empty.array.creation.array.util", constantName),
+                                ProblemHighlightType.WEAK_WARNING,
+                                new ReplaceWithArrayUtilConstantQuickFix(constantName));
+                        }
+                    }
+                } else if (isArrayListReturnedFromPsiUtility(expression) && hasClass(SMART_LIST, expression)) {
+                    holder.registerProblem(expression, JustKittingBundle.message("inspection.use.smart.list"), ProblemHighlightType.WEAK_WARNING,
+                        new ReplaceWithSmartListQuickFix());
+                }
+            }
+
+            @Override
+            public void visitReferenceExpression(@NotNull PsiReferenceExpression expression) {
+                //Comparisons replaceable with isEmpty() are reported in visitBinaryExpression()
+                if ("length".equals(expression.getReferenceName())
+                    && PsiUtil.skipParenthesizedExprDown(expression.getQualifierExpression()) instanceof PsiMethodCallExpression getExpressions
+                    && GET_EXPRESSIONS.matches(getExpressions)
+                    && !(expression.getParent() instanceof PsiBinaryExpression comparison && isReplaceableWithIsEmpty(comparison))) {
+                    holder.registerProblem(expression, JustKittingBundle.message("inspection.use.expression.count"), ProblemHighlightType.WEAK_WARNING,
+                        new ReplaceWithExpressionCountQuickFix());
                 }
             }
 
             @Override
             public void visitBinaryExpression(@NotNull PsiBinaryExpression expr) {
-                boolean isLeftBound;
-                //If any of the expression operands is a reference to 'PsiArgumentList.getExpressions().length'
-                if ((isLeftBound = isGetExpressionsLength(expr.getLOperand(), expr.getROperand())) || isGetExpressionsLength(expr.getROperand(), expr.getLOperand())) {
+                if (isReplaceableWithIsEmpty(expr)) {
+                    boolean isLeftBound = isGetExpressionsLength(expr.getLOperand(), expr.getROperand());
                     if (expr.getOperationTokenType() == JavaTokenType.EQEQ) {
                         holder.registerProblem(expr, JustKittingBundle.message("inspection.use.expression.list.is.empty", ""), new ReplaceWithIsEmptyQuickFix(false, isLeftBound));
-                    } else if (expr.getOperationTokenType() == (isLeftBound ? JavaTokenType.GT : JavaTokenType.LT)) {
+                    } else {
                         holder.registerProblem(expr, JustKittingBundle.message("inspection.use.expression.list.is.empty", "!"), new ReplaceWithIsEmptyQuickFix(true, isLeftBound));
                     }
                 }
             }
 
+            /**
+             * Returns whether the argument is a {@code PsiArgumentList.getExpressions().length == 0} or {@code > 0} comparison,
+             * in either operand order, thus replaceable with {@code isEmpty()} or {@code !isEmpty()}.
+             */
+            private boolean isReplaceableWithIsEmpty(PsiBinaryExpression expr) {
+                var operation = expr.getOperationTokenType();
+                return isGetExpressionsLength(expr.getLOperand(), expr.getROperand()) && (operation == JavaTokenType.EQEQ || operation == JavaTokenType.GT)
+                    || isGetExpressionsLength(expr.getROperand(), expr.getLOperand()) && (operation == JavaTokenType.EQEQ || operation == JavaTokenType.LT);
+            }
+
+            @Override
+            public void visitForeachStatement(@NotNull PsiForeachStatement statement) {
+                //for (PsiElement child : element.getChildren())
+                if (PsiUtil.skipParenthesizedExprDown(statement.getIteratedValue()) instanceof PsiMethodCallExpression getChildren
+                    && GET_CHILDREN.matches(getChildren)) {
+                    holder.registerProblem(getChildren, JustKittingBundle.message("inspection.use.sibling.walk"), ProblemHighlightType.WEAK_WARNING,
+                        canIterateViaSiblings(statement) && filtersCompositeChildren(statement) ? new LocalQuickFix[]{new ReplaceWithSiblingWalkQuickFix()} : LocalQuickFix.EMPTY_ARRAY);
+                }
+            }
+
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                if (FIND_CHILDREN_OF_TYPE.matches(expression)) {
+                    registerEarlyExitTraversal(expression);
+                    return;
+                }
+
+                if (isToStringArray(expression) && hasClass(ARRAY_UTIL, expression)) {
+                    holder.registerProblem(expression, JustKittingBundle.message("inspection.use.to.string.array"), ProblemHighlightType.WEAK_WARNING,
+                        new ReplaceWithToStringArrayQuickFix());
+                    return;
+                }
+
+                var methodExpression = expression.getMethodExpression();
+                String methodName = methodExpression.getReferenceName();
+                if (methodName == null) return;
+
+                var qualifier = PsiUtil.skipParenthesizedExprDown(methodExpression.getQualifierExpression());
+                var arguments = expression.getArgumentList().getExpressions();
+                //"text".equals(element.getText())
+                if ("equals".equals(methodName) && arguments.length == 1 && isStringConstant(qualifier)
+                    && PsiUtil.skipParenthesizedExprDown(arguments[0]) instanceof PsiMethodCallExpression getText && GET_TEXT.matches(getText)) {
+                    registerTextMatches(expression, getText, qualifier);
+                    return;
+                }
+
+                if (!(qualifier instanceof PsiMethodCallExpression getText) || !GET_TEXT.matches(getText)) return;
+
+                switch (methodName) {
+                    //element.getText().equals("text") or element.getText().equals(other.getText())
+                    case "equals" -> {
+                        if (arguments.length == 1) registerTextMatches(expression, getText, arguments[0]);
+                    }
+                    //element.getText().isEmpty() or !element.getText().isEmpty()
+                    case "isEmpty" -> {
+                        if (arguments.length != 0) return;
+                        if (expression.getParent() instanceof PsiPrefixExpression prefix && prefix.getOperationTokenType() == JavaTokenType.EXCL) {
+                            registerGetTextLength(prefix, getElementQualifier(getText) + "getTextLength() != 0");
+                        } else {
+                            registerGetTextLength(expression, getElementQualifier(getText) + "getTextLength() == 0");
+                        }
+                    }
+                    //element.getText().length()
+                    case "length" -> {
+                        if (arguments.length == 0) registerGetTextLength(expression, getElementQualifier(getText) + "getTextLength()");
+                    }
+                    //element.getText().startsWith("text") or element.getText().endsWith("text")
+                    case "startsWith", "endsWith" -> {
+                        var element = getText.getMethodExpression().getQualifierExpression();
+                        var methodNameElement = methodExpression.getReferenceNameElement();
+                        if (element != null && methodNameElement != null
+                            && !PsiElementUtil.isLeafElement(PsiUtil.resolveClassInClassTypeOnly(element.getType()))) {
+                            boolean isStart = "startsWith".equals(methodName);
+                            holder.registerProblem(methodNameElement,
+                                JustKittingBundle.message("inspection.use.leaf.element.type", methodName, isStart ? "first" : "last", isStart ? "getDeepestFirst" : "getDeepestLast"));
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+
+            private void registerTextMatches(PsiExpression expression, PsiMethodCallExpression getText, @Nullable PsiExpression comparedTo) {
+                comparedTo = PsiUtil.skipParenthesizedExprDown(comparedTo);
+                String argument = null;
+                if (isStringConstant(comparedTo)) {
+                    argument = comparedTo.getText();
+                } else if (comparedTo instanceof PsiMethodCallExpression otherGetText && GET_TEXT.matches(otherGetText)) {
+                    //textMatches(PsiElement) compares the texts of the two elements without materializing them
+                    var otherElement = otherGetText.getMethodExpression().getQualifierExpression();
+                    argument = otherElement != null ? otherElement.getText() : "this";
+                }
+                if (argument == null) return;
+
+                holder.registerProblem(expression, JustKittingBundle.message("inspection.use.text.matches"),
+                    new ReplaceGetTextQuickFix(getElementQualifier(getText) + "textMatches(" + argument + ")", "textMatches()"));
+            }
+
+            private void registerGetTextLength(PsiExpression expression, String replacement) {
+                holder.registerProblem(expression, JustKittingBundle.message("inspection.use.text.length"),
+                    new ReplaceGetTextQuickFix(replacement, "getTextLength()"));
+            }
+
+            /**
+             * Registers the usages of the argument {@code findChildrenOfType()} or {@code findChildrenOfAnyType()} call that only check
+             * the existence of, or take the first one of, the collected elements.
+             */
+            private void registerEarlyExitTraversal(PsiMethodCallExpression findChildren) {
+                String findChild = PSI_TREE_UTIL + "." + getFindChildMethodName(findChildren) + findChildren.getArgumentList().getText();
+                var parent = PsiUtil.skipParenthesizedExprUp(findChildren.getParent());
+
+                //ContainerUtil.getFirstItem(PsiTreeUtil.findChildrenOfType(element, Type.class))
+                if (parent instanceof PsiExpressionList && parent.getParent() instanceof PsiMethodCallExpression getFirstItem && GET_FIRST_ITEM.matches(getFirstItem)) {
+                    registerFindChild(getFirstItem, findChild, findChildren);
+                    return;
+                }
+
+                if (!(parent instanceof PsiReferenceExpression && parent.getParent() instanceof PsiMethodCallExpression collectionCall)) return;
+                var collectionCallParent = PsiUtil.skipParenthesizedExprUp(collectionCall.getParent());
+
+                //PsiTreeUtil.findChildrenOfType(element, Type.class).isEmpty() or its negation
+                if (COLLECTION_IS_EMPTY.matches(collectionCall)) {
+                    if (collectionCallParent instanceof PsiPrefixExpression prefix && prefix.getOperationTokenType() == JavaTokenType.EXCL) {
+                        registerFindChild(prefix, findChild + " != null", findChildren);
+                    } else {
+                        registerFindChild(collectionCall, findChild + " == null", findChildren);
+                    }
+                }
+                //PsiTreeUtil.findChildrenOfType(element, Type.class).size() compared to 0
+                else if (COLLECTION_SIZE.matches(collectionCall)) {
+                    if (collectionCallParent instanceof PsiBinaryExpression comparison) {
+                        String nullCheck = getSizeComparisonAsNullCheck(comparison);
+                        if (nullCheck != null) registerFindChild(comparison, findChild + nullCheck, findChildren);
+                    }
+                }
+                //PsiTreeUtil.findChildrenOfType(element, Type.class).iterator().next()
+                else if (COLLECTION_ITERATOR.matches(collectionCall)) {
+                    if (collectionCallParent instanceof PsiReferenceExpression && collectionCallParent.getParent() instanceof PsiMethodCallExpression next && ITERATOR_NEXT.matches(next)) {
+                        registerFindChild(next, findChild, findChildren);
+                    }
+                }
+                //PsiTreeUtil.findChildrenOfType(element, Type.class).stream().anyMatch(predicate) or noneMatch(predicate)
+                else if (COLLECTION_STREAM.matches(collectionCall)) {
+                    if (collectionCallParent instanceof PsiReferenceExpression && collectionCallParent.getParent() instanceof PsiMethodCallExpression match
+                        && STREAM_ANY_OR_NONE_MATCH.matches(match)) {
+                        String processElements = getProcessElementsReplacement(findChildren, match);
+                        holder.registerProblem(match, JustKittingBundle.message("inspection.use.early.exit.traversal", findChildren.getMethodExpression().getReferenceName()),
+                            ProblemHighlightType.WEAK_WARNING,
+                            processElements != null ? new LocalQuickFix[]{new ReplaceWithEarlyExitTraversalQuickFix(processElements, "processElements()")} : LocalQuickFix.EMPTY_ARRAY);
+                    }
+                }
+            }
+
+            private void registerFindChild(PsiExpression expression, String replacement, PsiMethodCallExpression findChildren) {
+                holder.registerProblem(expression, JustKittingBundle.message("inspection.use.early.exit.traversal", findChildren.getMethodExpression().getReferenceName()),
+                    ProblemHighlightType.WEAK_WARNING,
+                    new ReplaceWithEarlyExitTraversalQuickFix(replacement, getFindChildMethodName(findChildren) + "()"));
+            }
+
             /**
              * Returns whether the operands represent a comparison between a call to PsiExpressionList.getExpressions().length and 0.
              */
@@ -135,6 +387,362 @@ public class OptimizeExpressionsInspection extends LocalInspectionTool {
         }
     }
 
+    /**
+     * Returns whether the argument is a {@code new <TYPE>[0]} expression.
+     */
+    private static boolean isEmptyArrayCreation(PsiNewExpression expression) {
+        return expression.isArrayCreation() && expression.getArrayDimensions().length == 1 && isZero(expression.getArrayDimensions()[0]);
+    }
+
+    private static boolean hasClass(String className, PsiElement context) {
+        return JavaPsiFacade.getInstance(context.getProject()).findClass(className, context.getResolveScope()) != null;
+    }
+
+    // ---- ArrayUtil constants ----
+
+    /**
+     * Returns the name of the {@code ArrayUtil.EMPTY_<TYPE>_ARRAY} constant whose type is the same as the type of the argument
+     * empty array creation, or null if there is no such constant.
+     */
+    @Nullable
+    private static String findArrayUtilConstant(PsiNewExpression emptyArray) {
+        if (!(emptyArray.getType() instanceof PsiArrayType arrayType)) return null;
+
+        var componentType = TypeConversionUtil.erasure(arrayType.getComponentType());
+        String typeName = componentType instanceof PsiClassType classType ? classType.getClassName() : componentType.getCanonicalText();
+        var arrayUtil = JavaPsiFacade.getInstance(emptyArray.getProject()).findClass(ARRAY_UTIL, emptyArray.getResolveScope());
+        if (typeName == null || arrayUtil == null) return null;
+
+        String constantName = "EMPTY_" + typeName.toUpperCase(Locale.ROOT) + "_ARRAY";
+        PsiField constant = arrayUtil.findFieldByName(constantName, true);
+        return constant != null && TypeConversionUtil.erasure(constant.getType()).equals(TypeConversionUtil.erasure(arrayType)) ? constantName : null;
+    }
+
+    /**
+     * Replaces {@code new <TYPE>[0]} expressions with {@code ArrayUtil.EMPTY_<TYPE>_ARRAY}.
+     */
+    private static final class ReplaceWithArrayUtilConstantQuickFix extends InspectionGadgetsFix {
+        private final String constantName;
+
+        public ReplaceWithArrayUtilConstantQuickFix(String constantName) {
+            this.constantName = constantName;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            var newEmptyArray = descriptor.getPsiElement();
+            var constant = newEmptyArray.replace(getElementFactory(project).createExpressionFromText(ARRAY_UTIL + "." + constantName, newEmptyArray));
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(constant);
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.replace.with.array.util.constant", constantName);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.array.util.constant.family");
+        }
+    }
+
+    // ---- toArray(new String[0]) ----
+
+    /**
+     * Returns whether the argument is a {@code collection.toArray(new String[0])} call.
+     */
+    private static boolean isToStringArray(PsiElement element) {
+        return element instanceof PsiMethodCallExpression toArray
+            && COLLECTION_TO_ARRAY.matches(toArray)
+            && toArray.getArgumentList().getExpressionCount() == 1
+            && toArray.getMethodExpression().getQualifierExpression() instanceof PsiExpression collection
+            && TypeUtils.isJavaLangString(PsiUtil.substituteTypeParameter(collection.getType(), "java.util.Collection", 0, true))
+            && PsiUtil.skipParenthesizedExprDown(toArray.getArgumentList().getExpressions()[0]) instanceof PsiNewExpression emptyArray
+            && isEmptyArrayCreation(emptyArray)
+            && emptyArray.getType() instanceof PsiArrayType arrayType
+            && TypeUtils.isJavaLangString(arrayType.getComponentType());
+    }
+
+    /**
+     * Replaces {@code collection.toArray(new String[0])} calls with {@code ArrayUtil.toStringArray(collection)}, which returns
+     * {@code ArrayUtil.EMPTY_STRING_ARRAY} for empty collections.
+     */
+    private static final class ReplaceWithToStringArrayQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiMethodCallExpression toArray)
+                || toArray.getMethodExpression().getQualifierExpression() == null) return;
+
+            var toStringArray = getElementFactory(project).createExpressionFromText(
+                ARRAY_UTIL + ".toStringArray(" + toArray.getMethodExpression().getQualifierExpression().getText() + ")", toArray);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(toArray.replace(toStringArray));
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.to.string.array");
+        }
+    }
+
+    // ---- SmartList ----
+
+    /**
+     * Returns whether the argument is an argumentless {@code new ArrayList<>()} expression that is returned, directly or via a local variable,
+     * from a method whose return type is a list of PSI elements.
+     */
+    private static boolean isArrayListReturnedFromPsiUtility(PsiNewExpression expression) {
+        if (expression.getAnonymousClass() != null
+            || expression.getArgumentList() == null
+            || !expression.getArgumentList().isEmpty()
+            || !TypeUtils.typeEquals("java.util.ArrayList", TypeConversionUtil.erasure(expression.getType()))) return false;
+
+        var method = PsiTreeUtil.getParentOfType(expression, PsiMethod.class, true, PsiLambdaExpression.class, PsiClass.class);
+        if (method == null || !returnsListOfPsiElements(method)) return false;
+
+        var parent = PsiUtil.skipParenthesizedExprUp(expression.getParent());
+        if (parent instanceof PsiReturnStatement) return true;
+
+        //The variable must not be declared as an ArrayList, so that a SmartList can be assigned to it
+        return parent instanceof PsiLocalVariable variable
+            && !InheritanceUtil.isInheritor(variable.getType(), "java.util.ArrayList")
+            && Arrays.stream(PsiUtil.findReturnStatements(method))
+            .anyMatch(returnStatement -> ExpressionUtils.isReferenceTo(returnStatement.getReturnValue(), variable));
+    }
+
+    private static boolean returnsListOfPsiElements(PsiMethod method) {
+        PsiType returnType = method.getReturnType();
+        if (!InheritanceUtil.isInheritor(returnType, "java.util.List")) return false;
+
+        var elementType = PsiUtil.substituteTypeParameter(returnType, "java.util.List", 0, true);
+        return InheritanceUtil.isInheritor(elementType, PSI_ELEMENT);
+    }
+
+    /**
+     * Replaces {@code new ArrayList<>()} expressions with {@code new SmartList<>()}.
+     */
+    private static final class ReplaceWithSmartListQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiNewExpression arrayList) || arrayList.getClassReference() == null) return;
+
+            var smartList = getElementFactory(project).createExpressionFromText(
+                "new " + SMART_LIST + arrayList.getClassReference().getParameterList().getText() + "()", arrayList);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(arrayList.replace(smartList));
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.smart.list");
+        }
+    }
+
+    // ---- Early-exit traversal ----
+
+    private static String getFindChildMethodName(PsiMethodCallExpression findChildren) {
+        return "findChildrenOfType".equals(findChildren.getMethodExpression().getReferenceName()) ? "findChildOfType" : "findChildOfAnyType";
+    }
+
+    /**
+     * Returns the null check equivalent of the argument {@code size()} comparison, e.g. {@code " != null"} for {@code size() > 0},
+     * or null if the comparison is not an emptiness check.
+     */
+    @Nullable
+    private static String getSizeComparisonAsNullCheck(PsiBinaryExpression comparison) {
+        boolean isSizeAtLeft = isZero(comparison.getROperand());
+        if (!isSizeAtLeft && !isZero(comparison.getLOperand())) return null;
+
+        var operation = comparison.getOperationTokenType();
+        if (operation == JavaTokenType.EQEQ || operation == (isSizeAtLeft ? JavaTokenType.LE : JavaTokenType.GE)) return " == null";
+        if (operation == JavaTokenType.NE || operation == (isSizeAtLeft ? JavaTokenType.GT : JavaTokenType.LT)) return " != null";
+        return null;
+    }
+
+    /**
+     * Returns the {@code PsiTreeUtil.processElements()} call replacing the argument {@code anyMatch()} or {@code noneMatch()} call,
+     * or null if it cannot be replaced.
+     * <p>
+     * Since {@code processElements()} processes the root element too, unlike {@code findChildrenOfType()}, the replacement is provided only
+     * when the root element cannot be an instance of the searched type. The predicate must be a lambda with an expression body.
+     */
+    @Nullable
+    private static String getProcessElementsReplacement(PsiMethodCallExpression findChildren, PsiMethodCallExpression match) {
+        var findChildrenArgs = findChildren.getArgumentList().getExpressions();
+        if (!"findChildrenOfType".equals(findChildren.getMethodExpression().getReferenceName())
+            || findChildrenArgs.length != 2
+            || match.getArgumentList().getExpressionCount() != 1
+            || !(findChildrenArgs[1] instanceof PsiClassObjectAccessExpression searchedClassAccess)
+            || !(PsiUtil.skipParenthesizedExprDown(match.getArgumentList().getExpressions()[0]) instanceof PsiLambdaExpression predicate)
+            || !(predicate.getBody() instanceof PsiExpression predicateBody)
+            || predicate.getParameterList().getParametersCount() != 1) return null;
+
+        var rootClass = PsiUtil.resolveClassInClassTypeOnly(findChildrenArgs[0].getType());
+        var searchedClass = PsiUtil.resolveClassInClassTypeOnly(searchedClassAccess.getOperand().getType());
+        if (rootClass == null || searchedClass == null
+            || InheritanceUtil.isInheritorOrSelf(rootClass, searchedClass, true)
+            || InheritanceUtil.isInheritorOrSelf(searchedClass, rootClass, true)) return null;
+
+        //The processor returns false, thus stops the traversal, when the predicate matches
+        String processor = predicate.getParameterList().getParameters()[0].getName() + " -> " + BoolUtils.getNegatedExpressionText(predicateBody);
+        String negation = "anyMatch".equals(match.getMethodExpression().getReferenceName()) ? "!" : "";
+        return negation + PSI_TREE_UTIL + ".processElements(" + findChildrenArgs[0].getText() + ", " + searchedClassAccess.getText() + ", " + processor + ")";
+    }
+
+    /**
+     * Replaces calls on the collections returned by {@code PsiTreeUtil.findChildrenOfType()} and {@code findChildrenOfAnyType()}
+     * with {@code findChildOfType()}, {@code findChildOfAnyType()} or {@code processElements()} calls.
+     */
+    private static final class ReplaceWithEarlyExitTraversalQuickFix extends InspectionGadgetsFix {
+        private final String replacement;
+        private final String replacementMethod;
+
+        public ReplaceWithEarlyExitTraversalQuickFix(String replacement, String replacementMethod) {
+            this.replacement = replacement;
+            this.replacementMethod = replacementMethod;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (descriptor.getPsiElement() instanceof PsiExpression expression) {
+                PsiReplacementUtil.replaceExpressionAndShorten(expression, replacement, new CommentTracker());
+            }
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.replace.with.method", replacementMethod);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.early.exit.traversal.family");
+        }
+    }
+
+    /**
+     * Returns whether the argument foreach loop can be converted to a {@code getFirstChild()}/{@code getNextSibling()} walk,
+     * that is, the loop variable is not reassigned, and not captured by lambdas or classes, since it won't be effectively final.
+     */
+    private static boolean canIterateViaSiblings(PsiForeachStatement statement) {
+        var child = statement.getIterationParameter();
+        var body = statement.getBody();
+        return body != null
+            && !VariableAccessUtils.variableIsAssigned(child, body)
+            && VariableAccessUtils.getVariableReferences(child, body).stream()
+            .map(reference -> PsiTreeUtil.getParentOfType(reference, PsiLambdaExpression.class, PsiClass.class))
+            .noneMatch(capturer -> capturer != null && PsiTreeUtil.isAncestor(body, capturer, true));
+    }
+
+    /**
+     * Returns whether the body of the argument loop processes only composite children, since unlike {@code getChildren()}, a sibling walk
+     * visits leaf elements, e.g. whitespaces and comments, as well. That is, the body either starts with
+     * {@code if (!(child instanceof PsiStatement)) continue;}, or consists of a single {@code if (child instanceof PsiStatement) { }} statement,
+     * checking against a composite PSI type.
+     */
+    private static boolean filtersCompositeChildren(PsiForeachStatement statement) {
+        var statements = statement.getBody() instanceof PsiBlockStatement block ? block.getCodeBlock().getStatements() : new PsiStatement[]{statement.getBody()};
+        if (statements.length == 0 || !(statements[0] instanceof PsiIfStatement ifStatement) || ifStatement.getElseBranch() != null) return false;
+
+        var child = statement.getIterationParameter();
+        var condition = PsiUtil.skipParenthesizedExprDown(ifStatement.getCondition());
+        if (condition instanceof PsiInstanceOfExpression instanceOf) {
+            return statements.length == 1 && isCompositeTypeCheck(instanceOf, child);
+        }
+        return BoolUtils.isNegation(condition)
+            && PsiUtil.skipParenthesizedExprDown(BoolUtils.getNegated(condition)) instanceof PsiInstanceOfExpression instanceOf
+            && isCompositeTypeCheck(instanceOf, child)
+            && ControlFlowUtils.stripBraces(ifStatement.getThenBranch()) instanceof PsiContinueStatement continueStatement
+            && continueStatement.getLabelIdentifier() == null;
+    }
+
+    /**
+     * Returns whether the argument {@code instanceof} expression checks the argument variable against a PSI type other than
+     * {@code PsiElement} itself, and leaf elements.
+     */
+    private static boolean isCompositeTypeCheck(PsiInstanceOfExpression instanceOf, PsiVariable variable) {
+        var checkTypeElement = instanceOf.getCheckType();
+        var checkType = checkTypeElement != null ? checkTypeElement.getType() : JavaPsiPatternUtil.getPatternType(instanceOf.getPattern());
+        var checkClass = PsiUtil.resolveClassInClassTypeOnly(checkType);
+        return ExpressionUtils.isReferenceTo(instanceOf.getOperand(), variable)
+            && checkClass != null
+            && !PSI_ELEMENT.equals(checkClass.getQualifiedName())
+            && InheritanceUtil.isInheritor(checkClass, PSI_ELEMENT)
+            && !PsiElementUtil.isLeafElement(checkClass);
+    }
+
+    /**
+     * Replaces {@code for (PsiElement child : element.getChildren())} loops with
+     * {@code for (PsiElement child = element.getFirstChild(); child != null; child = child.getNextSibling())} loops.
+     */
+    private static final class ReplaceWithSiblingWalkQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PsiMethodCallExpression getChildren)
+                || !(PsiTreeUtil.getParentOfType(getChildren, PsiForeachStatement.class) instanceof PsiForeachStatement loop)
+                || loop.getBody() == null) return;
+
+            var element = getChildren.getMethodExpression().getQualifierExpression();
+            String child = loop.getIterationParameter().getName();
+            String firstChild = (element != null ? element.getText() + "." : "") + "getFirstChild()";
+            var siblingWalk = getElementFactory(project).createStatementFromText(
+                "for (" + PSI_ELEMENT + " " + child + " = " + firstChild + "; " + child + " != null; " + child + " = " + child + ".getNextSibling()) "
+                    + loop.getBody().getText(), loop);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(loop.replace(siblingWalk));
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.sibling.walk");
+        }
+    }
+
+    // ---- getText() ----
+
+    private static boolean isStringConstant(@Nullable PsiExpression expression) {
+        return expression != null && TypeUtils.isJavaLangString(expression.getType()) && ExpressionUtils.computeConstantExpression(expression) != null;
+    }
+
+    /**
+     * Returns the text of the qualifier of the argument {@code getText()} call followed by a dot, or an empty string
+     * if the call is not qualified.
+     */
+    private static String getElementQualifier(PsiMethodCallExpression getText) {
+        var element = getText.getMethodExpression().getQualifierExpression();
+        return element != null ? element.getText() + "." : "";
+    }
+
+    /**
+     * Replaces {@code getText()} based expressions with the provided replacement that uses {@code textMatches()} or {@code getTextLength()}.
+     */
+    private static final class ReplaceGetTextQuickFix extends InspectionGadgetsFix {
+        private final String replacement;
+        private final String replacementMethod;
+
+        public ReplaceGetTextQuickFix(String replacement, String replacementMethod) {
+            this.replacement = replacement;
+            this.replacementMethod = replacementMethod;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (descriptor.getPsiElement() instanceof PsiExpression expression) {
+                PsiReplacementUtil.replaceExpression(expression, replacement);
+            }
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.replace.with.method", replacementMethod);
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.optimize.expressions.family");
+        }
+    }
+
     // ---- isEmpty() comparison ----
 
     /**
@@ -168,6 +776,27 @@ public class OptimizeExpressionsInspection extends LocalInspectionTool {
         return false;
     }
 
+    /**
+     * Replaces {@code PsiExpressionList.getExpressions().length} expressions with {@code PsiExpressionList.getExpressionCount()}.
+     */
+    private static final class ReplaceWithExpressionCountQuickFix extends InspectionGadgetsFix {
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (descriptor.getPsiElement() instanceof PsiReferenceExpression length
+                && PsiUtil.skipParenthesizedExprDown(length.getQualifierExpression()) instanceof PsiMethodCallExpression getExpressions) {
+                var expressionList = getExpressions.getMethodExpression().getQualifierExpression();
+                String qualifier = expressionList != null ? expressionList.getText() + "." : "";
+                length.replace(getElementFactory(project).createExpressionFromText(qualifier + "getExpressionCount()", length));
+            }
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.replace.with.expression.count");
+        }
+    }
+
     /**
      * Replaces {@code PsiCall.getArgumentList().getExpressions().length} empty/non-empty comparisons
      * with {@code isEmpty()} or {@code !isEmpty()} depending on the expression.
@@ -0,0 +1,86 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.picimako.justkitting.CachedValueUtil;
+import com.picimako.justkitting.HotPathUtil;
+import com.picimako.justkitting.PsiElementUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reports class loading and reflection calls in extensions that are executed during highlighting, thus potentially on every keystroke:
+ * <ul>
+ *     <li>{@code Class.forName()} and {@code ClassLoader.loadClass()},</li>
+ *     <li>{@code Method.invoke()}, {@code Constructor.newInstance()}, method, field and constructor lookups on {@code Class},
+ *     and calls to {@code com.intellij.util.ReflectionUtil},</li>
+ *     <li>{@code ServiceLoader.load()} and {@code ServiceLoader.loadInstalled()}.</li>
+ * </ul>
+ * They are reported when they are reachable from visitor methods, or from instance methods of {@code LineMarkerProvider},
+ * {@code Annotator}, {@code InlayHintsCollector}, {@code FoldingBuilder}, {@code PsiReferenceContributor} and {@code PsiReferenceProvider}
+ * implementations. See {@link HotPathUtil#isReachableFromHighlighting(com.intellij.psi.PsiElement)}.
+ * <p>
+ * Calls in {@code CachedValueProvider} lambdas are not reported, since their results are already cached.
+ *
+ * @since 1.3.0
+ */
+public class ReflectionInHighlightingInspection extends LocalInspectionTool {
+    private static final String REFLECTION_UTIL = "com.intellij.util.ReflectionUtil";
+    private static final CallMatcher CLASS_LOADING = CallMatcher.anyOf(
+        staticCall("java.lang.Class", "forName"),
+        instanceCall("java.lang.ClassLoader", "loadClass"));
+    private static final CallMatcher REFLECTION = CallMatcher.anyOf(
+        instanceCall("java.lang.reflect.Method", "invoke"),
+        instanceCall("java.lang.reflect.Constructor", "newInstance"),
+        instanceCall("java.lang.Class", "getMethod", "getMethods", "getDeclaredMethod", "getDeclaredMethods",
+            "getField", "getFields", "getDeclaredField", "getDeclaredFields", "getConstructor", "getDeclaredConstructor"));
+    private static final CallMatcher SERVICE_LOADING = staticCall("java.util.ServiceLoader", "load", "loadInstalled");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                String messageKey = getMessageKey(expression);
+                if (messageKey == null
+                    || CachedValueUtil.isInCachedValueProvider(expression)
+                    || !HotPathUtil.isReachableFromHighlighting(expression)) return;
+
+                var methodName = expression.getMethodExpression().getReferenceNameElement();
+                if (methodName == null) return;
+
+                holder.registerProblem(methodName, JustKittingBundle.message(messageKey, PsiElementUtil.getCallName(expression)));
+            }
+        };
+    }
+
+    /**
+     * Returns the bundle key of the message to report the argument call with, or null if the call is not class loading or reflection.
+     */
+    @Nullable
+    private static String getMessageKey(PsiMethodCallExpression call) {
+        if (CLASS_LOADING.test(call)) return "inspection.reflection.in.highlighting.class.loading";
+        if (REFLECTION.test(call) || isReflectionUtilCall(call)) return "inspection.reflection.in.highlighting.reflection";
+        if (SERVICE_LOADING.test(call)) return "inspection.reflection.in.highlighting.service.loading";
+        return null;
+    }
+
+    private static boolean isReflectionUtilCall(PsiMethodCallExpression call) {
+        //Checking the qualifier first, so that calls are not resolved unnecessarily. Unqualified calls may be statically imported.
+        var qualifier = call.getMethodExpression().getQualifierExpression();
+        if (qualifier != null && !qualifier.textMatches("ReflectionUtil") && !qualifier.textMatches(REFLECTION_UTIL)) return false;
+
+        var method = call.resolveMethod();
+        return method != null && method.getContainingClass() != null && REFLECTION_UTIL.equals(method.getContainingClass().getQualifiedName());
+    }
+}
@@ -0,0 +1,341 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassInitializer;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiForeachStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiSynchronizedStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.InspectionGadgetsFix;
+import com.siyeh.ig.PsiReplacementUtil;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import com.siyeh.ig.psiutils.CommentTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.devkit.util.ExtensionLocatorKt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports private map and collection fields of light services, of services and extensions registered in plugin descriptors,
+ * and static map and collection fields of any class, that are used as caches growing without limit. Such fields are retained
+ * as long as the application or the project, so they are a common source of heap growth in long IDE sessions.
+ * <p>
+ * A field is reported when
+ * <ul>
+ *     <li>its key type, or its element type for collections, is {@code PsiElement}, {@code VirtualFile} or {@code String},</li>
+ *     <li>it is initialized with an unbounded collection, e.g. {@code new HashMap<>()} or {@code ContainerUtil.newConcurrentMap()},
+ *     thus not with e.g. a weak or soft map, or a {@code LinkedHashMap} overriding {@code removeEldestEntry()},</li>
+ *     <li>it is only ever added to, outside constructors and instance initializers, or static initializers for static fields:
+ *     it is not removed from, cleared, reassigned, size checked, or passed to other code, where it could be cleared.</li>
+ * </ul>
+ * <p>
+ * Weak keys are suggested only for {@code PsiElement} and {@code VirtualFile} keys, since equal strings are usually different instances.
+ * <p>
+ * For {@code PsiElement} and {@code VirtualFile} keys, a quick fix is available to replace {@code HashMap}, {@code ConcurrentHashMap}
+ * and {@code HashSet} initializers with the corresponding weak-keyed collections created by {@code ContainerUtil}.
+ *
+ * @since 1.3.0
+ */
+public class UnboundedCacheInspection extends LocalInspectionTool {
+    private static final String VIRTUAL_FILE = "com.intellij.openapi.vfs.VirtualFile";
+    private static final String CONTAINER_UTIL = "com.intellij.util.containers.ContainerUtil";
+    private static final Set<String> UNBOUNDED_COLLECTIONS = Set.of(
+        CommonClassNames.JAVA_UTIL_HASH_MAP,
+        "java.util.LinkedHashMap",
+        "java.util.TreeMap",
+        CommonClassNames.JAVA_UTIL_CONCURRENT_HASH_MAP,
+        "java.util.concurrent.ConcurrentSkipListMap",
+        CommonClassNames.JAVA_UTIL_HASH_SET,
+        "java.util.LinkedHashSet",
+        "java.util.TreeSet",
+        CommonClassNames.JAVA_UTIL_ARRAY_LIST,
+        "java.util.LinkedList",
+        "java.util.concurrent.CopyOnWriteArrayList");
+    private static final CallMatcher UNBOUNDED_COLLECTION_FACTORY = CallMatcher.anyOf(
+        staticCall(CONTAINER_UTIL, "newConcurrentMap", "newConcurrentSet", "createConcurrentList"),
+        staticCall(CommonClassNames.JAVA_UTIL_CONCURRENT_HASH_MAP, "newKeySet"));
+    private static final Set<String> GROWING_METHODS = Set.of(
+        "put", "putIfAbsent", "putAll", "computeIfAbsent", "compute", "merge", "add", "addAll", "addFirst", "addLast", "offer", "push");
+    /**
+     * Methods that remove elements, bound the size, or give access to the elements in a way that may remove them.
+     */
+    private static final Set<String> NON_GROWING_METHODS = Set.of(
+        "remove", "removeIf", "removeAll", "retainAll", "clear", "poll", "pollFirst", "pollLast", "pop", "removeFirst", "removeLast",
+        "computeIfPresent", "replaceAll", "size", "iterator", "listIterator", "keySet", "values", "entrySet", "subList", "headMap", "tailMap", "subMap");
+    /**
+     * Collections that hold their keys weakly, mapped to the {@code ContainerUtil} methods creating them, by the replaceable collections.
+     */
+    private static final Map<String, String> WEAK_COLLECTIONS = Map.of(
+        CommonClassNames.JAVA_UTIL_HASH_MAP, "createWeakMap",
+        CommonClassNames.JAVA_UTIL_CONCURRENT_HASH_MAP, "createConcurrentWeakMap",
+        CommonClassNames.JAVA_UTIL_HASH_SET, "createWeakSet");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitField(@NotNull PsiField field) {
+                var containingClass = field.getContainingClass();
+                if (field.getNameIdentifier() == null
+                    || containingClass == null
+                    || !field.hasModifierProperty(PsiModifier.PRIVATE)
+                    || !isCacheKey(getKeyType(field.getType()))) return;
+
+                boolean isStatic = field.hasModifierProperty(PsiModifier.STATIC);
+                //Looking up extension registrations is done only when it is necessary, because it searches plugin descriptors
+                if (!isOnlyAddedTo(field) || !isStatic && !isServiceOrExtension(containingClass)) return;
+
+                var weakCollectionFactory = getWeakCollectionFactory(field);
+                holder.registerProblem(field.getNameIdentifier(),
+                    JustKittingBundle.message(isStatic ? "inspection.unbounded.cache.static" : "inspection.unbounded.cache.service", field.getName(), getSuggestion(field)),
+                    weakCollectionFactory != null
+                    ? new LocalQuickFix[]{new ReplaceWithWeakCollectionQuickFix(weakCollectionFactory)}
+                    : LocalQuickFix.EMPTY_ARRAY);
+            }
+        };
+    }
+
+    /**
+     * Returns the key type of maps, the element type of collections, or null for other types.
+     */
+    @Nullable
+    private static PsiType getKeyType(PsiType type) {
+        if (InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_UTIL_MAP)) {
+            return PsiUtil.substituteTypeParameter(type, CommonClassNames.JAVA_UTIL_MAP, 0, false);
+        }
+        return InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_UTIL_COLLECTION)
+               ? PsiUtil.substituteTypeParameter(type, CommonClassNames.JAVA_UTIL_COLLECTION, 0, false)
+               : null;
+    }
+
+    private static boolean isCacheKey(@Nullable PsiType keyType) {
+        return keyType != null
+            && (InheritanceUtil.isInheritor(keyType, PSI_ELEMENT)
+            || InheritanceUtil.isInheritor(keyType, VIRTUAL_FILE)
+            || keyType.equalsToText(CommonClassNames.JAVA_LANG_STRING));
+    }
+
+    /**
+     * Returns the suggested alternatives for the argument field: weak keys for maps, and weak elements for sets, of {@code PsiElement}s
+     * and {@code VirtualFile}s, or otherwise a size bound, or a {@code CachedValue}.
+     */
+    private static String getSuggestion(PsiField field) {
+        var keyType = getKeyType(field.getType());
+        if (keyType != null && !keyType.equalsToText(CommonClassNames.JAVA_LANG_STRING)) {
+            if (InheritanceUtil.isInheritor(field.getType(), CommonClassNames.JAVA_UTIL_MAP)) {
+                return JustKittingBundle.message("inspection.unbounded.cache.suggestion.weak.map");
+            }
+            if (InheritanceUtil.isInheritor(field.getType(), CommonClassNames.JAVA_UTIL_SET)) {
+                return JustKittingBundle.message("inspection.unbounded.cache.suggestion.weak.set");
+            }
+        }
+        return JustKittingBundle.message("inspection.unbounded.cache.suggestion.bounded");
+    }
+
+    private static boolean isServiceOrExtension(PsiClass psiClass) {
+        return ServiceUtil.isLightService(psiClass) || !ExtensionLocatorKt.locateExtensionsByPsiClass(psiClass).isEmpty();
+    }
+
+    /**
+     * Returns whether the argument field is initialized only with unbounded collections, and its value is only ever added to.
+     * Assignments in the initializers of the field (see {@link #isInInitializer(PsiElement, PsiField)}) count as initialization,
+     * while assignments anywhere else reset the cache. Similarly, elements added in those initializers don't make the collection grow over time.
+     * <p>
+     * The references are searched in the use scope of the field, so that e.g. a private field of a nested class, cleared from
+     * the enclosing class, is found too.
+     */
+    private static boolean isOnlyAddedTo(PsiField field) {
+        var initialValues = getInitialValues(field);
+        if (initialValues == null || initialValues.isEmpty() || !initialValues.stream().allMatch(UnboundedCacheInspection::isUnboundedCollection)) return false;
+
+        boolean isAddedTo = false;
+        for (var reference : ReferencesSearch.search(field).findAll()) {
+            if (!(reference.getElement() instanceof PsiReferenceExpression referenceExpression)) return false;
+
+            var parent = PsiUtil.skipParenthesizedExprUp(referenceExpression.getParent());
+            if (parent instanceof PsiReferenceExpression methodExpression && methodExpression.getParent() instanceof PsiMethodCallExpression) {
+                String methodName = methodExpression.getReferenceName();
+                if (NON_GROWING_METHODS.contains(methodName)) return false;
+                //Populating the collection in constructors and class initializers is part of the initialization
+                if (GROWING_METHODS.contains(methodName) && !isInInitializer(referenceExpression, field)) isAddedTo = true;
+            } else if (!(parent instanceof PsiAssignmentExpression assignment && isInitialization(assignment, referenceExpression, field))
+                       && !(parent instanceof PsiForeachStatement)
+                       && !(parent instanceof PsiSynchronizedStatement)) {
+                //The field is reassigned, or passed to other code, where it may be cleared
+                return false;
+            }
+        }
+        return isAddedTo;
+    }
+
+    /**
+     * Returns the values the field is initialized with in its initializer, constructors and class initializers,
+     * or null if it is reassigned elsewhere.
+     */
+    @Nullable
+    private static List<PsiExpression> getInitialValues(PsiField field) {
+        var initialValues = new ArrayList<PsiExpression>(1);
+        if (field.getInitializer() != null) initialValues.add(field.getInitializer());
+        for (var reference : ReferencesSearch.search(field).findAll()) {
+            if (!(reference.getElement() instanceof PsiReferenceExpression referenceExpression)
+                || !(PsiUtil.skipParenthesizedExprUp(referenceExpression.getParent()) instanceof PsiAssignmentExpression assignment)
+                || !PsiTreeUtil.isAncestor(assignment.getLExpression(), referenceExpression, false)) continue;
+
+            if (!isInitialization(assignment, referenceExpression, field)) return null;
+            if (assignment.getRExpression() != null) initialValues.add(assignment.getRExpression());
+        }
+        return initialValues;
+    }
+
+    /**
+     * Returns whether the argument assignment is a simple assignment to the field in one of its initializers.
+     */
+    private static boolean isInitialization(PsiAssignmentExpression assignment, PsiReferenceExpression reference, PsiField field) {
+        return assignment.getOperationTokenType() == JavaTokenType.EQ
+            && PsiTreeUtil.isAncestor(assignment.getLExpression(), reference, false)
+            && isInInitializer(assignment, field);
+    }
+
+    /**
+     * Returns whether the argument element is executed directly, thus not e.g. in a lambda created there, in an initializer of the field
+     * in the field's class: in a constructor or instance initializer for instance fields, and in a static initializer for static fields.
+     * <p>
+     * Constructors of a class with a static field run for every instance, so they populate or reset the shared collection repeatedly.
+     */
+    private static boolean isInInitializer(PsiElement element, PsiField field) {
+        boolean isStatic = field.hasModifierProperty(PsiModifier.STATIC);
+        var initializer = PsiTreeUtil.getParentOfType(element, PsiMethod.class, PsiClassInitializer.class, PsiLambdaExpression.class, PsiClass.class);
+        return initializer instanceof PsiMethod method
+               ? !isStatic && method.isConstructor() && method.getContainingClass() == field.getContainingClass()
+               : initializer instanceof PsiClassInitializer classInitializer
+                 && classInitializer.getContainingClass() == field.getContainingClass()
+                 && classInitializer.hasModifierProperty(PsiModifier.STATIC) == isStatic;
+    }
+
+    private static boolean isUnboundedCollection(PsiExpression expression) {
+        var value = PsiUtil.skipParenthesizedExprDown(expression);
+        if (value instanceof PsiMethodCallExpression call) return UNBOUNDED_COLLECTION_FACTORY.matches(call);
+
+        //e.g. a LinkedHashMap overriding removeEldestEntry() is bounded
+        return value instanceof PsiNewExpression newExpression
+            && newExpression.getAnonymousClass() == null
+            && newExpression.getClassReference() != null
+            && UNBOUNDED_COLLECTIONS.contains(newExpression.getClassReference().getQualifiedName());
+    }
+
+    /**
+     * Returns the name of the {@code ContainerUtil} method that creates the weak-keyed counterpart of the field's initializer,
+     * or null if no quick fix is available for the field.
+     * <p>
+     * Weak {@code String} keys are not suggested, since equal strings are usually different instances.
+     */
+    @Nullable
+    private static String getWeakCollectionFactory(PsiField field) {
+        var keyType = getKeyType(field.getType());
+        if (keyType == null || keyType.equalsToText(CommonClassNames.JAVA_LANG_STRING)
+            || !(PsiUtil.skipParenthesizedExprDown(field.getInitializer()) instanceof PsiNewExpression newExpression)
+            || newExpression.getAnonymousClass() != null
+            || newExpression.getClassReference() == null) return null;
+
+        String collection = newExpression.getClassReference().getQualifiedName();
+        String factory = collection != null ? WEAK_COLLECTIONS.get(collection) : null;
+        if (factory == null) return null;
+
+        //The created collections are declared as Map, ConcurrentMap and Set
+        String fieldType = TypeConversionUtil.erasure(field.getType()).getCanonicalText();
+        return switch (factory) {
+            case "createWeakMap" -> CommonClassNames.JAVA_UTIL_MAP.equals(fieldType) ? factory : null;
+            case "createConcurrentWeakMap" ->
+                CommonClassNames.JAVA_UTIL_MAP.equals(fieldType) || "java.util.concurrent.ConcurrentMap".equals(fieldType) ? factory : null;
+            default -> CommonClassNames.JAVA_UTIL_SET.equals(fieldType) ? factory : null;
+        };
+    }
+
+    // ---- Quick fixes ----
+
+    /**
+     * Replaces the field initializer with a {@code ContainerUtil} call creating a weak-keyed collection.
+     */
+    private static final class ReplaceWithWeakCollectionQuickFix extends InspectionGadgetsFix {
+        private final String factory;
+
+        public ReplaceWithWeakCollectionQuickFix(String factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        protected void doFix(@NotNull Project project, ProblemDescriptor descriptor) {
+            if (descriptor.getPsiElement().getParent() instanceof PsiField field && field.getInitializer() != null) {
+                String replacedCollection = PsiUtil.skipParenthesizedExprDown(field.getInitializer()) instanceof PsiNewExpression newExpression && newExpression.getClassReference() != null
+                                            ? newExpression.getClassReference().getQualifiedName()
+                                            : null;
+                PsiReplacementUtil.replaceExpressionAndShorten(field.getInitializer(), CONTAINER_UTIL + "." + factory + "()", new CommentTracker());
+                if (replacedCollection != null && field.getContainingFile() instanceof PsiJavaFile javaFile) removeImportIfUnused(javaFile, replacedCollection);
+            }
+        }
+
+        /**
+         * Removes the import of the argument class, if the class is no longer referenced in the file, e.g. after the only
+         * {@code new HashMap<>()} is replaced.
+         */
+        private static void removeImportIfUnused(PsiJavaFile file, String classFqn) {
+            var importList = file.getImportList();
+            var importStatement = importList != null ? importList.findSingleClassImportStatement(classFqn) : null;
+            if (importStatement == null) return;
+
+            String shortName = StringUtil.getShortName(classFqn);
+            boolean isReferenced = PsiTreeUtil.findChildrenOfType(file, PsiJavaCodeReferenceElement.class).stream()
+                .anyMatch(reference -> shortName.equals(reference.getReferenceName()) && !PsiTreeUtil.isAncestor(importList, reference, false));
+            if (!isReferenced) importStatement.delete();
+        }
+
+        @Override
+        public @IntentionName @NotNull String getName() {
+            return JustKittingBundle.message("inspection.replace.with.method", "ContainerUtil." + factory + "()");
+        }
+
+        @Override
+        public @IntentionFamilyName @NotNull String getFamilyName() {
+            return JustKittingBundle.message("inspection.unbounded.cache.weak.collection.quick.fix.family");
+        }
+    }
+}
@@ -2,6 +2,7 @@
 
 package com.picimako.justkitting.intention.callmatcher;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -28,4 +29,14 @@ public interface CallMatcherGenerator<METHOD, METHOD_CALL> {
      *                    choice of some sort on the UI.
      */
     void generateCallMatcherForMethodCall(METHOD_CALL methodCall, Consumer<String> postActions);
+
+    /**
+     * Generates a class holding CallMatcher constants for all the argument methods.
+     *
+     * @param holderName  the name of the class to generate
+     * @param methods     the methods to generate CallMatchers for
+     * @param postActions any action to execute after the holder class is generated
+     * @since 1.3.0
+     */
+    void generateCallMatcherHolder(String holderName, List<METHOD> methods, Consumer<String> postActions);
 }
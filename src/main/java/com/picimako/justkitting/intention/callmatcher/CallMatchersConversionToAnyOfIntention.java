@@ -2,8 +2,7 @@
 
 package com.picimako.justkitting.intention.callmatcher;
 
-import static com.picimako.justkitting.PlatformNames.CALL_MATCHER;
-import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.picimako.justkitting.CallMatcherUtil.isCombinableToAnyOf;
 import static java.util.stream.Collectors.joining;
 
 import com.intellij.codeInsight.CodeInsightUtil;
@@ -18,7 +17,6 @@ import com.intellij.openapi.ui.popup.JBPopupFactory;
 import com.intellij.openapi.ui.popup.PopupStep;
 import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
 import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.JavaTokenType;
 import com.intellij.psi.PsiBinaryExpression;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
@@ -37,7 +35,6 @@ import com.intellij.util.Consumer;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.SmartList;
 import com.picimako.justkitting.resources.JustKittingBundle;
-import com.siyeh.ig.callMatcher.CallMatcher;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -51,7 +48,7 @@ import java.util.List;
  * <pre>{@code
  * if (LIST_OF.matches(expression) || MAP_OF.matches(expression) || SET_OF.matches(expression)) { }
  * }</pre>
- * All matcher methods of {@link CallMatcher} are recognized (matches, test, methodMatches, methodReferenceMatches, uCallMatches).
+ * All matcher methods of {@link com.siyeh.ig.callMatcher.CallMatcher} are recognized (matches, test, methodMatches, methodReferenceMatches, uCallMatches).
  * <p>
  * If the boolean expression is inside parenthesis, it is still recognized and available for conversion.
  * <p>
@@ -62,16 +59,6 @@ import java.util.List;
  * @since 0.1.0
  */
 public class CallMatchersConversionToAnyOfIntention implements IntentionAction {
-    /**
-     * Ordered descending based on usage statistics in intellij-community, except test, because it is overridden from java.util.Predicate.
-     */
-    private static final List<CallMatcher> MATCHES_MATCHERS = List.of(
-        instanceCall(CALL_MATCHER, "matches").parameterCount(1),
-        instanceCall(CALL_MATCHER, "methodMatches").parameterCount(1),
-        instanceCall(CALL_MATCHER, "methodReferenceMatches").parameterCount(1),
-        instanceCall(CALL_MATCHER, "uCallMatches").parameterCount(1),
-        instanceCall(CALL_MATCHER, "test").parameterCount(1));
-
     @Override
     public @IntentionName @NotNull String getText() {
         return JustKittingBundle.message("intention.call.matcher.combine.to.any.of.name");
@@ -89,29 +76,7 @@ public class CallMatchersConversionToAnyOfIntention implements IntentionAction {
         if (!editor.getSelectionModel().hasSelection()) {
             return false;
         }
-        var expressionInRange = getExpressionInRange(editor, file);
-        if (expressionInRange instanceof PsiPolyadicExpression polyadicExpr) {
-            if (!JavaTokenType.OROR.equals(polyadicExpr.getOperationTokenType())) {
-                return false;
-            }
-            return expressionInRange instanceof PsiBinaryExpression binaryExpr
-                //Both side is a method call to one of the CallMatcher.<matches> methods, with the same parameter expression
-                ? MATCHES_MATCHERS.stream().anyMatch(matchesType -> areBothOperandsCallToMatches(binaryExpr, matchesType))
-                && firstArgumentOf(binaryExpr.getLOperand()).textMatches(firstArgumentOf(binaryExpr.getROperand()))
-                //All operands are method calls to one of the CallMatcher.<matches> methods, with the same parameter expression
-                : Arrays.stream(polyadicExpr.getOperands()).allMatch(PsiMethodCallExpression.class::isInstance)
-                && MATCHES_MATCHERS.stream().anyMatch(matchesType -> Arrays.stream(polyadicExpr.getOperands()).allMatch(operand -> isCallToCallMatcher(operand, matchesType)))
-                && Arrays.stream(polyadicExpr.getOperands()).map(operand -> firstArgumentOf(operand).getText()).distinct().count() == 1;
-        }
-        return false;
-    }
-
-    private boolean areBothOperandsCallToMatches(PsiBinaryExpression binaryExpression, CallMatcher matchesType) {
-        return isCallToCallMatcher(binaryExpression.getLOperand(), matchesType) && isCallToCallMatcher(binaryExpression.getROperand(), matchesType);
-    }
-
-    private boolean isCallToCallMatcher(PsiExpression expression, CallMatcher matchesType) {
-        return expression instanceof PsiMethodCallExpression && matchesType.matches(expression);
+        return getExpressionInRange(editor, file) instanceof PsiPolyadicExpression polyadicExpr && isCombinableToAnyOf(polyadicExpr);
     }
 
     private PsiExpression firstArgumentOf(PsiExpression call) {
@@ -0,0 +1,87 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.designer.clipboard.SimpleTransferable;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.IncorrectOperationException;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.lexer.KtTokens;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtNameReferenceExpression;
+import org.jetbrains.kotlin.psi.KtNamedFunction;
+
+import java.awt.datatransfer.DataFlavor;
+
+/**
+ * Kotlin counterpart of {@link GenerateCallMatcherFromSignatureIntention}. It generates a {@link com.siyeh.ig.callMatcher.CallMatcher}
+ * initializer call based on the Kotlin function, or function call, it is invoked on.
+ * <p>
+ * The generated code is copied to the clipboard, so after pasting it, {@code CallMatcher} has to be imported manually.
+ *
+ * @see KotlinCallMatcherGenerator
+ * @since 1.3.0
+ */
+public class GenerateCallMatcherFromKotlinSignatureIntention implements IntentionAction {
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("intention.call.matcher.generate.from.signature");
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return JustKittingBundle.message("intention.call.matcher.generate.from.signature");
+    }
+
+    //---- Availability check ----
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, PsiFile file) {
+        return getTarget(editor, file) != null;
+    }
+
+    /**
+     * Returns the function whose name identifier the caret is at, or the function call whose callee name the caret is at.
+     */
+    @Nullable
+    private static PsiElement getTarget(Editor editor, PsiFile file) {
+        var elementAtCaret = file.findElementAt(editor.getCaretModel().getOffset());
+        if (elementAtCaret == null || elementAtCaret.getNode().getElementType() != KtTokens.IDENTIFIER) return null;
+
+        var parent = elementAtCaret.getParent();
+        if (parent instanceof KtNamedFunction function && elementAtCaret.equals(function.getNameIdentifier())) return function;
+        if (parent instanceof KtNameReferenceExpression reference
+            && reference.getParent() instanceof KtCallExpression call
+            && reference.equals(call.getCalleeExpression())) return call;
+        return null;
+    }
+
+    //---- Invocation ----
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
+        var target = getTarget(editor, file);
+        var generator = new KotlinCallMatcherGenerator(project, editor);
+        if (target instanceof KtNamedFunction function) {
+            generator.generateCallMatcherForMethod(function,
+                callMatcher -> CopyPasteManager.getInstance().setContents(new SimpleTransferable(callMatcher, DataFlavor.stringFlavor)));
+        } else if (target instanceof KtCallExpression call) {
+            generator.generateCallMatcherForMethodCall(call,
+                callMatcher -> CopyPasteManager.getInstance().setContents(new SimpleTransferable(callMatcher, DataFlavor.stringFlavor)));
+        }
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+}
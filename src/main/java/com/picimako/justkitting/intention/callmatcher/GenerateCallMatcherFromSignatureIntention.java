@@ -27,7 +27,7 @@ import java.awt.datatransfer.DataFlavor;
  * The generated code is copied to the clipboard, so after pasting it, {@code CallMatcher} has
  * to be imported manually.
  * <p>
- * Kotlin or other JVM language methods are not supported yet.
+ * For Kotlin functions, see {@link GenerateCallMatcherFromKotlinSignatureIntention}.
  *
  * @since 0.1.0
  */
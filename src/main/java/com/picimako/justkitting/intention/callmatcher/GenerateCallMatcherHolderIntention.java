@@ -0,0 +1,117 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.designer.clipboard.SimpleTransferable;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiIdentifier;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.IncorrectOperationException;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.datatransfer.DataFlavor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This intention generates a class holding {@link com.siyeh.ig.callMatcher.CallMatcher} constants
+ * <ul>
+ *     <li>for all non-private methods of the Java class it is invoked on the name of,</li>
+ *     <li>or for all methods called in the selected code.</li>
+ * </ul>
+ * Overloads with the same name are merged into a single matcher, see {@link JavaCallMatcherGenerator#generateCallMatcherHolder(String, List, java.util.function.Consumer)}.
+ * <p>
+ * The generated code is copied to the clipboard, so after pasting it, {@code CallMatcher} has to be imported manually.
+ *
+ * @since 1.3.0
+ */
+public class GenerateCallMatcherHolderIntention implements IntentionAction {
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("intention.call.matcher.generate.holder");
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return JustKittingBundle.message("intention.call.matcher.generate.holder");
+    }
+
+    //---- Availability check ----
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, PsiFile file) {
+        return editor.getSelectionModel().hasSelection()
+            ? !getMethodCallsInSelection(editor, file).isEmpty()
+            : getClassAtCaret(editor, file) != null;
+    }
+
+    /**
+     * Returns the class whose name identifier the caret is at.
+     */
+    @Nullable
+    private static PsiClass getClassAtCaret(Editor editor, PsiFile file) {
+        var elementAtCaret = file.findElementAt(editor.getCaretModel().getOffset());
+        return elementAtCaret instanceof PsiIdentifier && elementAtCaret.getParent() instanceof PsiClass psiClass && psiClass.getQualifiedName() != null
+            ? psiClass
+            : null;
+    }
+
+    private static List<PsiMethodCallExpression> getMethodCallsInSelection(Editor editor, PsiFile file) {
+        var selectionModel = editor.getSelectionModel();
+        var selection = new TextRange(selectionModel.getSelectionStart(), selectionModel.getSelectionEnd());
+        var startElement = file.findElementAt(selection.getStartOffset());
+        var endElement = file.findElementAt(selection.getEndOffset() - 1);
+        if (startElement == null || endElement == null) return List.of();
+
+        var commonParent = PsiTreeUtil.findCommonParent(startElement, endElement);
+        return PsiTreeUtil.collectElementsOfType(commonParent, PsiMethodCallExpression.class).stream()
+            .filter(call -> selection.contains(call.getTextRange()))
+            .sorted((call1, call2) -> Integer.compare(call1.getTextOffset(), call2.getTextOffset()))
+            .toList();
+    }
+
+    //---- Invocation ----
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
+        String holderName;
+        List<PsiMethod> methods;
+        if (editor.getSelectionModel().hasSelection()) {
+            holderName = "CallMatchers";
+            methods = getMethodCallsInSelection(editor, file).stream()
+                .map(PsiMethodCallExpression::resolveMethod)
+                .filter(Objects::nonNull)
+                .toList();
+        } else {
+            var targetClass = getClassAtCaret(editor, file);
+            if (targetClass == null) return;
+            holderName = targetClass.getName() + "Matchers";
+            methods = Arrays.stream(targetClass.getMethods())
+                .filter(method -> !method.hasModifierProperty(PsiModifier.PRIVATE))
+                .toList();
+        }
+
+        new JavaCallMatcherGenerator(project, editor)
+            .generateCallMatcherHolder(holderName, methods,
+                callMatcherHolder -> CopyPasteManager.getInstance().setContents(new SimpleTransferable(callMatcherHolder, DataFlavor.stringFlavor)));
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+}
@@ -12,10 +12,14 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.popup.JBPopupFactory;
 import com.intellij.openapi.ui.popup.PopupStep;
 import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.intellij.psi.util.TypeConversionUtil;
 import com.intellij.refactoring.util.CommonRefactoringUtil;
 import com.intellij.ui.SimpleListCellRenderer;
 import com.picimako.justkitting.resources.JustKittingBundle;
@@ -23,7 +27,11 @@ import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -31,6 +39,8 @@ import java.util.function.Consumer;
  * <p>
  * It supports static and instance methods, as wells as different types and number of parameters,
  * along with static nested classes.
+ * <p>
+ * It can also generate a holder class for multiple methods, see {@link #generateCallMatcherHolder(String, List, Consumer)}.
  *
  * @since 0.1.0
  */
@@ -113,4 +123,85 @@ public class JavaCallMatcherGenerator implements CallMatcherGenerator<PsiMethod,
             .map(parameter -> "\"" + parameter.getType().getCanonicalText() + "\"")
             .collect(joining(", "));
     }
+
+    /**
+     * Generates a class with a CallMatcher constant for each distinct method name, per containing class and call type, e.g.:
+     * <pre>{@code
+     * public final class ListMatchers {
+     *     public static final CallMatcher ADD = CallMatcher.instanceCall("java.util.List", "add").parameterCount(1);
+     *     public static final CallMatcher SET = CallMatcher.instanceCall("java.util.List", "set").parameterTypes("int", "java.lang.Object");
+     * }
+     * }</pre>
+     * Static methods get {@code staticCall}, instance methods get {@code instanceCall}, without asking the user, since it would be
+     * impractical for many methods.
+     * <p>
+     * Overloads with the same name are merged into one matcher:
+     * <ul>
+     *     <li>a single method is matched by its erased parameter types, or by {@code parameterCount(0)} if it has no parameter,</li>
+     *     <li>multiple overloads with the same number of parameters are matched by {@code parameterCount()},</li>
+     *     <li>multiple overloads with different number of parameters are matched by their names only.</li>
+     * </ul>
+     * Parameter types are erased, e.g. {@code java.util.List<T>} becomes {@code java.util.List}, because CallMatcher compares
+     * erased types anyway, and this way no generic type has to be resolved during matching.
+     */
+    @Override
+    public void generateCallMatcherHolder(String holderName, List<PsiMethod> methods, Consumer<String> postActions) {
+        var overloadsByMatcher = new LinkedHashMap<MatcherKey, Set<PsiMethod>>();
+        for (var method : methods) {
+            var containingClass = method.getContainingClass();
+            if (containingClass == null || containingClass.getQualifiedName() == null || method.isConstructor()) continue;
+
+            String callType = method.hasModifierProperty(PsiModifier.STATIC) ? STATIC_CALL : INSTANCE_CALL;
+            overloadsByMatcher.computeIfAbsent(new MatcherKey(containingClass, callType, method.getName()), __ -> new LinkedHashSet<>()).add(method);
+        }
+
+        var holder = new StringBuilder("public final class ").append(holderName).append(" {\n");
+        var constantNames = new HashSet<String>();
+        overloadsByMatcher.forEach((matcherKey, overloads) -> holder
+            .append("    public static final CallMatcher ").append(generateConstantName(matcherKey, constantNames))
+            .append(" = CallMatcher.").append(matcherKey.callType)
+            .append("(\"").append(matcherKey.containingClass.getQualifiedName()).append("\", \"").append(matcherKey.methodName).append("\")")
+            .append(generateParameterRestriction(overloads))
+            .append(";\n"));
+        postActions.accept(holder.append("}").toString());
+    }
+
+    /**
+     * Returns the constant name as the upper snake case version of the method name, e.g. {@code GET_TEXT}.
+     * If that is already taken, e.g. by the same method name in another class, the class name is used as prefix,
+     * and if that is taken too, a number is appended to it.
+     */
+    private static String generateConstantName(MatcherKey matcherKey, Set<String> constantNames) {
+        String constantName = toUpperSnakeCase(matcherKey.methodName);
+        if (!constantNames.add(constantName)) {
+            constantName = toUpperSnakeCase(matcherKey.containingClass.getName()) + "_" + constantName;
+            String baseName = constantName;
+            for (int i = 2; !constantNames.add(constantName); i++) {
+                constantName = baseName + "_" + i;
+            }
+        }
+        return constantName;
+    }
+
+    private static String toUpperSnakeCase(String name) {
+        return StringUtil.join(NameUtil.splitNameIntoWords(name), "_").toUpperCase();
+    }
+
+    private static String generateParameterRestriction(Set<PsiMethod> overloads) {
+        if (overloads.size() == 1) {
+            var parameterList = overloads.iterator().next().getParameterList();
+            return parameterList.isEmpty() ? ".parameterCount(0)" : ".parameterTypes(" + generateErasedParameters(parameterList) + ")";
+        }
+        var parameterCounts = overloads.stream().map(overload -> overload.getParameterList().getParametersCount()).distinct().toList();
+        return parameterCounts.size() == 1 ? ".parameterCount(" + parameterCounts.getFirst() + ")" : "";
+    }
+
+    private static String generateErasedParameters(PsiParameterList parameterList) {
+        return Arrays.stream(parameterList.getParameters())
+            .map(parameter -> "\"" + TypeConversionUtil.erasure(parameter.getType()).getCanonicalText() + "\"")
+            .collect(joining(", "));
+    }
+
+    private record MatcherKey(PsiClass containingClass, String callType, String methodName) {
+    }
 }
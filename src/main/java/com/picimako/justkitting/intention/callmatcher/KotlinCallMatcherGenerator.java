@@ -0,0 +1,58 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiMethod;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtNamedFunction;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UastContextKt;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Creates {@link com.siyeh.ig.callMatcher.CallMatcher} initializer calls for Kotlin functions.
+ * <p>
+ * The functions are converted to their JVM representations via UAST, then the CallMatchers are generated by {@link JavaCallMatcherGenerator},
+ * so that Java and Kotlin functions get the same CallMatchers. For example, top-level functions get {@code staticCall}s
+ * with the file facade class, e.g. {@code SomeFileKt}, as class name.
+ *
+ * @since 1.3.0
+ */
+public class KotlinCallMatcherGenerator implements CallMatcherGenerator<KtNamedFunction, KtCallExpression> {
+    private final JavaCallMatcherGenerator javaGenerator;
+
+    public KotlinCallMatcherGenerator(Project project, Editor editor) {
+        this.javaGenerator = new JavaCallMatcherGenerator(project, editor);
+    }
+
+    @Override
+    public void generateCallMatcherForMethod(KtNamedFunction function, Consumer<String> postActions) {
+        javaGenerator.generateCallMatcherForMethod(toJavaMethod(function), postActions);
+    }
+
+    @Override
+    public void generateCallMatcherForMethodCall(KtCallExpression functionCall, Consumer<String> postActions) {
+        var uCall = UastContextKt.toUElement(functionCall, UCallExpression.class);
+        javaGenerator.generateCallMatcherForMethod(uCall != null ? uCall.resolve() : null, postActions);
+    }
+
+    @Override
+    public void generateCallMatcherHolder(String holderName, List<KtNamedFunction> functions, Consumer<String> postActions) {
+        javaGenerator.generateCallMatcherHolder(holderName,
+            functions.stream().map(KotlinCallMatcherGenerator::toJavaMethod).filter(Objects::nonNull).toList(),
+            postActions);
+    }
+
+    @Nullable
+    private static PsiMethod toJavaMethod(KtNamedFunction function) {
+        var uMethod = UastContextKt.toUElement(function, UMethod.class);
+        return uMethod != null ? uMethod.getJavaPsi() : null;
+    }
+}
@@ -0,0 +1,227 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import static com.picimako.justkitting.CallMatcherUtil.CALL_MATCHER_MATCHER;
+import static com.picimako.justkitting.CallMatcherUtil.findMethodsByCallType;
+import static com.picimako.justkitting.CallMatcherUtil.getCallType;
+import static com.picimako.justkitting.PlatformNames.CALL_MATCHER;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.MethodReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.IncorrectOperationException;
+import com.picimako.justkitting.CallMatcherResolutionCache;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * This intention reorders the arguments of a {@code CallMatcher.anyOf()} call based on how many times the methods
+ * matched by each argument are called in the project, in descending order.
+ * <p>
+ * {@code anyOf()} checks its matchers in order, and stops at the first match, thus the most likely hit should be checked first.
+ * <pre>{@code
+ * //From:
+ * CallMatcher.anyOf(RARELY_CALLED, FREQUENTLY_CALLED);
+ * //To:
+ * CallMatcher.anyOf(FREQUENTLY_CALLED, RARELY_CALLED);
+ * }</pre>
+ * The arguments may be references to CallMatcher constants, or CallMatcher factory method calls, with optional configuration calls
+ * like {@code parameterCount()}. Nested {@code anyOf()} calls count with the sum of their members' usages.
+ * Arguments whose usage count cannot be determined are moved to the end, keeping their relative order.
+ * <p>
+ * Usages are counted via searching for references of the matched methods in the project scope, under a modal progress.
+ * Each method is searched in its own read action, so that the search doesn't block write actions for its whole duration.
+ *
+ * @since 1.3.0
+ */
+public class ReorderCallMatcherAnyOfByUsageIntention implements IntentionAction {
+    private static final CallMatcher ANY_OF_MATCHER = staticCall(CALL_MATCHER, "anyOf");
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("intention.call.matcher.reorder.any.of.by.usage");
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return JustKittingBundle.message("intention.call.matcher.reorder.any.of.by.usage");
+    }
+
+    //---- Availability check ----
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, PsiFile file) {
+        var anyOfCall = getAnyOfCallAtCaret(editor, file);
+        return anyOfCall != null && anyOfCall.getArgumentList().getExpressionCount() > 1;
+    }
+
+    @Nullable
+    private static PsiMethodCallExpression getAnyOfCallAtCaret(Editor editor, PsiFile file) {
+        var call = PsiTreeUtil.getParentOfType(file.findElementAt(editor.getCaretModel().getOffset()), PsiMethodCallExpression.class);
+        return call != null && ANY_OF_MATCHER.matches(call) ? call : null;
+    }
+
+    //---- Invocation ----
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
+        var anyOfCall = getAnyOfCallAtCaret(editor, file);
+        if (anyOfCall == null) return;
+
+        var members = anyOfCall.getArgumentList().getExpressions();
+        long[] usageCounts;
+        try {
+            usageCounts = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                () -> countUsages(members, project),
+                JustKittingBundle.message("intention.call.matcher.reorder.any.of.by.usage.progress.title"), true, project);
+        } catch (ProcessCanceledException e) {
+            //The user cancelled the usage search, nothing is reordered
+            return;
+        }
+
+        //Stable sort, so that members with the same usage count keep their relative order
+        var sortedMembers = IntStream.range(0, members.length).boxed()
+            .sorted(Comparator.comparingLong(i -> -usageCounts[i]))
+            .map(i -> members[i].copy())
+            .toList();
+
+        WriteCommandAction.runWriteCommandAction(project, getText(), null, () -> {
+            for (int i = 0; i < members.length; i++) {
+                members[i].replace(sortedMembers.get(i));
+            }
+        }, file);
+    }
+
+    /**
+     * Returns the number of calls to the methods each argument CallMatcher expression matches, or -1 if it cannot be determined.
+     * <p>
+     * The matched methods are resolved in a single read action, while the references of each method are searched in separate ones,
+     * so that pending write actions are not blocked for the whole search.
+     */
+    private static long[] countUsages(PsiExpression[] members, Project project) {
+        var matchedMethods = ReadAction.compute(() -> {
+            var resolutionCache = new CallMatcherResolutionCache();
+            return Arrays.stream(members).map(member -> findMatchedMethods(member, resolutionCache, new HashSet<>())).toList();
+        });
+
+        var scope = GlobalSearchScope.projectScope(project);
+        var usageCounts = new long[members.length];
+        for (int i = 0; i < members.length; i++) {
+            var methods = matchedMethods.get(i);
+            if (methods == null) {
+                usageCounts[i] = -1;
+                continue;
+            }
+            for (var method : methods) {
+                ProgressManager.checkCanceled();
+                usageCounts[i] += ReadAction.compute(() -> countReferences(method, scope));
+            }
+        }
+        return usageCounts;
+    }
+
+    /**
+     * Returns the methods the argument CallMatcher expression matches, or null if they cannot be determined.
+     *
+     * @param visitedFields the CallMatcher constants already visited, to prevent infinite recursion
+     */
+    @Nullable
+    private static List<PsiMethod> findMatchedMethods(PsiExpression member, CallMatcherResolutionCache resolutionCache, Set<PsiField> visitedFields) {
+        var factoryCall = getFactoryCall(member, visitedFields);
+        if (factoryCall == null) return null;
+
+        if (ANY_OF_MATCHER.matches(factoryCall)) {
+            return Arrays.stream(factoryCall.getArgumentList().getExpressions())
+                .map(nestedMember -> findMatchedMethods(nestedMember, resolutionCache, visitedFields))
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .toList();
+        }
+
+        var arguments = factoryCall.getArgumentList().getExpressions();
+        var referencedClass = arguments.length > 0 ? resolutionCache.findClass(arguments[0]) : null;
+        if (referencedClass == null) return null;
+
+        String callType = getCallType(factoryCall);
+        var methods = new ArrayList<PsiMethod>();
+        for (int i = 1; i < arguments.length; i++) {
+            if (arguments[i] instanceof PsiLiteralExpression methodNameArg && methodNameArg.getValue() instanceof String methodName) {
+                methods.addAll(Arrays.asList(findMethodsByCallType(referencedClass, methodName, callType)));
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Returns the number of references to the argument method. The references are counted as they are found, without collecting them.
+     */
+    private static int countReferences(PsiMethod method, GlobalSearchScope scope) {
+        if (!method.isValid()) return 0;
+
+        var referenceCount = new int[1];
+        MethodReferencesSearch.search(method, scope, true).forEach(reference -> {
+            referenceCount[0]++;
+            return true;
+        });
+        return referenceCount[0];
+    }
+
+    /**
+     * Returns the CallMatcher factory method call (staticCall, instanceCall, exactInstanceCall or anyOf) behind the argument expression.
+     * <p>
+     * It follows references to final fields, and skips configuration calls like {@code parameterCount()} in method call chains.
+     */
+    @Nullable
+    private static PsiMethodCallExpression getFactoryCall(@Nullable PsiExpression member, Set<PsiField> visitedFields) {
+        PsiElement current = PsiUtil.skipParenthesizedExprDown(member);
+        if (current instanceof PsiReferenceExpression reference
+            && reference.resolve() instanceof PsiField field
+            && field.hasModifierProperty(PsiModifier.FINAL)
+            && visitedFields.add(field)) {
+            current = PsiUtil.skipParenthesizedExprDown(field.getInitializer());
+        }
+
+        while (current instanceof PsiMethodCallExpression call) {
+            if (CALL_MATCHER_MATCHER.matches(call) || ANY_OF_MATCHER.matches(call)) return call;
+            current = call.getMethodExpression().getQualifierExpression();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+}
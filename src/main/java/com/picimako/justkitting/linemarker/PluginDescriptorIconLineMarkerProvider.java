@@ -12,6 +12,8 @@ import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.patterns.XmlNamedElementPattern.XmlAttributePattern;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.xml.XmlAttribute;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import org.jetbrains.annotations.NotNull;
@@ -72,9 +74,18 @@ final class PluginDescriptorIconLineMarkerProvider extends RelatedItemLineMarker
         }
     }
 
+    /**
+     * Since icons are loaded via reflection, they are cached until the plugin descriptor changes,
+     * instead of loading them on every highlighting pass.
+     */
     @Nullable("When the icon path is invalid, or the _icon with the given path cannot be found.")
-    private Icon determineIcon(@NotNull PsiElement element) {
-        String iconRef = ((XmlAttribute) element).getValue();
+    private static Icon determineIcon(@NotNull PsiElement element) {
+        return CachedValuesManager.getCachedValue(element,
+            () -> CachedValueProvider.Result.create(loadIcon(((XmlAttribute) element).getValue()), element));
+    }
+
+    @Nullable
+    private static Icon loadIcon(@Nullable String iconRef) {
         if (iconRef == null) return null;
         int lastIndexOfDot = iconRef.lastIndexOf('.');
         if (lastIndexOfDot == -1) return null;
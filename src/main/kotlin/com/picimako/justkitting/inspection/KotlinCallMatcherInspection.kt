@@ -0,0 +1,47 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.picimako.justkitting.inspection
+
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.codeInspection.LocalInspectionToolSession
+import com.intellij.codeInspection.ProblemHighlightType
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.psi.PsiElementVisitor
+import com.picimako.justkitting.CallMatcherResolutionCache
+import com.picimako.justkitting.evaluateClassName
+import com.picimako.justkitting.getCallMatcherFactoryCall
+import com.picimako.justkitting.getCallType
+import com.picimako.justkitting.isPlainStringLiteral
+import com.picimako.justkitting.resources.JustKittingBundle
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+import org.jetbrains.kotlin.psi.KtValueArgument
+import org.jetbrains.kotlin.psi.KtVisitorVoid
+
+/**
+ * Kotlin counterpart of [CallMatcherInspection]. Reports method name arguments of calls to [com.siyeh.ig.callMatcher.CallMatcher]
+ * factory methods in Kotlin files, if they don't exist in the current context of the call matcher.
+ *
+ * Referenced classes and method lookups are cached per file, per inspection session, via [CallMatcherResolutionCache],
+ * and class lookups are shared with Java files via [com.picimako.justkitting.reference.CallMatcherReferenceContributor.findClass].
+ *
+ * @since 1.3.0
+ */
+class KotlinCallMatcherInspection : LocalInspectionTool() {
+
+    override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean, session: LocalInspectionToolSession): PsiElementVisitor {
+        val resolutionCache = CallMatcherResolutionCache.getInstance(session)
+        return object : KtVisitorVoid() {
+            override fun visitStringTemplateExpression(expression: KtStringTemplateExpression) {
+                if (expression.parent !is KtValueArgument || !isPlainStringLiteral(expression)) return
+
+                val factoryCall = getCallMatcherFactoryCall(expression) ?: return
+                val classNameArgument = factoryCall.valueArguments[0].getArgumentExpression()
+                if (classNameArgument == expression) return
+
+                val referencedClass = evaluateClassName(classNameArgument)?.let { resolutionCache.findClass(it, expression.project) } ?: return
+                CallMatcherInspection.getMissingMethodMessageKey(expression, referencedClass, getCallType(factoryCall), resolutionCache)?.let {
+                    holder.registerProblem(expression, JustKittingBundle.message(it), ProblemHighlightType.LIKE_UNKNOWN_SYMBOL)
+                }
+            }
+        }
+    }
+}
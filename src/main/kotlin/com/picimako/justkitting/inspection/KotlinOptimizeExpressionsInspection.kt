@@ -0,0 +1,164 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.picimako.justkitting.inspection
+
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.codeInspection.LocalInspectionToolSession
+import com.intellij.codeInspection.LocalQuickFix
+import com.intellij.codeInspection.ProblemDescriptor
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiElementVisitor
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.util.PsiUtil
+import com.picimako.justkitting.PsiElementUtil
+import com.picimako.justkitting.isPlainStringLiteral
+import com.picimako.justkitting.resources.JustKittingBundle
+import org.jetbrains.kotlin.lexer.KtTokens
+import org.jetbrains.kotlin.psi.KtBinaryExpression
+import org.jetbrains.kotlin.psi.KtCallExpression
+import org.jetbrains.kotlin.psi.KtDotQualifiedExpression
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.psi.KtNameReferenceExpression
+import org.jetbrains.kotlin.psi.KtOperationExpression
+import org.jetbrains.kotlin.psi.KtPrefixExpression
+import org.jetbrains.kotlin.psi.KtPsiFactory
+import org.jetbrains.kotlin.psi.KtPsiUtil
+import org.jetbrains.kotlin.psi.KtQualifiedExpression
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+import org.jetbrains.kotlin.psi.KtVisitorVoid
+import org.jetbrains.uast.UExpression
+import org.jetbrains.uast.UQualifiedReferenceExpression
+import org.jetbrains.uast.toUElementOfType
+
+/**
+ * Kotlin counterpart of the `getText()` related checks of [OptimizeExpressionsInspection].
+ *
+ * Reports the following expressions, where `element.text` is a call to [com.intellij.psi.PsiElement.getText]:
+ * - `element.text == "text"`, `element.text != "text"` and `element.text == other.text`, replaceable with `textMatches()`,
+ * - `element.text.length`, `element.text.isEmpty()` and `element.text.isNotEmpty()`, replaceable with `textLength`,
+ * - `element.text.startsWith()` and `element.text.endsWith()`, when the element is not a leaf element. No quick fix is provided for them.
+ *
+ * Calls are first filtered syntactically, and only candidates are resolved via UAST.
+ *
+ * @since 1.3.0
+ */
+class KotlinOptimizeExpressionsInspection : LocalInspectionTool() {
+
+    override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean, session: LocalInspectionToolSession): PsiElementVisitor {
+        return object : KtVisitorVoid() {
+            override fun visitBinaryExpression(expression: KtBinaryExpression) {
+                val operation = expression.operationToken
+                if (operation != KtTokens.EQEQ && operation != KtTokens.EXCLEQ) return
+
+                val left = KtPsiUtil.safeDeparenthesize(expression.left ?: return)
+                val right = KtPsiUtil.safeDeparenthesize(expression.right ?: return)
+                val (textAccess, comparedTo) = when {
+                    isTextAccess(left) -> left as KtDotQualifiedExpression to right
+                    isTextAccess(right) -> right as KtDotQualifiedExpression to left
+                    else -> return
+                }
+                val argument = when {
+                    comparedTo is KtStringTemplateExpression && isPlainStringLiteral(comparedTo) -> comparedTo.text
+                    //textMatches(PsiElement) compares the texts of the two elements without materializing them
+                    isTextAccess(comparedTo) -> (comparedTo as KtDotQualifiedExpression).receiverExpression.text
+                    else -> return
+                }
+
+                val negation = if (operation == KtTokens.EXCLEQ) "!" else ""
+                holder.registerProblem(expression, JustKittingBundle.message("inspection.use.text.matches"),
+                    ReplaceTextAccessQuickFix("$negation${textAccess.receiverExpression.text}.textMatches($argument)", "textMatches()"))
+            }
+
+            override fun visitDotQualifiedExpression(expression: KtDotQualifiedExpression) {
+                val textAccess = KtPsiUtil.safeDeparenthesize(expression.receiverExpression)
+                if (textAccess !is KtDotQualifiedExpression) return
+
+                val element = textAccess.receiverExpression.text
+                when (val selector = expression.selectorExpression) {
+                    //element.text.length
+                    is KtNameReferenceExpression -> {
+                        if (selector.getReferencedName() == "length" && isTextAccess(textAccess)) {
+                            registerTextLength(expression, "$element.textLength")
+                        }
+                    }
+
+                    is KtCallExpression -> {
+                        val methodName = selector.calleeExpression?.text
+                        when (methodName) {
+                            //element.text.isEmpty() or !element.text.isEmpty()
+                            "isEmpty" -> {
+                                if (selector.valueArguments.isNotEmpty() || !isTextAccess(textAccess)) return
+                                val parent = expression.parent
+                                if (parent is KtPrefixExpression && parent.operationToken == KtTokens.EXCL) {
+                                    registerTextLength(parent, "$element.textLength != 0")
+                                } else {
+                                    registerTextLength(expression, "$element.textLength == 0")
+                                }
+                            }
+
+                            //element.text.isNotEmpty()
+                            "isNotEmpty" -> {
+                                if (selector.valueArguments.isEmpty() && isTextAccess(textAccess)) {
+                                    registerTextLength(expression, "$element.textLength != 0")
+                                }
+                            }
+
+                            //element.text.startsWith("text") or element.text.endsWith("text")
+                            "startsWith", "endsWith" -> {
+                                if (!isTextAccess(textAccess) || isLeafElement(textAccess.receiverExpression)) return
+                                val isStart = methodName == "startsWith"
+                                holder.registerProblem(selector.calleeExpression!!,
+                                    JustKittingBundle.message("inspection.use.leaf.element.type", methodName,
+                                        if (isStart) "first" else "last", if (isStart) "getDeepestFirst" else "getDeepestLast"))
+                            }
+                        }
+                    }
+
+                    else -> {}
+                }
+            }
+
+            private fun registerTextLength(expression: KtExpression, replacement: String) {
+                holder.registerProblem(expression, JustKittingBundle.message("inspection.use.text.length"),
+                    ReplaceTextAccessQuickFix(replacement, "textLength"))
+            }
+        }
+    }
+
+    /**
+     * Returns whether the argument expression is an `element.text` or `element.getText()` call on a `PsiElement`.
+     */
+    private fun isTextAccess(expression: KtExpression?): Boolean {
+        if (expression !is KtDotQualifiedExpression) return false
+        val isTextSelector = when (val selector = expression.selectorExpression) {
+            is KtNameReferenceExpression -> selector.getReferencedName() == "text"
+            is KtCallExpression -> selector.calleeExpression?.text == "getText" && selector.valueArguments.isEmpty()
+            else -> false
+        }
+        return isTextSelector
+            && (expression.toUElementOfType<UQualifiedReferenceExpression>()?.resolve() as? PsiMethod)?.let { OptimizeExpressionsInspection.GET_TEXT.methodMatches(it) } == true
+    }
+
+    private fun isLeafElement(element: KtExpression): Boolean {
+        val elementType = element.toUElementOfType<UExpression>()?.getExpressionType()
+        return PsiElementUtil.isLeafElement(PsiUtil.resolveClassInClassTypeOnly(elementType))
+    }
+
+    /**
+     * Replaces `element.text` based expressions with the provided replacement that uses `textMatches()` or `textLength`.
+     */
+    private class ReplaceTextAccessQuickFix(private val replacement: String, private val replacementMember: String) : LocalQuickFix {
+        override fun getName(): String = JustKittingBundle.message("inspection.replace.with.method", replacementMember)
+
+        override fun getFamilyName(): String = JustKittingBundle.message("inspection.optimize.expressions.family")
+
+        override fun applyFix(project: Project, descriptor: ProblemDescriptor) {
+            val expression = descriptor.psiElement as? KtExpression ?: return
+            val psiFactory = KtPsiFactory(project)
+            val newExpression = psiFactory.createExpression(replacement)
+            val parent = expression.parent
+            val needsParentheses = newExpression is KtBinaryExpression && (parent is KtOperationExpression || parent is KtQualifiedExpression)
+            expression.replace(if (needsParentheses) psiFactory.createExpression("($replacement)") else newExpression)
+        }
+    }
+}
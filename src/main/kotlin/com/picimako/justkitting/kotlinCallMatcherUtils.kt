@@ -0,0 +1,53 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import org.jetbrains.kotlin.psi.KtCallExpression
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.psi.KtLiteralStringTemplateEntry
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+import org.jetbrains.kotlin.psi.KtValueArgument
+import org.jetbrains.kotlin.psi.KtValueArgumentList
+import org.jetbrains.uast.UCallExpression
+import org.jetbrains.uast.UExpression
+import org.jetbrains.uast.toUElementOfType
+
+/**
+ * Utilities to work with [com.siyeh.ig.callMatcher.CallMatcher] factory method calls in Kotlin files.
+ *
+ * The calls are resolved via UAST, so that they work regardless of the Kotlin plugin mode (K1 or K2).
+ */
+
+private val CALL_MATCHER_FACTORY_METHOD_NAMES = setOf(CallMatcherUtil.STATIC_CALL, CallMatcherUtil.INSTANCE_CALL, CallMatcherUtil.EXACT_INSTANCE_CALL)
+
+/**
+ * Returns the `CallMatcher.staticCall/instanceCall/exactInstanceCall` call the argument string is a direct argument of,
+ * or null if it is not an argument of such a call.
+ *
+ * The method name is checked syntactically first, so that UAST conversion happens only for potential factory method calls.
+ */
+fun getCallMatcherFactoryCall(argument: KtStringTemplateExpression): KtCallExpression? {
+    val call = ((argument.parent as? KtValueArgument)?.parent as? KtValueArgumentList)?.parent as? KtCallExpression ?: return null
+    if (call.calleeExpression?.text !in CALL_MATCHER_FACTORY_METHOD_NAMES) return null
+
+    val uCall = call.toUElementOfType<UCallExpression>() ?: return null
+    return if (CallMatcherUtil.CALL_MATCHER_MATCHER.uCallMatches(uCall)) call else null
+}
+
+/**
+ * Returns the name of the CallMatcher factory method the argument call calls. It is expected to be called on the result
+ * of [getCallMatcherFactoryCall].
+ */
+fun getCallType(factoryCall: KtCallExpression): String? = factoryCall.calleeExpression?.text
+
+/**
+ * Returns whether the argument is a single-line string literal without any interpolation, e.g. `"someMethod"`.
+ */
+fun isPlainStringLiteral(argument: KtStringTemplateExpression): Boolean =
+    !argument.text.startsWith("\"\"\"") && argument.entries.all { it is KtLiteralStringTemplateEntry }
+
+/**
+ * Returns the class FQN the argument class name expression of a CallMatcher factory call evaluates to.
+ */
+fun evaluateClassName(classNameArgument: KtExpression?): String? =
+    classNameArgument.toUElementOfType<UExpression>()?.evaluate() as? String
@@ -1,16 +1,25 @@
 //Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.picimako.justkitting.reference
 
+import com.intellij.codeInsight.lookup.LookupElementBuilder
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Key
 import com.intellij.openapi.util.TextRange
 import com.intellij.openapi.util.text.StringUtil
 import com.intellij.psi.*
 import com.intellij.psi.search.ProjectScope
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.psi.util.PsiLiteralUtil.isUnsafeLiteral
 import com.intellij.psi.util.PsiTreeUtil.getParentOfType
 import com.intellij.util.ProcessingContext
 import com.intellij.util.SmartList
+import com.picimako.justkitting.CallMatcherMemberTable
 import com.picimako.justkitting.CallMatcherUtil
+import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import java.util.function.Supplier
 
 /**
@@ -25,6 +34,8 @@ import java.util.function.Supplier
  *
  * If the call is [com.siyeh.ig.callMatcher.CallMatcher.staticCall], it provides references only for static methods.
  *
+ * Method name references also provide code completion variants, with the same filtering, from the [CallMatcherMemberTable] of the referenced class.
+ *
  * @since 0.1.0
  */
 class CallMatcherReferenceContributor : PsiReferenceContributor() {
@@ -55,7 +66,11 @@ class CallMatcherReferenceContributor : PsiReferenceContributor() {
                             else evaluate(className)?.let { findClass(it.toString(), element.getProject()) }
 
                         //Mapping the PsiMethods to 'it', so that they are passed as PsiElements
-                        referencedClass?.let { reference.add(CallMatcherArgReference(element) { getMethodsByName(element, it, parentCall).map { it }.toTypedArray() }) }
+                        referencedClass?.let {
+                            reference.add(CallMatcherArgReference(element, { getMethodsByName(element, it, parentCall).map { it }.toTypedArray() }) {
+                                getMethodNameVariants(it, parentCall)
+                            })
+                        }
                     }
                     return if (reference.isNotEmpty()) reference.toTypedArray() else PsiReference.EMPTY_ARRAY
                 }
@@ -63,16 +78,26 @@ class CallMatcherReferenceContributor : PsiReferenceContributor() {
     }
 
     /**
-     * Reference implementation to for class FQN and method name string literals in `CallMatcher` factory method arguments.
+     * Reference implementation to for class FQN and method name string literals in `CallMatcher` factory method arguments,
+     * both in Java and Kotlin files.
+     *
+     * The resolve results are cached on the string literal, so that highlighting, navigation and find usages
+     * don't have to walk the class hierarchy again and again, until Java or Kotlin code, or the project roots change.
      */
-    private class CallMatcherArgReference(element: PsiElement, private val elementsToResolveTo: Supplier<Array<PsiElement>>)
-        : PsiReferenceBase<PsiElement?>(element, TextRange.create(1, element.textRange.length - 1), true), PsiPolyVariantReference {
+    internal class CallMatcherArgReference(element: PsiElement,
+                                          private val elementsToResolveTo: Supplier<Array<PsiElement>>,
+                                          private val variants: Supplier<Array<Any>> = Supplier { emptyArray() })
+        : PsiReferenceBase<PsiElement>(element, TextRange.create(1, element.textRange.length - 1), true), PsiPolyVariantReference {
 
         override fun multiResolve(incompleteCode: Boolean): Array<ResolveResult> {
             return if (!incompleteCode)
-                elementsToResolveTo.get()
-                    .map { element: PsiElement -> PsiElementResolveResult(element) }
-                    .toTypedArray()
+                CachedValuesManager.getCachedValue(element, RESOLVE_RESULTS_KEY) {
+                    CachedValueProvider.Result.create(
+                        elementsToResolveTo.get()
+                            .map { element: PsiElement -> PsiElementResolveResult(element) }
+                            .toTypedArray<ResolveResult>(),
+                        *CallMatcherUtil.getCallMatcherDependencies(element.project))
+                }
             else ResolveResult.EMPTY_ARRAY
         }
 
@@ -80,32 +105,77 @@ class CallMatcherReferenceContributor : PsiReferenceContributor() {
             val resolveResults = multiResolve(false)
             return if (resolveResults.size == 1) resolveResults[0].element else null
         }
+
+        override fun getVariants(): Array<Any> = variants.get()
     }
 
     companion object {
+        private val RESOLVE_RESULTS_KEY = Key.create<CachedValue<Array<ResolveResult>>>("just.kitting.call.matcher.resolve.results")
+        private val CLASSES_BY_FQN_KEY = Key.create<CachedValue<ConcurrentMap<String, Optional<PsiClass>>>>("just.kitting.call.matcher.classes.by.fqn")
+
         @JvmStatic
         fun findClass(expression: PsiExpression): PsiClass? {
-            val evaluated = evaluate(expression)
-            return if (evaluated != null) findClass(evaluated.toString(), expression.project) else null
+            val evaluated = evaluateClassName(expression)
+            return if (evaluated != null) findClass(evaluated, expression.project) else null
+        }
+
+        /**
+         * Returns the class FQN the argument expression evaluates to. String literals are returned as is,
+         * without going through the constant evaluator.
+         */
+        @JvmStatic
+        fun evaluateClassName(expression: PsiExpression): String? {
+            if (expression is PsiLiteralExpression) return expression.value as? String
+            return evaluate(expression)?.toString()
         }
 
         private fun evaluate(expression: PsiExpression): Any? {
             return JavaPsiFacade.getInstance(expression.project).constantEvaluationHelper.computeConstantExpression(expression, true)
         }
 
-        private fun findClass(text: String, project: Project): PsiClass? {
-            return JavaPsiFacade.getInstance(project).findClass(text, ProjectScope.getAllScope(project))
+        /**
+         * Returns the class with the argument FQN from the project or its libraries.
+         *
+         * The classes are cached project-wide, so that CallMatchers in Java and Kotlin files referencing the same classes,
+         * e.g. PSI classes of the IntelliJ Platform, look them up only once, until Java or Kotlin code, or the project roots change.
+         */
+        @JvmStatic
+        fun findClass(text: String, project: Project): PsiClass? {
+            val classesByFqn = CachedValuesManager.getManager(project).getCachedValue(project, CLASSES_BY_FQN_KEY, {
+                CachedValueProvider.Result.create<ConcurrentMap<String, Optional<PsiClass>>>(
+                    ConcurrentHashMap(),
+                    *CallMatcherUtil.getCallMatcherDependencies(project))
+            }, false)
+
+            var referencedClass = classesByFqn[text]
+            if (referencedClass == null) {
+                referencedClass = Optional.ofNullable(JavaPsiFacade.getInstance(project).findClass(text, ProjectScope.getAllScope(project)))
+                classesByFqn[text] = referencedClass
+            }
+            return referencedClass.orElse(null)
+        }
+
+        /**
+         * Returns the completion variants for a method name argument: one for each method name in the referenced class
+         * that is eligible for the type of the CallMatcher factory method call.
+         */
+        private fun getMethodNameVariants(referencedClass: PsiClass, parentCall: PsiMethodCallExpression?): Array<Any> {
+            return getMethodNameVariants(referencedClass, CallMatcherUtil.getCallType(parentCall))
+        }
+
+        internal fun getMethodNameVariants(referencedClass: PsiClass, callType: String?): Array<Any> {
+            return CallMatcherMemberTable.getInstance(referencedClass)
+                .getMethodsByDistinctName(callType)
+                .map { LookupElementBuilder.create(it, it.name).withIcon(it.getIcon(0)).withTypeText(it.containingClass?.name) }
+                .toTypedArray<Any>()
         }
 
         private fun getMethodsByName(element: PsiElement, referencedClass: PsiClass, parentCall: PsiMethodCallExpression?): Array<PsiMethod> {
-            val methodsInClass = referencedClass.findMethodsByName(
-                StringUtil.unquoteString(element.text),
-                !CallMatcherUtil.CALL_MATCHER_EXACT_INSTANCE_MATCHER.matches(parentCall))
-
-            return if (CallMatcherUtil.CALL_MATCHER_STATIC_MATCHER.matches(parentCall))
-                CallMatcherUtil.filterByStatic(methodsInClass)
-            else
-                CallMatcherUtil.filterByNonStatic(methodsInClass)
+            return getMethodsByName(element, referencedClass, CallMatcherUtil.getCallType(parentCall))
+        }
+
+        internal fun getMethodsByName(element: PsiElement, referencedClass: PsiClass, callType: String?): Array<PsiMethod> {
+            return CallMatcherUtil.findMethodsByCallType(referencedClass, StringUtil.unquoteString(element.text), callType)
         }
     }
 }
@@ -0,0 +1,49 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.picimako.justkitting.reference
+
+import com.intellij.patterns.PlatformPatterns.psiElement
+import com.intellij.psi.*
+import com.intellij.util.ProcessingContext
+import com.picimako.justkitting.evaluateClassName
+import com.picimako.justkitting.getCallMatcherFactoryCall
+import com.picimako.justkitting.getCallType
+import com.picimako.justkitting.isPlainStringLiteral
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+import org.jetbrains.kotlin.psi.KtValueArgument
+
+/**
+ * Kotlin counterpart of [CallMatcherReferenceContributor]. Adds references to the string arguments of
+ * [com.siyeh.ig.callMatcher.CallMatcher] static factory methods: `staticCall`, `instanceCall`, `exactInstanceCall`, in Kotlin files.
+ *
+ * The referenced classes and methods are looked up, and cached, the same way as in Java files, so that CallMatchers in Java and Kotlin files
+ * referencing the same classes don't resolve them separately.
+ *
+ * @since 1.3.0
+ */
+class KotlinCallMatcherReferenceContributor : PsiReferenceContributor() {
+
+    override fun registerReferenceProviders(registrar: PsiReferenceRegistrar) {
+        registrar.registerReferenceProvider(
+            psiElement(KtStringTemplateExpression::class.java).withParent(KtValueArgument::class.java),
+            object : PsiReferenceProvider() {
+                override fun getReferencesByElement(element: PsiElement, context: ProcessingContext): Array<PsiReference> {
+                    val argument = element as KtStringTemplateExpression
+                    if (!isPlainStringLiteral(argument)) return PsiReference.EMPTY_ARRAY
+
+                    val factoryCall = getCallMatcherFactoryCall(argument) ?: return PsiReference.EMPTY_ARRAY
+                    val classNameArgument = factoryCall.valueArguments[0].getArgumentExpression()
+                    val referencedClass = evaluateClassName(classNameArgument)?.let { CallMatcherReferenceContributor.findClass(it, element.project) }
+                        ?: return PsiReference.EMPTY_ARRAY
+
+                    //If the current string is the first argument (the class FQN) of the CallMatcher call
+                    val reference =
+                        if (classNameArgument == argument) CallMatcherReferenceContributor.CallMatcherArgReference(argument, { arrayOf(referencedClass) })
+                        else CallMatcherReferenceContributor.CallMatcherArgReference(argument,
+                            { CallMatcherReferenceContributor.getMethodsByName(argument, referencedClass, getCallType(factoryCall)).map { it }.toTypedArray() }) {
+                            CallMatcherReferenceContributor.getMethodNameVariants(referencedClass, getCallType(factoryCall))
+                        }
+                    return arrayOf(reference)
+                }
+            })
+    }
+}
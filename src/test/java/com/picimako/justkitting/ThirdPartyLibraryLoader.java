@@ -6,6 +6,7 @@ import com.intellij.openapi.vfs.newvfs.impl.VfsRootAccess;
 import com.intellij.testFramework.PsiTestUtil;
 import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
 import com.intellij.util.PathUtil;
+import kotlin.Unit;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -33,6 +34,18 @@ public final class ThirdPartyLibraryLoader {
         loadLibrary(fixture, "util-8", "util-8.jar");
     }
 
+    /**
+     * For Kotlin standard library functions, like {@code listOf()} and {@code emptyList()}.
+     * <p>
+     * It is loaded from the test runtime classpath, since the IntelliJ Platform ships it.
+     */
+    public static void loadKotlinStdlib(@NotNull CodeInsightTestFixture fixture) {
+        var stdlibJar = new File(PathUtil.getJarPathForClass(Unit.class));
+        String libPath = PathUtil.toSystemIndependentName(stdlibJar.getParent());
+        VfsRootAccess.allowRootAccess(fixture.getTestRootDisposable(), libPath);
+        PsiTestUtil.addLibrary(fixture.getTestRootDisposable(), fixture.getModule(), "kotlin-stdlib", libPath, stdlibJar.getName());
+    }
+
     /**
      * Loads the library with the given filename from the [PROJECT_ROOT]/lib folder.
      *
@@ -0,0 +1,123 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link AllocationInVisitorInspection}.
+ */
+public class AllocationInVisitorInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new AllocationInVisitorInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testAllocationsInVisitor() {
+        doJavaTest("AllocatingVisitor.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+
+                import java.util.ArrayList;
+                import java.util.Arrays;
+                import java.util.List;
+                import java.util.Optional;
+                import java.util.function.Predicate;
+                import java.util.regex.Pattern;
+
+                public class AllocatingVisitor extends JavaElementVisitor {
+                   private static final Pattern NAME = Pattern.compile("[a-z]+");
+                   private final List<Integer> counts = new ArrayList<>();
+
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       var pattern = Pattern.<weak_warning descr="Pattern.compile() compiles a regular expression for every visited element. Consider compiling it once into a static Pattern constant.">compile</weak_warning>("[a-z]+");
+                       boolean isGetter = method.getName().<weak_warning descr="String.matches() compiles a regular expression for every visited element. Consider compiling it once into a static Pattern constant.">matches</weak_warning>("get.*");
+                       String[] parts = method.getName().split(",");
+
+                       var names = Arrays.stream(method.getParameterList().getParameters()).map(parameter -> parameter.getName()).<weak_warning descr="Stream pipeline allocates objects for every visited element. Consider replacing it with a loop.">toList</weak_warning>();
+                       String className = Optional.ofNullable(method.getContainingClass()).map(psiClass -> psiClass.getName()).<weak_warning descr="Optional pipeline allocates objects for every visited element. Consider replacing it with if statements.">orElse</weak_warning>("");
+
+                       Predicate<String> isMethodName = <weak_warning descr="Capturing 'method' allocates a new lambda instance for every visited element.">name</weak_warning> -> name.equals(method.getName());
+                       Predicate<String> equalsMethodName = <weak_warning descr="Capturing 'method.getName()' allocates a new lambda instance for every visited element.">method.getName()::equals</weak_warning>;
+                       Predicate<String> isEmpty = String::isEmpty;
+
+                       int count = method.getParameterList().getParametersCount();
+                       counts.add(<weak_warning descr="'count' is boxed for every visited element.">count</weak_warning>);
+                       counts.add(0);
+                   }
+                }""");
+    }
+
+    public void testNoHighlightOutsideVisitor() {
+        doJavaTest("NotAVisitor.java",
+            """
+                import com.intellij.psi.PsiMethod;
+
+                import java.util.function.Predicate;
+                import java.util.regex.Pattern;
+
+                public class NotAVisitor {
+                   public void process(PsiMethod method) {
+                       var pattern = Pattern.compile("[a-z]+");
+                       Predicate<String> isMethodName = name -> name.equals(method.getName());
+                   }
+                }""");
+    }
+
+    public void testExtractPatternToConstant() {
+        doQuickFixTest("Extract regular expression to Pattern constant", "ExtractPattern.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+
+                public class ExtractPattern extends JavaElementVisitor {
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       String name = method.getName().repla<caret>ceAll("^get", "");
+                   }
+                }""",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+
+                import java.util.regex.Pattern;
+
+                public class ExtractPattern extends JavaElementVisitor {
+                    private static final Pattern PATTERN = Pattern.compile("^get");
+
+                    @Override
+                   public void visitMethod(PsiMethod method) {
+                       String name = PATTERN.matcher(method.getName()).replaceAll("");
+                   }
+                }""");
+    }
+
+    public void testNoExtractPatternToConstantForLocalConstant() {
+        doNoQuickFixTest("Extract regular expression to Pattern constant", "NoExtractPattern.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+
+                public class NoExtractPattern extends JavaElementVisitor {
+                   private final String prefix = "^get";
+
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       final String regex = "^is";
+                       String name = method.getName().repla<caret>ceAll(regex, "");
+                       String other = method.getName().replaceAll(prefix, "");
+                   }
+                }""");
+    }
+}
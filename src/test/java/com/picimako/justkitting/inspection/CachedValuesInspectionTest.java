@@ -20,6 +20,7 @@ public class CachedValuesInspectionTest extends JustKittingInspectionTestBase {
         super.setUp();
         ThirdPartyLibraryLoader.loadUtil8(myFixture);
         ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+        ThirdPartyLibraryLoader.loadKotlinStdlib(myFixture);
     }
 
     @Override
@@ -269,4 +270,306 @@ public class CachedValuesInspectionTest extends JustKittingInspectionTestBase {
                    }
                 }""");
     }
+
+    //Narrowest dependencies
+
+    public void testElementIsAddedAsNarrowestDependency() {
+        doQuickFixTest("Use narrowest dependencies: psiClass", "ElementIsAddedAsNarrowestDependency.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ElementIsAddedAsNarrowestDependency {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.cre<caret>ate(psiClass.getName()));
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ElementIsAddedAsNarrowestDependency {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                   }
+                }""");
+    }
+
+    public void testJavaStructureAndRootsTrackersReplaceEmptyCollection() {
+        addKotlinLanguageClass();
+        doQuickFixTest("Use narrowest dependencies: PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())",
+            "JavaStructureAndRootsTrackersReplaceEmptyCollection.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import java.util.Collections;
+
+                public class JavaStructureAndRootsTrackersReplaceEmptyCollection {
+                   public PsiClass method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.cre<caret>ate(psiClass.getSuperClass(), Collections.emptyList()));
+                   }
+                }""",
+            """
+                import com.intellij.lang.java.JavaLanguage;
+                import com.intellij.openapi.roots.ProjectRootModificationTracker;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+                import org.jetbrains.kotlin.idea.KotlinLanguage;
+
+                import java.util.Collections;
+
+                public class JavaStructureAndRootsTrackersReplaceEmptyCollection {
+                   public PsiClass method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getSuperClass(), PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())));
+                   }
+                }""");
+    }
+
+    public void testJavaOnlyStructureTrackerWithoutKotlinPlugin() {
+        doQuickFixTest("Use narrowest dependencies: PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())",
+            "JavaOnlyStructureTrackerWithoutKotlinPlugin.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import java.util.Collections;
+
+                public class JavaOnlyStructureTrackerWithoutKotlinPlugin {
+                   public PsiClass method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.cre<caret>ate(psiClass.getSuperClass(), Collections.emptyList()));
+                   }
+                }""",
+            """
+                import com.intellij.lang.java.JavaLanguage;
+                import com.intellij.openapi.roots.ProjectRootModificationTracker;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                import java.util.Collections;
+
+                public class JavaOnlyStructureTrackerWithoutKotlinPlugin {
+                   public PsiClass method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getSuperClass(), PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())));
+                   }
+                }""");
+    }
+
+    public void testOverBroadDependency() {
+        doJavaTest("OverBroadDependency.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class OverBroadDependency {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getName(), <weak_warning descr="PsiModificationTracker.MODIFICATION_COUNT invalidates the cached value on any PSI change. Based on what the provider reads, narrower dependencies are enough: psiClass">PsiModificationTracker.MODIFICATION_COUNT</weak_warning>));
+                   }
+                }""");
+    }
+
+    public void testOverBroadDependencyIsReplaced() {
+        doQuickFixTest("Use narrowest dependencies: psiClass", "OverBroadDependencyIsReplaced.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class OverBroadDependencyIsReplaced {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getName(), PsiModificationTracker.MODIFICATION_<caret>COUNT));
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class OverBroadDependencyIsReplaced {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                   }
+                }""");
+    }
+
+    public void testNoHighlightForModificationCountWhenProviderResolvesReferences() {
+        doJavaTest("NoHighlightForModificationCountWhenProviderResolvesReferences.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class NoHighlightForModificationCountWhenProviderResolvesReferences {
+                   public PsiElement method(PsiElement element, PsiReference reference) {
+                       return CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(reference.resolve(), PsiModificationTracker.MODIFICATION_COUNT));
+                   }
+                }""");
+    }
+
+    public void testNoHighlightForModificationCountWhenProviderFindsSuperMethods() {
+        doJavaTest("NoHighlightForModificationCountWhenProviderFindsSuperMethods.java",
+            """
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class NoHighlightForModificationCountWhenProviderFindsSuperMethods {
+                   public PsiMethod[] method(PsiMethod method) {
+                       return CachedValuesManager.getCachedValue(method, () -> CachedValueProvider.Result.create(method.findSuperMethods(), PsiModificationTracker.MODIFICATION_COUNT));
+                   }
+                }""");
+    }
+
+    public void testNoHighlightForModificationCountWhenProviderCallsUnknownLibraryMethod() {
+        doJavaTest("NoHighlightForModificationCountWhenProviderCallsUnknownLibraryMethod.java",
+            """
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+                import com.intellij.psi.util.PsiSuperMethodUtil;
+
+                public class NoHighlightForModificationCountWhenProviderCallsUnknownLibraryMethod {
+                   public PsiMethod method(PsiMethod method) {
+                       return CachedValuesManager.getCachedValue(method, () -> CachedValueProvider.Result.create(PsiSuperMethodUtil.findConstructorInSuper(method), PsiModificationTracker.MODIFICATION_COUNT));
+                   }
+                }""");
+    }
+
+    public void testNoHighlightForModificationCountOutsideProvider() {
+        doJavaTest("NoHighlightForModificationCountOutsideProvider.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class NoHighlightForModificationCountOutsideProvider {
+                   public void method(PsiClass psiClass) {
+                       CachedValueProvider.Result.create(psiClass.getName(), PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+                }""");
+    }
+
+    //Kotlin
+
+    public void testKotlinNeverChangedIsAddedForEmptyDependency() {
+        doQuickFixTest("Add ModificationTracker.NEVER_CHANGED as dependency", "KotlinNeverChangedIsAddedForEmptyDependency.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedIsAddedForEmptyDependency {
+                   fun method() {
+                       CachedValueProvider.Result.cre<caret>ate(arrayOfNulls<Any>(1))
+                   }
+                }""",
+            """
+                import com.intellij.openapi.util.ModificationTracker
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedIsAddedForEmptyDependency {
+                   fun method() {
+                       CachedValueProvider.Result.create(arrayOfNulls<Any>(1), ModificationTracker.NEVER_CHANGED)
+                   }
+                }""");
+    }
+
+    public void testKotlinNeverChangedReplacesListOf() {
+        doQuickFixTest("Replace empty collection with ModificationTracker.NEVER_CHANGED", "KotlinNeverChangedReplacesListOf.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedReplacesListOf {
+                   fun method() {
+                       CachedValueProvider.Result.cre<caret>ate(arrayOfNulls<Any>(1), listOf())
+                   }
+                }""",
+            """
+                import com.intellij.openapi.util.ModificationTracker
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedReplacesListOf {
+                   fun method() {
+                       CachedValueProvider.Result.create(arrayOfNulls<Any>(1), ModificationTracker.NEVER_CHANGED)
+                   }
+                }""");
+    }
+
+    public void testKotlinNeverChangedReplacesEmptySet() {
+        doQuickFixTest("Replace empty collection with ModificationTracker.NEVER_CHANGED", "KotlinNeverChangedReplacesEmptySet.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedReplacesEmptySet {
+                   fun method() {
+                       CachedValueProvider.Result.cre<caret>ate(arrayOfNulls<Any>(1), emptySet())
+                   }
+                }""",
+            """
+                import com.intellij.openapi.util.ModificationTracker
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinNeverChangedReplacesEmptySet {
+                   fun method() {
+                       CachedValueProvider.Result.create(arrayOfNulls<Any>(1), ModificationTracker.NEVER_CHANGED)
+                   }
+                }""");
+    }
+
+    public void testKotlinModificationCountReplacesEmptyList() {
+        doQuickFixTest("Replace empty collection with PsiModificationTracker.MODIFICATION_COUNT", "KotlinModificationCountReplacesEmptyList.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class KotlinModificationCountReplacesEmptyList {
+                   fun method() {
+                       CachedValueProvider.Result.cre<caret>ate(arrayOfNulls<Any>(1), emptyList<Any>())
+                   }
+                }""",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.PsiModificationTracker
+
+                class KotlinModificationCountReplacesEmptyList {
+                   fun method() {
+                       CachedValueProvider.Result.create(arrayOfNulls<Any>(1), PsiModificationTracker.MODIFICATION_COUNT)
+                   }
+                }""");
+    }
+
+    public void testKotlinOverBroadDependencyIsReplaced() {
+        doQuickFixTest("Use narrowest dependencies: psiClass", "KotlinOverBroadDependencyIsReplaced.kt",
+            """
+                import com.intellij.psi.PsiClass
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.CachedValuesManager
+                import com.intellij.psi.util.PsiModificationTracker
+
+                class KotlinOverBroadDependencyIsReplaced {
+                   fun method(psiClass: PsiClass): String? {
+                       return CachedValuesManager.getCachedValue(psiClass) { CachedValueProvider.Result.create(psiClass.name, PsiModificationTracker.MODIFICATION_<caret>COUNT) }
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.CachedValuesManager
+
+                class KotlinOverBroadDependencyIsReplaced {
+                   fun method(psiClass: PsiClass): String? {
+                       return CachedValuesManager.getCachedValue(psiClass) { CachedValueProvider.Result.create(psiClass.name, psiClass) }
+                   }
+                }""");
+    }
 }
@@ -0,0 +1,263 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link CachedValuesManagerMisuseInspection}.
+ */
+public class CachedValuesManagerMisuseInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new CachedValuesManagerMisuseInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    //Key created per call
+
+    public void testKeyCreatedPerCall() {
+        doJavaTest("KeyCreatedPerCall.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class KeyCreatedPerCall {
+                   private static final Key<CachedValue<String>> CONSTANT_KEY = Key.create("constant");
+
+                   public String method(PsiClass psiClass) {
+                       Key<CachedValue<String>> key = Key.<warning descr="Key is created on each call, so the cached value is stored under a new key every time, and it is never reused.">create</warning>("local");
+                       var manager = CachedValuesManager.getManager(psiClass.getProject());
+                       manager.getCachedValue(psiClass, key, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                       manager.getCachedValue(psiClass, CONSTANT_KEY, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                       Key<String> notCacheKey = Key.create("not.cache.key");
+                       return manager.getCachedValue(psiClass, Key.<warning descr="Key is created on each call, so the cached value is stored under a new key every time, and it is never reused.">create</warning>("inline"), () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                   }
+                }""");
+    }
+
+    public void testHoistInlineKey() {
+        doQuickFixTest("Move Key to static constant", "HoistInlineKey.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class HoistInlineKey {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getManager(psiClass.getProject())
+                           .getCachedValue(psiClass, Key.cre<caret>ate("class.name"), () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                   }
+                }""",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class HoistInlineKey {
+                    private static final Key<CachedValue<String>> CLASS_NAME_KEY = Key.create("class.name");
+
+                    public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getManager(psiClass.getProject())
+                           .getCachedValue(psiClass, CLASS_NAME_KEY, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                   }
+                }""");
+    }
+
+    public void testNoHoistKeyDependingOnLocalState() {
+        doNoQuickFixTest("Move Key to static constant", "NoHoistKeyDependingOnLocalState.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class NoHoistKeyDependingOnLocalState {
+                   public String method(PsiClass psiClass) {
+                       String prefix = psiClass.getName();
+                       return CachedValuesManager.getManager(psiClass.getProject())
+                           .getCachedValue(psiClass, Key.cre<caret>ate("class.name" + prefix), () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), false);
+                   }
+                }""");
+    }
+
+    public void testNoHoistKeyWithTypeParameterType() {
+        doNoQuickFixTest("Move Key to static constant", "NoHoistKeyWithTypeParameterType.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class NoHoistKeyWithTypeParameterType {
+                   public <T> T method(PsiClass psiClass, T value) {
+                       Key<CachedValue<T>> key = Key.cre<caret>ate("value");
+                       return CachedValuesManager.getManager(psiClass.getProject())
+                           .getCachedValue(psiClass, key, () -> CachedValueProvider.Result.create(value, psiClass), false);
+                   }
+                }""");
+    }
+
+    //Provider capturing variables
+
+    public void testProviderCapturingVariables() {
+        doJavaTest("ProviderCapturingVariables.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ProviderCapturingVariables {
+                   public String method(PsiClass psiClass, String prefix, Project project) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> {
+                           String local = "local";
+                           return CachedValueProvider.Result.create(<warning descr="The provider captures 'prefix'. The cached value is stored under a key derived from the provider class, so calls with different 'prefix' values get the same cached value.">prefix</warning> + psiClass.getName() + local + project.getName() + prefix, psiClass);
+                       });
+                   }
+                }""");
+    }
+
+    public void testComputeCapturedVariableInProvider() {
+        doQuickFixTest("Compute 'file' in the provider", "ComputeCapturedVariableInProvider.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ComputeCapturedVariableInProvider {
+                   public String method(PsiClass psiClass) {
+                       PsiFile file = psiClass.getContainingFile();
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(fi<caret>le.getName(), psiClass));
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ComputeCapturedVariableInProvider {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getContainingFile().getName(), psiClass));
+                   }
+                }""");
+    }
+
+    //CachedValue created per call
+
+    public void testCachedValueCreatedPerCall() {
+        doJavaTest("CachedValueCreatedPerCall.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class CachedValueCreatedPerCall {
+                   private static final Key<CachedValue<String>> KEY = Key.create("key");
+                   private CachedValue<String> field;
+
+                   public CachedValueCreatedPerCall(PsiClass psiClass) {
+                       field = CachedValuesManager.getManager(psiClass.getProject()).createCachedValue(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                   }
+
+                   public String method(PsiClass psiClass) {
+                       CachedValue<String> local = CachedValuesManager.getManager(psiClass.getProject()).<warning descr="CachedValue is created on each call, so it never returns a previously computed value.">createCachedValue</warning>(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                       CachedValue<String> onlyQueried = CachedValuesManager.getManager(psiClass.getProject()).<warning descr="CachedValue is created on each call, so it never returns a previously computed value.">createCachedValue</warning>(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                       onlyQueried.getValue();
+                       CachedValue<String> storedInUserData = CachedValuesManager.getManager(psiClass.getProject()).createCachedValue(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                       psiClass.putUserData(KEY, storedInUserData);
+                       CachedValue<String> storedInField = CachedValuesManager.getManager(psiClass.getProject()).createCachedValue(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                       field = storedInField;
+                       return CachedValuesManager.getManager(psiClass.getProject()).<warning descr="CachedValue is created on each call, so it never returns a previously computed value.">createCachedValue</warning>(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass)).getValue();
+                   }
+                }""");
+    }
+
+    public void testReplaceCreateCachedValueWithGetCachedValue() {
+        doQuickFixTest("Replace with CachedValuesManager.getCachedValue(psiClass, provider)", "ReplaceCreateCachedValueWithGetCachedValue.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ReplaceCreateCachedValueWithGetCachedValue {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getManager(psiClass.getProject()).createCached<caret>Value(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass)).getValue();
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class ReplaceCreateCachedValueWithGetCachedValue {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(psiClass.getName(), psiClass));
+                   }
+                }""");
+    }
+
+    public void testNoReplaceCreateCachedValueWithCapturingProvider() {
+        doNoQuickFixTest("Replace with CachedValuesManager.getCachedValue", "NoReplaceCreateCachedValueWithCapturingProvider.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class NoReplaceCreateCachedValueWithCapturingProvider {
+                   public String method(PsiClass psiClass, String prefix) {
+                       return CachedValuesManager.getManager(psiClass.getProject()).createCached<caret>Value(() -> CachedValueProvider.Result.create(prefix + psiClass.getName(), psiClass)).getValue();
+                   }
+                }""");
+    }
+
+    public void testNoReplaceCreateCachedValueWithProviderCapturingThis() {
+        doNoQuickFixTest("Replace with CachedValuesManager.getCachedValue", "NoReplaceCreateCachedValueWithProviderCapturingThis.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class NoReplaceCreateCachedValueWithProviderCapturingThis {
+                   private String prefix;
+
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getManager(psiClass.getProject()).createCached<caret>Value(() -> CachedValueProvider.Result.create(prefix + psiClass.getName(), psiClass)).getValue();
+                   }
+                }""");
+    }
+
+    public void testNoReplaceCreateCachedValueWithExtraArguments() {
+        doNoQuickFixTest("Replace with CachedValuesManager.getCachedValue", "NoReplaceCreateCachedValueWithExtraArguments.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class NoReplaceCreateCachedValueWithExtraArguments {
+                   public String method(PsiClass psiClass) {
+                       return CachedValuesManager.getManager(psiClass.getProject()).createCached<caret>Value(() -> CachedValueProvider.Result.create(psiClass.getName(), psiClass), true).getValue();
+                   }
+                }""");
+    }
+}
@@ -0,0 +1,141 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link CallMatcherCreationInVisitorInspection}.
+ */
+public class CallMatcherCreationInVisitorInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new CallMatcherCreationInVisitorInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testHighlighting() {
+        doJavaTest("CallMatcherInVisitor.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiElementVisitor;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherInVisitor {
+                   private static final String JAVA_UTIL_LIST = "java.util.List";
+                   private static final CallMatcher CONSTANT = CallMatcher.instanceCall("java.util.List", "add");
+
+                   PsiElementVisitor buildVisitor() {
+                       CallMatcher inBuildVisitor = CallMatcher.instanceCall("java.util.List", "add");
+                       return new PsiElementVisitor() {
+                           @Override
+                           public void visitElement(PsiElement element) {
+                               CallMatcher instance = CallMatcher.<warning descr="CallMatcher is created every time an element is visited. Consider storing it in a static constant.">instanceCall</warning>("java.util.List", "add");
+                               CallMatcher withConstant = CallMatcher.<warning descr="CallMatcher is created every time an element is visited. Consider storing it in a static constant.">staticCall</warning>(JAVA_UTIL_LIST, "of").parameterCount(1);
+                               CallMatcher anyOf = CallMatcher.<warning descr="CallMatcher is created every time an element is visited. Consider storing it in a static constant.">anyOf</warning>(CONSTANT, CallMatcher.exactInstanceCall("java.util.List", "clear"));
+                               CallMatcher withLocalVariable = CallMatcher.instanceCall(element.getText(), "add");
+                               helper();
+                           }
+                       };
+                   }
+
+                   private void helper() {
+                       CallMatcher inHelper = CallMatcher.<warning descr="CallMatcher is created every time an element is visited. Consider storing it in a static constant.">instanceCall</warning>("java.util.List", "add");
+                   }
+
+                   private void notCalledFromVisitor() {
+                       CallMatcher notInVisitor = CallMatcher.instanceCall("java.util.List", "add");
+                   }
+                }""");
+    }
+
+    public void testNoHighlightingForCallsDependingOnInstanceOrLocalState() {
+        doJavaTest("CallMatcherWithInstanceState.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiElementVisitor;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherWithInstanceState {
+                   private final String listClass = "java.util.List";
+
+                   PsiElementVisitor buildVisitor() {
+                       return new PsiElementVisitor() {
+                           @Override
+                           public void visitElement(PsiElement element) {
+                               String localClass = "java.util.List";
+                               class LocalNames {
+                                   String list() {
+                                       return "java.util.List";
+                                   }
+                               }
+                               CallMatcher withStaticMethod = CallMatcher.<warning descr="CallMatcher is created every time an element is visited. Consider storing it in a static constant.">instanceCall</warning>(staticListClass(), "add");
+                               CallMatcher withInstanceField = CallMatcher.instanceCall(listClass, "add");
+                               CallMatcher withInstanceMethod = CallMatcher.instanceCall(instanceListClass(), "add");
+                               CallMatcher withLocalVariable = CallMatcher.instanceCall(localClass, "add");
+                               CallMatcher withParameter = CallMatcher.instanceCall(element.getText(), "add");
+                               CallMatcher withInnerClass = CallMatcher.instanceCall(new Names().list(), "add");
+                               CallMatcher withLocalClass = CallMatcher.instanceCall(new LocalNames().list(), "add");
+                           }
+                       };
+                   }
+
+                   private static String staticListClass() {
+                       return "java.util.List";
+                   }
+
+                   private String instanceListClass() {
+                       return "java.util.List";
+                   }
+
+                   private class Names {
+                       String list() {
+                           return "java.util.List";
+                       }
+                   }
+                }""");
+    }
+
+    public void testExtractToConstant() {
+        doQuickFixTest("Extract CallMatcher to static constant", "CallMatcherInVisitor.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiElementVisitor;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherInVisitor {
+                   PsiElementVisitor buildVisitor() {
+                       return new PsiElementVisitor() {
+                           @Override
+                           public void visitElement(PsiElement element) {
+                               boolean matches = CallMatcher.instance<caret>Call("java.util.List", "getFirst").parameterCount(0).matches(element);
+                           }
+                       };
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiElementVisitor;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherInVisitor {
+                    private static final CallMatcher.Simple GET_FIRST = CallMatcher.instanceCall("java.util.List", "getFirst").parameterCount(0);
+
+                    PsiElementVisitor buildVisitor() {
+                       return new PsiElementVisitor() {
+                           @Override
+                           public void visitElement(PsiElement element) {
+                               boolean matches = GET_FIRST.matches(element);
+                           }
+                       };
+                   }
+                }""");
+    }
+}
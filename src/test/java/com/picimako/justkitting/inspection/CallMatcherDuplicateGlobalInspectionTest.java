@@ -0,0 +1,57 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ex.GlobalInspectionToolWrapper;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.testFramework.InspectionTestUtil;
+import com.intellij.testFramework.InspectionsKt;
+import com.picimako.justkitting.JustKittingTestBase;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+import java.util.List;
+
+/**
+ * Functional test for {@link CallMatcherDuplicateGlobalInspection}.
+ */
+public class CallMatcherDuplicateGlobalInspectionTest extends JustKittingTestBase {
+
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/testData/inspection";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testReportsDuplicateConstants() {
+        myFixture.testInspection("callmatcherduplicate", new GlobalInspectionToolWrapper(new CallMatcherDuplicateGlobalInspection()));
+    }
+
+    public void testReusesSharedConstantInMultipleFiles() {
+        var sourceDir = myFixture.copyDirectoryToProject("callmatcherduplicatefix/before", "");
+        var toolWrapper = new GlobalInspectionToolWrapper(new CallMatcherDuplicateGlobalInspection());
+        var scope = new AnalysisScope(myFixture.getPsiManager().findDirectory(sourceDir));
+        var globalContext = InspectionsKt.createGlobalContextForTool(scope, getProject(), List.of(toolWrapper));
+        InspectionTestUtil.runTool(toolWrapper, scope, globalContext);
+
+        var problems = globalContext.getPresentation(toolWrapper).getProblemDescriptors();
+        assertSize(2, problems);
+        for (var problem : problems) {
+            var descriptor = (ProblemDescriptor) problem;
+            var quickFix = (LocalQuickFix) descriptor.getFixes()[0];
+            assertEquals("Initialize with 'SharedMatchers.LIST_OF'", quickFix.getName());
+            WriteCommandAction.runWriteCommandAction(getProject(), () -> quickFix.applyFix(getProject(), descriptor));
+        }
+
+        myFixture.checkResultByFile("FirstDuplicate.java", "callmatcherduplicatefix/after/FirstDuplicate.java", true);
+        myFixture.checkResultByFile("SecondDuplicate.java", "callmatcherduplicatefix/after/SecondDuplicate.java", true);
+        myFixture.checkResultByFile("SharedMatchers.java", "callmatcherduplicatefix/before/SharedMatchers.java", true);
+    }
+}
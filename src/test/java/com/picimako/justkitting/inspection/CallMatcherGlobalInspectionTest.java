@@ -0,0 +1,28 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.ex.GlobalInspectionToolWrapper;
+import com.picimako.justkitting.JustKittingTestBase;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link CallMatcherGlobalInspection}.
+ */
+public class CallMatcherGlobalInspectionTest extends JustKittingTestBase {
+
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/testData/inspection";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testReportsNonExistentClassesAndMethods() {
+        myFixture.testInspection("callmatcherglobal", new GlobalInspectionToolWrapper(new CallMatcherGlobalInspection()));
+    }
+}
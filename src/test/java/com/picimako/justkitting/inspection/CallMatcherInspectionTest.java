@@ -49,4 +49,19 @@ public class CallMatcherInspectionTest extends JustKittingInspectionTestBase {
                    CallMatcher callMatcherExactInstance6 = CallMatcher.exactInstanceCall(JAVA_UTIL_LIST, <error descr="No instance method exists with this name in the referenced class.">"asdasd"</error>);
                 }""");
     }
+
+    public void testNonExistentMethodAmongMultipleMethodNamesReferencingTheSameClass() {
+        doJavaTest("CallMatcherNonexistentMethodMultipleNames.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherNonexistentMethodMultipleNames {
+                   private static final String JAVA_UTIL_LIST = "java.util.List";
+
+                   CallMatcher callMatcherInstance1 = CallMatcher.instanceCall("java.util.List", "add", <error descr="No instance method exists with this name in the referenced class or any of its super classes.">"asdasd"</error>, "clear");
+                   CallMatcher callMatcherInstance2 = CallMatcher.instanceCall(JAVA_UTIL_LIST, "add", "clear", <error descr="No instance method exists with this name in the referenced class or any of its super classes.">"asdasd"</error>);
+                   CallMatcher callMatcherExactInstance = CallMatcher.exactInstanceCall("java.util.List", "add", <error descr="No instance method exists with this name in the referenced class.">"removeIf"</error>);
+                   CallMatcher callMatcherStatic = CallMatcher.staticCall("java.util.List", "of", "copyOf", <error descr="No static method exists with this name in the referenced class or any of its super classes.">"add"</error>);
+                }""");
+    }
 }
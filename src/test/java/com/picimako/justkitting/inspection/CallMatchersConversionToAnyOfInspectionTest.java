@@ -0,0 +1,107 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link CallMatchersConversionToAnyOfInspection}.
+ */
+public class CallMatchersConversionToAnyOfInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new CallMatchersConversionToAnyOfInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testHighlighting() {
+        doJavaTest("AnyOfCandidates.java",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class AnyOfCandidates {
+                    private static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    private static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+                    private static final CallMatcher MAP_OF = CallMatcher.staticCall("java.util.Map", "of");
+                    private final CallMatcher instanceMatcher = CallMatcher.staticCall("java.util.Map", "of");
+
+                    void method(PsiMethodCallExpression expression, PsiMethodCallExpression other) {
+                        if (<warning descr="CallMatchers can be combined to a CallMatcher.anyOf() constant">LIST_OF.matches(expression) || SET_OF.matches(expression)</warning>) {}
+                        if (<warning descr="CallMatchers can be combined to a CallMatcher.anyOf() constant">LIST_OF.test(expression) || SET_OF.test(expression) || MAP_OF.test(expression)</warning>) {}
+                        if (LIST_OF.matches(expression) || SET_OF.matches(other)) {}
+                        if (LIST_OF.matches(expression) || SET_OF.test(expression)) {}
+                        if (LIST_OF.matches(expression) && SET_OF.matches(expression)) {}
+                        if (LIST_OF.matches(expression) || instanceMatcher.matches(expression)) {}
+                    }
+                }""");
+    }
+
+    public void testIntroducesAnyOfConstant() {
+        doQuickFixTest("Combine CallMatchers to CallMatcher.anyOf()", "AnyOfCandidates.java",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class AnyOfCandidates {
+                    private static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    private static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+
+                    void method(PsiMethodCallExpression expression) {
+                        if (LIST_OF.matches(expression) |<caret>| SET_OF.matches(expression)) {}
+                    }
+                }""",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class AnyOfCandidates {
+                    private static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    private static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+                    private static final CallMatcher LIST_OF_OR_SET_OF = CallMatcher.anyOf(LIST_OF, SET_OF);
+
+                    void method(PsiMethodCallExpression expression) {
+                        if (LIST_OF_OR_SET_OF.matches(expression)) {}
+                    }
+                }""");
+    }
+
+    public void testReusesExistingAnyOfConstant() {
+        doQuickFixTest("Combine CallMatchers to CallMatcher.anyOf()", "AnyOfCandidates.java",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class AnyOfCandidates {
+                    private static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    private static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+                    private static final CallMatcher COLLECTION_OF = CallMatcher.anyOf(LIST_OF, SET_OF);
+
+                    void method(PsiMethodCallExpression expression) {
+                        if (COLLECTION_OF.matches(expression)) {}
+                        if (LIST_OF.test(expression) |<caret>| SET_OF.test(expression)) {}
+                    }
+                }""",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class AnyOfCandidates {
+                    private static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    private static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+                    private static final CallMatcher COLLECTION_OF = CallMatcher.anyOf(LIST_OF, SET_OF);
+
+                    void method(PsiMethodCallExpression expression) {
+                        if (COLLECTION_OF.matches(expression)) {}
+                        if (COLLECTION_OF.test(expression)) {}
+                    }
+                }""");
+    }
+}
@@ -0,0 +1,286 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link EdtBlockingActionInspection}.
+ */
+public class EdtBlockingActionInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new EdtBlockingActionInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testBlockingOperationsOnEdt() {
+        doJavaTest("BlockingAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class BlockingAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       var element = e.getData(CommonDataKeys.PSI_ELEMENT);
+                       ApplicationManager.getApplication().executeOnPooledThread(() -> ReferencesSearch.search(element).findAll());
+                       var references = ReferencesSearch.<warning descr="ReferencesSearch.search() blocks the UI, since actionPerformed() is called on the EDT. Consider executing it in a background task.">search</warning>(element).findAll();
+                   }
+
+                   @Override
+                   public void update(AnActionEvent e) {
+                       helper(e.getData(CommonDataKeys.PSI_ELEMENT));
+                   }
+
+                   private void helper(PsiElement element) {
+                       var reference = ReferencesSearch.<warning descr="ReferencesSearch.search() blocks the UI, since update() is called on the EDT. Consider returning ActionUpdateThread.BGT from getActionUpdateThread().">search</warning>(element).findFirst();
+                   }
+                }""");
+    }
+
+    public void testNoHighlightForUpdateOnBgt() {
+        doJavaTest("UpdateOnBgtAction.java",
+            """
+                import com.intellij.openapi.actionSystem.ActionUpdateThread;
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class UpdateOnBgtAction extends AnAction {
+                   @Override
+                   public ActionUpdateThread getActionUpdateThread() {
+                       return ActionUpdateThread.BGT;
+                   }
+
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                   }
+
+                   @Override
+                   public void update(AnActionEvent e) {
+                       ReferencesSearch.search(e.getData(CommonDataKeys.PSI_ELEMENT)).findFirst();
+                   }
+                }""");
+    }
+
+    public void testSwitchToBgt() {
+        doQuickFixTest("Switch action update thread to BGT", "SwitchToBgtAction.java",
+            """
+                import com.intellij.openapi.actionSystem.ActionUpdateThread;
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class SwitchToBgtAction extends AnAction {
+                   @Override
+                   public ActionUpdateThread getActionUpdateThread() {
+                       return ActionUpdateThread.EDT;
+                   }
+
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                   }
+
+                   @Override
+                   public void update(AnActionEvent e) {
+                       ReferencesSearch.sea<caret>rch(e.getData(CommonDataKeys.PSI_ELEMENT)).findFirst();
+                   }
+                }""",
+            """
+                import com.intellij.openapi.actionSystem.ActionUpdateThread;
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class SwitchToBgtAction extends AnAction {
+                   @Override
+                   public ActionUpdateThread getActionUpdateThread() {
+                       return ActionUpdateThread.BGT;
+                   }
+
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                   }
+
+                   @Override
+                   public void update(AnActionEvent e) {
+                       ReferencesSearch.search(e.getData(CommonDataKeys.PSI_ELEMENT)).findFirst();
+                   }
+                }""");
+    }
+
+    public void testMoveToBackgroundTask() {
+        doQuickFixTest("Move to Task.Backgroundable", "WaitAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+
+                public class WaitAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       long millis = 1000;
+                       Thread.sle<caret>ep(millis);
+                       System.out.println(millis);
+                   }
+                }""",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.progress.ProgressIndicator;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.openapi.progress.Task;
+                import org.jetbrains.annotations.NotNull;
+
+                public class WaitAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       long millis = 1000;
+                       ProgressManager.getInstance().run(new Task.Backgroundable(e.getProject(), "Wait") {
+                           @Override
+                           public void run(@NotNull ProgressIndicator indicator) {
+                               Thread.sleep(millis);
+                           }
+
+                           @Override
+                           public void onSuccess() {
+                               System.out.println(millis);
+                           }
+                       });
+                   }
+                }""");
+    }
+
+    public void testMoveToBackgroundTaskWithoutFollowingStatements() {
+        doQuickFixTest("Move to Task.Backgroundable", "WaitAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+
+                public class WaitAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       Thread.sle<caret>ep(1000);
+                   }
+                }""",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.progress.ProgressIndicator;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.openapi.progress.Task;
+                import org.jetbrains.annotations.NotNull;
+
+                public class WaitAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       ProgressManager.getInstance().run(new Task.Backgroundable(e.getProject(), "Wait") {
+                           @Override
+                           public void run(@NotNull ProgressIndicator indicator) {
+                               Thread.sleep(1000);
+                           }
+                       });
+                   }
+                }""");
+    }
+
+    public void testMoveToBackgroundTaskWithResultField() {
+        doQuickFixTest("Move to Task.Backgroundable", "FetchContentAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.ui.Messages;
+                import java.nio.file.Files;
+                import java.nio.file.Path;
+
+                public class FetchContentAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       Path path = Path.of("content.txt");
+                       String content = Files.readStr<caret>ing(path);
+                       Messages.showInfoMessage(content, "Content");
+                   }
+                }""",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.progress.ProgressIndicator;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.openapi.progress.Task;
+                import com.intellij.openapi.ui.Messages;
+                import org.jetbrains.annotations.NotNull;
+
+                import java.nio.file.Files;
+                import java.nio.file.Path;
+
+                public class FetchContentAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       Path path = Path.of("content.txt");
+                       ProgressManager.getInstance().run(new Task.Backgroundable(e.getProject(), "Fetch content") {
+                           private String content;
+
+                           @Override
+                           public void run(@NotNull ProgressIndicator indicator) {
+                               content = Files.readString(path);
+                           }
+
+                           @Override
+                           public void onSuccess() {
+                               Messages.showInfoMessage(content, "Content");
+                           }
+                       });
+                   }
+                }""");
+    }
+
+    public void testNoMoveEventAccessToBackgroundTask() {
+        doNoQuickFixTest("Move to Task.Backgroundable", "ReadFileAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import java.nio.file.Files;
+
+                public class ReadFileAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       var bytes = Files.readAllByt<caret>es(e.getData(CommonDataKeys.VIRTUAL_FILE).toNioPath());
+                       System.out.println(bytes.length);
+                   }
+                }""");
+    }
+
+    public void testNoMoveSearchToBackgroundTask() {
+        doNoQuickFixTest("Move to Task.Backgroundable", "FindReferencesAction.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class FindReferencesAction extends AnAction {
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       var element = e.getData(CommonDataKeys.PSI_ELEMENT);
+                       var references = ReferencesSearch.sea<caret>rch(element).findAll();
+                       System.out.println(references.size());
+                   }
+                }""");
+    }
+}
@@ -0,0 +1,191 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link ExpensiveSearchInHotPathInspection}.
+ */
+public class ExpensiveSearchInHotPathInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new ExpensiveSearchInHotPathInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testSearchInVisitor() {
+        doJavaTest("SearchInVisitor.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.JavaPsiFacade;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.search.GlobalSearchScope;
+                import com.intellij.psi.search.searches.ClassInheritorsSearch;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class SearchInVisitor extends JavaElementVisitor {
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       var references = ReferencesSearch.<warning descr="ReferencesSearch.search() is called without caching in a frequently called method, e.g. for every visited element, or on every action update. Consider caching its result.">search</warning>(method).findAll();
+                       var psiClass = JavaPsiFacade.getInstance(method.getProject()).<warning descr="JavaPsiFacade.findClass() is called without caching in a frequently called method, e.g. for every visited element, or on every action update. Consider caching its result.">findClass</warning>("java.util.List", GlobalSearchScope.allScope(method.getProject()));
+                       var inProjectScope = JavaPsiFacade.getInstance(method.getProject()).findClass("java.util.List", GlobalSearchScope.projectScope(method.getProject()));
+                       helper(method.getContainingClass());
+                   }
+
+                   private void helper(PsiClass psiClass) {
+                       var inheritors = ClassInheritorsSearch.<warning descr="ClassInheritorsSearch.search() is called without caching in a frequently called method, e.g. for every visited element, or on every action update. Consider caching its result.">search</warning>(psiClass).findAll();
+                   }
+
+                   private void notCalledFromVisitor(PsiClass psiClass) {
+                       var inheritors = ClassInheritorsSearch.search(psiClass).findAll();
+                   }
+                }""");
+    }
+
+    public void testSearchInActionUpdate() {
+        doJavaTest("SearchInActionUpdate.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.actionSystem.AnActionEvent;
+                import com.intellij.openapi.actionSystem.CommonDataKeys;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class SearchInActionUpdate extends AnAction {
+                   @Override
+                   public void update(AnActionEvent e) {
+                       var element = e.getData(CommonDataKeys.PSI_ELEMENT);
+                       e.getPresentation().setEnabled(ReferencesSearch.<warning descr="ReferencesSearch.search() is called without caching in a frequently called method, e.g. for every visited element, or on every action update. Consider caching its result.">search</warning>(element).findFirst() != null);
+                   }
+
+                   @Override
+                   public void actionPerformed(AnActionEvent e) {
+                       var element = e.getData(CommonDataKeys.PSI_ELEMENT);
+                       ReferencesSearch.search(element).findAll();
+                   }
+                }""");
+    }
+
+    public void testNoHighlightInCachedValueProvider() {
+        doJavaTest("NoHighlightInCachedValueProvider.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class NoHighlightInCachedValueProvider extends JavaElementVisitor {
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       var references = CachedValuesManager.getCachedValue(method,
+                           () -> CachedValueProvider.Result.create(ReferencesSearch.search(method).findAll(), PsiModificationTracker.MODIFICATION_COUNT));
+                   }
+                }""");
+    }
+
+    public void testCacheSearchResult() {
+        doQuickFixTest("Cache result on 'method' with dependency: PsiModificationTracker.MODIFICATION_COUNT", "CacheSearchResult.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class CacheSearchResult extends JavaElementVisitor {
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       var references = ReferencesSearch.sea<caret>rch(method).findAll();
+                   }
+                }""",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class CacheSearchResult extends JavaElementVisitor {
+                   @Override
+                   public void visitMethod(PsiMethod method) {
+                       var references = CachedValuesManager.getCachedValue(method, () -> CachedValueProvider.Result.create(ReferencesSearch.search(method).findAll(), PsiModificationTracker.MODIFICATION_COUNT));
+                   }
+                }""");
+    }
+
+    public void testCacheClassSearchResult() {
+        addKotlinLanguageClass();
+        doQuickFixTest("Cache result on 'psiClass' with dependency: PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())",
+            "CacheClassSearchResult.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.search.searches.ClassInheritorsSearch;
+
+                public class CacheClassSearchResult extends JavaElementVisitor {
+                   @Override
+                   public void visitClass(PsiClass psiClass) {
+                       var inheritors = ClassInheritorsSearch.sea<caret>rch(psiClass).findAll();
+                   }
+                }""",
+            """
+                import com.intellij.lang.java.JavaLanguage;
+                import com.intellij.openapi.roots.ProjectRootModificationTracker;
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.search.searches.ClassInheritorsSearch;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+                import org.jetbrains.kotlin.idea.KotlinLanguage;
+
+                public class CacheClassSearchResult extends JavaElementVisitor {
+                   @Override
+                   public void visitClass(PsiClass psiClass) {
+                       var inheritors = CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(ClassInheritorsSearch.search(psiClass).findAll(), PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE) || language.isKindOf(KotlinLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())));
+                   }
+                }""");
+    }
+
+    public void testCacheClassSearchResultWithoutKotlinPlugin() {
+        doQuickFixTest("Cache result on 'psiClass' with dependency: PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())",
+            "CacheClassSearchResultWithoutKotlinPlugin.java",
+            """
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.search.searches.ClassInheritorsSearch;
+
+                public class CacheClassSearchResultWithoutKotlinPlugin extends JavaElementVisitor {
+                   @Override
+                   public void visitClass(PsiClass psiClass) {
+                       var inheritors = ClassInheritorsSearch.sea<caret>rch(psiClass).findAll();
+                   }
+                }""",
+            """
+                import com.intellij.lang.java.JavaLanguage;
+                import com.intellij.openapi.roots.ProjectRootModificationTracker;
+                import com.intellij.psi.JavaElementVisitor;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.search.searches.ClassInheritorsSearch;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class CacheClassSearchResultWithoutKotlinPlugin extends JavaElementVisitor {
+                   @Override
+                   public void visitClass(PsiClass psiClass) {
+                       var inheritors = CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(ClassInheritorsSearch.search(psiClass).findAll(), PsiModificationTracker.getInstance(psiClass.getProject()).forLanguages(language -> language.isKindOf(JavaLanguage.INSTANCE)), ProjectRootModificationTracker.getInstance(psiClass.getProject())));
+                   }
+                }""");
+    }
+}
@@ -0,0 +1,288 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link HeavyObjectRetainedInFieldInspection}.
+ */
+public class HeavyObjectRetainedInFieldInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new HeavyObjectRetainedInFieldInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testFieldsInLightService() {
+        doJavaTest("FieldsInLightService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.util.Key;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.SmartPsiElementPointer;
+
+                @Service
+                public final class FieldsInLightService {
+                   private static final Key<PsiElement> KEY = Key.create("key");
+                   private PsiClass <warning descr="'PsiClass' is retained as long as the service or extension lives, which may leak memory after reparse or project close.">psiClass</warning>;
+                   private PsiElement[] <warning descr="'PsiElement[]' is retained as long as the service or extension lives, which may leak memory after reparse or project close.">elements</warning>;
+                   private Project <warning descr="'Project' is retained as long as the service or extension lives, which may leak memory after reparse or project close.">project</warning>;
+                   private SmartPsiElementPointer<PsiClass> pointer;
+                   private String name;
+                }""");
+    }
+
+    public void testNoHighlightForProjectInProjectLevelService() {
+        doJavaTest("ProjectLevelService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service(Service.Level.PROJECT)
+                public final class ProjectLevelService {
+                   private final Project project;
+
+                   public ProjectLevelService(Project project) {
+                       this.project = project;
+                   }
+                }""");
+    }
+
+    public void testNoHighlightInNonServiceClass() {
+        doJavaTest("NotAService.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                public final class NotAService {
+                   private PsiClass psiClass;
+                }""");
+    }
+
+    public void testConvertToSmartPointer() {
+        doQuickFixTest("Convert to SmartPsiElementPointer", "ConvertToSmartPointer.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+
+                @Service
+                public final class ConvertToSmartPointer {
+                   private PsiClass psi<caret>Class;
+
+                   public void setPsiClass(PsiClass psiClass) {
+                       this.psiClass = psiClass;
+                   }
+
+                   public String getName() {
+                       return psiClass.getName();
+                   }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.SmartPointerManager;
+                import com.intellij.psi.SmartPsiElementPointer;
+
+                @Service
+                public final class ConvertToSmartPointer {
+                   private SmartPsiElementPointer<PsiClass> psiClass;
+
+                   public void setPsiClass(PsiClass psiClass) {
+                       this.psiClass = psiClass != null ? SmartPointerManager.createPointer(psiClass) : null;
+                   }
+
+                   public String getName() {
+                       return psiClass.getElement().getName();
+                   }
+                }""");
+    }
+
+    public void testConvertToSmartPointerWithAssignedValueReadingField() {
+        doQuickFixTest("Convert to SmartPsiElementPointer", "ConvertToSmartPointerWithAssignedValueReadingField.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+
+                @Service
+                public final class ConvertToSmartPointerWithAssignedValueReadingField {
+                   private PsiClass psi<caret>Class;
+
+                   public void moveToContainingClass() {
+                       psiClass = psiClass.getContainingClass();
+                   }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.SmartPointerManager;
+                import com.intellij.psi.SmartPsiElementPointer;
+                import com.intellij.util.ObjectUtils;
+
+                @Service
+                public final class ConvertToSmartPointerWithAssignedValueReadingField {
+                   private SmartPsiElementPointer<PsiClass> psiClass;
+
+                   public void moveToContainingClass() {
+                       psiClass = ObjectUtils.doIfNotNull(psiClass.getElement().getContainingClass(), SmartPointerManager::createPointer);
+                   }
+                }""");
+    }
+
+    public void testConvertToSmartPointerWithLazyInitialization() {
+        doQuickFixTest("Convert to SmartPsiElementPointer", "LazyInitialization.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+
+                @Service
+                public final class LazyInitialization {
+                   private PsiClass psi<caret>Class;
+
+                   public PsiClass getPsiClass(PsiFile file) {
+                       if (psiClass == null) {
+                           psiClass = findClass(file);
+                       }
+                       return psiClass;
+                   }
+
+                   public boolean isInitialized() {
+                       return null != psiClass;
+                   }
+
+                   private static PsiClass findClass(PsiFile file) {
+                       return null;
+                   }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.SmartPointerManager;
+                import com.intellij.psi.SmartPsiElementPointer;
+                import com.intellij.util.ObjectUtils;
+
+                @Service
+                public final class LazyInitialization {
+                   private SmartPsiElementPointer<PsiClass> psiClass;
+
+                   public PsiClass getPsiClass(PsiFile file) {
+                       if (psiClass == null || psiClass.getElement() == null) {
+                           psiClass = ObjectUtils.doIfNotNull(findClass(file), SmartPointerManager::createPointer);
+                       }
+                       return psiClass != null ? psiClass.getElement() : null;
+                   }
+
+                   public boolean isInitialized() {
+                       return psiClass != null && psiClass.getElement() != null;
+                   }
+
+                   private static PsiClass findClass(PsiFile file) {
+                       return null;
+                   }
+                }""");
+    }
+
+    public void testConvertToWeakReferenceWithNullGuard() {
+        doQuickFixTest("Convert to WeakReference", "NullGuard.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.editor.Editor;
+
+                @Service
+                public final class NullGuard {
+                   private Editor edi<caret>tor;
+
+                   public void setEditor(Editor editor) {
+                       this.editor = editor;
+                   }
+
+                   public int getLineCount() {
+                       if (editor != null) {
+                           return editor.getDocument().getLineCount();
+                       }
+                       return 0;
+                   }
+
+                   public void reset() {
+                       editor = null;
+                   }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.editor.Editor;
+
+                import java.lang.ref.WeakReference;
+
+                @Service
+                public final class NullGuard {
+                   private WeakReference<Editor> editor;
+
+                   public void setEditor(Editor editor) {
+                       this.editor = new WeakReference<>(editor);
+                   }
+
+                   public int getLineCount() {
+                       if (editor != null && editor.get() != null) {
+                           return editor.get().getDocument().getLineCount();
+                       }
+                       return 0;
+                   }
+
+                   public void reset() {
+                       editor = null;
+                   }
+                }""");
+    }
+
+    public void testMakeServiceProjectLevel() {
+        doQuickFixTest("Make service project-level", "MakeServiceProjectLevel.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class MakeServiceProjectLevel {
+                   private Project pro<caret>ject;
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service(Service.Level.PROJECT)
+                public final class MakeServiceProjectLevel {
+                   private Project project;
+
+                    public MakeServiceProjectLevel(Project project) {
+                        this.project = project;
+                    }
+                }""");
+    }
+
+    public void testNoMakeServiceProjectLevelWithApplicationLevelLookup() {
+        doNoQuickFixTest("Make service project-level", "NoMakeServiceProjectLevelWithApplicationLevelLookup.java",
+            """
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class NoMakeServiceProjectLevelWithApplicationLevelLookup {
+                   private Project pro<caret>ject;
+
+                   public static NoMakeServiceProjectLevelWithApplicationLevelLookup getInstance() {
+                       return ApplicationManager.getApplication().getService(NoMakeServiceProjectLevelWithApplicationLevelLookup.class);
+                   }
+                }""");
+    }
+}
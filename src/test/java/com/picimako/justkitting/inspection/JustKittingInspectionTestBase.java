@@ -61,4 +61,35 @@ public abstract class JustKittingInspectionTestBase extends JustKittingTestBase
         myFixture.launchAction(myFixture.findSingleIntention(quickFixName));
         myFixture.checkResult(afterText);
     }
+
+    /**
+     * Tests that the argument quick fix is not available at the caret in the provided text, for the pre-configured inspection.
+     *
+     * @param quickFixName the name/text of the quick fix
+     * @param filename     the filename in which the text will be configured
+     * @param text         the code to look for the quick fix in
+     */
+    protected void doNoQuickFixTest(String quickFixName, String filename, String text) {
+        myFixture.configureByText(filename, text);
+        myFixture.enableInspections(getInspection());
+        myFixture.doHighlighting();
+        assertEmpty(myFixture.filterAvailableIntentions(quickFixName));
+    }
+
+    /**
+     * Adds a stub of the Kotlin plugin's {@code KotlinLanguage} class to the project, for code that is available only
+     * when the tested plugin code depends on the Kotlin plugin.
+     */
+    protected void addKotlinLanguageClass() {
+        myFixture.addClass("""
+            package org.jetbrains.kotlin.idea;
+
+            public final class KotlinLanguage extends com.intellij.lang.Language {
+                public static final KotlinLanguage INSTANCE = new KotlinLanguage();
+
+                private KotlinLanguage() {
+                    super("kotlin");
+                }
+            }""");
+    }
 }
@@ -0,0 +1,57 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link KotlinCallMatcherInspection}.
+ */
+public class KotlinCallMatcherInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new KotlinCallMatcherInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testNonExistentMethod() {
+        doJavaTest("CallMatcherNonexistentMethod.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                const val JAVA_UTIL_LIST = "java.util.List"
+
+                class CallMatcherNonexistentMethod {
+                   val callMatcherInstance1 = CallMatcher.instanceCall("java.util.List", "add")
+                   val callMatcherInstance2 = CallMatcher.instanceCall("java.util.List", <error descr="No instance method exists with this name in the referenced class or any of its super classes.">"asdasd"</error>)
+                   val callMatcherInstance3 = CallMatcher.instanceCall(JAVA_UTIL_LIST, <error descr="No instance method exists with this name in the referenced class or any of its super classes.">"asdasd"</error>)
+
+                   val callMatcherStatic1 = CallMatcher.staticCall("java.text.MessageFormat", "format")
+                   val callMatcherStatic2 = CallMatcher.staticCall("java.lang.String", <error descr="No static method exists with this name in the referenced class or any of its super classes.">"chars"</error>)
+
+                   val callMatcherExactInstance1 = CallMatcher.exactInstanceCall("java.util.List", "isEmpty")
+                   val callMatcherExactInstance2 = CallMatcher.exactInstanceCall("java.util.List", <error descr="No instance method exists with this name in the referenced class.">"removeIf"</error>)
+                }""");
+    }
+
+    public void testNoProblemForNonResolvableClassOrNonCallMatcherCall() {
+        doJavaTest("CallMatcherNoProblem.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                fun instanceCall(className: String, vararg methodNames: String) = Unit
+
+                class CallMatcherNoProblem {
+                   val callMatcher = CallMatcher.instanceCall("com.nonexistent.Class", "asdasd")
+                   val notCallMatcher = instanceCall("java.util.List", "asdasd")
+                   val interpolated = CallMatcher.instanceCall("java.util.List", "${'$'}{"asd"}asd")
+                }""");
+    }
+}
@@ -0,0 +1,72 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link KotlinOptimizeExpressionsInspection}.
+ */
+public class KotlinOptimizeExpressionsInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new KotlinOptimizeExpressionsInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testGetTextComparisons() {
+        doJavaTest("GetText.kt",
+            """
+                import com.intellij.psi.PsiIdentifier
+                import com.intellij.psi.PsiMethod
+
+                fun check(method: PsiMethod, other: PsiMethod, identifier: PsiIdentifier, name: String) {
+                   val b1 = <warning descr="getText() creates the text of the element. You can call textMatches() instead.">method.text == "text"</warning>
+                   val b2 = <warning descr="getText() creates the text of the element. You can call textMatches() instead.">method.text != other.text</warning>
+                   val b3 = method.text == name
+                   val b4 = <warning descr="getText() creates the text of the element. You can call getTextLength() instead.">method.text.isEmpty()</warning>
+                   val length = <warning descr="getText() creates the text of the element. You can call getTextLength() instead.">method.text.length</warning>
+                   val b5 = method.text.<warning descr="getText().endsWith() creates the text of the element. Consider checking the element type of its last leaf element instead, e.g. via PsiTreeUtil.getDeepestLast().">endsWith</warning>(";")
+                   val b6 = identifier.text.startsWith("get")
+                }""");
+    }
+
+    public void testReplaceTextEqualityWithTextMatches() {
+        doQuickFixTest("Replace with textMatches()", "GetText.kt",
+            """
+                import com.intellij.psi.PsiMethod
+
+                fun check(method: PsiMethod) {
+                   val b = method.text <caret>!= "text"
+                }""",
+            """
+                import com.intellij.psi.PsiMethod
+
+                fun check(method: PsiMethod) {
+                   val b = !method.textMatches("text")
+                }""");
+    }
+
+    public void testReplaceTextIsNotEmptyWithTextLength() {
+        doQuickFixTest("Replace with textLength", "GetText.kt",
+            """
+                import com.intellij.psi.PsiMethod
+
+                fun check(method: PsiMethod) {
+                   val b = method.text.isNot<caret>Empty()
+                }""",
+            """
+                import com.intellij.psi.PsiMethod
+
+                fun check(method: PsiMethod) {
+                   val b = method.textLength != 0
+                }""");
+    }
+}
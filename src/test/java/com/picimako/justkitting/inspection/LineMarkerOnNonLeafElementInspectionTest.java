@@ -0,0 +1,125 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link LineMarkerOnNonLeafElementInspection}.
+ */
+public class LineMarkerOnNonLeafElementInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new LineMarkerOnNonLeafElementInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testLineMarkersOnNonLeafElements() {
+        doJavaTest("MethodLineMarkerProvider.java",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+                import com.intellij.openapi.editor.markup.GutterIconRenderer;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiIdentifier;
+                import com.intellij.psi.PsiMethod;
+
+                public class MethodLineMarkerProvider implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       if (element instanceof PsiMethod method) {
+                           var info = new LineMarkerInfo<>(<warning descr="Line marker is attached to a 'PsiMethod', which is not a leaf element. Attach it to a leaf element, e.g. an identifier, so that it can be collected for the visible area only.">method</warning>, method.getTextRange(), null, e -> "Method", null, GutterIconRenderer.Alignment.LEFT, () -> "Method");
+                           return NavigationGutterIconBuilder.create(null).createLineMarkerInfo(<warning descr="Line marker is attached to a 'PsiMethod', which is not a leaf element. Attach it to a leaf element, e.g. an identifier, so that it can be collected for the visible area only.">method</warning>);
+                       }
+                       if (element instanceof PsiIdentifier identifier) {
+                           return NavigationGutterIconBuilder.create(null).createLineMarkerInfo(identifier);
+                       }
+                       return NavigationGutterIconBuilder.create(null).createLineMarkerInfo(element);
+                   }
+                }""");
+    }
+
+    public void testRetargetToNameIdentifier() {
+        doQuickFixTest("Retarget to name identifier", "RetargetToNameIdentifier.java",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.openapi.editor.markup.GutterIconRenderer;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+
+                public class RetargetToNameIdentifier implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       if (element instanceof PsiMethod method) {
+                           return new LineMarkerInfo<>(met<caret>hod, method.getTextRange(), null, e -> "Method", null, GutterIconRenderer.Alignment.LEFT, () -> "Method");
+                       }
+                       return null;
+                   }
+                }""",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.openapi.editor.markup.GutterIconRenderer;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+                import com.intellij.util.ObjectUtils;
+
+                public class RetargetToNameIdentifier implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       if (element instanceof PsiMethod method) {
+                           return new LineMarkerInfo<>(ObjectUtils.notNull(method.getNameIdentifier(), PsiTreeUtil.getDeepestFirst(method)), ObjectUtils.notNull(method.getNameIdentifier(), PsiTreeUtil.getDeepestFirst(method)).getTextRange(), null, e -> "Method", null, GutterIconRenderer.Alignment.LEFT, () -> "Method");
+                       }
+                       return null;
+                   }
+                }""");
+    }
+
+    public void testRetargetToFirstLeafElement() {
+        doQuickFixTest("Retarget to first leaf element", "RetargetToFirstLeaf.java",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiExpression;
+
+                public class RetargetToFirstLeaf implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       if (element instanceof PsiExpression expression) {
+                           return NavigationGutterIconBuilder.create(null).createLineMarkerInfo(expr<caret>ession);
+                       }
+                       return null;
+                   }
+                }""",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiExpression;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public class RetargetToFirstLeaf implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       if (element instanceof PsiExpression expression) {
+                           return NavigationGutterIconBuilder.create(null).createLineMarkerInfo(PsiTreeUtil.getDeepestFirst(expression));
+                       }
+                       return null;
+                   }
+                }""");
+    }
+}
@@ -0,0 +1,170 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link LockAcquisitionInLoopInspection}.
+ */
+public class LockAcquisitionInLoopInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new LockAcquisitionInLoopInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testLockAcquisitionsInLoops() {
+        doJavaTest("LockAcquisitions.java",
+            """
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.application.WriteAction;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.List;
+
+                public class LockAcquisitions {
+                   void process(List<PsiFile> files) {
+                       for (PsiFile file : files) {
+                           String name = ReadAction.<warning descr="ReadAction.compute() acquires the read lock for every element, which thrashes against pending write actions. Consider acquiring it once for the whole loop, and checking for cancellation in each iteration.">compute</warning>(() -> file.getName());
+                           WriteAction.<warning descr="WriteAction.run() acquires the write lock for every element, and lets pending read actions restart in between. Consider acquiring it once for the whole loop.">run</warning>(() -> file.delete());
+                       }
+                       files.forEach(file -> ApplicationManager.getApplication().<warning descr="Application.runReadAction() acquires the read lock for every element, which thrashes against pending write actions. Consider acquiring it once for the whole loop, and checking for cancellation in each iteration.">runReadAction</warning>(() -> file.getName()));
+                   }
+
+                   void notInLoop(PsiFile file) {
+                       String name = ReadAction.compute(() -> file.getName());
+                   }
+
+                   void alreadyInReadAction(List<PsiFile> files) {
+                       ReadAction.run(() -> {
+                           for (PsiFile file : files) {
+                               String name = ReadAction.compute(() -> file.getName());
+                           }
+                       });
+                   }
+                }""");
+    }
+
+    public void testHoistReadAction() {
+        doQuickFixTest("Acquire read action once around the loop", "HoistReadAction.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.List;
+
+                public class HoistReadAction {
+                    void process(List<PsiFile> files) {
+                        for (PsiFile file : files) {
+                            String name = ReadAction.comp<caret>ute(() -> file.getName());
+                            System.out.println(name);
+                        }
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.List;
+
+                public class HoistReadAction {
+                    void process(List<PsiFile> files) {
+                        ReadAction.run(() -> {
+                            for (PsiFile file : files) {
+                                ProgressManager.checkCanceled();
+                                String name = file.getName();
+                                System.out.println(name);
+                            }
+                        });
+                    }
+                }""");
+    }
+
+    public void testHoistReadActionFillingOuterCollection() {
+        doQuickFixTest("Acquire read action once around the loop", "HoistReadActionIntoCollection.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public class HoistReadActionIntoCollection {
+                    List<String> collectNames(List<PsiFile> files) {
+                        List<String> results = new ArrayList<>();
+                        for (PsiFile file : files) {
+                            results.add(ReadAction.comp<caret>ute(() -> file.getName()));
+                        }
+                        return results;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public class HoistReadActionIntoCollection {
+                    List<String> collectNames(List<PsiFile> files) {
+                        List<String> results = new ArrayList<>();
+                        ReadAction.run(() -> {
+                            for (PsiFile file : files) {
+                                ProgressManager.checkCanceled();
+                                results.add(file.getName());
+                            }
+                        });
+                        return results;
+                    }
+                }""");
+    }
+
+    public void testHoistReadActionWithBlockLambda() {
+        doQuickFixTest("Acquire read action once around the loop", "HoistBlockReadAction.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.List;
+
+                public class HoistBlockReadAction {
+                    void process(List<PsiFile> files) {
+                        for (PsiFile file : files)
+                            ReadAction.r<caret>un(() -> {
+                                String name = file.getName();
+                                System.out.println(name);
+                            });
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.psi.PsiFile;
+
+                import java.util.List;
+
+                public class HoistBlockReadAction {
+                    void process(List<PsiFile> files) {
+                        ReadAction.run(() -> {
+                            for (PsiFile file : files) {
+                                ProgressManager.checkCanceled();
+                                String name = file.getName();
+                                System.out.println(name);
+                            }
+                        });
+                    }
+                }""");
+    }
+}
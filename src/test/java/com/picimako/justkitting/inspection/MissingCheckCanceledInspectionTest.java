@@ -0,0 +1,128 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link MissingCheckCanceledInspection}.
+ */
+public class MissingCheckCanceledInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new MissingCheckCanceledInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testLoopsInReadAction() {
+        doJavaTest("ReadActionLoops.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public class ReadActionLoops {
+                   void process(PsiFile file, PsiMethod method) {
+                       ReadAction.run(() -> {
+                           for (PsiReference reference : <warning descr="Loop over ReferencesSearch.search() doesn't check for cancellation in a read action. It may delay pending write actions, thus cause typing lag.">ReferencesSearch.search(method)</warning>) {
+                               reference.resolve();
+                           }
+                           for (PsiReference reference : ReferencesSearch.search(method).findAll()) {
+                               ProgressManager.checkCanceled();
+                               reference.resolve();
+                           }
+                           var names = PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).<warning descr="Stream over PsiTreeUtil.findChildrenOfType() doesn't check for cancellation in a read action. It may delay pending write actions, thus cause typing lag.">stream</warning>().map(PsiMethod::getName).toList();
+                       });
+                   }
+
+                   void notInReadAction(PsiMethod method) {
+                       for (PsiReference reference : ReferencesSearch.search(method)) {
+                           reference.resolve();
+                       }
+                   }
+                }""");
+    }
+
+    public void testInsertCheckCanceled() {
+        doQuickFixTest("Insert ProgressManager.checkCanceled()", "InsertCheckCanceled.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class InsertCheckCanceled {
+                   void process(PsiMethod method) {
+                       ReadAction.run(() -> {
+                           for (PsiReference reference : ReferencesSearch.search(method).find<caret>All()) {
+                               reference.resolve();
+                           }
+                       });
+                   }
+                }""",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.progress.ProgressManager;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class InsertCheckCanceled {
+                   void process(PsiMethod method) {
+                       ReadAction.run(() -> {
+                           for (PsiReference reference : ReferencesSearch.search(method).findAll()) {
+                               ProgressManager.checkCanceled();
+                               reference.resolve();
+                           }
+                       });
+                   }
+                }""");
+    }
+
+    public void testConvertToQueryProcessor() {
+        doQuickFixTest("Replace with Query.forEach(Processor)", "QueryProcessor.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class QueryProcessor {
+                    void process(PsiMethod method) {
+                        ReadAction.run(() -> {
+                            for (PsiReference reference : ReferencesSearch.sea<caret>rch(method)) {
+                                reference.resolve();
+                            }
+                        });
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.PsiReference;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                public class QueryProcessor {
+                    void process(PsiMethod method) {
+                        ReadAction.run(() -> {
+                            ReferencesSearch.search(method).forEach(reference -> {
+                                reference.resolve();
+                                return true;
+                            });
+                        });
+                    }
+                }""");
+    }
+}
@@ -18,6 +18,7 @@ public class OptimizeExpressionsInspectionTest extends JustKittingInspectionTest
     @Override
     protected void setUp() throws Exception {
         super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
         ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
     }
 
@@ -49,6 +50,139 @@ public class OptimizeExpressionsInspectionTest extends JustKittingInspectionTest
                 }""");
     }
 
+    public void testReplaceEmptyPrimitiveArrayCreationWithArrayUtilConstant() {
+        doQuickFixTest("Replace with ArrayUtil.EMPTY_INT_ARRAY", "EmptyArray.java",
+            """
+                class EmptyArray {
+                   int[] array = new i<caret>nt[0];
+                }""",
+            """
+                import com.intellij.util.ArrayUtil;
+
+                class EmptyArray {
+                   int[] array = ArrayUtil.EMPTY_INT_ARRAY;
+                }""");
+    }
+
+    public void testEmptyArrayCreationWithoutArrayUtilConstantIsNotReported() {
+        doJavaTest("EmptyArray.java",
+            """
+                import java.util.Map;
+
+                class EmptyArray {
+                   Map<?, ?>[] array = new Map[0];
+                }""");
+    }
+
+    //toArray(new String[0])
+
+    public void testReplaceToArrayWithToStringArray() {
+        doQuickFixTest("Replace with ArrayUtil.toStringArray()", "ToArray.java",
+            """
+                import java.util.List;
+
+                class ToArray {
+                   String[] method(List<String> names) {
+                       return names.to<caret>Array(new String[0]);
+                   }
+                }""",
+            """
+                import com.intellij.util.ArrayUtil;
+
+                import java.util.List;
+
+                class ToArray {
+                   String[] method(List<String> names) {
+                       return ArrayUtil.toStringArray(names);
+                   }
+                }""");
+    }
+
+    //SmartList
+
+    public void testArrayListReturnedFromPsiUtility() {
+        doJavaTest("PsiUtility.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                class PsiUtility {
+                   static List<PsiMethod> getMethods() {
+                       List<PsiMethod> methods = <weak_warning descr="Lists of PSI elements usually hold zero or one element. You can use SmartList instead.">new ArrayList<>()</weak_warning>;
+                       return methods;
+                   }
+
+                   static List<PsiElement> getElements() {
+                       return <weak_warning descr="Lists of PSI elements usually hold zero or one element. You can use SmartList instead.">new ArrayList<>()</weak_warning>;
+                   }
+
+                   static List<PsiElement> getElementsWithCapacity() {
+                       return new ArrayList<>(10);
+                   }
+
+                   static List<String> getNames() {
+                       return new ArrayList<>();
+                   }
+
+                   static List<PsiElement> getNotReturned() {
+                       List<PsiElement> elements = new ArrayList<>();
+                       return List.of();
+                   }
+                }""");
+    }
+
+    public void testReplaceArrayListWithSmartList() {
+        doQuickFixTest("Replace with SmartList", "PsiUtility.java",
+            """
+                import com.intellij.psi.PsiElement;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                class PsiUtility {
+                   static List<PsiElement> getElements() {
+                       return new Array<caret>List<>();
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.util.SmartList;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                class PsiUtility {
+                   static List<PsiElement> getElements() {
+                       return new SmartList<>();
+                   }
+                }""");
+    }
+
+    //getExpressions().length
+
+    public void testReplaceExpressionsLengthWithExpressionCount() {
+        doQuickFixTest("Replace with getExpressionCount()", "ExpressionCount.java",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+
+                class ExpressionCount {
+                   void method(PsiMethodCallExpression expression) {
+                       boolean b = expression.getArgumentList().getExpressions().len<caret>gth > 2;
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+
+                class ExpressionCount {
+                   void method(PsiMethodCallExpression expression) {
+                       boolean b = expression.getArgumentList().getExpressionCount() > 2;
+                   }
+                }""");
+    }
+
     //isEmpty with getExpressions().length comparison
 
     public void testReplaceExpressionsLengthEqualsZeroWithIsEmpty() {
@@ -198,7 +332,7 @@ public class OptimizeExpressionsInspectionTest extends JustKittingInspectionTest
 
                 class IsEmpty {
                    void method(PsiMethodCallExpression expression) {
-                       boolean b = expression.getArgumentList().getExpressions().length == 1;
+                       boolean b = <weak_warning descr="You can call getExpressionCount() instead.">expression.getArgumentList().getExpressions().length</weak_warning> == 1;
                    }
                 }""");
     }
@@ -210,7 +344,297 @@ public class OptimizeExpressionsInspectionTest extends JustKittingInspectionTest
 
                 class IsEmpty {
                    void method(PsiMethodCallExpression expression) {
-                       boolean b = expression.getArgumentList().getExpressions().length > 1;
+                       boolean b = <weak_warning descr="You can call getExpressionCount() instead.">expression.getArgumentList().getExpressions().length</weak_warning> > 1;
+                   }
+                }""");
+    }
+
+    public void testExpressionsLengthNotEqualsZeroIsReportedAsExpressionCount() {
+        doJavaTest("IsEmpty.java",
+            """
+                import com.intellij.psi.PsiMethodCallExpression;
+
+                class IsEmpty {
+                   void method(PsiMethodCallExpression expression) {
+                       boolean b = <weak_warning descr="You can call getExpressionCount() instead.">expression.getArgumentList().getExpressions().length</weak_warning> != 0;
+                       boolean c = 0 != <weak_warning descr="You can call getExpressionCount() instead.">expression.getArgumentList().getExpressions().length</weak_warning>;
+                       boolean d = <weak_warning descr="You can call getExpressionCount() instead.">expression.getArgumentList().getExpressions().length</weak_warning> < 0;
+                   }
+                }""");
+    }
+
+    public void testExpressionsLengthOfPlainExpressionListEqualsZero() {
+        doJavaTest("IsEmpty.java",
+            """
+                import com.intellij.psi.PsiExpressionList;
+
+                class IsEmpty {
+                   void method(PsiExpressionList list) {
+                       boolean b = <warning descr="You can call isEmpty() instead.">list.getExpressions().length == 0</warning>;
+                       boolean c = <warning descr="You can call !isEmpty() instead.">0 < list.getExpressions().length</warning>;
+                       boolean d = <weak_warning descr="You can call getExpressionCount() instead.">list.getExpressions().length</weak_warning> != 0;
+                   }
+                }""");
+    }
+
+    public void testExpressionsLengthOfReturnedExpressionListEqualsZeroIsReportedAsExpressionCount() {
+        doJavaTest("IsEmpty.java",
+            """
+                import com.intellij.psi.PsiExpressionList;
+
+                class IsEmpty {
+                   void method() {
+                       boolean b = <weak_warning descr="You can call getExpressionCount() instead.">getList().getExpressions().length</weak_warning> == 0;
+                   }
+
+                   PsiExpressionList getList() {
+                       return null;
+                   }
+                }""");
+    }
+
+    //getText() comparison
+
+    public void testGetTextComparisons() {
+        doJavaTest("GetText.java",
+            """
+                import com.intellij.psi.PsiIdentifier;
+                import com.intellij.psi.PsiMethod;
+
+                class GetText {
+                   void method(PsiMethod method, PsiMethod other, PsiIdentifier identifier, String name) {
+                       boolean b1 = <warning descr="getText() creates the text of the element. You can call textMatches() instead.">method.getText().equals("text")</warning>;
+                       boolean b2 = <warning descr="getText() creates the text of the element. You can call textMatches() instead.">"text".equals(method.getText())</warning>;
+                       boolean b3 = <warning descr="getText() creates the text of the element. You can call textMatches() instead.">method.getText().equals(other.getText())</warning>;
+                       boolean b4 = method.getText().equals(name);
+                       boolean b5 = <warning descr="getText() creates the text of the element. You can call getTextLength() instead.">method.getText().isEmpty()</warning>;
+                       int length = <warning descr="getText() creates the text of the element. You can call getTextLength() instead.">method.getText().length()</warning>;
+                       boolean b6 = method.getText().<warning descr="getText().startsWith() creates the text of the element. Consider checking the element type of its first leaf element instead, e.g. via PsiTreeUtil.getDeepestFirst().">startsWith</warning>("@");
+                       boolean b7 = method.getText().<warning descr="getText().endsWith() creates the text of the element. Consider checking the element type of its last leaf element instead, e.g. via PsiTreeUtil.getDeepestLast().">endsWith</warning>(";");
+                       boolean b8 = identifier.getText().startsWith("get");
+                   }
+                }""");
+    }
+
+    public void testReplaceGetTextEqualsWithTextMatches() {
+        doQuickFixTest("Replace with textMatches()", "GetText.java",
+            """
+                import com.intellij.psi.PsiMethod;
+
+                class GetText {
+                   void method(PsiMethod method) {
+                       boolean b = method.getText().equ<caret>als("text");
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiMethod;
+
+                class GetText {
+                   void method(PsiMethod method) {
+                       boolean b = method.textMatches("text");
+                   }
+                }""");
+    }
+
+    public void testReplaceNegatedGetTextIsEmptyWithGetTextLength() {
+        doQuickFixTest("Replace with getTextLength()", "GetText.java",
+            """
+                import com.intellij.psi.PsiMethod;
+
+                class GetText {
+                   void method(PsiMethod method) {
+                       boolean b = !method.getText().isEm<caret>pty();
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiMethod;
+
+                class GetText {
+                   void method(PsiMethod method) {
+                       boolean b = method.getTextLength() != 0;
+                   }
+                }""");
+    }
+
+    //Early-exit traversal
+
+    public void testCollectingTraversals() {
+        doJavaTest("Traversal.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+                import com.intellij.util.containers.ContainerUtil;
+
+                import java.util.Collection;
+
+                class Traversal {
+                   void method(PsiFile file) {
+                       boolean b1 = <weak_warning descr="findChildrenOfType() collects all matching descendants, although the traversal could stop at the first match.">PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).isEmpty()</weak_warning>;
+                       boolean b2 = <weak_warning descr="findChildrenOfType() collects all matching descendants, although the traversal could stop at the first match.">PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).size() > 0</weak_warning>;
+                       boolean b3 = PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).size() > 1;
+                       PsiMethod m1 = <weak_warning descr="findChildrenOfType() collects all matching descendants, although the traversal could stop at the first match.">PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).iterator().next()</weak_warning>;
+                       PsiMethod m2 = <weak_warning descr="findChildrenOfAnyType() collects all matching descendants, although the traversal could stop at the first match.">ContainerUtil.getFirstItem(PsiTreeUtil.findChildrenOfAnyType(file, PsiMethod.class, PsiClass.class))</weak_warning>;
+                       boolean b4 = <weak_warning descr="findChildrenOfType() collects all matching descendants, although the traversal could stop at the first match.">PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).stream().anyMatch(m -> m.isConstructor())</weak_warning>;
+                       Collection<PsiMethod> methods = PsiTreeUtil.findChildrenOfType(file, PsiMethod.class);
+                   }
+                }""");
+    }
+
+    public void testReplaceNegatedIsEmptyWithFindChildOfType() {
+        doQuickFixTest("Replace with findChildOfType()", "Traversal.java",
+            """
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                class Traversal {
+                   boolean method(PsiFile file) {
+                       return !PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).is<caret>Empty();
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                class Traversal {
+                   boolean method(PsiFile file) {
+                       return PsiTreeUtil.findChildOfType(file, PsiMethod.class) != null;
+                   }
+                }""");
+    }
+
+    public void testReplaceAnyMatchWithProcessElements() {
+        doQuickFixTest("Replace with processElements()", "Traversal.java",
+            """
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                class Traversal {
+                   boolean method(PsiFile file) {
+                       return PsiTreeUtil.findChildrenOfType(file, PsiMethod.class).stream().any<caret>Match(m -> m.isConstructor());
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.PsiMethod;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                class Traversal {
+                   boolean method(PsiFile file) {
+                       return !PsiTreeUtil.processElements(file, PsiMethod.class, m -> !m.isConstructor());
+                   }
+                }""");
+    }
+
+    //getChildren() iteration
+
+    public void testReplaceGetChildrenIterationWithSiblingWalk() {
+        doQuickFixTest("Replace with getFirstChild()/getNextSibling() walk", "Children.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child : element.getChil<caret>dren()) {
+                           if (child instanceof PsiMethod) {
+                               return;
+                           }
+                       }
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                           if (child instanceof PsiMethod) {
+                               return;
+                           }
+                       }
+                   }
+                }""");
+    }
+
+    public void testReplaceGetChildrenIterationWithSiblingWalkWhenSkippingNonCompositeChildren() {
+        doQuickFixTest("Replace with getFirstChild()/getNextSibling() walk", "Children.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiStatement;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child : element.getChil<caret>dren()) {
+                           if (!(child instanceof PsiStatement)) continue;
+                           System.out.println(child);
+                       }
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiStatement;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                           if (!(child instanceof PsiStatement)) continue;
+                           System.out.println(child);
+                       }
+                   }
+                }""");
+    }
+
+    public void testNoSiblingWalkWithoutFilteringCompositeChildren() {
+        doNoQuickFixTest("Replace with getFirstChild()/getNextSibling() walk", "Children.java",
+            """
+                import com.intellij.psi.PsiElement;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child : element.getChil<caret>dren()) {
+                           System.out.println(child);
+                       }
+                   }
+                }""");
+    }
+
+    public void testNoSiblingWalkWhenFilteringLeafChildren() {
+        doNoQuickFixTest("Replace with getFirstChild()/getNextSibling() walk", "Children.java",
+            """
+                import com.intellij.psi.PsiComment;
+                import com.intellij.psi.PsiElement;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child : element.getChil<caret>dren()) {
+                           if (child instanceof PsiComment) {
+                               System.out.println(child);
+                           }
+                       }
+                   }
+                }""");
+    }
+
+    public void testNoSiblingWalkWhenFilteringOnlyPartOfTheBody() {
+        doNoQuickFixTest("Replace with getFirstChild()/getNextSibling() walk", "Children.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiMethod;
+
+                class Children {
+                   void method(PsiElement element) {
+                       for (PsiElement child : element.getChil<caret>dren()) {
+                           if (child instanceof PsiMethod) {
+                               System.out.println(child);
+                           }
+                           System.out.println(child.getText());
+                       }
                    }
                 }""");
     }
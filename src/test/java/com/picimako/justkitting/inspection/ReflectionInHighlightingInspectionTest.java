@@ -0,0 +1,94 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link ReflectionInHighlightingInspection}.
+ */
+public class ReflectionInHighlightingInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new ReflectionInHighlightingInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testReflectionInAnnotator() {
+        doJavaTest("ReflectionAnnotator.java",
+            """
+                import com.intellij.lang.annotation.AnnotationHolder;
+                import com.intellij.lang.annotation.Annotator;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.util.ReflectionUtil;
+
+                import javax.swing.*;
+                import java.util.ServiceLoader;
+
+                public class ReflectionAnnotator implements Annotator {
+                   @Override
+                   public void annotate(PsiElement element, AnnotationHolder holder) {
+                       try {
+                           var iconsClass = Class.<warning descr="Class.forName() loads classes during highlighting, which may run on every keystroke. Consider caching the loaded class, e.g. in a static field, or referencing the class directly.">forName</warning>("com.intellij.icons.AllIcons");
+                           var method = iconsClass.<warning descr="Class.getDeclaredMethod() uses reflection during highlighting, which may run on every keystroke. Consider looking up the method or field once, and caching it in a static field.">getDeclaredMethod</warning>("toString");
+                       } catch (ReflectiveOperationException e) {
+                       }
+                       helper(element);
+                   }
+
+                   private void helper(PsiElement element) {
+                       var icon = ReflectionUtil.<warning descr="ReflectionUtil.getStaticFieldValue() uses reflection during highlighting, which may run on every keystroke. Consider looking up the method or field once, and caching it in a static field.">getStaticFieldValue</warning>(String.class, Icon.class, element.getText());
+                       var annotators = ServiceLoader.<warning descr="ServiceLoader.load() loads services during highlighting, which may run on every keystroke. Consider loading them once, or registering them as an extension point instead.">load</warning>(Annotator.class);
+                   }
+
+                   private void notCalledFromAnnotator() throws ClassNotFoundException {
+                       var iconsClass = Class.forName("com.intellij.icons.AllIcons");
+                   }
+                }""");
+    }
+
+    public void testNoHighlightInCachedValueProvider() {
+        doJavaTest("CachedIconLineMarkerProvider.java",
+            """
+                import com.intellij.codeInsight.daemon.LineMarkerInfo;
+                import com.intellij.codeInsight.daemon.LineMarkerProvider;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.util.ReflectionUtil;
+
+                import javax.swing.*;
+
+                public class CachedIconLineMarkerProvider implements LineMarkerProvider {
+                   @Override
+                   public LineMarkerInfo<?> getLineMarkerInfo(PsiElement element) {
+                       var icon = CachedValuesManager.getCachedValue(element,
+                           () -> CachedValueProvider.Result.create(ReflectionUtil.getStaticFieldValue(String.class, Icon.class, element.getText()), element));
+                       return null;
+                   }
+                }""");
+    }
+
+    public void testNoHighlightOutsideHighlighting() {
+        doJavaTest("NotAnExtension.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.util.ReflectionUtil;
+
+                import javax.swing.*;
+
+                public class NotAnExtension {
+                   public Icon getIcon(PsiElement element) {
+                       return ReflectionUtil.getStaticFieldValue(String.class, Icon.class, element.getText());
+                   }
+                }""");
+    }
+}
@@ -0,0 +1,210 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+
+/**
+ * Functional test for {@link UnboundedCacheInspection}.
+ */
+public class UnboundedCacheInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new UnboundedCacheInspection();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadUtil8(myFixture);
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    public void testCachesInLightService() {
+        doJavaTest("CachesInLightService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.vfs.VirtualFile;
+                import com.intellij.util.containers.ContainerUtil;
+
+                import java.util.HashMap;
+                import java.util.LinkedHashMap;
+                import java.util.Map;
+                import java.util.concurrent.ConcurrentHashMap;
+
+                @Service
+                public final class CachesInLightService {
+                   private final Map<VirtualFile, String> <warning descr="'fileCache' is only ever added to, and is retained as long as the service or extension lives, so it may grow without limit. Consider using weak keys, e.g. via ContainerUtil.createWeakMap(), a size bound, e.g. via SLRUMap, or a CachedValue.">fileCache</warning> = new HashMap<>();
+                   private final Map<String, Integer> <warning descr="'nameCache' is only ever added to, and is retained as long as the service or extension lives, so it may grow without limit. Consider using a size bound, e.g. via SLRUMap, or a CachedValue.">nameCache</warning> = new ConcurrentHashMap<>();
+                   private final Map<String, Integer> clearedCache = new HashMap<>();
+                   private final Map<VirtualFile, String> weakCache = ContainerUtil.createWeakMap();
+                   private final Map<String, String> boundedCache = new LinkedHashMap<>() {
+                       @Override
+                       protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                           return size() > 100;
+                       }
+                   };
+                   private final Map<Integer, String> notCacheKey = new HashMap<>();
+
+                   String getPath(VirtualFile file) {
+                       weakCache.put(file, file.getPath());
+                       boundedCache.put(file.getName(), file.getPath());
+                       notCacheKey.put(file.hashCode(), file.getPath());
+                       return fileCache.computeIfAbsent(file, VirtualFile::getPath);
+                   }
+
+                   int getLength(String name) {
+                       clearedCache.put(name, name.length());
+                       return nameCache.computeIfAbsent(name, String::length);
+                   }
+
+                   void dispose() {
+                       clearedCache.clear();
+                   }
+                }""");
+    }
+
+    public void testCachesInStaticHolder() {
+        doJavaTest("StaticHolder.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                import java.util.HashSet;
+                import java.util.Map;
+                import java.util.Set;
+                import java.util.concurrent.ConcurrentHashMap;
+
+                public final class StaticHolder {
+                   private static final Set<PsiClass> <warning descr="'VISITED' is only ever added to, and is retained as long as its class is loaded, so it may grow without limit. Consider using weak elements, e.g. via ContainerUtil.createWeakSet(), a size bound, or a CachedValue.">VISITED</warning> = new HashSet<>();
+                   private static final Map<String, PsiClass> EXPOSED = new ConcurrentHashMap<>();
+                   private final Map<String, PsiClass> instanceCache = new ConcurrentHashMap<>();
+
+                   static void visit(PsiClass psiClass) {
+                       VISITED.add(psiClass);
+                       EXPOSED.put(psiClass.getName(), psiClass);
+                   }
+
+                   static Map<String, PsiClass> getExposed() {
+                       return EXPOSED;
+                   }
+
+                   void cache(PsiClass psiClass) {
+                       instanceCache.put(psiClass.getName(), psiClass);
+                   }
+                }""");
+    }
+
+    public void testCachesPopulatedOnlyInInitializers() {
+        doJavaTest("Initializers.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+
+                import java.util.HashMap;
+                import java.util.HashSet;
+                import java.util.Map;
+                import java.util.Set;
+
+                @Service
+                public final class Initializers {
+                   private static final Set<String> NAMES = new HashSet<>();
+                   private final Map<String, Integer> lengths = new HashMap<>();
+                   private final Map<String, PsiClass> <warning descr="'classes' is only ever added to, and is retained as long as the service or extension lives, so it may grow without limit. Consider using a size bound, e.g. via SLRUMap, or a CachedValue.">classes</warning> = new HashMap<>();
+
+                   static {
+                       NAMES.add("a");
+                   }
+
+                   Initializers(PsiClass psiClass) {
+                       lengths.put("a", 1);
+                       Runnable cacheClass = () -> classes.put(psiClass.getName(), psiClass);
+                   }
+
+                   boolean isName(String name) {
+                       return NAMES.contains(name) || lengths.containsKey(name);
+                   }
+                }""");
+    }
+
+    public void testStaticCachePopulatedInConstructor() {
+        doJavaTest("StaticCachePopulatedInConstructor.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                import java.util.HashMap;
+                import java.util.Map;
+
+                public final class StaticCachePopulatedInConstructor {
+                   private static final Map<String, PsiClass> <warning descr="'CACHE' is only ever added to, and is retained as long as its class is loaded, so it may grow without limit. Consider using a size bound, e.g. via SLRUMap, or a CachedValue.">CACHE</warning> = new HashMap<>();
+                   private static Map<String, PsiClass> resetCache = new HashMap<>();
+
+                   StaticCachePopulatedInConstructor(PsiClass psiClass) {
+                       CACHE.put(psiClass.getName(), psiClass);
+                       resetCache = new HashMap<>();
+                   }
+
+                   {
+                       resetCache.put("a", null);
+                   }
+                }""");
+    }
+
+    public void testNestedClassCacheClearedFromEnclosingClass() {
+        doJavaTest("EnclosingClass.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                import java.util.HashMap;
+                import java.util.Map;
+
+                public final class EnclosingClass {
+                   static void reset() {
+                       Holder.CACHE.clear();
+                   }
+
+                   private static final class Holder {
+                       private static final Map<String, PsiClass> CACHE = new HashMap<>();
+
+                       static void cache(PsiClass psiClass) {
+                           CACHE.put(psiClass.getName(), psiClass);
+                       }
+                   }
+                }""");
+    }
+
+    public void testReplaceWithWeakMap() {
+        doQuickFixTest("Replace with ContainerUtil.createWeakMap()", "WeakMap.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.vfs.VirtualFile;
+
+                import java.util.HashMap;
+                import java.util.Map;
+
+                @Service
+                public final class WeakMap {
+                   private final Map<VirtualFile, String> file<caret>Cache = new HashMap<>();
+
+                   String getPath(VirtualFile file) {
+                       return fileCache.computeIfAbsent(file, VirtualFile::getPath);
+                   }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.vfs.VirtualFile;
+                import com.intellij.util.containers.ContainerUtil;
+
+                import java.util.Map;
+
+                @Service
+                public final class WeakMap {
+                   private final Map<VirtualFile, String> fileCache = ContainerUtil.createWeakMap();
+
+                   String getPath(VirtualFile file) {
+                       return fileCache.computeIfAbsent(file, VirtualFile::getPath);
+                   }
+                }""");
+    }
+}
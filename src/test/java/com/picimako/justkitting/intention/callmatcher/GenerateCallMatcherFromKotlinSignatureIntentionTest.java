@@ -0,0 +1,108 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.openapi.application.ex.ClipboardUtil;
+import com.intellij.psi.PsiFile;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+import com.picimako.justkitting.intention.JustKittingIntentionTestBase;
+
+/**
+ * Integration test for {@link GenerateCallMatcherFromKotlinSignatureIntention}.
+ */
+public class GenerateCallMatcherFromKotlinSignatureIntentionTest extends JustKittingIntentionTestBase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    @Override
+    protected IntentionAction getIntention() {
+        return new GenerateCallMatcherFromKotlinSignatureIntention();
+    }
+
+    //Availability
+
+    public void testNotAvailableOnNonFunctionIdentifier() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.kt",
+            """
+                class NotAva<caret>ilable {
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    public void testNotAvailableOnFunctionBody() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.kt",
+            """
+                class NotAvailable {
+                    fun function() {
+                        val x<caret> = 1
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    public void testAvailableOnFunctionIdentifier() {
+        PsiFile psiFile = myFixture.configureByText("Available.kt",
+            """
+                class Available {
+                    fun func<caret>tion() {
+                    }
+                }""");
+
+        checkIfAvailableIn(psiFile);
+    }
+
+    public void testAvailableOnFunctionCallIdentifier() {
+        PsiFile psiFile = myFixture.configureByText("Available.kt",
+            """
+                class Available {
+                    fun function() {
+                        functionTo<caret>Call()
+                    }
+                    fun functionToCall() {
+                    }
+                }""");
+
+        checkIfAvailableIn(psiFile);
+    }
+
+    //Generation
+
+    public void testGeneratesMatcherFromTopLevelFunction() {
+        PsiFile psiFile = myFixture.configureByText("Utils.kt",
+            """
+                package generate.call.matcher
+
+                fun topLevel<caret>Function(text: String) {
+                }""");
+        runIntentionOn(psiFile, getIntention());
+
+        assertThat(ClipboardUtil.getTextInClipboard()).isEqualTo(
+            "CallMatcher.staticCall(\"generate.call.matcher.UtilsKt\", \"topLevelFunction\").parameterTypes(\"java.lang.String\");");
+    }
+
+    public void testGeneratesMatcherFromFunctionCall() {
+        PsiFile psiFile = myFixture.configureByText("Utils.kt",
+            """
+                package generate.call.matcher
+
+                fun caller() {
+                    topLevel<caret>Function()
+                }
+
+                fun topLevelFunction() {
+                }""");
+        runIntentionOn(psiFile, getIntention());
+
+        assertThat(ClipboardUtil.getTextInClipboard()).isEqualTo(
+            "CallMatcher.staticCall(\"generate.call.matcher.UtilsKt\", \"topLevelFunction\");");
+    }
+}
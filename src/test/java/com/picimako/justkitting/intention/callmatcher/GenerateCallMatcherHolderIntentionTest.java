@@ -0,0 +1,117 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.openapi.application.ex.ClipboardUtil;
+import com.intellij.psi.PsiFile;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+import com.picimako.justkitting.intention.JustKittingIntentionTestBase;
+
+/**
+ * Integration test for {@link GenerateCallMatcherHolderIntention}.
+ */
+public class GenerateCallMatcherHolderIntentionTest extends JustKittingIntentionTestBase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    @Override
+    protected IntentionAction getIntention() {
+        return new GenerateCallMatcherHolderIntention();
+    }
+
+    //Availability
+
+    public void testAvailableOnClassName() {
+        PsiFile psiFile = myFixture.configureByText("Available.java",
+            """
+                public class Avail<caret>able {
+                }""");
+
+        checkIfAvailableIn(psiFile);
+    }
+
+    public void testNotAvailableOnMethodName() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.java",
+            """
+                public class NotAvailable {
+                    public void met<caret>hod() {
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    public void testNotAvailableForSelectionWithoutMethodCall() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.java",
+            """
+                public class NotAvailable {
+                    public void method() {
+                        <selection>int i = 0;</selection>
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    //Generation
+
+    public void testGeneratesHolderForClass() {
+        PsiFile psiFile = myFixture.configureByText("SomeClass.java",
+            """
+                package generate.call.matcher;
+                import java.util.List;
+
+                public class Some<caret>Class<T> {
+                    public SomeClass() {}
+                    public void add(String value) {}
+                    public void add(Integer value) {}
+                    public void remove(int index) {}
+                    public void remove() {}
+                    public void set(int index, List<T> values) {}
+                    public static SomeClass create() { return null; }
+                    private void helper() {}
+                }""");
+        runIntentionOn(psiFile, getIntention());
+
+        assertThat(ClipboardUtil.getTextInClipboard()).isEqualTo(
+            """
+                public final class SomeClassMatchers {
+                    public static final CallMatcher ADD = CallMatcher.instanceCall("generate.call.matcher.SomeClass", "add").parameterCount(1);
+                    public static final CallMatcher REMOVE = CallMatcher.instanceCall("generate.call.matcher.SomeClass", "remove");
+                    public static final CallMatcher SET = CallMatcher.instanceCall("generate.call.matcher.SomeClass", "set").parameterTypes("int", "java.util.List");
+                    public static final CallMatcher CREATE = CallMatcher.staticCall("generate.call.matcher.SomeClass", "create").parameterCount(0);
+                }""");
+    }
+
+    public void testGeneratesHolderForSelectedMethodCalls() {
+        PsiFile psiFile = myFixture.configureByText("Caller.java",
+            """
+                import java.util.List;
+                import java.util.Set;
+
+                public class Caller {
+                    public void method(List<String> list, Set<String> set) {
+                        <selection>list.add("a");
+                        list.add("b");
+                        list.add(0, "c");
+                        set.add("d");</selection>
+                        list.clear();
+                    }
+                }""");
+        runIntentionOn(psiFile, getIntention());
+
+        assertThat(ClipboardUtil.getTextInClipboard()).isEqualTo(
+            """
+                public final class CallMatchers {
+                    public static final CallMatcher ADD = CallMatcher.instanceCall("java.util.List", "add");
+                    public static final CallMatcher SET_ADD = CallMatcher.instanceCall("java.util.Set", "add").parameterTypes("java.lang.Object");
+                }""");
+    }
+}
@@ -0,0 +1,152 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.callmatcher;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.psi.PsiFile;
+
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+import com.picimako.justkitting.intention.JustKittingIntentionTestBase;
+
+/**
+ * Integration test for {@link ReorderCallMatcherAnyOfByUsageIntention}.
+ */
+public class ReorderCallMatcherAnyOfByUsageIntentionTest extends JustKittingIntentionTestBase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture);
+    }
+
+    @Override
+    protected IntentionAction getIntention() {
+        return new ReorderCallMatcherAnyOfByUsageIntention();
+    }
+
+    //Availability
+
+    public void testAvailableForAnyOfWithMultipleArguments() {
+        PsiFile psiFile = myFixture.configureByText("Available.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class Available {
+                    static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    static final CallMatcher SET_OF = CallMatcher.staticCall("java.util.Set", "of");
+                    static final CallMatcher ANY_OF = CallMatcher.any<caret>Of(LIST_OF, SET_OF);
+                }""");
+        checkIfAvailableIn(psiFile);
+    }
+
+    public void testNotAvailableForAnyOfWithSingleArgument() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class NotAvailable {
+                    static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+                    static final CallMatcher ANY_OF = CallMatcher.any<caret>Of(LIST_OF);
+                }""");
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    public void testNotAvailableForNonAnyOfCall() {
+        PsiFile psiFile = myFixture.configureByText("NotAvailable.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class NotAvailable {
+                    static final CallMatcher LIST_OF = CallMatcher.static<caret>Call("java.util.List", "of");
+                }""");
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    //Reordering
+
+    public void testReordersConstantReferencesByUsage() {
+        doIntentionTest("Reorder.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class Reorder {
+                    static final CallMatcher RARE = CallMatcher.instanceCall("Reorder", "rare");
+                    static final CallMatcher FREQUENT = CallMatcher.instanceCall("Reorder", "frequent").parameterCount(0);
+                    static final CallMatcher ANY_OF = CallMatcher.any<caret>Of(RARE, FREQUENT);
+
+                    void rare() {}
+                    void frequent() {}
+
+                    void caller() {
+                        rare();
+                        frequent();
+                        frequent();
+                    }
+                }""",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class Reorder {
+                    static final CallMatcher RARE = CallMatcher.instanceCall("Reorder", "rare");
+                    static final CallMatcher FREQUENT = CallMatcher.instanceCall("Reorder", "frequent").parameterCount(0);
+                    static final CallMatcher ANY_OF = CallMatcher.anyOf(FREQUENT, RARE);
+
+                    void rare() {}
+                    void frequent() {}
+
+                    void caller() {
+                        rare();
+                        frequent();
+                        frequent();
+                    }
+                }""");
+    }
+
+    public void testReordersInlineFactoryCallsAndMovesUnknownToTheEnd() {
+        doIntentionTest("Reorder.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class Reorder {
+                    static CallMatcher nonFinal = CallMatcher.instanceCall("Reorder", "frequent");
+                    static final CallMatcher ANY_OF = CallMatcher.any<caret>Of(
+                        nonFinal,
+                        CallMatcher.instanceCall("Reorder", "rare"),
+                        CallMatcher.anyOf(CallMatcher.instanceCall("Reorder", "frequent"), CallMatcher.instanceCall("Reorder", "other")));
+
+                    void rare() {}
+                    void frequent() {}
+                    void other() {}
+
+                    void caller() {
+                        rare();
+                        rare();
+                        frequent();
+                        other();
+                        other();
+                    }
+                }""",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class Reorder {
+                    static CallMatcher nonFinal = CallMatcher.instanceCall("Reorder", "frequent");
+                    static final CallMatcher ANY_OF = CallMatcher.anyOf(
+                        CallMatcher.anyOf(CallMatcher.instanceCall("Reorder", "frequent"), CallMatcher.instanceCall("Reorder", "other")),
+                        CallMatcher.instanceCall("Reorder", "rare"),
+                        nonFinal);
+
+                    void rare() {}
+                    void frequent() {}
+                    void other() {}
+
+                    void caller() {
+                        rare();
+                        rare();
+                        frequent();
+                        other();
+                        other();
+                    }
+                }""");
+    }
+}
@@ -1,6 +1,8 @@
 //Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.picimako.justkitting.reference
 
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiMethod
 import com.intellij.psi.PsiPolyVariantReference
@@ -243,4 +245,109 @@ class CallMatcherReferenceContributorTest : JustKittingTestBase() {
         assertThat((resolveResults[0].element as PsiMethod?)!!.getSignature(PsiSubstitutor.EMPTY)).hasToString("MethodSignatureBackedByPsiMethod: toUnsignedString([PsiType:int, PsiType:int])")
         assertThat((resolveResults[1].element as PsiMethod?)!!.getSignature(PsiSubstitutor.EMPTY)).hasToString("MethodSignatureBackedByPsiMethod: toUnsignedString([PsiType:int])")
     }
+
+    //Caching
+
+    fun testMethodReferenceResultsAreRecalculatedAfterJavaChange() {
+        myFixture.configureByText("CallMatcherChecker.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherChecker {
+                   CallMatcher callMatcher = CallMatcher.exactInstanceCall("CallMatcherChecker.Inner", "some<caret>Method");
+
+                   private static final class Inner {
+                       public void someMethod() {
+                       }
+                   }
+                }
+                """.trimIndent())
+        val element = myFixture.file.findElementAt(myFixture.caretOffset)!!.parent
+        assertThat((element.references[0] as PsiPolyVariantReference).multiResolve(false)).hasSize(1)
+        //Resolving again returns the cached results
+        assertThat((element.references[0] as PsiPolyVariantReference).multiResolve(false)).hasSize(1)
+
+        val innerClass = myFixture.findClass("CallMatcherChecker.Inner")
+        WriteCommandAction.runWriteCommandAction(project) {
+            innerClass.add(JavaPsiFacade.getElementFactory(project).createMethodFromText("public void someMethod(int i) {}", innerClass))
+        }
+
+        assertThat((element.references[0] as PsiPolyVariantReference).multiResolve(false)).hasSize(2)
+    }
+
+    //Completion
+
+    fun testCompletesInstanceMethodNamesFromClassAndSuperClasses() {
+        myFixture.configureByText("CallMatcherChecker.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherChecker {
+                   CallMatcher callMatcher = CallMatcher.instanceCall("CallMatcherChecker.Inner", "some<caret>");
+
+                   private static final class Inner extends SuperInner {
+                       public void someMethod() {
+                       }
+                       public void someMethod(int i) {
+                       }
+                       public static void someStaticMethod() {
+                       }
+                   }
+
+                   private static class SuperInner {
+                       public void someSuperMethod() {
+                      }
+                   }
+                }
+                """.trimIndent())
+        myFixture.completeBasic()
+        assertThat(myFixture.lookupElementStrings).containsExactlyInAnyOrder("someMethod", "someSuperMethod")
+    }
+
+    fun testCompletesExactInstanceMethodNames() {
+        myFixture.configureByText("CallMatcherChecker.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherChecker {
+                   CallMatcher callMatcher = CallMatcher.exactInstanceCall("CallMatcherChecker.Inner", "some<caret>");
+
+                   private static final class Inner extends SuperInner {
+                       public void someMethod() {
+                       }
+                       public void someOtherMethod() {
+                       }
+                   }
+
+                   private static class SuperInner {
+                       public void someSuperMethod() {
+                      }
+                   }
+                }
+                """.trimIndent())
+        myFixture.completeBasic()
+        assertThat(myFixture.lookupElementStrings).containsExactlyInAnyOrder("someMethod", "someOtherMethod")
+    }
+
+    fun testCompletesStaticMethodNames() {
+        myFixture.configureByText("CallMatcherChecker.java",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher;
+
+                public class CallMatcherChecker {
+                   CallMatcher callMatcher = CallMatcher.staticCall("CallMatcherChecker.Inner", "some<caret>");
+
+                   private static final class Inner {
+                       public void someMethod() {
+                       }
+                       public static void someStaticMethod() {
+                       }
+                       public static void someOtherStaticMethod() {
+                       }
+                   }
+                }
+                """.trimIndent())
+        myFixture.completeBasic()
+        assertThat(myFixture.lookupElementStrings).containsExactlyInAnyOrder("someStaticMethod", "someOtherStaticMethod")
+    }
 }
@@ -0,0 +1,100 @@
+//Copyright 2024 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.picimako.justkitting.reference
+
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.PsiPolyVariantReference
+import com.intellij.psi.util.PsiTreeUtil
+import com.picimako.justkitting.JustKittingTestBase
+import com.picimako.justkitting.ThirdPartyLibraryLoader
+import org.assertj.core.api.Assertions.assertThat
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+
+/**
+ * Functional test for [KotlinCallMatcherReferenceContributor].
+ */
+class KotlinCallMatcherReferenceContributorTest : JustKittingTestBase() {
+
+    @Throws(Exception::class)
+    override fun setUp() {
+        super.setUp()
+        ThirdPartyLibraryLoader.loadJavaImpl(myFixture)
+    }
+
+    //Class reference
+
+    fun testClassReference() {
+        myFixture.configureByText("CallMatcherChecker.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                class CallMatcherChecker {
+                   val callMatcher = CallMatcher.instanceCall("java.uti<caret>l.List", "add")
+                }
+                """.trimIndent())
+        val resolveResults = multiResolveAtCaret()
+        assertThat(resolveResults).hasSize(1)
+        assertThat((resolveResults[0].element as PsiClass).qualifiedName).isEqualTo("java.util.List")
+    }
+
+    fun testNoClassReferenceForNonExistentClass() {
+        myFixture.configureByText("CallMatcherChecker.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                class CallMatcherChecker {
+                   val callMatcher = CallMatcher.instanceCall("com.nonexis<caret>tent.Class", "add")
+                }
+                """.trimIndent())
+        assertThat(stringAtCaret().references).isEmpty()
+    }
+
+    //Method reference
+
+    fun testMethodReference() {
+        myFixture.configureByText("CallMatcherChecker.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                const val JAVA_UTIL_LIST = "java.util.List"
+
+                class CallMatcherChecker {
+                   val callMatcher = CallMatcher.exactInstanceCall(JAVA_UTIL_LIST, "isEm<caret>pty")
+                }
+                """.trimIndent())
+        val resolveResults = multiResolveAtCaret()
+        assertThat(resolveResults).hasSize(1)
+        assertThat((resolveResults[0].element as PsiMethod).name).isEqualTo("isEmpty")
+    }
+
+    fun testNoMethodReferenceForStaticCallOnInstanceMethod() {
+        myFixture.configureByText("CallMatcherChecker.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                class CallMatcherChecker {
+                   val callMatcher = CallMatcher.staticCall("java.lang.String", "cha<caret>rs")
+                }
+                """.trimIndent())
+        assertThat(multiResolveAtCaret()).isEmpty()
+    }
+
+    //Completion
+
+    fun testCompletesStaticMethodNames() {
+        myFixture.configureByText("CallMatcherChecker.kt",
+            """
+                import com.siyeh.ig.callMatcher.CallMatcher
+
+                class CallMatcherChecker {
+                   val callMatcher = CallMatcher.staticCall("java.lang.String", "valueO<caret>")
+                }
+                """.trimIndent())
+        myFixture.completeBasic()
+        assertThat(myFixture.lookupElementStrings).containsExactly("valueOf")
+    }
+
+    private fun stringAtCaret() = PsiTreeUtil.getParentOfType(myFixture.file.findElementAt(myFixture.caretOffset), KtStringTemplateExpression::class.java)!!
+
+    private fun multiResolveAtCaret() = (stringAtCaret().references[0] as PsiPolyVariantReference).multiResolve(false)
+}
@@ -0,0 +1,11 @@
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+public class DuplicateMatchers {
+    private static final String JAVA_UTIL_LIST = "java.util.List";
+
+    private static final CallMatcher LIST_OF = CallMatcher.staticCall(JAVA_UTIL_LIST, "of");
+    private static final CallMatcher LIST_ADD = CallMatcher.instanceCall("java.util.List", "addAll", "add").parameterCount(1);
+    private static final CallMatcher LIST_ADD_NO_PARAM_COUNT = CallMatcher.instanceCall("java.util.List", "add", "addAll");
+    private static final CallMatcher LIST_ADD_EXACT = CallMatcher.exactInstanceCall("java.util.List", "add", "addAll").parameterCount(1);
+    private final CallMatcher nonConstant = CallMatcher.staticCall("java.util.List", "of");
+}
@@ -0,0 +1,6 @@
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+public class SharedMatchers {
+    public static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+    public static final CallMatcher LIST_ADD = CallMatcher.instanceCall("java.util.List", "add", "addAll").parameterCount(1);
+}
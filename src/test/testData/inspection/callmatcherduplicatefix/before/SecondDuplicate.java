@@ -0,0 +1,5 @@
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+public class SecondDuplicate {
+    private static final CallMatcher LIST_FACTORY = CallMatcher.staticCall("java.util.List", "of");
+}
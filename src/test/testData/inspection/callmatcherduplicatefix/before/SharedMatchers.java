@@ -0,0 +1,5 @@
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+public class SharedMatchers {
+    public static final CallMatcher LIST_OF = CallMatcher.staticCall("java.util.List", "of");
+}
@@ -0,0 +1,11 @@
+import com.siyeh.ig.callMatcher.CallMatcher;
+
+public class CallMatcherChecker {
+    private static final String JAVA_UTIL_LIST = "java.util.List";
+
+    CallMatcher instance1 = CallMatcher.instanceCall("java.util.List", "add", "clear");
+    CallMatcher instance2 = CallMatcher.instanceCall(JAVA_UTIL_LIST, "asdasd");
+    CallMatcher exactInstance = CallMatcher.exactInstanceCall("java.util.List", "removeIf");
+    CallMatcher staticCall = CallMatcher.staticCall("java.lang.String", "chars");
+    CallMatcher nonExistentClass = CallMatcher.instanceCall("java.util.NonExistentList", "add");
+}